@@ -0,0 +1,73 @@
+package com.jasonclawson.jackson.dataformat.hocon.benchmarks;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jasonclawson.jackson.dataformat.hocon.HoconTreeTraversingParser;
+import com.typesafe.config.ConfigBeanFactory;
+import com.typesafe.config.ConfigFactory;
+
+/**
+ * End to end <code>ObjectMapper.readValue</code> into a POJO, a
+ * <code>Map</code> and a <code>JsonNode</code>. The <code>json*</code>
+ * benchmarks bind the same (resolved) content from plain JSON and
+ * <code>configBeanFactory</code> binds it with Typesafe's own bean binder,
+ * to show the overhead this format adds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BindingBenchmark {
+
+    @Benchmark
+    public Settings hoconPojo(ConfigState state) throws IOException {
+        return state.hoconMapper.readValue(state.hocon, Settings.class);
+    }
+
+    @Benchmark
+    public Map<?, ?> hoconMap(ConfigState state) throws IOException {
+        return state.hoconMapper.readValue(state.hocon, Map.class);
+    }
+
+    @Benchmark
+    public JsonNode hoconTree(ConfigState state) throws IOException {
+        return state.hoconMapper.readTree(state.hocon);
+    }
+
+    @Benchmark
+    public Settings hoconPojoResolvedTree(ConfigState state) throws IOException {
+        return state.hoconMapper.readValue(new HoconTreeTraversingParser(state.resolved), Settings.class);
+    }
+
+    @Benchmark
+    public Settings jsonPojo(ConfigState state) throws IOException {
+        return state.jsonMapper.readValue(state.jsonBytes, Settings.class);
+    }
+
+    @Benchmark
+    public Map<?, ?> jsonMap(ConfigState state) throws IOException {
+        return state.jsonMapper.readValue(state.jsonBytes, Map.class);
+    }
+
+    @Benchmark
+    public JsonNode jsonTree(ConfigState state) throws IOException {
+        return state.jsonMapper.readTree(state.jsonBytes);
+    }
+
+    @Benchmark
+    public Settings configBeanFactory(ConfigState state) {
+        return ConfigBeanFactory.create(ConfigFactory.parseString(state.hocon).resolve(), Settings.class);
+    }
+}
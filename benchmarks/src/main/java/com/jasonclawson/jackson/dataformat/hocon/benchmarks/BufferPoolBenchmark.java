@@ -0,0 +1,123 @@
+package com.jasonclawson.jackson.dataformat.hocon.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.jasonclawson.jackson.dataformat.hocon.HoconBufferPool;
+import com.jasonclawson.jackson.dataformat.hocon.HoconFactory;
+import com.jasonclawson.jackson.dataformat.hocon.HoconParserFeature;
+
+/**
+ * Parsing small documents from streams with a thread per document, as
+ * with virtual threads, under each kind of {@link HoconBufferPool}. Every
+ * operation starts <code>tasks</code> short-lived threads and waits for
+ * them. The threads are gone before <code>-prof gc</code> looks at them, so
+ * the bytes they allocate while parsing are counted here instead:
+ * <code>allocatedBytes</code> over <code>parses</code> is the allocation
+ * per document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BufferPoolBenchmark {
+
+    @Param({"threadLocal", "shared", "striped"})
+    public String pool;
+
+    @Param({"64"})
+    public int tasks;
+
+    private HoconFactory factory;
+
+    private byte[] document;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Allocation {
+        public long allocatedBytes;
+
+        public long parses;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Setup
+    public void setup() {
+        HoconBufferPool p;
+        if ("shared".equals(pool)) {
+            p = new HoconBufferPool.SharedPool();
+        } else if ("striped".equals(pool)) {
+            p = new HoconBufferPool.StripedPool();
+        } else {
+            p = HoconBufferPool.ThreadLocalPool.INSTANCE;
+        }
+        factory = new HoconFactory().setBufferPool(p);
+        factory.enable(HoconParserFeature.PREFER_STREAMING);
+        document = "service { name = api, port = 8080, hosts = [a, b, c] }\ntimeout = 30s\n"
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public long threadPerTask(Allocation allocation) throws InterruptedException {
+        final AtomicLong sum = new AtomicLong();
+        final AtomicLong allocated = new AtomicLong();
+        Thread[] threads = new Thread[tasks];
+        for (int i = 0; i < tasks; ++i) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        long start = allocatedBytes();
+                        sum.addAndGet(drain(factory.createTextParser(new ByteArrayInputStream(document))));
+                        allocated.addAndGet(allocatedBytes() - start);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        allocation.allocatedBytes += allocated.get();
+        allocation.parses += tasks;
+        return sum.get();
+    }
+
+    private static long drain(JsonParser p) throws IOException {
+        long count = 0L;
+        try {
+            while (p.nextToken() != null) {
+                ++count;
+            }
+        } finally {
+            p.close();
+        }
+        return count;
+    }
+}
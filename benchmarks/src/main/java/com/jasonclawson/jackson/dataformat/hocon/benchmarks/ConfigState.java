@@ -0,0 +1,91 @@
+package com.jasonclawson.jackson.dataformat.hocon.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jasonclawson.jackson.dataformat.hocon.HoconDocument;
+import com.jasonclawson.jackson.dataformat.hocon.HoconFactory;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigObject;
+
+/**
+ * Synthetic input shared by all benchmarks, in every shape the factory
+ * accepts. See {@link SyntheticConfig} for the meaning of the parameters.
+ */
+@State(Scope.Benchmark)
+public class ConfigState {
+
+    @Param({"3", "5"})
+    public int depth;
+
+    @Param({"4"})
+    public int width;
+
+    @Param({"16"})
+    public int arraySize;
+
+    @Param({"0.0", "0.5"})
+    public double substitutionDensity;
+
+    public HoconFactory hoconFactory;
+    public ObjectMapper hoconMapper;
+    public ObjectMapper jsonMapper;
+
+    public String hocon;
+    public byte[] hoconBytes;
+    public File hoconFile;
+    public URL hoconUrl;
+    public File snapshotFile;
+    public ConfigObject resolved;
+    public HoconDocument document;
+
+    public String json;
+    public byte[] jsonBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        hoconFactory = new HoconFactory();
+        hoconMapper = new ObjectMapper(hoconFactory);
+        jsonMapper = new ObjectMapper();
+
+        hocon = SyntheticConfig.hocon(depth, width, arraySize, substitutionDensity);
+        hoconBytes = hocon.getBytes(StandardCharsets.UTF_8);
+        hoconFile = File.createTempFile("synthetic", ".conf");
+        OutputStream out = new FileOutputStream(hoconFile);
+        try {
+            out.write(hoconBytes);
+        } finally {
+            out.close();
+        }
+        hoconUrl = hoconFile.toURI().toURL();
+        snapshotFile = File.createTempFile("synthetic", ".snapshot");
+        snapshotFile.delete(); // written by the first snapshot parser
+        resolved = ConfigFactory.parseString(hocon).resolve().root();
+        document = new HoconDocument(resolved);
+
+        json = SyntheticConfig.json(hocon);
+        jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (hoconFile != null) {
+            hoconFile.delete();
+        }
+        if (snapshotFile != null) {
+            snapshotFile.delete();
+        }
+    }
+}
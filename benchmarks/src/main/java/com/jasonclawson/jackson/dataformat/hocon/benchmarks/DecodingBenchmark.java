@@ -0,0 +1,103 @@
+package com.jasonclawson.jackson.dataformat.hocon.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jasonclawson.jackson.dataformat.hocon.HoconBufferPool;
+import com.jasonclawson.jackson.dataformat.hocon.UTF8Reader;
+
+/**
+ * Throughput of decoding UTF-8 input into chars with {@link UTF8Reader},
+ * for ASCII-only and mixed-script documents, and with several sizes of the
+ * byte buffer streams are read into. The JDK decoder is the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecodingBenchmark {
+
+    /**
+     * Share of values written in non-Latin scripts, from 0 (ASCII only) to 1
+     */
+    @Param({"0.0", "0.1", "1.0"})
+    public double nonAscii;
+
+    @Param({"8000", "65536"})
+    public int bufferSize;
+
+    @Param({"1048576"})
+    public int documentBytes;
+
+    private byte[] bytes;
+
+    private char[] chars;
+
+    @Setup
+    public void setup() {
+        final String[] words = { "grüße", "日本語の設定", "значение", "τιμή" };
+        Random random = new Random(17);
+        StringBuilder sb = new StringBuilder();
+        int i = 0;
+        while (sb.length() < documentBytes) {
+            sb.append("service-").append(i).append(".description = \"");
+            if (random.nextDouble() < nonAscii) {
+                sb.append(words[random.nextInt(words.length)]);
+            } else {
+                sb.append("plain ascii value ").append(i);
+            }
+            sb.append("\"\n");
+            ++i;
+        }
+        bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        chars = new char[4000];
+    }
+
+    @Benchmark
+    public long utf8ReaderBytes() throws IOException {
+        return drain(new UTF8Reader(bytes, 0, bytes.length, true));
+    }
+
+    @Benchmark
+    public long utf8ReaderStream() throws IOException {
+        return drain(new UTF8Reader(new ByteArrayInputStream(bytes), true, bufferSize,
+                HoconBufferPool.ThreadLocalPool.INSTANCE));
+    }
+
+    @Benchmark
+    public long jdkBaseline() throws IOException {
+        return drain(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8));
+    }
+
+    private long drain(Reader r) throws IOException {
+        long sum = 0L;
+        try {
+            int count;
+            while ((count = r.read(chars, 0, chars.length)) >= 0) {
+                sum += count + chars[0];
+            }
+        } finally {
+            r.close();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,64 @@
+package com.jasonclawson.jackson.dataformat.hocon.benchmarks;
+
+import java.util.List;
+
+/**
+ * A node of the tree generated by {@link SyntheticConfig}.
+ */
+public class Node {
+
+    private String name;
+    private int id;
+    private double weight;
+    private boolean enabled;
+    private List<Integer> values;
+    private List<Node> children;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(double weight) {
+        this.weight = weight;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<Integer> getValues() {
+        return values;
+    }
+
+    public void setValues(List<Integer> values) {
+        this.values = values;
+    }
+
+    public List<Node> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<Node> children) {
+        this.children = children;
+    }
+}
@@ -0,0 +1,125 @@
+package com.jasonclawson.jackson.dataformat.hocon.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.jasonclawson.jackson.dataformat.hocon.HoconTreeTraversingParser;
+
+/**
+ * Cost of <code>createParser</code> for each kind of input (which includes
+ * parsing and resolving the document, or reading a snapshot of it), and raw <code>nextToken()</code>
+ * throughput over an already resolved tree, with plain Jackson JSON as
+ * baseline. Run <code>nextTokenReusedParser</code> with <code>-prof gc</code>
+ * to check that a reset parser traverses a document without allocating.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    /**
+     * Parser reset for every traversal, one per thread
+     */
+    @State(Scope.Thread)
+    public static class ReusedParser {
+        public HoconTreeTraversingParser parser;
+
+        @Setup(Level.Trial)
+        public void setUp(ConfigState state) {
+            parser = state.document.createParser(null);
+        }
+    }
+
+    @Benchmark
+    public JsonParser createParserString(ConfigState state) throws IOException {
+        return closed(state.hoconFactory.createParser(state.hocon));
+    }
+
+    @Benchmark
+    public JsonParser createParserBytes(ConfigState state) throws IOException {
+        return closed(state.hoconFactory.createParser(state.hoconBytes));
+    }
+
+    @Benchmark
+    public JsonParser createParserInputStream(ConfigState state) throws IOException {
+        return closed(state.hoconFactory.createParser(new ByteArrayInputStream(state.hoconBytes)));
+    }
+
+    @Benchmark
+    public JsonParser createParserFile(ConfigState state) throws IOException {
+        return closed(state.hoconFactory.createParser(state.hoconFile));
+    }
+
+    @Benchmark
+    public JsonParser createParserUrl(ConfigState state) throws IOException {
+        return closed(state.hoconFactory.createParser(state.hoconUrl));
+    }
+
+    @Benchmark
+    public JsonParser createParserSnapshot(ConfigState state) throws IOException {
+        return closed(state.hoconFactory.createSnapshotParser(
+                Collections.singletonList(state.hoconFile), state.snapshotFile.toPath()));
+    }
+
+    @Benchmark
+    public int nextTokenResolvedTree(ConfigState state) throws IOException {
+        return drain(new HoconTreeTraversingParser(state.resolved));
+    }
+
+    @Benchmark
+    public int nextTokenDocument(ConfigState state) throws IOException {
+        return drain(state.document.createParser(null));
+    }
+
+    @Benchmark
+    public int nextTokenReusedParser(ConfigState state, ReusedParser reused) throws IOException {
+        reused.parser.reset(state.document);
+        return drain(reused.parser);
+    }
+
+    @Benchmark
+    public int nextTokenFromString(ConfigState state) throws IOException {
+        return drain(state.hoconFactory.createParser(state.hocon));
+    }
+
+    @Benchmark
+    public int nextTokenJsonBaseline(ConfigState state) throws IOException {
+        return drain(state.jsonMapper.getFactory().createParser(state.jsonBytes));
+    }
+
+    private static JsonParser closed(JsonParser parser) throws IOException {
+        parser.close();
+        return parser;
+    }
+
+    private static int drain(JsonParser parser) throws IOException {
+        int count = 0;
+        try {
+            JsonToken t;
+            while ((t = parser.nextToken()) != null) {
+                count += t.ordinal();
+            }
+        } finally {
+            parser.close();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,41 @@
+package com.jasonclawson.jackson.dataformat.hocon.benchmarks;
+
+/**
+ * Root of the documents generated by {@link SyntheticConfig}. Written as a
+ * JavaBean so that it can be bound by both Jackson and
+ * {@link com.typesafe.config.ConfigBeanFactory}.
+ */
+public class Settings {
+
+    private Defaults defaults;
+    private Node root;
+
+    public Defaults getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Defaults defaults) {
+        this.defaults = defaults;
+    }
+
+    public Node getRoot() {
+        return root;
+    }
+
+    public void setRoot(Node root) {
+        this.root = root;
+    }
+
+    public static class Defaults {
+
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
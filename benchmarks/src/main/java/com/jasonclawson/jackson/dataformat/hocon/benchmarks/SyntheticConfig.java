@@ -0,0 +1,99 @@
+package com.jasonclawson.jackson.dataformat.hocon.benchmarks;
+
+import java.util.Random;
+
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigRenderOptions;
+
+/**
+ * Generates synthetic HOCON documents shaped like {@link Settings}.
+ * <p>
+ * The document has a <code>defaults</code> section and a <code>root</code>
+ * tree of {@link Node}s, <code>depth</code> levels deep with
+ * <code>width</code> children per node and <code>arraySize</code> values per
+ * node. <code>substitutionDensity</code> is the fraction of nodes whose name
+ * is built from a <code>${defaults.name}</code> substitution.
+ * Generation is deterministic for a given set of parameters.
+ */
+public final class SyntheticConfig {
+
+    private final int depth;
+    private final int width;
+    private final int arraySize;
+    private final double substitutionDensity;
+
+    private final Random random = new Random(42);
+    private int nextId;
+
+    private SyntheticConfig(int depth, int width, int arraySize, double substitutionDensity) {
+        this.depth = depth;
+        this.width = width;
+        this.arraySize = arraySize;
+        this.substitutionDensity = substitutionDensity;
+    }
+
+    /**
+     * @return the HOCON text of the generated document
+     */
+    public static String hocon(int depth, int width, int arraySize, double substitutionDensity) {
+        return new SyntheticConfig(depth, width, arraySize, substitutionDensity).render();
+    }
+
+    /**
+     * @return the resolved document rendered as plain JSON, for baselines
+     */
+    public static String json(String hocon) {
+        return ConfigFactory.parseString(hocon).resolve().root().render(ConfigRenderOptions.concise());
+    }
+
+    private String render() {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append("# synthetic configuration\n");
+        sb.append("defaults {\n  name = node\n}\n");
+        sb.append("root ");
+        node(sb, 0, 0);
+        sb.append('\n');
+        return sb.toString();
+    }
+
+    private void node(StringBuilder sb, int level, int indent) {
+        int id = nextId++;
+        sb.append("{\n");
+        pad(sb, indent + 2);
+        if (random.nextDouble() < substitutionDensity) {
+            sb.append("name = ${defaults.name}\"-").append(id).append("\"\n");
+        } else {
+            sb.append("name = \"node-").append(id).append("\"\n");
+        }
+        pad(sb, indent + 2).append("id = ").append(id).append('\n');
+        pad(sb, indent + 2).append("weight = ").append(random.nextInt(10000) / 100.0).append('\n');
+        pad(sb, indent + 2).append("enabled = ").append(id % 2 == 0).append('\n');
+        pad(sb, indent + 2).append("values = [");
+        for (int i = 0; i < arraySize; ++i) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(random.nextInt(1000000));
+        }
+        sb.append("]\n");
+        pad(sb, indent + 2).append("children = [");
+        if (level + 1 < depth) {
+            for (int i = 0; i < width; ++i) {
+                sb.append(i == 0 ? "\n" : ",\n");
+                pad(sb, indent + 4);
+                node(sb, level + 1, indent + 4);
+            }
+            sb.append('\n');
+            pad(sb, indent + 2);
+        }
+        sb.append("]\n");
+        pad(sb, indent).append('}');
+    }
+
+    private static StringBuilder pad(StringBuilder sb, int indent) {
+        for (int i = 0; i < indent; ++i) {
+            sb.append(' ');
+        }
+        return sb;
+    }
+}
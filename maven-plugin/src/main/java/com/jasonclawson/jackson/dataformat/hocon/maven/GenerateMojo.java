@@ -0,0 +1,110 @@
+package com.jasonclawson.jackson.dataformat.hocon.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Generates a class building the object a HOCON file binds to, see
+ * {@link HoconSourceGenerator}, and adds it to the sources to compile. The
+ * type to bind to is loaded from the compile classpath of the project, so
+ * it must come from a dependency: the classes of the project itself are not
+ * compiled yet when sources are generated.
+ */
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES,
+        requiresDependencyResolution = ResolutionScope.COMPILE, threadSafe = true)
+public class GenerateMojo extends AbstractMojo {
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    protected MavenProject project;
+
+    /**
+     * HOCON file to bind
+     */
+    @Parameter(required = true)
+    protected File source;
+
+    /**
+     * Fully qualified name of the type to bind the file to
+     */
+    @Parameter(required = true)
+    protected String type;
+
+    /**
+     * Fully qualified name of the class to generate
+     */
+    @Parameter(required = true)
+    protected String className;
+
+    @Parameter(defaultValue = "${project.build.directory}/generated-sources/hocon", required = true)
+    protected File outputDirectory;
+
+    @Override
+    public void execute() throws MojoExecutionException
+    {
+        File target = new File(outputDirectory, className.replace('.', File.separatorChar) + ".java");
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        // includes on the classpath are looked up through the context loader
+        URLClassLoader loader = new URLClassLoader(_classpath(), getClass().getClassLoader());
+        thread.setContextClassLoader(loader);
+        try {
+            Class<?> bound;
+            try {
+                bound = Class.forName(type, false, loader);
+            } catch (ClassNotFoundException e) {
+                throw new MojoExecutionException("Type "+type+" not found on the compile classpath;"
+                        +" it must come from a dependency of the project", e);
+            }
+            String code = new HoconSourceGenerator().generate(source, bound, className);
+            byte[] bytes = code.getBytes(StandardCharsets.UTF_8);
+            // leave an unchanged file alone, not to recompile it
+            if (!target.isFile() || !Arrays.equals(bytes, Files.readAllBytes(target.toPath()))) {
+                Files.createDirectories(target.getParentFile().toPath());
+                Files.write(target.toPath(), bytes);
+                getLog().info("Generated "+className+" from "+source);
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Can not generate "+className+" from "+source+": "+e.getMessage(), e);
+        } finally {
+            thread.setContextClassLoader(previous);
+            try {
+                loader.close();
+            } catch (IOException e) {
+                getLog().debug(e);
+            }
+        }
+        project.addCompileSourceRoot(outputDirectory.getPath());
+    }
+
+    protected URL[] _classpath() throws MojoExecutionException
+    {
+        try {
+            List<String> elements = project.getCompileClasspathElements();
+            URL[] urls = new URL[elements.size()];
+            for (int i = 0; i < urls.length; ++i) {
+                urls[i] = new File(elements.get(i)).toURI().toURL();
+            }
+            return urls;
+        } catch (DependencyResolutionRequiredException e) {
+            throw new MojoExecutionException("Compile classpath not resolved", e);
+        } catch (MalformedURLException e) {
+            throw new MojoExecutionException("Invalid compile classpath element", e);
+        }
+    }
+}
@@ -0,0 +1,920 @@
+package com.jasonclawson.jackson.dataformat.hocon.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.AnnotationIntrospector;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedConstructor;
+import com.fasterxml.jackson.databind.introspect.AnnotatedField;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMethod;
+import com.fasterxml.jackson.databind.introspect.AnnotatedParameter;
+import com.fasterxml.jackson.databind.introspect.AnnotatedWithParams;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.jasonclawson.jackson.dataformat.hocon.HoconFactory;
+import com.jasonclawson.jackson.dataformat.hocon.NumericIndexDetector;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigList;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigRenderOptions;
+import com.typesafe.config.ConfigResolveOptions;
+import com.typesafe.config.ConfigUtil;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.ConfigValueFactory;
+import com.typesafe.config.ConfigValueType;
+
+/**
+ * Generates the Java source of a class building the object that binding a
+ * HOCON file to a type with {@link HoconFactory} gives, out of constructor
+ * calls, setters and constants: creating it at runtime involves no parsing
+ * and no reflection.
+ * <p>
+ * The file is parsed, resolved and bound as at runtime first, so that
+ * generation fails wherever binding would. Values depending on environment
+ * variables, through substitutions such as <code>${?PORT}</code>, are
+ * looked up when the generated code runs, falling back to what the file
+ * gives without the variable. Within a longer string an unset variable of
+ * an otherwise resolvable value reads as empty, as with an optional
+ * substitution.
+ * <p>
+ * Bound types must be beans with a public default constructor or
+ * <code>@JsonCreator</code>, and public setters or fields; scalars, enums,
+ * arrays, collections, maps with string or enum keys and untyped values
+ * are supported in them. Custom and polymorphic deserialization are not.
+ */
+public class HoconSourceGenerator {
+
+    /**
+     * Prefix of the value substituted for an environment variable while
+     * resolving, followed by its name and {@link #MARKER_END}
+     */
+    private final static String MARKER = "\u0000env:";
+
+    private final static char MARKER_END = '\u0000';
+
+    private final static Pattern MARKERS = Pattern.compile("\u0000env:([^\u0000]*)\u0000");
+
+    private final static Pattern SUBSTITUTIONS = Pattern.compile("\\$\\{\\??([^}]+)\\}");
+
+    private final static Map<Class<?>, Class<?>> COLLECTION_DEFAULTS = new HashMap<Class<?>, Class<?>>();
+    private final static Map<Class<?>, Class<?>> MAP_DEFAULTS = new HashMap<Class<?>, Class<?>>();
+    static {
+        // same as Jackson's defaults for abstract types
+        COLLECTION_DEFAULTS.put(Collection.class, ArrayList.class);
+        COLLECTION_DEFAULTS.put(List.class, ArrayList.class);
+        COLLECTION_DEFAULTS.put(Set.class, java.util.HashSet.class);
+        COLLECTION_DEFAULTS.put(java.util.SortedSet.class, java.util.TreeSet.class);
+        COLLECTION_DEFAULTS.put(java.util.NavigableSet.class, java.util.TreeSet.class);
+        COLLECTION_DEFAULTS.put(java.util.Queue.class, java.util.LinkedList.class);
+        COLLECTION_DEFAULTS.put(java.util.Deque.class, java.util.LinkedList.class);
+        MAP_DEFAULTS.put(Map.class, LinkedHashMap.class);
+        MAP_DEFAULTS.put(java.util.SortedMap.class, TreeMap.class);
+        MAP_DEFAULTS.put(java.util.NavigableMap.class, TreeMap.class);
+        MAP_DEFAULTS.put(java.util.concurrent.ConcurrentMap.class, java.util.concurrent.ConcurrentHashMap.class);
+        MAP_DEFAULTS.put(java.util.concurrent.ConcurrentNavigableMap.class,
+                java.util.concurrent.ConcurrentSkipListMap.class);
+    }
+
+    protected final ObjectMapper _mapper;
+
+    public HoconSourceGenerator() {
+        this(new ObjectMapper(new HoconFactory()));
+    }
+
+    /**
+     * @param mapper mapper over a {@link HoconFactory}, configured as the one
+     *   the generated code replaces
+     */
+    public HoconSourceGenerator(ObjectMapper mapper) {
+        _mapper = mapper;
+    }
+
+    /*
+    /**********************************************************
+    /* Public API
+    /**********************************************************
+     */
+
+    /**
+     * @param source HOCON file to bind
+     * @param type type to bind it to
+     * @param className fully qualified name of the class to generate; its
+     *   static <code>create()</code> method returns a new instance of the
+     *   type on each call
+     * @return source of the class
+     * @throws JsonMappingException if the file can not be bound to the type,
+     *   or the type not be built without reflection
+     */
+    public String generate(File source, Class<?> type, String className) throws IOException
+    {
+        // same parse, resolve and binding as at runtime, for their errors
+        _mapper.readValue(source, type);
+
+        Config parsed = ConfigFactory.parseFile(source);
+        Set<String> variables = _environmentVariables(parsed);
+        Map<String, Object> markers = new HashMap<String, Object>();
+        for (String name : variables) {
+            markers.put(name, MARKER + name + MARKER_END);
+        }
+        // every variable resolves to its marker: values holding markers are
+        // those to look up at runtime
+        ConfigObject live = parsed.withFallback(ConfigValueFactory.fromMap(markers))
+                .resolve(ConfigResolveOptions.noSystem()).root();
+        for (String name : variables) {
+            live = live.withoutKey(name);
+        }
+        // and without them: the values to fall back to
+        ConfigObject fallback = parsed.resolve(ConfigResolveOptions.noSystem().setAllowUnresolved(true)).root();
+
+        Generation gen = new Generation();
+        String root = _value(gen, _mapper.constructType(type), live, fallback, "");
+
+        int dot = className.lastIndexOf('.');
+        StringBuilder sb = new StringBuilder();
+        if (dot > 0) {
+            sb.append("package ").append(className.substring(0, dot)).append(";\n\n");
+        }
+        sb.append("/**\n * Builds the configuration bound from ").append(_comment(source.getName()))
+            .append(".\n * Generated by the HOCON Maven plugin, do not edit.\n */\n");
+        sb.append("public final class ").append(className.substring(dot + 1)).append(" {\n\n");
+        sb.append("    private ").append(className.substring(dot + 1)).append("() { }\n\n");
+        sb.append("    /**\n     * @return a new instance of the configuration\n     */\n");
+        sb.append("    public static ").append(_typeName(_mapper.constructType(type))).append(" create() {\n");
+        sb.append("        return ").append(root).append(";\n    }\n");
+        sb.append(gen.methods);
+        if (gen.usesEnvironment) {
+            sb.append("\n    private static String _env(String name, String fallback) {\n")
+                .append("        String value = System.getenv(name);\n")
+                .append("        if (value != null) {\n")
+                .append("            return value;\n")
+                .append("        }\n")
+                .append("        if (fallback == null) {\n")
+                .append("            throw new IllegalStateException(\"Environment variable \"+name+\" is not set\");\n")
+                .append("        }\n")
+                .append("        return fallback;\n")
+                .append("    }\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /*
+    /**********************************************************
+    /* Values
+    /**********************************************************
+     */
+
+    /**
+     * @param live value resolved with markers for environment variables
+     * @param fallback value resolved without environment variables, null if
+     *   there is none; may be unresolved
+     * @return expression building the value
+     */
+    protected String _value(Generation gen, JavaType type, ConfigValue live, ConfigValue fallback, String path)
+        throws JsonMappingException
+    {
+        Class<?> raw = type.getRawClass();
+        if (live.valueType() == ConfigValueType.NULL) {
+            return raw.isPrimitive() ? _defaultValue(raw) : "null";
+        }
+        if (raw == Object.class || raw == Number.class) {
+            return _untyped(gen, live, fallback, path);
+        }
+        if (type.isArrayType()) {
+            return _array(gen, type, live, fallback, path);
+        }
+        if (type.isCollectionLikeType()) {
+            return _collection(gen, type, live, fallback, path);
+        }
+        if (type.isMapLikeType()) {
+            return _map(gen, type, live, fallback, path);
+        }
+        if (_isScalar(raw)) {
+            return _scalar(gen, raw, live, fallback, path);
+        }
+        return _bean(gen, type, live, fallback, path);
+    }
+
+    protected String _scalar(Generation gen, Class<?> raw, ConfigValue live, ConfigValue fallback, String path)
+        throws JsonMappingException
+    {
+        if (live.valueType() == ConfigValueType.OBJECT || live.valueType() == ConfigValueType.LIST) {
+            throw _error(path, "expected a value for "+raw.getName()+", not "+live.valueType());
+        }
+        String text = _text(live);
+        if (text.indexOf(MARKER) >= 0) {
+            return _parse(raw, _environment(gen, text, fallback), path);
+        }
+        try {
+            return _literal(raw, live, text);
+        } catch (IllegalArgumentException e) { // not the right kind of number, or no such constant
+            throw _error(path, "can not convert '"+text+"' to "+raw.getName());
+        }
+    }
+
+    protected String _bean(Generation gen, JavaType type, ConfigValue live, ConfigValue fallback, String path)
+        throws JsonMappingException
+    {
+        if (!(live instanceof ConfigObject)) {
+            throw _error(path, "expected an object for "+type.getRawClass().getName()+", not "+live.valueType());
+        }
+        ConfigObject object = (ConfigObject) live;
+        ConfigObject fallbackObject = (fallback instanceof ConfigObject) ? (ConfigObject) fallback : null;
+        DeserializationConfig config = _mapper.getDeserializationConfig();
+        AnnotationIntrospector ai = config.getAnnotationIntrospector();
+        BeanDescription desc = config.introspect(type);
+        Class<?> raw = type.getRawClass();
+        _checkAccessible(raw, path);
+        if (desc.getClassAnnotations().get(JsonTypeInfo.class) != null
+                || ai.findDeserializer(desc.getClassInfo()) != null) {
+            throw _error(path, raw.getName()+" uses custom or polymorphic deserialization");
+        }
+
+        AnnotatedWithParams creator = _creator(desc, ai);
+        String[] args = new String[(creator == null) ? 0 : creator.getParameterCount()];
+        StringBuilder body = new StringBuilder();
+        Set<String> bound = new LinkedHashSet<String>();
+        for (BeanPropertyDefinition prop : desc.findProperties()) {
+            String name = prop.getName();
+            String propPath = _path(path, name);
+            ConfigValue value = object.get(name);
+            ConfigValue fallbackValue = (fallbackObject == null) ? null : fallbackObject.get(name);
+            AnnotatedParameter param = prop.getConstructorParameter();
+            if (param != null && creator != null && param.getOwner().getMember().equals(creator.getMember())) {
+                bound.add(name);
+                JavaType t = desc.resolveType(param.getParameterType());
+                _checkDeserializer(ai, param, propPath);
+                args[param.getIndex()] = (value == null) ? _defaultValue(t.getRawClass())
+                        : _value(gen, t, value, fallbackValue, propPath);
+                continue;
+            }
+            if (value == null) {
+                continue;
+            }
+            bound.add(name);
+            String statement;
+            if (prop.hasSetter()) {
+                AnnotatedMethod setter = prop.getSetter();
+                _checkMember(setter, propPath);
+                JavaType t = desc.resolveType(setter.getGenericParameterType(0));
+                statement = "value."+setter.getName()+"("+_value(gen, t, value, fallbackValue, propPath)+");";
+            } else if (prop.hasField()) {
+                AnnotatedField field = prop.getField();
+                _checkMember(field, propPath);
+                if (Modifier.isFinal(field.getModifiers())) {
+                    throw _error(propPath, "field "+field.getName()+" is final");
+                }
+                JavaType t = desc.resolveType(field.getGenericType());
+                statement = "value."+field.getName()+" = "+_value(gen, t, value, fallbackValue, propPath)+";";
+            } else if (prop.hasGetter()) { // collections and maps filled through their getter
+                AnnotatedMethod getter = prop.getGetter();
+                _checkMember(getter, propPath);
+                JavaType t = desc.resolveType(getter.getGenericReturnType());
+                String method;
+                if (t.isCollectionLikeType()) {
+                    method = ".addAll(";
+                } else if (t.isMapLikeType()) {
+                    method = ".putAll(";
+                } else {
+                    throw _error(propPath, "property has no setter");
+                }
+                statement = "value."+getter.getName()+"()"+method+_value(gen, t, value, fallbackValue, propPath)+");";
+            } else {
+                throw _error(propPath, "property has no setter");
+            }
+            // an optional variable without a value to fall back to leaves the
+            // property unset when missing
+            String variable = _variable(value);
+            if (variable != null && fallbackObject != null && !fallbackObject.containsKey(name)) {
+                statement = "if (System.getenv("+_literal(variable)+") != null) {\n            "
+                        +statement+"\n        }";
+            }
+            body.append("        ").append(statement).append('\n');
+        }
+        if (desc.findAnySetter() != null) {
+            for (String key : object.keySet()) {
+                if (!bound.contains(key) && !desc.getIgnoredPropertyNames().contains(key)) {
+                    throw _error(_path(path, key), "values of @JsonAnySetter methods are not supported");
+                }
+            }
+        }
+
+        String typeName = _typeName(type);
+        String create;
+        if (creator == null) {
+            AnnotatedConstructor ctor = desc.findDefaultConstructor();
+            if (ctor == null) {
+                throw _error(path, raw.getName()+" has neither a default constructor nor a @JsonCreator");
+            }
+            _checkMember(ctor, path);
+            create = "new "+typeName+"()";
+        } else {
+            _checkMember(creator, path);
+            for (int i = 0; i < args.length; ++i) {
+                if (args[i] == null) {
+                    throw _error(path, "parameter "+i+" of the @JsonCreator of "+raw.getName()+" has no property name");
+                }
+            }
+            String joined = _join(args, ", ");
+            create = (creator instanceof AnnotatedConstructor)
+                    ? "new "+typeName+"("+joined+")"
+                    : _erasure(raw)+"."+creator.getName()+"("+joined+")";
+        }
+        return gen.method(typeName, "        "+typeName+" value = "+create+";\n"+body);
+    }
+
+    protected String _collection(Generation gen, JavaType type, ConfigValue live, ConfigValue fallback, String path)
+        throws JsonMappingException
+    {
+        List<ConfigValue> items = _items(live, path);
+        List<ConfigValue> fallbackItems = _fallbackItems(fallback, items.size());
+        Class<?> impl = _implementation(type.getRawClass(), COLLECTION_DEFAULTS, path);
+        JavaType element = type.getContentType();
+        String implName = _erasure(impl)+"<"+_typeName(element)+">";
+        StringBuilder body = new StringBuilder();
+        body.append("        ").append(implName).append(" value = new ").append(implName).append("();\n");
+        for (int i = 0; i < items.size(); ++i) {
+            body.append("        value.add(")
+                .append(_value(gen, element, items.get(i), _at(fallbackItems, i), _path(path, i)))
+                .append(");\n");
+        }
+        return gen.method(_typeName(type), body.toString());
+    }
+
+    protected String _array(Generation gen, JavaType type, ConfigValue live, ConfigValue fallback, String path)
+        throws JsonMappingException
+    {
+        List<ConfigValue> items = _items(live, path);
+        List<ConfigValue> fallbackItems = _fallbackItems(fallback, items.size());
+        JavaType element = type.getContentType();
+        String[] values = new String[items.size()];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = _value(gen, element, items.get(i), _at(fallbackItems, i), _path(path, i));
+        }
+        // arrays of generic types can only be created raw
+        String name = _erasure(type.getRawClass().getComponentType());
+        return "new "+name+"[] { "+_join(values, ", ")+" }";
+    }
+
+    protected String _map(Generation gen, JavaType type, ConfigValue live, ConfigValue fallback, String path)
+        throws JsonMappingException
+    {
+        if (!(live instanceof ConfigObject)) {
+            throw _error(path, "expected an object for "+type.getRawClass().getName()+", not "+live.valueType());
+        }
+        ConfigObject fallbackObject = (fallback instanceof ConfigObject) ? (ConfigObject) fallback : null;
+        Class<?> impl = _implementation(type.getRawClass(), MAP_DEFAULTS, path);
+        JavaType keyType = type.getKeyType();
+        Class<?> keyClass = keyType.getRawClass();
+        if (keyClass != String.class && keyClass != Object.class && keyClass != CharSequence.class
+                && !keyClass.isEnum()) {
+            throw _error(path, "map keys of "+keyClass.getName()+" are not supported");
+        }
+        String implName = _erasure(impl)+"<"+_typeName(keyType)+", "+_typeName(type.getContentType())+">";
+        StringBuilder body = new StringBuilder();
+        body.append("        ").append(implName).append(" value = new ").append(implName).append("();\n");
+        for (Map.Entry<String, ConfigValue> entry : ((ConfigObject) live).entrySet()) {
+            String key = entry.getKey();
+            String keyCode;
+            try {
+                keyCode = keyClass.isEnum() ? _literal(keyClass, null, key) : _literal(key);
+            } catch (IllegalArgumentException e) {
+                throw _error(path, "no constant '"+key+"' in "+keyClass.getName());
+            }
+            ConfigValue fallbackValue = (fallbackObject == null) ? null : fallbackObject.get(key);
+            body.append("        value.put(").append(keyCode).append(", ")
+                .append(_value(gen, type.getContentType(), entry.getValue(), fallbackValue, _path(path, key)))
+                .append(");\n");
+        }
+        return gen.method(_typeName(type), body.toString());
+    }
+
+    /**
+     * Values bound to {@link Object}: maps, lists, strings, numbers and
+     * booleans, as Jackson binds them.
+     */
+    protected String _untyped(Generation gen, ConfigValue live, ConfigValue fallback, String path)
+        throws JsonMappingException
+    {
+        switch (live.valueType()) {
+        case OBJECT:
+            if (!NumericIndexDetector.isNumericallyIndexedValue(live)) {
+                return _map(gen, _mapper.getTypeFactory().constructMapType(LinkedHashMap.class,
+                        String.class, Object.class), live, fallback, path);
+            }
+            // objects with index keys are presented as arrays
+            return _collection(gen, _mapper.getTypeFactory().constructCollectionType(ArrayList.class,
+                    Object.class), live, fallback, path);
+        case LIST:
+            return _collection(gen, _mapper.getTypeFactory().constructCollectionType(ArrayList.class,
+                    Object.class), live, fallback, path);
+        case BOOLEAN:
+            return _scalar(gen, Boolean.class, live, fallback, path);
+        case NUMBER:
+            Object n = live.unwrapped();
+            Class<?> raw = (n instanceof Integer) ? Integer.class : (n instanceof Long) ? Long.class : Double.class;
+            return _scalar(gen, raw, live, fallback, path);
+        default:
+            return _scalar(gen, String.class, live, fallback, path);
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Environment variables
+    /**********************************************************
+     */
+
+    /**
+     * @return names of the variables substitutions may look up in the
+     *   environment: those not found in the configuration
+     */
+    protected Set<String> _environmentVariables(Config parsed)
+    {
+        Set<String> names = new LinkedHashSet<String>();
+        Matcher m = SUBSTITUTIONS.matcher(parsed.root().render(ConfigRenderOptions.concise()));
+        while (m.find()) {
+            List<String> elements;
+            try {
+                elements = ConfigUtil.splitPath(m.group(1).trim());
+            } catch (ConfigException e) { // not a substitution after all
+                continue;
+            }
+            // paths of included files are prefixed; the environment is
+            // searched for the unprefixed, last element only
+            String name = elements.get(elements.size() - 1);
+            if (!parsed.root().containsKey(name)) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * @param text string holding markers of environment variables
+     * @return expression building the string at runtime
+     */
+    protected String _environment(Generation gen, String text, ConfigValue fallback)
+    {
+        gen.usesEnvironment = true;
+        String variable = _variable(text);
+        boolean resolved = (fallback != null) && _isResolved(fallback);
+        if (variable != null) {
+            String value = (resolved && _isScalar(fallback)) ? _literal(_text(fallback)) : "null";
+            return "_env("+_literal(variable)+", "+value+")";
+        }
+        List<String> parts = new ArrayList<String>();
+        Matcher m = MARKERS.matcher(text);
+        int last = 0;
+        while (m.find()) {
+            if (m.start() > last) {
+                parts.add(_literal(text.substring(last, m.start())));
+            }
+            parts.add("_env("+_literal(m.group(1))+", "+(resolved ? "\"\"" : "null")+")");
+            last = m.end();
+        }
+        if (last < text.length()) {
+            parts.add(_literal(text.substring(last)));
+        }
+        return "("+_join(parts.toArray(new String[parts.size()]), " + ")+")";
+    }
+
+    /**
+     * @return name of the variable if the value is just that variable
+     */
+    private static String _variable(ConfigValue value) {
+        return (value.valueType() == ConfigValueType.STRING) ? _variable((String) value.unwrapped()) : null;
+    }
+
+    private static String _variable(String text)
+    {
+        Matcher m = MARKERS.matcher(text);
+        return (m.matches()) ? m.group(1) : null;
+    }
+
+    private static boolean _isResolved(ConfigValue value)
+    {
+        try {
+            value.valueType();
+            return true;
+        } catch (ConfigException.NotResolved e) {
+            return false;
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Literals and conversions
+    /**********************************************************
+     */
+
+    private static boolean _isScalar(Class<?> raw) {
+        return raw.isPrimitive() || raw.isEnum() || raw == String.class || raw == CharSequence.class
+                || Number.class.isAssignableFrom(raw) && raw.getName().startsWith("java.")
+                || raw == Boolean.class || raw == Character.class;
+    }
+
+    private static boolean _isScalar(ConfigValue value) {
+        ConfigValueType t = value.valueType();
+        return t != ConfigValueType.OBJECT && t != ConfigValueType.LIST && t != ConfigValueType.NULL;
+    }
+
+    /**
+     * @return text of a scalar, as written for numbers and booleans
+     */
+    private static String _text(ConfigValue value) {
+        return (value.valueType() == ConfigValueType.STRING) ? (String) value.unwrapped() : value.render();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text can not be converted
+     */
+    protected String _literal(Class<?> raw, ConfigValue value, String text)
+    {
+        Object n = (value != null && value.valueType() == ConfigValueType.NUMBER) ? value.unwrapped() : null;
+        String trimmed = text.trim();
+        if (raw == String.class || raw == CharSequence.class) {
+            return _literal(text);
+        }
+        if (raw.isEnum()) {
+            for (Object constant : raw.getEnumConstants()) {
+                if (((Enum<?>) constant).name().equals(text)) {
+                    return _erasure(raw)+"."+text;
+                }
+            }
+            throw new IllegalArgumentException(text);
+        }
+        if (raw == int.class || raw == Integer.class) {
+            return String.valueOf((n instanceof Number) ? ((Number) n).intValue() : Integer.parseInt(trimmed));
+        }
+        if (raw == long.class || raw == Long.class) {
+            return String.valueOf((n instanceof Number) ? ((Number) n).longValue() : Long.parseLong(trimmed))+"L";
+        }
+        if (raw == short.class || raw == Short.class) {
+            return "(short) "+((n instanceof Number) ? ((Number) n).shortValue() : Short.parseShort(trimmed));
+        }
+        if (raw == byte.class || raw == Byte.class) {
+            return "(byte) "+((n instanceof Number) ? ((Number) n).byteValue() : Byte.parseByte(trimmed));
+        }
+        if (raw == double.class || raw == Double.class) {
+            double d = (n instanceof Number) ? ((Number) n).doubleValue() : Double.parseDouble(trimmed);
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                return Double.isNaN(d) ? "Double.NaN" : (d > 0) ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY";
+            }
+            return String.valueOf(d);
+        }
+        if (raw == float.class || raw == Float.class) {
+            float f = (n instanceof Number) ? ((Number) n).floatValue() : Float.parseFloat(trimmed);
+            if (Float.isNaN(f) || Float.isInfinite(f)) {
+                return Float.isNaN(f) ? "Float.NaN" : (f > 0) ? "Float.POSITIVE_INFINITY" : "Float.NEGATIVE_INFINITY";
+            }
+            return String.valueOf(f)+"f";
+        }
+        if (raw == boolean.class || raw == Boolean.class) {
+            if (!"true".equals(trimmed) && !"false".equals(trimmed)) {
+                throw new IllegalArgumentException(text);
+            }
+            return trimmed;
+        }
+        if (raw == char.class || raw == Character.class) {
+            if (text.length() != 1) {
+                throw new IllegalArgumentException(text);
+            }
+            return "'"+_escape(text.charAt(0), '\'')+"'";
+        }
+        if (raw == BigDecimal.class) {
+            return "new java.math.BigDecimal("+_literal(new BigDecimal(trimmed).toString())+")";
+        }
+        if (raw == BigInteger.class) {
+            return "new java.math.BigInteger("+_literal(new BigInteger(trimmed).toString())+")";
+        }
+        throw new IllegalArgumentException(raw.getName());
+    }
+
+    /**
+     * @return expression converting a string expression to the type
+     */
+    protected String _parse(Class<?> raw, String expr, String path) throws JsonMappingException
+    {
+        if (raw == String.class || raw == CharSequence.class) {
+            return expr;
+        }
+        if (raw.isEnum()) {
+            return "Enum.valueOf("+_erasure(raw)+".class, "+expr+")";
+        }
+        if (raw == int.class || raw == Integer.class) {
+            return "Integer.parseInt("+expr+".trim())";
+        }
+        if (raw == long.class || raw == Long.class) {
+            return "Long.parseLong("+expr+".trim())";
+        }
+        if (raw == short.class || raw == Short.class) {
+            return "Short.parseShort("+expr+".trim())";
+        }
+        if (raw == byte.class || raw == Byte.class) {
+            return "Byte.parseByte("+expr+".trim())";
+        }
+        if (raw == double.class || raw == Double.class) {
+            return "Double.parseDouble("+expr+")";
+        }
+        if (raw == float.class || raw == Float.class) {
+            return "Float.parseFloat("+expr+")";
+        }
+        if (raw == boolean.class || raw == Boolean.class) {
+            return "Boolean.parseBoolean("+expr+".trim())";
+        }
+        if (raw == char.class || raw == Character.class) {
+            return expr+".charAt(0)";
+        }
+        if (raw == BigDecimal.class) {
+            return "new java.math.BigDecimal("+expr+".trim())";
+        }
+        if (raw == BigInteger.class) {
+            return "new java.math.BigInteger("+expr+".trim())";
+        }
+        throw _error(path, "environment variables can not be bound to "+raw.getName());
+    }
+
+    private static String _defaultValue(Class<?> raw)
+    {
+        if (!raw.isPrimitive()) {
+            return "null";
+        }
+        if (raw == boolean.class) {
+            return "false";
+        }
+        if (raw == char.class) {
+            return "'\\0'";
+        }
+        if (raw == long.class) {
+            return "0L";
+        }
+        if (raw == float.class) {
+            return "0f";
+        }
+        if (raw == double.class) {
+            return "0d";
+        }
+        return (raw == int.class) ? "0" : "("+raw.getName()+") 0";
+    }
+
+    protected static String _literal(String text)
+    {
+        StringBuilder sb = new StringBuilder(text.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < text.length(); ++i) {
+            sb.append(_escape(text.charAt(i), '"'));
+        }
+        return sb.append('"').toString();
+    }
+
+    private static String _escape(char c, char quote)
+    {
+        switch (c) {
+        case '\\':
+            return "\\\\";
+        case '\n':
+            return "\\n";
+        case '\r':
+            return "\\r";
+        case '\t':
+            return "\\t";
+        default:
+            if (c == quote) {
+                return "\\"+c;
+            }
+            if (c < 0x20 || c > 0x7E) { // keep the source ASCII
+                return String.format("\\u%04x", (int) c);
+            }
+            return String.valueOf(c);
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Types and accessibility
+    /**********************************************************
+     */
+
+    /**
+     * @return the constructor or factory method annotated with
+     *   <code>@JsonCreator</code>, null if there is none
+     */
+    private static AnnotatedWithParams _creator(BeanDescription desc, AnnotationIntrospector ai)
+    {
+        for (AnnotatedConstructor ctor : desc.getConstructors()) {
+            if (ai.hasCreatorAnnotation(ctor)) {
+                return ctor;
+            }
+        }
+        for (AnnotatedMethod factory : desc.getFactoryMethods()) {
+            if (ai.hasCreatorAnnotation(factory)) {
+                return factory;
+            }
+        }
+        return null;
+    }
+
+    private Class<?> _implementation(Class<?> raw, Map<Class<?>, Class<?>> defaults, String path)
+        throws JsonMappingException
+    {
+        Class<?> impl = defaults.get(raw);
+        if (impl != null) {
+            return impl;
+        }
+        if (raw.isInterface() || Modifier.isAbstract(raw.getModifiers())) {
+            throw _error(path, "no implementation known for "+raw.getName());
+        }
+        _checkAccessible(raw, path);
+        return raw;
+    }
+
+    private void _checkMember(AnnotatedMember member, String path) throws JsonMappingException
+    {
+        if (!Modifier.isPublic(member.getMember().getModifiers())) {
+            throw _error(path, member.getName()+" of "+member.getDeclaringClass().getName()
+                    +" is not public, it can not be used without reflection");
+        }
+        _checkDeserializer(_mapper.getDeserializationConfig().getAnnotationIntrospector(), member, path);
+    }
+
+    private static void _checkDeserializer(AnnotationIntrospector ai, AnnotatedMember member, String path)
+        throws JsonMappingException
+    {
+        if (ai.findDeserializer(member) != null || ai.findContentDeserializer(member) != null
+                || ai.findKeyDeserializer(member) != null) {
+            throw _error(path, "custom deserializers are not supported");
+        }
+    }
+
+    private static void _checkAccessible(Class<?> raw, String path) throws JsonMappingException
+    {
+        for (Class<?> c = raw; c != null; c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers())
+                    || (c.getEnclosingClass() != null && !Modifier.isStatic(c.getModifiers()))) {
+                throw _error(path, raw.getName()+" is not a public top-level or static nested class");
+            }
+        }
+    }
+
+    /**
+     * @return name of the type in source, with its type parameters
+     */
+    protected static String _typeName(JavaType type)
+    {
+        if (type.isArrayType()) {
+            return _typeName(type.getContentType())+"[]";
+        }
+        Class<?> raw = type.getRawClass();
+        int count = type.containedTypeCount();
+        if (count == 0 || raw.getTypeParameters().length != count) {
+            return _erasure(raw);
+        }
+        String[] params = new String[count];
+        for (int i = 0; i < count; ++i) {
+            JavaType param = type.containedType(i);
+            params[i] = param.isPrimitive() ? _erasure(_wrapper(param.getRawClass())) : _typeName(param);
+        }
+        return _erasure(raw)+"<"+_join(params, ", ")+">";
+    }
+
+    private static String _erasure(Class<?> raw)
+    {
+        if (raw.isArray()) {
+            return _erasure(raw.getComponentType())+"[]";
+        }
+        return raw.getCanonicalName();
+    }
+
+    private static Class<?> _wrapper(Class<?> primitive)
+    {
+        if (primitive == int.class) return Integer.class;
+        if (primitive == long.class) return Long.class;
+        if (primitive == double.class) return Double.class;
+        if (primitive == float.class) return Float.class;
+        if (primitive == boolean.class) return Boolean.class;
+        if (primitive == char.class) return Character.class;
+        if (primitive == short.class) return Short.class;
+        return Byte.class;
+    }
+
+    /*
+    /**********************************************************
+    /* Helper methods
+    /**********************************************************
+     */
+
+    /**
+     * @return elements of a list, or of an object with index keys
+     */
+    private static List<ConfigValue> _items(ConfigValue value, String path) throws JsonMappingException
+    {
+        if (value instanceof ConfigList) {
+            return (ConfigList) value;
+        }
+        if (NumericIndexDetector.isNumericallyIndexedValue(value)) {
+            TreeMap<Integer, ConfigValue> sorted = new TreeMap<Integer, ConfigValue>();
+            for (Map.Entry<String, ConfigValue> entry : ((ConfigObject) value).entrySet()) {
+                sorted.put(Integer.valueOf(entry.getKey()), entry.getValue());
+            }
+            return new ArrayList<ConfigValue>(sorted.values());
+        }
+        throw _error(path, "expected a list, not "+value.valueType());
+    }
+
+    /**
+     * @return elements of the fallback of a list, null unless they line up
+     *   with the elements of the list
+     */
+    private static List<ConfigValue> _fallbackItems(ConfigValue fallback, int size)
+    {
+        if (fallback == null || !_isResolved(fallback)) {
+            return null;
+        }
+        try {
+            List<ConfigValue> items = _items(fallback, "");
+            return (items.size() == size) ? items : null;
+        } catch (JsonMappingException e) {
+            return null;
+        }
+    }
+
+    private static ConfigValue _at(List<ConfigValue> items, int index) {
+        return (items == null) ? null : items.get(index);
+    }
+
+    private static String _path(String path, String key) {
+        String element = ConfigUtil.joinPath(key);
+        return path.isEmpty() ? element : path+"."+element;
+    }
+
+    private static String _path(String path, int index) {
+        return path+"["+index+"]";
+    }
+
+    private static String _join(String[] parts, String separator)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < parts.length; ++i) {
+            if (i > 0) {
+                sb.append(separator);
+            }
+            sb.append(parts[i]);
+        }
+        return sb.toString();
+    }
+
+    private static String _comment(String text) {
+        return text.replace("*/", "*&#47;");
+    }
+
+    private static JsonMappingException _error(String path, String msg) {
+        return new JsonMappingException("Can not generate code for '"+(path.isEmpty() ? "/" : path)+"': "+msg);
+    }
+
+    /**
+     * Methods of the class being generated, one per bean, collection or
+     * map, which keeps each of them small.
+     */
+    protected final static class Generation {
+        final StringBuilder methods = new StringBuilder();
+
+        int methodCount;
+
+        boolean usesEnvironment;
+
+        /**
+         * @return call of a new method returning the value built by the body
+         */
+        String method(String typeName, String body)
+        {
+            String name = "_create"+(++methodCount);
+            methods.append("\n    private static ").append(typeName).append(' ').append(name).append("() {\n")
+                .append(body)
+                .append("        return value;\n    }\n");
+            return name+"()";
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.jasonclawson.jackson.dataformat.hocon.maven;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jasonclawson.jackson.dataformat.hocon.HoconFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+public class HoconSourceGeneratorTest {
+
+	public enum Mode { FAST, SAFE }
+
+	public static class Server {
+		public String host;
+		private int port;
+
+		public int getPort() {
+			return port;
+		}
+
+		public void setPort(int port) {
+			this.port = port;
+		}
+	}
+
+	public static class Point {
+		private final int x;
+		private final int y;
+
+		@JsonCreator
+		public Point(@JsonProperty("x") int x, @JsonProperty("y") int y) {
+			this.x = x;
+			this.y = y;
+		}
+
+		public int getX() {
+			return x;
+		}
+
+		public int getY() {
+			return y;
+		}
+	}
+
+	public static class Settings {
+		public String name;
+		public Mode mode;
+		public long timeout;
+		public double ratio;
+		public boolean enabled;
+		public BigDecimal price;
+		public List<Server> servers;
+		public Map<String, Integer> limits;
+		public int[] ports;
+		public Object extra;
+		public Point origin;
+		public String path;
+		public String home;
+		public int retries = 3;
+		public String optional = "unset";
+		public String label;
+	}
+
+	public static class Hidden {
+		private String name;
+
+		public String getName() {
+			return name;
+		}
+
+		private void setName(String name) {
+			this.name = name;
+		}
+	}
+
+	private static final String CONF = "name = \"api \\\"v1\\\" é\"\n"
+			+ "mode = SAFE\ntimeout = 30000\nratio = 0.75\nenabled = true\nprice = 19.99\n"
+			+ "servers = [{ host = a, port = 80 }, { host = b, port = ${?HOCON_TEST_UNSET_PORT} }]\n"
+			+ "limits { read = 10, write = 20 }\n"
+			+ "ports.0 = 1\nports.1 = 2\n"
+			+ "extra { a = [1, 2.5, x], b = null }\n"
+			+ "origin { x = 1, y = 2 }\n"
+			+ "path = ${?PATH}\n"
+			+ "home = ${?HOCON_TEST_UNSET}\"/data\"\n"
+			+ "retries = 5\nretries = ${?HOCON_TEST_UNSET_RETRIES}\n"
+			+ "optional = ${?HOCON_TEST_UNSET_OPTIONAL}\n"
+			+ "label = ${name}\"-label\"\n";
+
+	private static File write(String content) throws IOException {
+		File f = File.createTempFile("generator", ".conf");
+		f.deleteOnExit();
+		Files.write(f.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return f;
+	}
+
+	private static Object compileAndCreate(String className, String code) throws Exception {
+		File dir = Files.createTempDirectory("generated").toFile();
+		File src = new File(dir, className.replace('.', '/') + ".java");
+		src.getParentFile().mkdirs();
+		Files.write(src.toPath(), code.getBytes(StandardCharsets.UTF_8));
+		String classpath = location(HoconSourceGeneratorTest.class) + File.pathSeparator + location(JsonCreator.class);
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		int status = compiler.run(null, null, null, "-nowarn", "-classpath", classpath, "-d", dir.getPath(), src.getPath());
+		Assert.assertEquals(code, 0, status);
+		URLClassLoader loader = new URLClassLoader(new URL[] { dir.toURI().toURL() },
+				HoconSourceGeneratorTest.class.getClassLoader());
+		try {
+			return loader.loadClass(className).getMethod("create").invoke(null);
+		} finally {
+			loader.close();
+		}
+	}
+
+	private static String location(Class<?> c) throws Exception {
+		return new File(c.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+	}
+
+	@Test
+	public void testGeneratedEqualsBound() throws Exception {
+		File conf = write(CONF);
+		String code = new HoconSourceGenerator().generate(conf, Settings.class, "com.example.generated.SettingsConfig");
+		Assert.assertFalse(code.contains("readValue"));
+		if (System.getenv("PATH") != null) {
+			Assert.assertFalse(code.contains(System.getenv("PATH")));
+		}
+
+		Settings generated = (Settings) compileAndCreate("com.example.generated.SettingsConfig", code);
+		Settings bound = new ObjectMapper(new HoconFactory()).readValue(conf, Settings.class);
+		ObjectMapper json = new ObjectMapper();
+		Assert.assertEquals(json.valueToTree(bound), json.valueToTree(generated));
+
+		Assert.assertEquals("api \"v1\" é", generated.name);
+		Assert.assertEquals(System.getenv("PATH"), generated.path);
+		Assert.assertEquals("/data", generated.home);
+		Assert.assertEquals(5, generated.retries);
+		Assert.assertEquals("unset", generated.optional);
+		Assert.assertEquals(0, generated.servers.get(1).getPort());
+		Assert.assertEquals(2, generated.origin.getY());
+	}
+
+	@Test
+	public void testUnsupported() throws IOException {
+		File conf = write("name = x");
+		try {
+			new HoconSourceGenerator().generate(conf, Hidden.class, "Generated");
+			Assert.fail("expected private setter to be rejected");
+		} catch (JsonMappingException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("setName"));
+		}
+	}
+}
@@ -0,0 +1,277 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.BeanDeserializer;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBase;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.util.ClassUtil;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.ConfigValueType;
+
+/**
+ * Bean deserializer that, when reading from a {@link HoconTreeTraversingParser},
+ * binds objects straight from the {@link ConfigObject} instead of going
+ * through the tokens of the object. Registered by {@link HoconModule}.
+ * <p>
+ * Only beans that {@link BeanDeserializer} itself handles the simple way
+ * (default constructor, no object ids, injection, views or unwrapping)
+ * are bound directly, and only if every key of the object is either a
+ * property or ignored without further ado. Anything else, including
+ * unknown properties that have to be reported, goes through the regular
+ * token-based path, so behavior is the same either way. Values of simple
+ * types are set directly; other values are read by the deserializer of
+ * their property from a parser over just that value.
+ */
+public class HoconBeanDeserializer extends BeanDeserializer {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Returned by {@link #_deserializeDirect} when the object can not be
+     * bound directly
+     */
+    private final static Object NOT_DIRECT = new Object();
+
+    private final static int KIND_OTHER = 0;
+    private final static int KIND_STRING = 1;
+    private final static int KIND_INT = 2;
+    private final static int KIND_LONG = 3;
+    private final static int KIND_DOUBLE = 4;
+    private final static int KIND_BOOLEAN = 5;
+    private final static int KIND_BEAN = 6;
+
+    /**
+     * Whether objects may be bound directly at all
+     */
+    protected final boolean _direct;
+
+    /**
+     * How to set each property, by name; computed on first use
+     */
+    protected transient volatile Map<String, Slot> _plan;
+
+    public HoconBeanDeserializer(BeanDeserializerBase src) {
+        super(src);
+        _direct = true;
+    }
+
+    protected HoconBeanDeserializer(BeanDeserializerBase src, HashSet<String> ignorableProps) {
+        super(src, ignorableProps);
+        _direct = true;
+    }
+
+    protected HoconBeanDeserializer(BeanDeserializerBase src, NameTransformer unwrapper) {
+        super(src, unwrapper);
+        _direct = false;
+    }
+
+    @Override
+    public JsonDeserializer<Object> unwrappingDeserializer(NameTransformer unwrapper) {
+        return new HoconBeanDeserializer(this, unwrapper);
+    }
+
+    @Override
+    public BeanDeserializer withIgnorableProperties(HashSet<String> ignorableProps) {
+        return new HoconBeanDeserializer(this, ignorableProps);
+    }
+
+    /*
+    /**********************************************************
+    /* JsonDeserializer implementation
+    /**********************************************************
+     */
+
+    @Override
+    public Object deserialize(JsonParser jp, DeserializationContext ctxt)
+        throws IOException, JsonProcessingException
+    {
+        if (_direct && _vanillaProcessing && jp instanceof HoconTreeTraversingParser
+                && jp.getCurrentToken() == JsonToken.START_OBJECT) {
+            HoconTreeTraversingParser p = (HoconTreeTraversingParser) jp;
+            ConfigValue node = p.currentContainerNode();
+            if (node instanceof ConfigObject) {
+                Object bean = _deserializeDirect(p, (ConfigObject) node, ctxt);
+                if (bean != NOT_DIRECT) {
+                    p.skipChildren();
+                    return bean;
+                }
+            }
+        }
+        return super.deserialize(jp, ctxt);
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods
+    /**********************************************************
+     */
+
+    /**
+     * @return the bean, or {@link #NOT_DIRECT} if the object has keys that
+     *   need the regular path
+     */
+    protected Object _deserializeDirect(HoconTreeTraversingParser p, ConfigObject object,
+            DeserializationContext ctxt)
+        throws IOException, JsonProcessingException
+    {
+        final Map<String, Slot> plan = _plan();
+        for (String key : object.keySet()) {
+            if (!plan.containsKey(key) && !_ignoredDirectly(key, ctxt)) {
+                return NOT_DIRECT;
+            }
+        }
+        final Object bean = _valueInstantiator.createUsingDefault(ctxt);
+        for (Map.Entry<String, ConfigValue> entry : object.entrySet()) {
+            Slot slot = plan.get(entry.getKey());
+            if (slot == null) { // ignored
+                continue;
+            }
+            try {
+                _set(p, slot, entry.getKey(), entry.getValue(), bean, ctxt);
+            } catch (Exception e) {
+                wrapAndThrow(e, bean, entry.getKey(), ctxt);
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * Same checks as {@link BeanDeserializer} does for unknown properties,
+     * leaving out those that fail or call handlers.
+     */
+    private boolean _ignoredDirectly(String key, DeserializationContext ctxt)
+    {
+        if (_ignorableProps != null && _ignorableProps.contains(key)) {
+            return !ctxt.isEnabled(DeserializationFeature.FAIL_ON_IGNORED_PROPERTIES);
+        }
+        if (_anySetter != null) {
+            return false;
+        }
+        return _ignoreAllUnknown || (!ctxt.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                && ctxt.getConfig().getProblemHandlers() == null);
+    }
+
+    private void _set(HoconTreeTraversingParser p, Slot slot, String key, ConfigValue value,
+            Object bean, DeserializationContext ctxt)
+        throws IOException
+    {
+        final ConfigValueType type = value.valueType();
+        switch (slot.kind) {
+        case KIND_STRING:
+            if (type == ConfigValueType.STRING) {
+                slot.property.set(bean, value.unwrapped());
+                return;
+            }
+            break;
+        case KIND_INT:
+            if (type == ConfigValueType.NUMBER && value.unwrapped() instanceof Integer) {
+                slot.property.set(bean, value.unwrapped());
+                return;
+            }
+            break;
+        case KIND_LONG:
+            if (type == ConfigValueType.NUMBER && !(value.unwrapped() instanceof Double)) {
+                slot.property.set(bean, Long.valueOf(((Number) value.unwrapped()).longValue()));
+                return;
+            }
+            break;
+        case KIND_DOUBLE:
+            if (type == ConfigValueType.NUMBER) {
+                slot.property.set(bean, Double.valueOf(((Number) value.unwrapped()).doubleValue()));
+                return;
+            }
+            break;
+        case KIND_BOOLEAN:
+            if (type == ConfigValueType.BOOLEAN) {
+                slot.property.set(bean, value.unwrapped());
+                return;
+            }
+            break;
+        case KIND_BEAN:
+            if (type == ConfigValueType.OBJECT && !NumericIndexDetector.isNumericallyIndexedValue(value)) {
+                Object nested = slot.beanDeserializer._deserializeDirect(p, (ConfigObject) value, ctxt);
+                if (nested != NOT_DIRECT) {
+                    slot.property.set(bean, nested);
+                    return;
+                }
+            }
+            break;
+        }
+        // anything else: let the property read the value as tokens
+        JsonParser sub = new HoconTreeTraversingParser(p, value, key);
+        sub.nextToken();
+        slot.property.deserializeAndSet(sub, ctxt, bean);
+    }
+
+    protected Map<String, Slot> _plan()
+    {
+        Map<String, Slot> plan = _plan;
+        if (plan == null) {
+            plan = new HashMap<String, Slot>();
+            for (Iterator<SettableBeanProperty> it = properties(); it.hasNext(); ) {
+                SettableBeanProperty prop = it.next();
+                plan.put(prop.getName(), new Slot(prop));
+            }
+            _plan = plan;
+        }
+        return plan;
+    }
+
+    /*
+    /**********************************************************
+    /* Helper classes
+    /**********************************************************
+     */
+
+    /**
+     * How one property is set
+     */
+    protected final static class Slot {
+        final SettableBeanProperty property;
+        final int kind;
+        final HoconBeanDeserializer beanDeserializer;
+
+        Slot(SettableBeanProperty prop) {
+            property = prop;
+            JsonDeserializer<Object> deser = prop.getValueDeserializer();
+            if (deser instanceof HoconBeanDeserializer && !prop.hasValueTypeDeserializer()
+                    && ((HoconBeanDeserializer) deser)._direct && ((HoconBeanDeserializer) deser)._vanillaProcessing) {
+                kind = KIND_BEAN;
+                beanDeserializer = (HoconBeanDeserializer) deser;
+                return;
+            }
+            beanDeserializer = null;
+            if (prop.hasValueTypeDeserializer() || !ClassUtil.isJacksonStdImpl(deser)) {
+                kind = KIND_OTHER;
+                return;
+            }
+            Class<?> raw = prop.getType().getRawClass();
+            if (raw == String.class) {
+                kind = KIND_STRING;
+            } else if (raw == Integer.TYPE || raw == Integer.class) {
+                kind = KIND_INT;
+            } else if (raw == Long.TYPE || raw == Long.class) {
+                kind = KIND_LONG;
+            } else if (raw == Double.TYPE || raw == Double.class) {
+                kind = KIND_DOUBLE;
+            } else if (raw == Boolean.TYPE || raw == Boolean.class) {
+                kind = KIND_BOOLEAN;
+            } else {
+                kind = KIND_OTHER;
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.lang.ref.SoftReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Strategy for recycling the byte and char buffers that readers and parsers
+ * created by {@link HoconFactory} read input into, see
+ * {@link HoconFactory#setBufferPool(HoconBufferPool)}. Implementations must
+ * be thread-safe; a buffer is only ever held by one reader or parser at a
+ * time.
+ * <p>
+ * {@link ThreadLocalPool}, the default, keeps a buffer per thread, which is
+ * cheapest as long as threads are few and long-lived. With a thread per
+ * task (such as virtual threads, or an executor creating threads on demand)
+ * every thread allocates buffers of its own and recycling is lost; a
+ * {@link SharedPool} or {@link StripedPool} recycles buffers across threads
+ * instead, holding on to a bounded number of them.
+ */
+public interface HoconBufferPool {
+
+    /**
+     * @return a buffer of at least the given size
+     */
+    byte[] allocByteBuffer(int minSize);
+
+    /**
+     * Hands a buffer back for reuse; it must not be used by the caller
+     * afterwards.
+     */
+    void releaseByteBuffer(byte[] buffer);
+
+    /**
+     * @return a buffer of at least the given size
+     */
+    char[] allocCharBuffer(int minSize);
+
+    void releaseCharBuffer(char[] buffer);
+
+    /*
+    /**********************************************************
+    /* Implementations
+    /**********************************************************
+     */
+
+    /**
+     * One buffer of each kind per thread, softly referenced so that they
+     * can be collected under memory pressure.
+     */
+    final class ThreadLocalPool implements HoconBufferPool {
+        public final static ThreadLocalPool INSTANCE = new ThreadLocalPool();
+
+        private final ThreadLocal<SoftReference<Object[]>> _buffers = new ThreadLocal<SoftReference<Object[]>>();
+
+        private ThreadLocalPool() { }
+
+        private Object[] _holder()
+        {
+            SoftReference<Object[]> ref = _buffers.get();
+            Object[] holder = (ref == null) ? null : ref.get();
+            if (holder == null) {
+                holder = new Object[2];
+                _buffers.set(new SoftReference<Object[]>(holder));
+            }
+            return holder;
+        }
+
+        @Override
+        public byte[] allocByteBuffer(int minSize)
+        {
+            Object[] holder = _holder();
+            byte[] buf = (byte[]) holder[0];
+            holder[0] = null;
+            return (buf == null || buf.length < minSize) ? new byte[minSize] : buf;
+        }
+
+        @Override
+        public void releaseByteBuffer(byte[] buffer) {
+            _holder()[0] = buffer;
+        }
+
+        @Override
+        public char[] allocCharBuffer(int minSize)
+        {
+            Object[] holder = _holder();
+            char[] buf = (char[]) holder[1];
+            holder[1] = null;
+            return (buf == null || buf.length < minSize) ? new char[minSize] : buf;
+        }
+
+        @Override
+        public void releaseCharBuffer(char[] buffer) {
+            _holder()[1] = buffer;
+        }
+    }
+
+    /**
+     * Bounded pool shared by all threads, without locks: buffers are kept in
+     * a fixed number of slots, claimed and filled with compare-and-set.
+     * Buffers released when all slots are taken are left to the garbage
+     * collector. Each thread starts looking at a slot of its own, so that
+     * threads mostly do not contend for the same slots.
+     */
+    final class SharedPool implements HoconBufferPool {
+        public final static int DEFAULT_CAPACITY = 64;
+
+        private final AtomicReferenceArray<byte[]> _bytes;
+
+        private final AtomicReferenceArray<char[]> _chars;
+
+        public SharedPool() {
+            this(DEFAULT_CAPACITY);
+        }
+
+        /**
+         * @param capacity maximum number of buffers of each kind to keep
+         */
+        public SharedPool(int capacity) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("capacity must be positive, got "+capacity);
+            }
+            _bytes = new AtomicReferenceArray<byte[]>(capacity);
+            _chars = new AtomicReferenceArray<char[]>(capacity);
+        }
+
+        public int capacity() {
+            return _bytes.length();
+        }
+
+        @Override
+        public byte[] allocByteBuffer(int minSize) {
+            byte[] buf = _take(_bytes);
+            return (buf == null || buf.length < minSize) ? new byte[minSize] : buf;
+        }
+
+        @Override
+        public void releaseByteBuffer(byte[] buffer) {
+            _put(_bytes, buffer);
+        }
+
+        @Override
+        public char[] allocCharBuffer(int minSize) {
+            char[] buf = _take(_chars);
+            return (buf == null || buf.length < minSize) ? new char[minSize] : buf;
+        }
+
+        @Override
+        public void releaseCharBuffer(char[] buffer) {
+            _put(_chars, buffer);
+        }
+
+        private static <T> T _take(AtomicReferenceArray<T> slots)
+        {
+            final int n = slots.length();
+            int i = _start(n);
+            for (int tried = 0; tried < n; ++tried) {
+                T buf = slots.get(i);
+                if (buf != null && slots.compareAndSet(i, buf, null)) {
+                    return buf;
+                }
+                if (++i == n) {
+                    i = 0;
+                }
+            }
+            return null;
+        }
+
+        private static <T> void _put(AtomicReferenceArray<T> slots, T buffer)
+        {
+            final int n = slots.length();
+            int i = _start(n);
+            for (int tried = 0; tried < n; ++tried) {
+                if (slots.get(i) == null && slots.compareAndSet(i, null, buffer)) {
+                    return;
+                }
+                if (++i == n) {
+                    i = 0;
+                }
+            }
+        }
+
+        private static int _start(int n) {
+            long id = Thread.currentThread().getId();
+            return (int) ((id ^ (id >>> 32)) & 0x7FFFFFFF) % n;
+        }
+    }
+
+    /**
+     * A number of {@link SharedPool}s, threads being spread over them by id.
+     * Threads of different stripes never touch the same slots, at the cost
+     * of buffers of one stripe not being available to the others.
+     */
+    final class StripedPool implements HoconBufferPool {
+        private final SharedPool[] _stripes;
+
+        public StripedPool() {
+            this(Runtime.getRuntime().availableProcessors(), 8);
+        }
+
+        /**
+         * @param stripes number of pools
+         * @param capacityPerStripe maximum number of buffers of each kind per pool
+         */
+        public StripedPool(int stripes, int capacityPerStripe) {
+            if (stripes < 1) {
+                throw new IllegalArgumentException("stripes must be positive, got "+stripes);
+            }
+            _stripes = new SharedPool[stripes];
+            for (int i = 0; i < stripes; ++i) {
+                _stripes[i] = new SharedPool(capacityPerStripe);
+            }
+        }
+
+        private SharedPool _stripe() {
+            long id = Thread.currentThread().getId();
+            // spread consecutive ids, which a stripe's own start slot is based on as well
+            int h = (int) (id * 0x9E3779B97F4A7C15L >>> 33);
+            return _stripes[h % _stripes.length];
+        }
+
+        @Override
+        public byte[] allocByteBuffer(int minSize) {
+            return _stripe().allocByteBuffer(minSize);
+        }
+
+        @Override
+        public void releaseByteBuffer(byte[] buffer) {
+            _stripe().releaseByteBuffer(buffer);
+        }
+
+        @Override
+        public char[] allocCharBuffer(int minSize) {
+            return _stripe().allocCharBuffer(minSize);
+        }
+
+        @Override
+        public void releaseCharBuffer(char[] buffer) {
+            _stripe().releaseCharBuffer(buffer);
+        }
+    }
+}
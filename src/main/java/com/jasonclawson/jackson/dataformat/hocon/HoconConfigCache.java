@@ -0,0 +1,448 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigIncluder;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigSyntax;
+
+/**
+ * Cache of resolved configuration trees for files and URLs, for use with
+ * {@link HoconFactory#setConfigCache(HoconConfigCache)}.
+ * <p>
+ * Entries are keyed by the canonical path of the file together with its
+ * modification time and size, so a file that changes is parsed again on
+ * its next use, and by the parse options that shape the tree: syntax,
+ * origin description, whether missing files are allowed, class loader and
+ * includer (the last two by identity, an includer of a
+ * {@link HoconIncludeCache} standing for the cache). Factories with
+ * different options may share a cache; each gets trees parsed with its own
+ * options. Only the top-level file is checked: changes to files it
+ * includes go unnoticed until its entry is evicted or {@link #clear()}ed.
+ * URLs are cached if they point to a local file or to an entry of a local
+ * jar file; other URLs are always parsed.
+ * <p>
+ * The cache is bounded by the total size of the cached files, least
+ * recently used entries being evicted first. Concurrent first loads of the
+ * same file are coalesced into a single parse. Instances are thread-safe
+ * and may be shared between factories.
+ */
+public class HoconConfigCache {
+
+    /**
+     * Default bound of the total size of the cached files: 16 MB
+     */
+    public final static long DEFAULT_MAX_WEIGHT = 16L * 1024 * 1024;
+
+    protected final long _maxWeight;
+
+    // LRU order; guarded by 'this'
+    private final LinkedHashMap<Key, Entry> _entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+
+    // latest key for each location and options, to drop entries for older versions; guarded by 'this'
+    private final Map<Key, Key> _latest = new HashMap<Key, Key>();
+
+    private long _weight;
+
+    private final ConcurrentMap<Key, FutureTask<ConfigObject>> _loading
+        = new ConcurrentHashMap<Key, FutureTask<ConfigObject>>();
+
+    public HoconConfigCache() {
+        this(DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * @param maxWeight bound of the total size, in bytes, of the cached files
+     */
+    public HoconConfigCache(long maxWeight) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight must be positive, got "+maxWeight);
+        }
+        _maxWeight = maxWeight;
+    }
+
+    /*
+    /**********************************************************
+    /* Public API
+    /**********************************************************
+     */
+
+    /**
+     * @return the resolved root object of the file, parsed only if it is not
+     *   cached yet (or has changed since)
+     */
+    public ConfigObject get(File f) throws IOException {
+        return get(f, ConfigParseOptions.defaults(), null);
+    }
+
+    /**
+     * @return the resolved root object of the URL, cached if the URL points to
+     *   a local file or jar entry
+     */
+    public ConfigObject get(URL url) throws IOException {
+        return get(url, ConfigParseOptions.defaults(), null);
+    }
+
+    /**
+     * Drops all cached entries.
+     */
+    public synchronized void clear() {
+        _entries.clear();
+        _latest.clear();
+        _weight = 0L;
+    }
+
+    /**
+     * @return number of cached entries
+     */
+    public synchronized int size() {
+        return _entries.size();
+    }
+
+    /**
+     * @return total size, in bytes, of the cached files
+     */
+    public synchronized long weight() {
+        return _weight;
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods
+    /**********************************************************
+     */
+
+    /**
+     * @param options options to parse the file with if it is not cached
+     * @param event event to record the cache result and parse times into,
+     *   may be null
+     */
+    ConfigObject get(final File f, final ConfigParseOptions options, final HoconParseEvent event)
+        throws IOException
+    {
+        File file = f.getCanonicalFile();
+        Key key = new Key(file.getPath(), file.lastModified(), file.length()).withOptions(options);
+        return _get(key, new Callable<ConfigObject>() {
+            @Override
+            public ConfigObject call() {
+                long start = System.nanoTime();
+                return HoconParseEvent.resolve(ConfigFactory.parseFile(f, options), start, event);
+            }
+        }, event);
+    }
+
+    ConfigObject get(final URL url, final ConfigParseOptions options, final HoconParseEvent event)
+        throws IOException
+    {
+        Key key = _keyFor(url);
+        Callable<ConfigObject> loader = new Callable<ConfigObject>() {
+            @Override
+            public ConfigObject call() {
+                long start = System.nanoTime();
+                return HoconParseEvent.resolve(ConfigFactory.parseURL(url, options), start, event);
+            }
+        };
+        if (key == null) {
+            return _call(loader);
+        }
+        return _get(key.withOptions(options), loader, event);
+    }
+
+    protected ConfigObject _get(Key key, Callable<ConfigObject> loader, HoconParseEvent event)
+        throws IOException
+    {
+        synchronized (this) {
+            Entry entry = _entries.get(key);
+            if (entry != null) {
+                if (event != null) {
+                    event._cacheResult = HoconParseEvent.CacheResult.HIT;
+                }
+                return entry.value;
+            }
+        }
+        if (event != null) {
+            event._cacheResult = HoconParseEvent.CacheResult.MISS;
+        }
+        FutureTask<ConfigObject> task = new FutureTask<ConfigObject>(loader);
+        FutureTask<ConfigObject> existing = _loading.putIfAbsent(key, task);
+        if (existing == null) {
+            try {
+                task.run();
+                ConfigObject value = _await(task);
+                _put(key, value);
+                return value;
+            } finally {
+                _loading.remove(key, task);
+            }
+        }
+        return _await(existing);
+    }
+
+    protected synchronized void _put(Key key, ConfigObject value)
+    {
+        long weight = Math.max(key.size, 1L);
+        if (weight > _maxWeight) {
+            return; // would evict everything else, not worth it
+        }
+        Key previous = _latest.put(key.slot(), key);
+        if (previous != null && !previous.equals(key)) {
+            _remove(previous);
+        }
+        Entry old = _entries.put(key, new Entry(value, weight));
+        if (old != null) {
+            _weight -= old.weight;
+        }
+        _weight += weight;
+        Iterator<Map.Entry<Key, Entry>> it = _entries.entrySet().iterator();
+        while (_weight > _maxWeight && it.hasNext()) {
+            Map.Entry<Key, Entry> eldest = it.next();
+            it.remove();
+            _weight -= eldest.getValue().weight;
+            Key eldestKey = eldest.getKey();
+            Key slot = eldestKey.slot();
+            if (eldestKey.equals(_latest.get(slot))) {
+                _latest.remove(slot);
+            }
+        }
+    }
+
+    /**
+     * Drops the entry for the key, if any, for it to be loaded again.
+     */
+    synchronized void _invalidate(Key key) {
+        _remove(key);
+    }
+
+    private void _remove(Key key) {
+        Entry entry = _entries.remove(key);
+        if (entry != null) {
+            _weight -= entry.weight;
+        }
+    }
+
+    /**
+     * @return the key for the URL, or null if it can not be cached
+     */
+    protected Key _keyFor(URL url) throws IOException
+    {
+        String protocol = url.getProtocol();
+        if ("file".equals(protocol)) {
+            File file = _toFile(url);
+            if (file == null) {
+                return null;
+            }
+            file = file.getCanonicalFile();
+            return new Key(file.getPath(), file.lastModified(), file.length());
+        }
+        if ("jar".equals(protocol)) {
+            JarURLConnection conn = (JarURLConnection) url.openConnection();
+            URL jarUrl = conn.getJarFileURL();
+            File jar = "file".equals(jarUrl.getProtocol()) ? _toFile(jarUrl) : null;
+            if (jar == null) {
+                return null;
+            }
+            jar = jar.getCanonicalFile();
+            String entry = conn.getEntryName();
+            // size of the jar is the best estimate of the entry size we have
+            // without opening it
+            return new Key(jar.getPath()+"!/"+((entry == null) ? "" : entry), jar.lastModified(), jar.length());
+        }
+        return null;
+    }
+
+    private static File _toFile(URL url) {
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        } catch (IllegalArgumentException e) { // not a hierarchical file URI
+            return null;
+        }
+    }
+
+    private static ConfigObject _call(Callable<ConfigObject> loader) {
+        try {
+            return loader.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) { // can not happen, loaders only throw unchecked exceptions
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ConfigObject _await(FutureTask<ConfigObject> task) throws IOException
+    {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for configuration to be parsed");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Helper classes
+    /**********************************************************
+     */
+
+    protected final static class Key {
+        final String location;
+        final long lastModified;
+        final long size;
+
+        /**
+         * Options the content is parsed with, null if not known yet
+         */
+        final Options options;
+
+        Key(String location, long lastModified, long size) {
+            this(location, lastModified, size, null);
+        }
+
+        private Key(String location, long lastModified, long size, Options options) {
+            this.location = location;
+            this.lastModified = lastModified;
+            this.size = size;
+            this.options = options;
+        }
+
+        /**
+         * @return key of the same content parsed with the given options
+         */
+        Key withOptions(ConfigParseOptions options) {
+            return new Key(location, lastModified, size, new Options(options));
+        }
+
+        /**
+         * @return key standing for all versions of the content, parsed with
+         *   the same options
+         */
+        Key slot() {
+            return new Key(location, 0L, 0L, options);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = location.hashCode();
+            result = 31 * result + (int) (lastModified ^ (lastModified >>> 32));
+            result = 31 * result + (int) (size ^ (size >>> 32));
+            result = 31 * result + ((options == null) ? 0 : options.hashCode());
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return location.equals(other.location) && lastModified == other.lastModified
+                    && size == other.size
+                    && ((options == null) ? (other.options == null) : options.equals(other.options));
+        }
+
+        @Override
+        public String toString() {
+            return location+"@"+lastModified+"/"+size;
+        }
+    }
+
+    /**
+     * Parse options that make a difference to the parsed tree
+     */
+    protected final static class Options {
+        final ConfigSyntax syntax;
+        final String originDescription;
+        final boolean allowMissing;
+        final ClassLoader classLoader;
+        final Object includer;
+
+        Options(ConfigParseOptions options) {
+            syntax = options.getSyntax();
+            originDescription = options.getOriginDescription();
+            allowMissing = options.getAllowMissing();
+            classLoader = options.getClassLoader();
+            includer = _includerKey(options.getIncluder());
+        }
+
+        /**
+         * @return what stands for the includer: includers that include
+         *   alike, such as the includers of one {@link HoconIncludeCache},
+         *   stand for the same
+         */
+        private static Object _includerKey(ConfigIncluder includer)
+        {
+            if (includer instanceof RecordingIncluder) { // only records
+                return _includerKey(((RecordingIncluder) includer).getFallback());
+            }
+            if (includer instanceof HoconIncludeCache) {
+                return ((HoconIncludeCache) includer)._entries;
+            }
+            return includer;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = (syntax == null) ? 0 : syntax.hashCode();
+            result = 31 * result + ((originDescription == null) ? 0 : originDescription.hashCode());
+            result = 31 * result + (allowMissing ? 1 : 0);
+            result = 31 * result + System.identityHashCode(classLoader);
+            result = 31 * result + System.identityHashCode(includer);
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Options)) {
+                return false;
+            }
+            Options other = (Options) obj;
+            return syntax == other.syntax && allowMissing == other.allowMissing
+                    && ((originDescription == null) ? (other.originDescription == null)
+                            : originDescription.equals(other.originDescription))
+                    && classLoader == other.classLoader && includer == other.includer;
+        }
+    }
+
+    private final static class Entry {
+        final ConfigObject value;
+        final long weight;
+
+        Entry(ConfigObject value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigParseOptions;
+
+/**
+ * Parses a list of configuration sources in parallel and merges them with
+ * {@link Config#withFallback} semantics: values of a source take precedence
+ * over those of the sources after it. Substitutions are resolved once, on
+ * the merged result, so they may refer to values from any source.
+ * <p>
+ * Sources are split in halves recursively; each half is parsed and merged
+ * on its own, which is equivalent to merging the sources one at a time as
+ * <code>withFallback</code> is associative.
+ */
+final class HoconConfigMerger {
+
+    private HoconConfigMerger() { }
+
+    /**
+     * Extensions of the files picked up from a directory; the same ones
+     * {@link ConfigFactory#parseFile(File)} knows the syntax of.
+     */
+    private final static String[] EXTENSIONS = { ".conf", ".json", ".properties" };
+
+    /**
+     * Pool used if none was set on the factory; worker threads are daemons.
+     */
+    static class DefaultPool {
+        final static ForkJoinPool INSTANCE = new ForkJoinPool();
+    }
+
+    /**
+     * @param sources {@link File}s, {@link Path}s or {@link URL}s, in order of
+     *   precedence
+     * @return the merged and resolved configuration
+     */
+    public static Config load(ForkJoinPool pool, List<?> sources) {
+        return merge(pool, sources).resolve();
+    }
+
+    /**
+     * Same as {@link #load} but leaves substitutions unresolved.
+     */
+    public static Config merge(ForkJoinPool pool, List<?> sources) {
+        return merge(pool, sources, ConfigParseOptions.defaults());
+    }
+
+    /**
+     * Same as {@link #merge(ForkJoinPool, List)}, parsing the sources with
+     * the given options.
+     */
+    public static Config merge(ForkJoinPool pool, List<?> sources, ConfigParseOptions options)
+    {
+        if (sources.isEmpty()) {
+            return ConfigFactory.empty();
+        }
+        Object[] array = sources.toArray();
+        for (Object source : array) {
+            if (!(source instanceof File || source instanceof Path || source instanceof URL)) {
+                throw new IllegalArgumentException("Can not load configuration from "
+                        +((source == null) ? "null" : source.getClass().getName())
+                        +", expected File, Path or URL");
+            }
+        }
+        if (pool == null) {
+            pool = DefaultPool.INSTANCE;
+        }
+        return pool.invoke(new MergeTask(array, 0, array.length, options));
+    }
+
+    /**
+     * @return configuration files of the directory in order of precedence:
+     *   sorted by name, last first, so that fragments named later override
+     *   those named earlier (as with <code>conf.d</code> directories)
+     */
+    public static List<File> listFiles(File directory) throws IOException
+    {
+        File[] files = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File f) {
+                if (!f.isFile()) {
+                    return false;
+                }
+                String name = f.getName();
+                for (String ext : EXTENSIONS) {
+                    if (name.endsWith(ext)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        });
+        if (files == null) {
+            throw new IOException("Not a readable directory: "+directory);
+        }
+        Arrays.sort(files, Collections.<File>reverseOrder());
+        return new ArrayList<File>(Arrays.asList(files));
+    }
+
+    static Config parse(Object source, ConfigParseOptions options)
+    {
+        if (source instanceof File) {
+            return ConfigFactory.parseFile((File) source, options);
+        }
+        if (source instanceof Path) {
+            return ConfigFactory.parseFile(((Path) source).toFile(), options);
+        }
+        return ConfigFactory.parseURL((URL) source, options);
+    }
+
+    /*
+    /**********************************************************
+    /* Helper classes
+    /**********************************************************
+     */
+
+    @SuppressWarnings("serial")
+    final static class MergeTask extends RecursiveTask<Config> {
+        private final Object[] _sources;
+        private final int _from;
+        private final int _to;
+        private final ConfigParseOptions _options;
+
+        MergeTask(Object[] sources, int from, int to, ConfigParseOptions options) {
+            _sources = sources;
+            _from = from;
+            _to = to;
+            _options = options;
+        }
+
+        @Override
+        protected Config compute() {
+            if (_to - _from == 1) {
+                return parse(_sources[_from], _options);
+            }
+            int mid = (_from + _to) >>> 1;
+            MergeTask first = new MergeTask(_sources, _from, mid, _options);
+            first.fork();
+            Config second = new MergeTask(_sources, mid, _to, _options).compute();
+            return first.join().withFallback(second);
+        }
+    }
+}
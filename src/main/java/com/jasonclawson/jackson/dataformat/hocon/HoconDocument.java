@@ -0,0 +1,188 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.typesafe.config.ConfigList;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigOrigin;
+import com.typesafe.config.ConfigValue;
+
+/**
+ * Resolved configuration prepared for traversal by any number of
+ * {@link HoconTreeTraversingParser}s: every container of the tree is
+ * classified up front, and the members of its objects are listed in a
+ * fixed order (numerically indexed objects by index), so that parsers
+ * created from a document never classify a container, sort keys or copy
+ * entry sets again. The locations of the values are created up front too,
+ * one per line of the source. Creating a parser only allocates its cursors.
+ * <p>
+ * Instances are immutable and may be shared between threads; each thread
+ * creates its own parsers. Typically created once, with
+ * {@link HoconFactory#createDocument(java.io.File)}, and kept for as long
+ * as the configuration does not change.
+ */
+public final class HoconDocument {
+
+    private final ConfigObject _root;
+
+    private final Metadata _metadata;
+
+    public HoconDocument(ConfigObject root)
+    {
+        _root = root;
+        _metadata = new Metadata(root);
+    }
+
+    /**
+     * @return the resolved configuration of this document
+     */
+    public ConfigObject getConfigObject() {
+        return _root;
+    }
+
+    /**
+     * Creates a parser over the whole document.
+     */
+    public HoconTreeTraversingParser createParser(ObjectCodec codec) {
+        return new HoconTreeTraversingParser(this, codec);
+    }
+
+    /**
+     * Creates a parser over the value at the given path only, as
+     * {@link HoconTreeTraversingParser#HoconTreeTraversingParser(ConfigObject, ObjectCodec, String)}
+     * does.
+     */
+    public HoconTreeTraversingParser createParser(ObjectCodec codec, String path) {
+        return new HoconTreeTraversingParser(this, codec, path);
+    }
+
+    /**
+     * Creates a parser over the values that the filter includes only.
+     */
+    public HoconTreeTraversingParser createParser(ObjectCodec codec, HoconPathFilter filter) {
+        return new HoconTreeTraversingParser(this, codec, filter);
+    }
+
+    Metadata metadata() {
+        return _metadata;
+    }
+
+    /**
+     * Classification and members of all containers of a tree, computed
+     * once. Unlike its base class it is never modified after construction,
+     * so one instance is shared by all parsers of the document.
+     */
+    final static class Metadata extends NumericIndexDetector {
+
+        /**
+         * Members of the objects that are not numerically indexed
+         */
+        private final IdentityHashMap<ConfigObject, List<Map.Entry<String, ConfigValue>>> _entries
+            = new IdentityHashMap<ConfigObject, List<Map.Entry<String, ConfigValue>>>();
+
+        /**
+         * Members of the objects that are arrays, sorted by index
+         */
+        private final IdentityHashMap<ConfigObject, List<Map.Entry<Integer, ConfigValue>>> _elements
+            = new IdentityHashMap<ConfigObject, List<Map.Entry<Integer, ConfigValue>>>();
+
+        /**
+         * Locations of the origins of all values; each value has an origin
+         * of its own, and equal origins (of values on the same line) share
+         * a location
+         */
+        private final IdentityHashMap<ConfigOrigin, HoconJsonLocation> _locations
+            = new IdentityHashMap<ConfigOrigin, HoconJsonLocation>();
+
+        Metadata(ConfigObject root) {
+            super(false); // classified up front
+            _add(root, new HashMap<ConfigOrigin, HoconJsonLocation>());
+        }
+
+        private void _add(ConfigValue value, Map<ConfigOrigin, HoconJsonLocation> locations)
+        {
+            ConfigOrigin origin = value.origin();
+            if (!_locations.containsKey(origin)) {
+                HoconJsonLocation location = locations.get(origin);
+                if (location == null) {
+                    location = new HoconJsonLocation(origin);
+                    locations.put(origin, location);
+                }
+                _locations.put(origin, location);
+            }
+            if (value instanceof ConfigList) {
+                for (ConfigValue element : (ConfigList) value) {
+                    _add(element, locations);
+                }
+                return;
+            }
+            if (!(value instanceof ConfigObject)) {
+                return;
+            }
+            ConfigObject object = (ConfigObject) value;
+            if (_entries.containsKey(object) || _elements.containsKey(object)) { // shared by reference
+                return;
+            }
+            if (hasIndexKeys(object.keySet())) {
+                TreeMap<Integer, ConfigValue> sorted = new TreeMap<Integer, ConfigValue>();
+                for (Map.Entry<String, ConfigValue> entry : object.entrySet()) {
+                    sorted.put(Integer.valueOf(entry.getKey()), entry.getValue());
+                }
+                List<Map.Entry<Integer, ConfigValue>> elements = new ArrayList<Map.Entry<Integer, ConfigValue>>(sorted.size());
+                for (Map.Entry<Integer, ConfigValue> entry : sorted.entrySet()) {
+                    elements.add(new AbstractMap.SimpleImmutableEntry<Integer, ConfigValue>(entry));
+                }
+                _elements.put(object, elements);
+            } else {
+                _entries.put(object, new ArrayList<Map.Entry<String, ConfigValue>>(object.entrySet()));
+            }
+            for (ConfigValue member : object.values()) {
+                _add(member, locations);
+            }
+        }
+
+        @Override
+        public boolean isNumericallyIndexed(ConfigValue n) {
+            if (!(n instanceof ConfigObject)) {
+                return false;
+            }
+            if (_elements.containsKey(n)) {
+                return true;
+            }
+            // values from outside the document are classified, but not remembered
+            return !_entries.containsKey(n) && isNumericallyIndexedValue(n);
+        }
+
+        /**
+         * @return the members of the object, or null if it is not part of
+         *   the document or is numerically indexed
+         */
+        List<Map.Entry<String, ConfigValue>> entries(ConfigObject object) {
+            return _entries.get(object);
+        }
+
+        /**
+         * @return the members of the numerically indexed object sorted by
+         *   index, or null if it is not part of the document or not
+         *   numerically indexed
+         */
+        List<Map.Entry<Integer, ConfigValue>> elements(ConfigObject object) {
+            return _elements.get(object);
+        }
+
+        /**
+         * @return the location of the origin, or null if it is not the
+         *   origin of a value of the document
+         */
+        HoconJsonLocation location(ConfigOrigin origin) {
+            return _locations.get(origin);
+        }
+    }
+}
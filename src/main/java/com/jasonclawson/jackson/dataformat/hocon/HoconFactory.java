@@ -1,22 +1,33 @@
 package com.jasonclawson.jackson.dataformat.hocon;
 
 import java.io.ByteArrayInputStream;
+import java.io.CharArrayReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.Writer;
 import java.net.URL;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.core.ObjectCodec;
 import com.fasterxml.jackson.core.format.InputAccessor;
 import com.fasterxml.jackson.core.format.MatchStrength;
@@ -36,6 +47,52 @@ public class HoconFactory extends JsonFactory {
 	private final static byte UTF8_BOM_1 = (byte) 0xEF;
     private final static byte UTF8_BOM_2 = (byte) 0xBB;
     private final static byte UTF8_BOM_3 = (byte) 0xBF;
+
+    /**
+     * Bitfield (set of flags) of all parser features that are enabled
+     * by default.
+     */
+    protected final static int DEFAULT_HOCON_PARSER_FEATURE_FLAGS = HoconParserFeature.collectDefaults();
+
+    protected int _hoconParserFeatures = DEFAULT_HOCON_PARSER_FEATURE_FLAGS;
+
+    /**
+     * Bitfield (set of flags) of all generator features that are enabled
+     * by default.
+     */
+    protected final static int DEFAULT_HOCON_GENERATOR_FEATURE_FLAGS = HoconGenerator.Feature.collectDefaults();
+
+    protected int _hoconGeneratorFeatures = DEFAULT_HOCON_GENERATOR_FEATURE_FLAGS;
+
+    /**
+     * Optional cache of resolved trees for File and URL inputs
+     */
+    protected transient HoconConfigCache _configCache;
+
+    /**
+     * Optional cache of parsed included files
+     */
+    protected transient HoconIncludeCache _includeCache;
+
+    /**
+     * Pool on which merged sources are parsed; null for a shared default one
+     */
+    protected transient ForkJoinPool _mergePool;
+
+    /**
+     * Optional listener to report parse measurements to
+     */
+    protected transient HoconParseListener _parseListener;
+
+    /**
+     * Size of the byte buffer UTF-8 streams are read into
+     */
+    protected int _inputBufferSize = UTF8Reader.DEFAULT_BUFFER_SIZE;
+
+    /**
+     * Pool of the buffers that input streams are read into
+     */
+    protected transient HoconBufferPool _bufferPool = HoconBufferPool.ThreadLocalPool.INSTANCE;
 	
     public HoconFactory() { this(null); }
     
@@ -45,6 +102,17 @@ public class HoconFactory extends JsonFactory {
 
     public HoconFactory(HoconFactory src, ObjectCodec oc) {
         super(src, oc);
+        _hoconParserFeatures = src._hoconParserFeatures;
+        _hoconGeneratorFeatures = src._hoconGeneratorFeatures;
+        _configCache = src._configCache;
+        _includeCache = src._includeCache;
+        _mergePool = src._mergePool;
+        _parseListener = src._parseListener;
+        _inputBufferSize = src._inputBufferSize;
+        // null when restored from its serialized form
+        if (src._bufferPool != null) {
+            _bufferPool = src._bufferPool;
+        }
     }
 
     
@@ -134,7 +202,177 @@ public class HoconFactory extends JsonFactory {
     /**********************************************************
      */
 
+    /**
+     * Method for enabling or disabling specified parser feature
+     * (check {@link HoconParserFeature} for list of features)
+     */
+    public final HoconFactory configure(HoconParserFeature f, boolean state)
+    {
+        if (state) {
+            enable(f);
+        } else {
+            disable(f);
+        }
+        return this;
+    }
+
+    /**
+     * Method for enabling specified parser feature
+     * (check {@link HoconParserFeature} for list of features)
+     */
+    public HoconFactory enable(HoconParserFeature f) {
+        _hoconParserFeatures |= f.getMask();
+        return this;
+    }
+
+    /**
+     * Method for disabling specified parser feature
+     * (check {@link HoconParserFeature} for list of features)
+     */
+    public HoconFactory disable(HoconParserFeature f) {
+        _hoconParserFeatures &= ~f.getMask();
+        return this;
+    }
+
+    /**
+     * Checked whether specified parser feature is enabled.
+     */
+    public final boolean isEnabled(HoconParserFeature f) {
+        return (_hoconParserFeatures & f.getMask()) != 0;
+    }
+
+    /**
+     * Sets the cache to use for parsers created from files and URLs; null
+     * (the default) to parse them on every call. The cache may be shared
+     * between factories, even ones with different include caches: entries
+     * are kept apart by the options they were parsed with.
+     */
+    public HoconFactory setConfigCache(HoconConfigCache cache) {
+        _configCache = cache;
+        return this;
+    }
 
+    public HoconConfigCache getConfigCache() {
+        return _configCache;
+    }
+
+    /**
+     * Sets the cache to parse files included by the documents of this
+     * factory through; null (the default) to parse them on every include.
+     * The cache may be shared between factories.
+     */
+    public HoconFactory setIncludeCache(HoconIncludeCache cache) {
+        _includeCache = cache;
+        return this;
+    }
+
+    public HoconIncludeCache getIncludeCache() {
+        return _includeCache;
+    }
+
+    /**
+     * Sets the pool on which {@link #createMergedParser(List)} parses
+     * sources; null (the default) for a pool shared by all factories.
+     */
+    public HoconFactory setMergePool(ForkJoinPool pool) {
+        _mergePool = pool;
+        return this;
+    }
+
+    /**
+     * Sets the listener to report the measurements of every parser created
+     * to, such as a {@link HoconMetrics}; null (the default) to measure
+     * nothing.
+     */
+    public HoconFactory setParseListener(HoconParseListener listener) {
+        _parseListener = listener;
+        return this;
+    }
+
+    public HoconParseListener getParseListener() {
+        return _parseListener;
+    }
+
+    /**
+     * Sets the size of the byte buffer that UTF-8 encoded streams are read
+     * into, {@link UTF8Reader#DEFAULT_BUFFER_SIZE} by default. Larger
+     * buffers mean fewer reads from the stream for large documents.
+     */
+    public HoconFactory setInputBufferSize(int size) {
+        if (size < UTF8Reader.MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Input buffer size must be at least "
+                    +UTF8Reader.MIN_BUFFER_SIZE+", got "+size);
+        }
+        _inputBufferSize = size;
+        return this;
+    }
+
+    public int getInputBufferSize() {
+        return _inputBufferSize;
+    }
+
+    /**
+     * Sets the pool that the buffers input streams are read into are taken
+     * from and returned to. The default keeps a buffer per thread; with a
+     * thread per task, such as virtual threads, a
+     * {@link HoconBufferPool.SharedPool} recycles buffers across threads.
+     *
+     * @param pool pool to use; null for the default
+     *   {@link HoconBufferPool.ThreadLocalPool}
+     */
+    public HoconFactory setBufferPool(HoconBufferPool pool) {
+        _bufferPool = (pool == null) ? HoconBufferPool.ThreadLocalPool.INSTANCE : pool;
+        return this;
+    }
+
+    public HoconBufferPool getBufferPool() {
+        return _bufferPool;
+    }
+
+    /*
+    /**********************************************************
+    /* Configuration, generator settings
+    /**********************************************************
+     */
+
+    /**
+     * Method for enabling or disabling specified generator feature
+     * (check {@link HoconGenerator.Feature} for list of features)
+     */
+    public final HoconFactory configure(HoconGenerator.Feature f, boolean state)
+    {
+        if (state) {
+            enable(f);
+        } else {
+            disable(f);
+        }
+        return this;
+    }
+
+    /**
+     * Method for enabling specified generator feature
+     * (check {@link HoconGenerator.Feature} for list of features)
+     */
+    public HoconFactory enable(HoconGenerator.Feature f) {
+        _hoconGeneratorFeatures |= f.getMask();
+        return this;
+    }
+
+    /**
+     * Method for disabling specified generator feature
+     * (check {@link HoconGenerator.Feature} for list of features)
+     */
+    public HoconFactory disable(HoconGenerator.Feature f) {
+        _hoconGeneratorFeatures &= ~f.getMask();
+        return this;
+    }
+
+    /**
+     * Check whether specified generator feature is enabled.
+     */
+    public final boolean isEnabled(HoconGenerator.Feature f) {
+        return (_hoconGeneratorFeatures & f.getMask()) != 0;
+    }
 
     /*
     /**********************************************************
@@ -161,9 +399,24 @@ public class HoconFactory extends JsonFactory {
     public HoconTreeTraversingParser createParser(File f)
         throws IOException, JsonParseException
     {
-        // choosing to support hocon include instead of inputDecorator
-        Config resolvedConfig = ConfigFactory.parseFile(f).resolve();
-        return new HoconTreeTraversingParser(resolvedConfig.root(), _objectCodec);
+        HoconParseEvent event = _createParseEvent(f);
+        return _withEvent(new HoconTreeTraversingParser(_loadConfig(f, event), _objectCodec), event);
+    }
+
+    /**
+     * Creates a parser over a file read through a {@link java.nio.channels.FileChannel},
+     * memory-mapped if it is large. Includes are resolved relative to the
+     * file. If a {@link HoconConfigCache} is set, the file is read through
+     * the cache instead.
+     */
+    public JsonParser createParser(Path path)
+        throws IOException, JsonParseException
+    {
+        HoconParseEvent event = _createParseEvent(path);
+        if (_configCache != null) {
+            return _withEvent(new HoconTreeTraversingParser(_loadConfig(path.toFile(), event), _objectCodec), event);
+        }
+        return _createParser(path, event);
     }
     
     @SuppressWarnings("resource")
@@ -171,9 +424,8 @@ public class HoconFactory extends JsonFactory {
     public HoconTreeTraversingParser createParser(URL url)
         throws IOException, JsonParseException
     {
-        // choosing to support hocon include instead of inputDecorator
-        Config resolvedConfig = ConfigFactory.parseURL(url).resolve();
-        return new HoconTreeTraversingParser(resolvedConfig.root(), _objectCodec);
+        HoconParseEvent event = _createParseEvent(url);
+        return _withEvent(new HoconTreeTraversingParser(_loadConfig(url, event), _objectCodec), event);
     }
 
     @SuppressWarnings("resource")
@@ -198,7 +450,7 @@ public class HoconFactory extends JsonFactory {
         if (_inputDecorator != null) {
             r = _inputDecorator.decorate(ctxt, r);
         }
-        return _createParser(r, ctxt);
+        return _createTextParser(r, ctxt);
     }
 
     @SuppressWarnings("resource")
@@ -233,6 +485,245 @@ public class HoconFactory extends JsonFactory {
         return _createParser(data, offset, len, ctxt);
     }
     
+    /*
+    /**********************************************************
+    /* Extended parser factory methods
+    /**********************************************************
+     */
+
+    /**
+     * Creates a parser over text the way {@link #createParser(Reader)} does:
+     * unlike {@link #createParser(String)}, which always returns a tree
+     * parser, the parser returned depends on {@link HoconParserFeature#PREFER_STREAMING},
+     * {@link HoconParserFeature#MULTI_DOCUMENT} and {@link HoconParserFeature#STREAM_INCREMENTALLY}.
+     */
+    @SuppressWarnings("resource")
+    public JsonParser createTextParser(String content)
+        throws IOException, JsonParseException
+    {
+        Reader r = new StringReader(content);
+        IOContext ctxt = _createContext(r, true);
+        if (_inputDecorator != null) {
+            r = _inputDecorator.decorate(ctxt, r);
+        }
+        return _createTextParser(r, ctxt);
+    }
+
+    /**
+     * Creates a parser over text the way {@link #createTextParser(String)} does.
+     */
+    @SuppressWarnings("resource")
+    public JsonParser createTextParser(InputStream in)
+        throws IOException, JsonParseException
+    {
+        IOContext ctxt = _createContext(in, false);
+        if (_inputDecorator != null) {
+            in = _inputDecorator.decorate(ctxt, in);
+        }
+        return _createTextParser(_createReader(in, null, ctxt), ctxt);
+    }
+
+    /**
+     * Creates a parser over text the way {@link #createTextParser(String)} does.
+     */
+    public JsonParser createTextParser(byte[] data)
+        throws IOException, JsonParseException
+    {
+        return createTextParser(data, 0, data.length);
+    }
+
+    /**
+     * Creates a parser over text the way {@link #createTextParser(String)} does.
+     */
+    @SuppressWarnings("resource")
+    public JsonParser createTextParser(byte[] data, int offset, int len)
+        throws IOException, JsonParseException
+    {
+        IOContext ctxt = _createContext(data, true);
+        if (_inputDecorator != null) {
+            InputStream in = _inputDecorator.decorate(ctxt, data, offset, len);
+            if (in != null) {
+                return _createTextParser(_createReader(in, null, ctxt), ctxt);
+            }
+        }
+        return _createTextParser(_createReader(data, offset, len, null, ctxt), ctxt);
+    }
+
+    /**
+     * Creates a parser that is fed UTF-8 input in chunks as it arrives and
+     * never blocks, see {@link HoconNonBlockingParser}. Only documents the
+     * streaming parser supports can be parsed this way: substitutions,
+     * includes and anything else that would need the whole document are
+     * reported as parse errors.
+     */
+    public HoconNonBlockingParser createNonBlockingParser() throws IOException
+    {
+        HoconNonBlockingParser p = new HoconNonBlockingParser(_createContext(null, false), _parserFeatures,
+                _objectCodec, true, _bufferPool);
+        HoconParseEvent event = _createParseEvent(null);
+        if (event != null) {
+            event._streaming = true;
+            p._parseEvent = event;
+        }
+        return p;
+    }
+
+    /**
+     * Creates a parser over the value at the given HOCON path of a file only,
+     * such as <code>services.payments.db</code>. The rest of the configuration
+     * is not traversed; the parsing context of the value still has the
+     * enclosing objects as parents.
+     *
+     * @throws ConfigException.Missing if there is no value at the path
+     */
+    public HoconTreeTraversingParser createParser(File f, String path)
+        throws IOException, JsonParseException
+    {
+        HoconParseEvent event = _createParseEvent(f);
+        return _withEvent(new HoconTreeTraversingParser(_loadConfig(f, event), _objectCodec, path), event);
+    }
+
+    /**
+     * Same as {@link #createParser(File, String)} for a URL.
+     */
+    public HoconTreeTraversingParser createParser(URL url, String path)
+        throws IOException, JsonParseException
+    {
+        HoconParseEvent event = _createParseEvent(url);
+        return _withEvent(new HoconTreeTraversingParser(_loadConfig(url, event), _objectCodec, path), event);
+    }
+
+    /**
+     * Same as {@link #createParser(File, String)} with the value addressed
+     * by a JSON Pointer, such as <code>/services/payments/db</code>.
+     */
+    public HoconTreeTraversingParser createParser(File f, JsonPointer pointer)
+        throws IOException, JsonParseException
+    {
+        HoconParseEvent event = _createParseEvent(f);
+        return _withEvent(new HoconTreeTraversingParser(_loadConfig(f, event), _objectCodec, pointer), event);
+    }
+
+    /**
+     * Same as {@link #createParser(File, JsonPointer)} for a URL.
+     */
+    public HoconTreeTraversingParser createParser(URL url, JsonPointer pointer)
+        throws IOException, JsonParseException
+    {
+        HoconParseEvent event = _createParseEvent(url);
+        return _withEvent(new HoconTreeTraversingParser(_loadConfig(url, event), _objectCodec, pointer), event);
+    }
+
+    /**
+     * Creates a parser over the values of a file that the filter includes.
+     * Excluded values are skipped as a whole, without being traversed.
+     */
+    public HoconTreeTraversingParser createParser(File f, HoconPathFilter filter)
+        throws IOException, JsonParseException
+    {
+        HoconParseEvent event = _createParseEvent(f);
+        return _withEvent(new HoconTreeTraversingParser(_loadConfig(f, event), _objectCodec, filter), event);
+    }
+
+    /**
+     * Same as {@link #createParser(File, HoconPathFilter)} for a URL.
+     */
+    public HoconTreeTraversingParser createParser(URL url, HoconPathFilter filter)
+        throws IOException, JsonParseException
+    {
+        HoconParseEvent event = _createParseEvent(url);
+        return _withEvent(new HoconTreeTraversingParser(_loadConfig(url, event), _objectCodec, filter), event);
+    }
+
+    /**
+     * Parses and resolves a file into a {@link HoconDocument}, from which
+     * parsers can be created cheaply from any thread.
+     */
+    public HoconDocument createDocument(File f) throws IOException
+    {
+        return new HoconDocument(_loadConfig(f));
+    }
+
+    /**
+     * Same as {@link #createDocument(File)} for a URL.
+     */
+    public HoconDocument createDocument(URL url) throws IOException
+    {
+        return new HoconDocument(_loadConfig(url));
+    }
+
+    /**
+     * Creates a parser over a document, with the codec of this factory.
+     */
+    public HoconTreeTraversingParser createParser(HoconDocument document)
+    {
+        return new HoconTreeTraversingParser(document, _objectCodec);
+    }
+
+    /**
+     * Creates a parser over several configuration sources merged into one,
+     * values of a source taking precedence over those of the sources after
+     * it (as with {@link Config#withFallback}). Sources are parsed in
+     * parallel and resolved once, after merging.
+     *
+     * @param sources {@link File}s, {@link Path}s or {@link URL}s
+     */
+    public HoconTreeTraversingParser createMergedParser(List<?> sources)
+        throws IOException, JsonParseException
+    {
+        HoconParseEvent event = _createParseEvent(sources);
+        long start = System.nanoTime();
+        Config merged = HoconConfigMerger.merge(_mergePool, sources, _parseOptions());
+        ConfigObject root = HoconParseEvent.resolve(merged, start, event);
+        return _withEvent(new HoconTreeTraversingParser(root, _objectCodec), event);
+    }
+
+    /**
+     * Creates a parser over the <code>.conf</code>, <code>.json</code> and
+     * <code>.properties</code> files of a directory, merged as per
+     * {@link #createMergedParser(List)}. As in <code>conf.d</code>
+     * directories, files are applied in order of their names, values of a
+     * file overriding those of the files before it: <code>20-local.conf</code>
+     * overrides <code>10-defaults.conf</code>.
+     */
+    public HoconTreeTraversingParser createMergedParser(File directory)
+        throws IOException, JsonParseException
+    {
+        return createMergedParser(HoconConfigMerger.listFiles(directory));
+    }
+
+    /**
+     * Creates a parser over the given sources merged and resolved as per
+     * {@link #createMergedParser(List)}, read from a {@link HoconSnapshot}
+     * when the snapshot file was made from the same sources. Otherwise the
+     * sources are parsed, and the snapshot is written for the next time.
+     * <p>
+     * Only the sources themselves are hashed: files they include should be
+     * listed as sources as well if they may change. Substitutions resolved
+     * from environment variables are baked into the snapshot, so the values
+     * of the variables that the substitutions of the sources name are hashed
+     * too; a change to one of them makes the snapshot stale.
+     */
+    public HoconTapeParser createSnapshotParser(List<?> sources, Path snapshot)
+        throws IOException, JsonParseException
+    {
+        byte[] hash = HoconSnapshot.hash(sources);
+        HoconTokenTape tape = null;
+        if (Files.isRegularFile(snapshot)) {
+            try {
+                tape = HoconSnapshot.read(snapshot, hash);
+            } catch (IOException e) { // corrupt or from another version: replace it
+                tape = null;
+            }
+        }
+        if (tape == null) {
+            Config merged = HoconConfigMerger.merge(_mergePool, sources, _parseOptions());
+            tape = HoconTokenTape.compile(merged.resolve().root());
+            HoconSnapshot.write(tape, hash, snapshot);
+        }
+        return tape.createParser(_objectCodec);
+    }
+
     /*
     /**********************************************************
     /* Overridden parser factory methods (2.0 and prior)
@@ -296,23 +787,35 @@ public class HoconFactory extends JsonFactory {
 
     @SuppressWarnings("resource")
     @Override
-    public JsonGenerator createGenerator(OutputStream out, JsonEncoding enc) throws IOException
+    public HoconGenerator createGenerator(OutputStream out, JsonEncoding enc) throws IOException
     {
-    	throw new UnsupportedOperationException("Generating HOCON is not supported yet");
+        // false -> we won't manage the stream unless explicitly directed to
+        IOContext ctxt = _createContext(out, false);
+        ctxt.setEncoding(enc);
+        // [JACKSON-512]: allow wrapping with _outputDecorator
+        if (_outputDecorator != null) {
+            out = _outputDecorator.decorate(ctxt, out);
+        }
+        return _createGenerator(_createWriter(out, enc, ctxt), ctxt);
     }
 
     @SuppressWarnings("resource")
     @Override
-    public JsonGenerator createGenerator(OutputStream out) throws IOException
+    public HoconGenerator createGenerator(OutputStream out) throws IOException
     {
-    	throw new UnsupportedOperationException("Generating HOCON is not supported yet");
+        return createGenerator(out, JsonEncoding.UTF8);
     }
     
     @SuppressWarnings("resource")
     @Override
-    public JsonGenerator createGenerator(Writer out) throws IOException
+    public HoconGenerator createGenerator(Writer out) throws IOException
     {
-    	throw new UnsupportedOperationException("Generating HOCON is not supported yet");
+        IOContext ctxt = _createContext(out, false);
+        // [JACKSON-512]: allow wrapping with _outputDecorator
+        if (_outputDecorator != null) {
+            out = _outputDecorator.decorate(ctxt, out);
+        }
+        return _createGenerator(out, ctxt);
     }
     
     /*
@@ -324,22 +827,22 @@ public class HoconFactory extends JsonFactory {
     // remove in 2.4
     @Deprecated
     @Override
-    public JsonGenerator createJsonGenerator(OutputStream out, JsonEncoding enc) throws IOException {
-        throw new UnsupportedOperationException("Generating HOCON is not supported yet");
+    public HoconGenerator createJsonGenerator(OutputStream out, JsonEncoding enc) throws IOException {
+        return createGenerator(out, enc);
     }
 
     // remove in 2.4
     @Deprecated
     @Override
-    public JsonGenerator createJsonGenerator(OutputStream out) throws IOException {
-    	throw new UnsupportedOperationException("Generating HOCON is not supported yet");
+    public HoconGenerator createJsonGenerator(OutputStream out) throws IOException {
+        return createGenerator(out);
     }
 
     // remove in 2.4
     @Deprecated
     @Override
-    public JsonGenerator createJsonGenerator(Writer out) throws IOException {
-    	throw new UnsupportedOperationException("Generating HOCON is not supported yet");
+    public HoconGenerator createJsonGenerator(Writer out) throws IOException {
+        return createGenerator(out);
     }
     
     /*
@@ -363,8 +866,42 @@ public class HoconFactory extends JsonFactory {
     protected HoconTreeTraversingParser _createParser(Reader r, IOContext ctxt)
         throws IOException, JsonParseException
     {
-        Config resolvedConfig = ConfigFactory.parseReader(r).resolve();
-        return new HoconTreeTraversingParser(resolvedConfig.root(), _objectCodec);
+        if (isEnabled(HoconParserFeature.MULTI_DOCUMENT)) {
+            return new HoconMultiDocumentParser(ctxt, _parserFeatures, _objectCodec, r, _parseOptions(), _bufferPool);
+        }
+        HoconParseEvent event = _createParseEvent(ctxt.getSourceReference());
+        long start = System.nanoTime();
+        ConfigObject root = HoconParseEvent.resolve(ConfigFactory.parseReader(r, _parseOptions()), start, event);
+        _recordInput(event, r);
+        return _withEvent(new HoconTreeTraversingParser(root, _objectCodec), event);
+    }
+
+    /**
+     * Creates the parser for text input that the parser features select:
+     * a {@link HoconMultiDocumentParser}, an incremental {@link HoconStreamingParser}
+     * or one that falls back on a tree, or a tree parser.
+     */
+    protected JsonParser _createTextParser(Reader r, IOContext ctxt)
+        throws IOException, JsonParseException
+    {
+        if (isEnabled(HoconParserFeature.MULTI_DOCUMENT)
+                || (!isEnabled(HoconParserFeature.PREFER_STREAMING) && !isEnabled(HoconParserFeature.STREAM_INCREMENTALLY))) {
+            return _createParser(r, ctxt);
+        }
+        HoconParseEvent event = _createParseEvent(ctxt.getSourceReference());
+        if (isEnabled(HoconParserFeature.STREAM_INCREMENTALLY)) {
+            return _createIncrementalParser(r, ctxt, event);
+        }
+        // read as a whole, for the parser to fall back on a resolved tree
+        // of it when it turns out not to be streamable
+        long start = System.nanoTime();
+        char[] content = _readContent(r);
+        if (event != null) {
+            _recordInput(event, r);
+            event._charCount = content.length;
+            event._readNanos = System.nanoTime() - start;
+        }
+        return _createStreamingParser(ctxt, content, content.length, _parseOptions(), event);
     }
 
     @SuppressWarnings("resource")
@@ -377,23 +914,26 @@ public class HoconFactory extends JsonFactory {
     }
 
     @Override
-    protected JsonGenerator _createGenerator(Writer out, IOContext ctxt)
+    protected HoconGenerator _createGenerator(Writer out, IOContext ctxt)
         throws IOException
     {
-    	throw new UnsupportedOperationException("Generating HOCON is not supported yet");
+        return new HoconGenerator(ctxt, _generatorFeatures, _hoconGeneratorFeatures, _objectCodec, out);
     }
 
     @SuppressWarnings("resource")
     @Deprecated
     @Override
-    protected JsonGenerator _createUTF8Generator(OutputStream out, IOContext ctxt) throws IOException {
-    	throw new UnsupportedOperationException("Generating HOCON is not supported yet");
+    protected HoconGenerator _createUTF8Generator(OutputStream out, IOContext ctxt) throws IOException {
+        return _createGenerator(_createWriter(out, JsonEncoding.UTF8, ctxt), ctxt);
     }
 
     @Override
     protected Writer _createWriter(OutputStream out, JsonEncoding enc, IOContext ctxt) throws IOException
     {
-    	throw new UnsupportedOperationException("Generating HOCON is not supported yet");
+        if (enc == JsonEncoding.UTF8) {
+            return new com.fasterxml.jackson.core.io.UTF8Writer(ctxt, out);
+        }
+        return new OutputStreamWriter(out, enc.getJavaName());
     }
     
     /*
@@ -402,6 +942,213 @@ public class HoconFactory extends JsonFactory {
     /**********************************************************
      */
 
+    protected ConfigObject _loadConfig(File f) throws IOException {
+        return _loadConfig(f, null);
+    }
+
+    protected ConfigObject _loadConfig(URL url) throws IOException {
+        return _loadConfig(url, null);
+    }
+
+    /**
+     * @param event event to record measurements into, may be null
+     */
+    protected ConfigObject _loadConfig(File f, HoconParseEvent event) throws IOException
+    {
+        if (event != null) {
+            event._byteCount = f.length();
+        }
+        // choosing to support hocon include instead of inputDecorator
+        if (_configCache != null) {
+            return _configCache.get(f, _parseOptions(), event);
+        }
+        if (isEnabled(HoconParserFeature.READ_FILES_THROUGH_CHANNEL)) {
+            Path path = f.toPath();
+            return _parseContent(path, _readFile(path, event), event);
+        }
+        long start = System.nanoTime();
+        return HoconParseEvent.resolve(ConfigFactory.parseFile(f, _parseOptions()), start, event);
+    }
+
+    /**
+     * Creates a parser over a file the way {@link #createParser(File)} does,
+     * recording the files it includes. The config cache is not used: its
+     * entries are keyed by the file alone, and would hide changes to the
+     * files it includes.
+     *
+     * @param files set to add the file and the files it includes to
+     */
+    HoconTreeTraversingParser _createRecordingParser(File f, Set<File> files) throws IOException
+    {
+        HoconParseEvent event = _createParseEvent(f);
+        if (event != null) {
+            event._byteCount = f.length();
+        }
+        files.add(f.getAbsoluteFile());
+        ConfigParseOptions options = _parseOptions();
+        options = options.setIncluder(new RecordingIncluder(files, options.getIncluder()));
+        long start = System.nanoTime();
+        ConfigObject root = HoconParseEvent.resolve(ConfigFactory.parseFile(f, options), start, event);
+        return _withEvent(new HoconTreeTraversingParser(root, _objectCodec), event);
+    }
+
+    protected ConfigObject _loadConfig(URL url, HoconParseEvent event) throws IOException
+    {
+        if (_configCache != null) {
+            return _configCache.get(url, _parseOptions(), event);
+        }
+        long start = System.nanoTime();
+        return HoconParseEvent.resolve(ConfigFactory.parseURL(url, _parseOptions()), start, event);
+    }
+
+    /**
+     * Creates a streaming parser over the file if possible, a tree parser
+     * otherwise.
+     */
+    protected JsonParser _createParser(Path path, HoconParseEvent event) throws IOException
+    {
+        if (isEnabled(HoconParserFeature.STREAM_INCREMENTALLY)
+                && HoconFileInput.syntaxOf(path) != ConfigSyntax.PROPERTIES) {
+            Reader r = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8);
+            return _createIncrementalParser(r, _createContext(path, true), event);
+        }
+        CharBuffer content = _readFile(path, event);
+        if (isEnabled(HoconParserFeature.PREFER_STREAMING)
+                && HoconFileInput.syntaxOf(path) != ConfigSyntax.PROPERTIES) {
+            return _createStreamingParser(_createContext(path, true), content.array(), content.limit(),
+                    HoconFileInput.parseOptions(path, _includeCache), event);
+        }
+        return _withEvent(new HoconTreeTraversingParser(_parseContent(path, content, event), _objectCodec), event);
+    }
+
+    /**
+     * Creates a streaming parser over the whole document, for
+     * {@link HoconParserFeature#PREFER_STREAMING}, that falls back on the
+     * document parsed with <code>options</code> if it is not streamable.
+     */
+    protected JsonParser _createStreamingParser(IOContext ctxt, char[] content, int len,
+            ConfigParseOptions options, HoconParseEvent event)
+    {
+        HoconStreamingParser p = new HoconStreamingParser(ctxt, _parserFeatures, _objectCodec,
+                content, 0, len, true);
+        p._fallbackOptions = options;
+        if (event != null) {
+            event._streaming = true;
+            p._parseEvent = event;
+        }
+        return p;
+    }
+
+    /**
+     * Creates a streaming parser reading from <code>r</code> as it goes, for
+     * {@link HoconParserFeature#STREAM_INCREMENTALLY}.
+     */
+    protected JsonParser _createIncrementalParser(Reader r, IOContext ctxt, HoconParseEvent event)
+    {
+        HoconStreamingParser p = new HoconStreamingParser(ctxt, _parserFeatures, _objectCodec, r, true, _bufferPool);
+        p._allowRootArray = true;
+        if (event != null) {
+            event._streaming = true;
+            p._parseEvent = event;
+        }
+        return p;
+    }
+
+    protected CharBuffer _readFile(Path path, HoconParseEvent event) throws IOException
+    {
+        if (event == null) {
+            return HoconFileInput.read(path);
+        }
+        long start = System.nanoTime();
+        CharBuffer content = HoconFileInput.read(path);
+        event._readNanos = System.nanoTime() - start;
+        event._byteCount = Files.size(path);
+        event._charCount = content.limit();
+        return content;
+    }
+
+    /**
+     * Parses and resolves the content of a file read by {@link #_readFile}.
+     */
+    protected ConfigObject _parseContent(Path path, CharBuffer content, HoconParseEvent event)
+    {
+        long start = System.nanoTime();
+        Reader r = new CharArrayReader(content.array(), 0, content.limit());
+        return HoconParseEvent.resolve(ConfigFactory.parseReader(r, HoconFileInput.parseOptions(path, _includeCache)),
+                start, event);
+    }
+
+    /**
+     * @return options to parse documents with through Typesafe config
+     */
+    protected ConfigParseOptions _parseOptions()
+    {
+        ConfigParseOptions options = ConfigParseOptions.defaults();
+        return (_includeCache == null) ? options : options.setIncluder(_includeCache);
+    }
+
+    /**
+     * @return event to record the measurements of a parser into, or null
+     *   if there is no listener
+     */
+    protected HoconParseEvent _createParseEvent(Object source)
+    {
+        if (_parseListener == null) {
+            return null;
+        }
+        String desc;
+        if (source instanceof File || source instanceof URL || source instanceof Path) {
+            desc = source.toString();
+        } else if (source instanceof List<?>) {
+            desc = "merged "+((List<?>) source).size()+" sources";
+        } else {
+            desc = (source == null) ? "unknown" : source.getClass().getSimpleName();
+        }
+        return new HoconParseEvent(_parseListener, desc);
+    }
+
+    protected static HoconTreeTraversingParser _withEvent(HoconTreeTraversingParser p, HoconParseEvent event) {
+        p._parseEvent = event;
+        return p;
+    }
+
+    private static void _recordInput(HoconParseEvent event, Reader r)
+    {
+        if (event != null && r instanceof UTF8Reader) {
+            UTF8Reader utf8 = (UTF8Reader) r;
+            event._byteCount = utf8.getBytesRead();
+            event._charCount = utf8.getCharsRead();
+        }
+    }
+
+    /**
+     * Reads all content of the given reader, closing it afterwards
+     * like Typesafe config does.
+     */
+    protected char[] _readContent(Reader r) throws IOException
+    {
+        // read into a pooled buffer, most documents fit into it
+        final char[] pooled = _bufferPool.allocCharBuffer(4000);
+        try {
+            char[] buf = pooled;
+            int len = 0;
+            while (true) {
+                if (len == buf.length) {
+                    buf = Arrays.copyOf(buf, len * 2);
+                }
+                int count = r.read(buf, len, buf.length - len);
+                if (count < 0) {
+                    break;
+                }
+                len += count;
+            }
+            return (len == buf.length && buf != pooled) ? buf : Arrays.copyOf(buf, len);
+        } finally {
+            _bufferPool.releaseCharBuffer(pooled);
+            r.close();
+        }
+    }
+
     protected Reader _createReader(InputStream in, JsonEncoding enc, IOContext ctxt) throws IOException
     {
         if (enc == null) {
@@ -410,7 +1157,7 @@ public class HoconFactory extends JsonFactory {
         // default to UTF-8 if encoding missing
         if (enc == JsonEncoding.UTF8) {
             boolean autoClose = ctxt.isResourceManaged() || isEnabled(JsonParser.Feature.AUTO_CLOSE_SOURCE);
-            return new UTF8Reader(in, autoClose);
+            return new UTF8Reader(in, autoClose, _inputBufferSize, _bufferPool);
         }
         return new InputStreamReader(in, enc.getJavaName());
     }
@@ -0,0 +1,122 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigSyntax;
+
+/**
+ * Reads configuration files through a {@link FileChannel} into a single
+ * char array, without the intermediate stream buffers: small files are
+ * read in one go into a heap buffer, large ones are memory-mapped. Either
+ * way the bytes are decoded as UTF-8 in one pass straight into the array
+ * the parser works on.
+ */
+final class HoconFileInput {
+
+    private HoconFileInput() { }
+
+    /**
+     * Files of at least this many bytes are memory-mapped: 1 MB. Mapping
+     * has a setup cost that only pays off for larger files.
+     */
+    final static long MAP_THRESHOLD = 1024L * 1024;
+
+    /**
+     * @return content of the file, from position 0 to the limit of the
+     *   buffer (which has an array); a leading byte order mark is skipped
+     */
+    public static CharBuffer read(Path path) throws IOException
+    {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to parse: "+path+" ("+size+" bytes)");
+            }
+            ByteBuffer bytes;
+            if (size >= MAP_THRESHOLD) {
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+            } else {
+                bytes = ByteBuffer.allocate((int) size);
+                while (bytes.hasRemaining() && channel.read(bytes) >= 0) { }
+                bytes.flip();
+            }
+            return decode(bytes);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Decodes UTF-8 bytes; malformed input is replaced, as Typesafe config
+     * does when it reads files itself.
+     */
+    static CharBuffer decode(ByteBuffer bytes) throws IOException
+    {
+        if (bytes.remaining() >= 3 && (bytes.get(bytes.position()) & 0xFF) == 0xEF
+                && (bytes.get(bytes.position() + 1) & 0xFF) == 0xBB
+                && (bytes.get(bytes.position() + 2) & 0xFF) == 0xBF) {
+            bytes.position(bytes.position() + 3);
+        }
+        // UTF-8 never decodes to more chars than it has bytes
+        CharBuffer chars = CharBuffer.allocate(bytes.remaining());
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CoderResult result = decoder.decode(bytes, chars, true);
+        if (!result.isUnderflow()) {
+            result.throwException();
+        }
+        result = decoder.flush(chars);
+        if (!result.isUnderflow()) {
+            result.throwException();
+        }
+        chars.flip();
+        return chars;
+    }
+
+    /**
+     * @return options to parse the content of the file with: the syntax
+     *   its extension implies, its path for error messages, and includes
+     *   resolved relative to its directory
+     * @param includeCache cache to parse included files through, may be null
+     */
+    public static ConfigParseOptions parseOptions(Path path, HoconIncludeCache includeCache)
+    {
+        ConfigParseOptions options = ConfigParseOptions.defaults()
+                .setOriginDescription(path.toString())
+                .setSyntax(syntaxOf(path));
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir != null) {
+            options = options.setIncluder(new HoconRelativeIncluder(dir.toFile(), includeCache));
+        }
+        return options;
+    }
+
+    /**
+     * @return syntax implied by the file name, as {@link com.typesafe.config.ConfigFactory#parseFile}
+     *   guesses it; HOCON if there is no known extension
+     */
+    static ConfigSyntax syntaxOf(Path path)
+    {
+        Path name = path.getFileName();
+        String str = (name == null) ? "" : name.toString();
+        if (str.endsWith(".json")) {
+            return ConfigSyntax.JSON;
+        }
+        if (str.endsWith(".properties")) {
+            return ConfigSyntax.PROPERTIES;
+        }
+        return ConfigSyntax.CONF;
+    }
+}
@@ -0,0 +1,1005 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.base.GeneratorBase;
+import com.fasterxml.jackson.core.io.IOContext;
+import com.fasterxml.jackson.core.json.JsonWriteContext;
+
+/**
+ * Generator that writes HOCON text directly from the token stream.
+ * <p>
+ * Output goes through a recycled char buffer to the target {@link Writer}.
+ * Strings are always quoted; keys are written unquoted when that is safe and
+ * {@link Feature#UNQUOTED_KEYS} is enabled. With
+ * {@link Feature#COMPACT_PATHS} chains of objects that hold a single field
+ * are written as one dotted path (<code>a.b.c = 1</code> instead of
+ * <code>a { b { c = 1 } }</code>); to do that the generator holds back the
+ * keys of the chain and at most one short scalar value, or empty object,
+ * until it knows whether the innermost object has more fields.
+ */
+public class HoconGenerator extends GeneratorBase {
+
+    /**
+     * Enumeration that defines all togglable features for HOCON generators
+     */
+    public enum Feature {
+        /**
+         * Whether keys that need no quoting (letters, digits, '-' and '_',
+         * starting with a letter or '_') are written without quotes.
+         */
+        UNQUOTED_KEYS(true),
+
+        /**
+         * Whether chains of single-field objects are written as dotted paths.
+         */
+        COMPACT_PATHS(false),
+
+        /**
+         * Whether output is written one field (or element) per line, with
+         * nested content indented; if disabled, output is written on a single
+         * line using commas.
+         */
+        INDENT_OUTPUT(true),
+        ;
+
+        protected final boolean _defaultState;
+        protected final int _mask;
+
+        /**
+         * Method that calculates bit set (flags) of all features that
+         * are enabled by default.
+         */
+        public static int collectDefaults()
+        {
+            int flags = 0;
+            for (Feature f : values()) {
+                if (f.enabledByDefault()) {
+                    flags |= f.getMask();
+                }
+            }
+            return flags;
+        }
+
+        private Feature(boolean defaultState) {
+            _defaultState = defaultState;
+            _mask = (1 << ordinal());
+        }
+
+        public boolean enabledByDefault() { return _defaultState; }
+        public int getMask() { return _mask; }
+    }
+
+    /*
+    /**********************************************************
+    /* Constants
+    /**********************************************************
+     */
+
+    private final static String INDENT = "    ";
+
+    /**
+     * Longest (rendered) scalar that is held back while compacting a path;
+     * longer values make the generator give up compacting the current chain.
+     */
+    private final static int MAX_HELD_VALUE = 256;
+
+    private final static char[] HEX_CHARS = "0123456789ABCDEF".toCharArray();
+
+    // what is being held back while compacting paths
+    private final static int HOLD_NONE = 0;
+    private final static int HOLD_NAMED = 1; // keys of the chain, last one waiting for its value
+    private final static int HOLD_EMPTY = 2; // keys of the chain, innermost object has no field yet
+    private final static int HOLD_VALUE = 3; // keys and the scalar value (or empty object) of the chain
+
+    /*
+    /**********************************************************
+    /* Configuration
+    /**********************************************************
+     */
+
+    protected final IOContext _ioContext;
+
+    protected Writer _writer;
+
+    protected int _hoconFeatures;
+
+    protected boolean _cfgUnquotedKeys;
+
+    protected boolean _cfgCompactPaths;
+
+    protected boolean _cfgIndent;
+
+    /*
+    /**********************************************************
+    /* Output buffering
+    /**********************************************************
+     */
+
+    protected char[] _outputBuffer;
+
+    protected int _outputTail;
+
+    protected final int _outputEnd;
+
+    /*
+    /**********************************************************
+    /* Output state
+    /**********************************************************
+     */
+
+    /**
+     * Number of braces and brackets written and not yet closed; used for
+     * indentation.
+     */
+    protected int _printedDepth;
+
+    /**
+     * Depth of {@link #_writeContext}, 0 for the root context.
+     */
+    protected int _contextDepth;
+
+    /**
+     * Per context depth: whether the object at that depth was written as part
+     * of a dotted path, so that closing it writes nothing.
+     */
+    protected boolean[] _silentClose = new boolean[16];
+
+    /**
+     * Per context depth: key of the object at that depth if it was written
+     * as part of a dotted path; its later fields are written with the path
+     * as prefix, and merged back into it when read.
+     */
+    protected String[] _silentKeys = new String[16];
+
+    /*
+    /**********************************************************
+    /* Path compaction state
+    /**********************************************************
+     */
+
+    protected int _holdState = HOLD_NONE;
+
+    /**
+     * Keys of the chain being held back: the first one is a field of an
+     * object that was written, each following one a field of a held object.
+     */
+    protected final List<String> _heldKeys = new ArrayList<String>();
+
+    /**
+     * Number of held objects that are still open
+     */
+    protected int _heldDepth;
+
+    /**
+     * Whether the first held key is the first field of its object
+     */
+    protected boolean _heldFirstField;
+
+    protected final char[] _heldValue = new char[MAX_HELD_VALUE];
+
+    protected int _heldValueLength;
+
+    /**
+     * Start of the value being captured in {@link #_outputBuffer}, or -1
+     */
+    protected int _captureStart = -1;
+
+    /*
+    /**********************************************************
+    /* Life-cycle
+    /**********************************************************
+     */
+
+    public HoconGenerator(IOContext ctxt, int jsonFeatures, int hoconFeatures,
+            ObjectCodec codec, Writer out)
+    {
+        super(jsonFeatures, codec);
+        _ioContext = ctxt;
+        _writer = out;
+        _outputBuffer = ctxt.allocConcatBuffer();
+        _outputEnd = _outputBuffer.length;
+        _setHoconFeatures(hoconFeatures);
+    }
+
+    @Override
+    public Version version() {
+        return com.fasterxml.jackson.databind.cfg.PackageVersion.VERSION;
+    }
+
+    /*
+    /**********************************************************
+    /* Extended API, configuration
+    /**********************************************************
+     */
+
+    public HoconGenerator enable(Feature f) {
+        _setHoconFeatures(_hoconFeatures | f.getMask());
+        return this;
+    }
+
+    public HoconGenerator disable(Feature f) {
+        _setHoconFeatures(_hoconFeatures & ~f.getMask());
+        return this;
+    }
+
+    public final boolean isEnabled(Feature f) {
+        return (_hoconFeatures & f.getMask()) != 0;
+    }
+
+    public HoconGenerator configure(Feature f, boolean state) {
+        return state ? enable(f) : disable(f);
+    }
+
+    private void _setHoconFeatures(int features) {
+        _hoconFeatures = features;
+        _cfgUnquotedKeys = (features & Feature.UNQUOTED_KEYS.getMask()) != 0;
+        _cfgCompactPaths = (features & Feature.COMPACT_PATHS.getMask()) != 0;
+        _cfgIndent = (features & Feature.INDENT_OUTPUT.getMask()) != 0;
+    }
+
+    @Override
+    public Object getOutputTarget() {
+        return _writer;
+    }
+
+    /*
+    /**********************************************************
+    /* Output method implementations, structural
+    /**********************************************************
+     */
+
+    @Override
+    public final void writeStartArray() throws IOException
+    {
+        _verifyValueWrite("start an array");
+        _writeContext = _writeContext.createChildArrayContext();
+        _pushContext(false);
+        _writeChar('[');
+        ++_printedDepth;
+    }
+
+    @Override
+    public final void writeEndArray() throws IOException
+    {
+        if (!_writeContext.inArray()) {
+            _reportError("Current context not an ARRAY but "+_writeContext.getTypeDesc());
+        }
+        _writeClose(']');
+        _writeContext = _writeContext.getParent();
+        --_contextDepth;
+    }
+
+    @Override
+    public final void writeStartObject() throws IOException
+    {
+        if (_holdState == HOLD_NAMED) {
+            // field value that may continue the path being held
+            _checkValueWrite("start an object");
+            _writeContext = _writeContext.createChildObjectContext();
+            _pushContext(false);
+            ++_heldDepth;
+            _holdState = HOLD_EMPTY;
+            return;
+        }
+        _verifyValueWrite("start an object", true);
+        _writeContext = _writeContext.createChildObjectContext();
+        _pushContext(false);
+        _writeChar('{');
+        ++_printedDepth;
+    }
+
+    @Override
+    public final void writeEndObject() throws IOException
+    {
+        if (!_writeContext.inObject()) {
+            _reportError("Current context not an object but "+_writeContext.getTypeDesc());
+        }
+        if (_holdState == HOLD_EMPTY) {
+            // innermost held object is empty: it is the value of the chain
+            _heldValue[0] = '{';
+            _heldValue[1] = '}';
+            _heldValueLength = 2;
+            _holdState = HOLD_VALUE;
+        }
+        if (_holdState == HOLD_VALUE) {
+            // innermost held object turned out to have a single field
+            _writeContext = _writeContext.getParent();
+            --_contextDepth;
+            if (--_heldDepth == 0) {
+                _releaseHeld();
+            }
+            return;
+        }
+        if (_holdState != HOLD_NONE) {
+            _releaseHeld();
+        }
+        if (_silentClose[_contextDepth]) {
+            _silentClose[_contextDepth] = false;
+        } else {
+            _writeClose('}');
+        }
+        _writeContext = _writeContext.getParent();
+        --_contextDepth;
+    }
+
+    @Override
+    public void writeFieldName(String name) throws IOException
+    {
+        int status = _writeContext.writeFieldName(name);
+        if (status == JsonWriteContext.STATUS_EXPECT_VALUE) {
+            _reportError("Can not write a field name, expecting a value");
+        }
+        final boolean first = (status != JsonWriteContext.STATUS_OK_AFTER_COMMA);
+        if (_holdState == HOLD_EMPTY) {
+            _heldKeys.add(name);
+            _holdState = HOLD_NAMED;
+            return;
+        }
+        if (_holdState == HOLD_VALUE) {
+            // second field: the innermost held object has to be written
+            _releaseHeld();
+        }
+        if (_cfgCompactPaths) {
+            _heldKeys.clear();
+            _heldKeys.add(name);
+            _heldDepth = 0;
+            _heldFirstField = first;
+            _holdState = HOLD_NAMED;
+            return;
+        }
+        _writeFieldPrefix(first);
+        _writeSilentPath(_contextDepth);
+        _writeKey(name);
+    }
+
+    @Override
+    public void writeFieldName(SerializableString name) throws IOException {
+        writeFieldName(name.getValue());
+    }
+
+    /*
+    /**********************************************************
+    /* Output method implementations, textual
+    /**********************************************************
+     */
+
+    @Override
+    public void writeString(String text) throws IOException
+    {
+        if (text == null) {
+            writeNull();
+            return;
+        }
+        _verifyScalarWrite("write a string", _isCapturing() ? _quotedLength(text) : 0);
+        _writeQuoted(text);
+        _endScalar();
+    }
+
+    @Override
+    public void writeString(char[] text, int offset, int len) throws IOException {
+        writeString(new String(text, offset, len));
+    }
+
+    @Override
+    public final void writeString(SerializableString sstr) throws IOException {
+        writeString(sstr.getValue());
+    }
+
+    @Override
+    public void writeRawUTF8String(byte[] text, int offset, int len) throws IOException {
+        _reportUnsupportedOperation();
+    }
+
+    @Override
+    public void writeUTF8String(byte[] text, int offset, int len) throws IOException {
+        writeString(new String(text, offset, len, "UTF-8"));
+    }
+
+    /*
+    /**********************************************************
+    /* Output method implementations, unprocessed ("raw")
+    /**********************************************************
+     */
+
+    @Override
+    public void writeRaw(String text) throws IOException {
+        _writeRaw(text);
+    }
+
+    @Override
+    public void writeRaw(String text, int offset, int len) throws IOException {
+        _writeRaw(text.substring(offset, offset + len));
+    }
+
+    @Override
+    public void writeRaw(char[] text, int offset, int len) throws IOException {
+        _writeRaw(new String(text, offset, len));
+    }
+
+    @Override
+    public void writeRaw(char c) throws IOException {
+        _writeChar(c);
+    }
+
+    @Override
+    public void writeRawValue(String text) throws IOException {
+        _verifyValueWrite("write raw value");
+        _writeRaw(text);
+    }
+
+    @Override
+    public void writeRawValue(String text, int offset, int len) throws IOException {
+        writeRawValue(text.substring(offset, offset + len));
+    }
+
+    @Override
+    public void writeRawValue(char[] text, int offset, int len) throws IOException {
+        writeRawValue(new String(text, offset, len));
+    }
+
+    /*
+    /**********************************************************
+    /* Output method implementations, base64-encoded binary
+    /**********************************************************
+     */
+
+    @Override
+    public void writeBinary(Base64Variant b64variant, byte[] data, int offset, int len) throws IOException
+    {
+        if (data == null) {
+            writeNull();
+            return;
+        }
+        if (offset > 0 || (offset + len) != data.length) {
+            byte[] copy = new byte[len];
+            System.arraycopy(data, offset, copy, 0, len);
+            data = copy;
+        }
+        writeString(b64variant.encode(data));
+    }
+
+    @Override
+    public int writeBinary(Base64Variant b64variant, InputStream data, int dataLength) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((dataLength < 0) ? 1000 : dataLength);
+        byte[] buf = _ioContext.allocBase64Buffer();
+        try {
+            int count;
+            while ((dataLength < 0 || bytes.size() < dataLength)
+                    && (count = data.read(buf, 0, (dataLength < 0) ? buf.length
+                            : Math.min(buf.length, dataLength - bytes.size()))) > 0) {
+                bytes.write(buf, 0, count);
+            }
+        } finally {
+            _ioContext.releaseBase64Buffer(buf);
+        }
+        if (dataLength >= 0 && bytes.size() < dataLength) {
+            throw new JsonGenerationException("Too few bytes available: missing "+(dataLength - bytes.size())
+                    +" bytes (out of "+dataLength+")");
+        }
+        writeString(b64variant.encode(bytes.toByteArray()));
+        return bytes.size();
+    }
+
+    /*
+    /**********************************************************
+    /* Output method implementations, scalars
+    /**********************************************************
+     */
+
+    @Override
+    public void writeBoolean(boolean state) throws IOException
+    {
+        _verifyScalarWrite("write boolean value", 5);
+        _writeRaw(state ? "true" : "false");
+        _endScalar();
+    }
+
+    @Override
+    public void writeNull() throws IOException
+    {
+        _verifyScalarWrite("write null value", 4);
+        _writeRaw("null");
+        _endScalar();
+    }
+
+    @Override
+    public void writeNumber(int i) throws IOException {
+        _writeNumber(String.valueOf(i));
+    }
+
+    @Override
+    public void writeNumber(long l) throws IOException {
+        _writeNumber(String.valueOf(l));
+    }
+
+    @Override
+    public void writeNumber(BigInteger v) throws IOException
+    {
+        if (v == null) {
+            writeNull();
+            return;
+        }
+        _writeNumber(v.toString());
+    }
+
+    @Override
+    public void writeNumber(double d) throws IOException
+    {
+        if (Double.isNaN(d) || Double.isInfinite(d)) {
+            // no literal for these in HOCON
+            writeString(String.valueOf(d));
+            return;
+        }
+        _writeNumber(String.valueOf(d));
+    }
+
+    @Override
+    public void writeNumber(float f) throws IOException
+    {
+        if (Float.isNaN(f) || Float.isInfinite(f)) {
+            writeString(String.valueOf(f));
+            return;
+        }
+        _writeNumber(String.valueOf(f));
+    }
+
+    @Override
+    public void writeNumber(BigDecimal dec) throws IOException
+    {
+        if (dec == null) {
+            writeNull();
+            return;
+        }
+        _writeNumber(dec.toString());
+    }
+
+    @Override
+    public void writeNumber(String encodedValue) throws IOException
+    {
+        if (encodedValue == null) {
+            writeNull();
+            return;
+        }
+        _writeNumber(encodedValue);
+    }
+
+    private void _writeNumber(String text) throws IOException
+    {
+        if (_cfgNumbersAsStrings) {
+            writeString(text);
+            return;
+        }
+        _verifyScalarWrite("write number", text.length());
+        _writeRaw(text);
+        _endScalar();
+    }
+
+    /*
+    /**********************************************************
+    /* Implementations for other methods
+    /**********************************************************
+     */
+
+    @Override
+    protected final void _verifyValueWrite(String typeMsg) throws IOException {
+        _verifyValueWrite(typeMsg, false);
+    }
+
+    private void _verifyValueWrite(String typeMsg, boolean objectStart) throws IOException
+    {
+        int status = _checkValueWrite(typeMsg);
+        if (_holdState != HOLD_NONE) {
+            _releaseHeld();
+        }
+        _writeValuePrefix(status, objectStart);
+    }
+
+    private int _checkValueWrite(String typeMsg) throws IOException
+    {
+        int status = _writeContext.writeValue();
+        if (status == JsonWriteContext.STATUS_EXPECT_NAME) {
+            _reportError("Can not "+typeMsg+", expecting field name");
+        }
+        return status;
+    }
+
+    /**
+     * Like {@link #_verifyValueWrite}, but for scalars whose output may be
+     * captured as the held value of a compacted path.
+     *
+     * @param maxLength upper bound of the rendered length of the value
+     */
+    private void _verifyScalarWrite(String typeMsg, int maxLength) throws IOException
+    {
+        if (_isCapturing() && maxLength <= MAX_HELD_VALUE) {
+            _checkValueWrite(typeMsg);
+            if (_outputTail + MAX_HELD_VALUE > _outputEnd) {
+                _flushBuffer();
+            }
+            _captureStart = _outputTail;
+            return;
+        }
+        _verifyValueWrite(typeMsg);
+    }
+
+    private boolean _isCapturing() {
+        return (_holdState == HOLD_NAMED) && (_heldDepth > 0);
+    }
+
+    private void _endScalar()
+    {
+        if (_captureStart >= 0) {
+            _heldValueLength = _outputTail - _captureStart;
+            System.arraycopy(_outputBuffer, _captureStart, _heldValue, 0, _heldValueLength);
+            _outputTail = _captureStart;
+            _captureStart = -1;
+            _holdState = HOLD_VALUE;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        _flushBuffer();
+        if (_writer != null && isEnabled(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)) {
+            _writer.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        super.close();
+
+        // auto-close content, as per [JACKSON-44]
+        if (_outputBuffer != null && isEnabled(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)) {
+            while (true) {
+                JsonStreamContext ctxt = getOutputContext();
+                if (ctxt.inArray()) {
+                    writeEndArray();
+                } else if (ctxt.inObject()) {
+                    writeEndObject();
+                } else {
+                    break;
+                }
+            }
+        }
+        _flushBuffer();
+
+        if (_writer != null) {
+            if (_ioContext.isResourceManaged() || isEnabled(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                _writer.close();
+            } else if (isEnabled(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)) {
+                _writer.flush();
+            }
+        }
+        _releaseBuffers();
+    }
+
+    @Override
+    protected void _releaseBuffers()
+    {
+        char[] buf = _outputBuffer;
+        if (buf != null) {
+            _outputBuffer = null;
+            _ioContext.releaseConcatBuffer(buf);
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods, structure
+    /**********************************************************
+     */
+
+    private void _pushContext(boolean silent)
+    {
+        if (++_contextDepth == _silentClose.length) {
+            boolean[] flags = new boolean[_contextDepth * 2];
+            System.arraycopy(_silentClose, 0, flags, 0, _contextDepth);
+            _silentClose = flags;
+            String[] keys = new String[_contextDepth * 2];
+            System.arraycopy(_silentKeys, 0, keys, 0, _contextDepth);
+            _silentKeys = keys;
+        }
+        _silentClose[_contextDepth] = silent;
+    }
+
+    private void _writeValuePrefix(int status, boolean objectStart) throws IOException
+    {
+        switch (status) {
+        case JsonWriteContext.STATUS_OK_AFTER_COLON:
+            // object values starting with a brace need no separator
+            if (objectStart) {
+                if (_cfgIndent) {
+                    _writeChar(' ');
+                }
+            } else {
+                _writeRaw(_cfgIndent ? " = " : "=");
+            }
+            break;
+        case JsonWriteContext.STATUS_OK_AFTER_COMMA:
+            _writeChar(',');
+            if (_writeContext.inArray()) {
+                _writeNewLine(_printedDepth);
+            }
+            break;
+        case JsonWriteContext.STATUS_OK_AS_IS:
+            if (_writeContext.inArray()) {
+                _writeNewLine(_printedDepth);
+            }
+            break;
+        case JsonWriteContext.STATUS_OK_AFTER_SPACE:
+            _writeChar('\n');
+            break;
+        }
+    }
+
+    private void _writeFieldPrefix(boolean first) throws IOException
+    {
+        if (_cfgIndent) {
+            _writeNewLine(_printedDepth);
+        } else if (!first) {
+            _writeChar(',');
+        }
+    }
+
+    private void _writeClose(char c) throws IOException
+    {
+        --_printedDepth;
+        if (_writeContext.getEntryCount() > 0) {
+            _writeNewLine(_printedDepth);
+        }
+        _writeChar(c);
+    }
+
+    private void _writeNewLine(int depth) throws IOException
+    {
+        if (_cfgIndent) {
+            _writeChar('\n');
+            for (int i = 0; i < depth; ++i) {
+                _writeRaw(INDENT);
+            }
+        }
+    }
+
+    /**
+     * Writes out whatever is being held back for path compaction, leaving
+     * the output in the state it would be in without compaction.
+     */
+    private void _releaseHeld() throws IOException
+    {
+        final int state = _holdState;
+        final int keyCount = _heldKeys.size();
+        _holdState = HOLD_NONE;
+
+        _writeFieldPrefix(_heldFirstField);
+        _writeSilentPath(_contextDepth - _heldDepth);
+        int next = 0;
+        if (_heldDepth > 0) {
+            // open the objects that are still open as one path; only the
+            // innermost one is closed with a brace
+            next = _heldDepth;
+            _writePath(0, next);
+            _writeRaw(_cfgIndent ? " {" : "{");
+            ++_printedDepth;
+            for (int i = 1; i < _heldDepth; ++i) {
+                _silentClose[_contextDepth - i] = true;
+                _silentKeys[_contextDepth - i] = _heldKeys.get(_heldDepth - 1 - i);
+            }
+            _writeFieldPrefix(true);
+        }
+        _writePath(next, keyCount);
+        if (state == HOLD_VALUE) {
+            _writeRaw(_cfgIndent ? " = " : "=");
+            _writeRaw(_heldValue, 0, _heldValueLength);
+        }
+    }
+
+    /**
+     * Writes the dotted path leading to the fields of the object at the given
+     * context depth, if the object was written as part of a path.
+     */
+    private void _writeSilentPath(int depth) throws IOException
+    {
+        if (_silentClose[depth]) {
+            _writeSilentPath(depth - 1);
+            _writeKey(_silentKeys[depth]);
+            _writeChar('.');
+        }
+    }
+
+    private void _writePath(int from, int to) throws IOException
+    {
+        for (int i = from; i < to; ++i) {
+            if (i > from) {
+                _writeChar('.');
+            }
+            _writeKey(_heldKeys.get(i));
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods, text
+    /**********************************************************
+     */
+
+    private void _writeKey(String name) throws IOException
+    {
+        if (_cfgUnquotedKeys && _isSafeKey(name)) {
+            _writeRaw(name);
+        } else {
+            _writeQuoted(name);
+        }
+    }
+
+    /**
+     * @return true if the key can be written without quotes and reads back
+     *   as a single path element
+     */
+    private static boolean _isSafeKey(String name)
+    {
+        final int len = name.length();
+        if (len == 0) {
+            return false;
+        }
+        char c = name.charAt(0);
+        if (!(c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))) {
+            return false;
+        }
+        for (int i = 1; i < len; ++i) {
+            c = name.charAt(i);
+            if (!(c == '_' || c == '-' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                    || (c >= '0' && c <= '9'))) {
+                return false;
+            }
+        }
+        // these would be tokenized as something else
+        return !(name.startsWith("true") || name.startsWith("false") || name.startsWith("null")
+                || name.equals("include"));
+    }
+
+    /**
+     * @return length of the text once quoted, or anything longer than
+     *   {@link #MAX_HELD_VALUE} if it does not matter
+     */
+    private static int _quotedLength(String text)
+    {
+        final int len = text.length();
+        if (len > MAX_HELD_VALUE) {
+            return len;
+        }
+        int quoted = len + 2;
+        for (int i = 0; i < len; ++i) {
+            char c = text.charAt(i);
+            if (c < 0x20) {
+                quoted += 5;
+            } else if (c == '"' || c == '\\') {
+                ++quoted;
+            }
+        }
+        return quoted;
+    }
+
+    private void _writeQuoted(String text) throws IOException
+    {
+        _writeChar('"');
+        final int len = text.length();
+        int start = 0;
+        for (int i = 0; i < len; ++i) {
+            char c = text.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            if (i > start) {
+                _writeRaw(text, start, i - start);
+            }
+            start = i + 1;
+            _writeChar('\\');
+            switch (c) {
+            case '"':
+            case '\\':
+                _writeChar(c);
+                break;
+            case '\n':
+                _writeChar('n');
+                break;
+            case '\r':
+                _writeChar('r');
+                break;
+            case '\t':
+                _writeChar('t');
+                break;
+            case '\b':
+                _writeChar('b');
+                break;
+            case '\f':
+                _writeChar('f');
+                break;
+            default:
+                _writeRaw("u00");
+                _writeChar(HEX_CHARS[c >> 4]);
+                _writeChar(HEX_CHARS[c & 0xF]);
+            }
+        }
+        if (len > start) {
+            _writeRaw(text, start, len - start);
+        }
+        _writeChar('"');
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods, low-level writing
+    /**********************************************************
+     */
+
+    private void _writeChar(char c) throws IOException
+    {
+        if (_outputTail >= _outputEnd) {
+            _flushBuffer();
+        }
+        _outputBuffer[_outputTail++] = c;
+    }
+
+    private void _writeRaw(String text) throws IOException {
+        _writeRaw(text, 0, text.length());
+    }
+
+    private void _writeRaw(String text, int offset, int len) throws IOException
+    {
+        while (len > 0) {
+            if (_outputTail >= _outputEnd) {
+                _flushBuffer();
+            }
+            int count = Math.min(len, _outputEnd - _outputTail);
+            text.getChars(offset, offset + count, _outputBuffer, _outputTail);
+            _outputTail += count;
+            offset += count;
+            len -= count;
+        }
+    }
+
+    private void _writeRaw(char[] text, int offset, int len) throws IOException
+    {
+        while (len > 0) {
+            if (_outputTail >= _outputEnd) {
+                _flushBuffer();
+            }
+            int count = Math.min(len, _outputEnd - _outputTail);
+            System.arraycopy(text, offset, _outputBuffer, _outputTail, count);
+            _outputTail += count;
+            offset += count;
+            len -= count;
+        }
+    }
+
+    protected void _flushBuffer() throws IOException
+    {
+        if (_captureStart >= 0) {
+            // room for the captured value was reserved up front
+            return;
+        }
+        if (_outputTail > 0 && _writer != null) {
+            _writer.write(_outputBuffer, 0, _outputTail);
+        }
+        _outputTail = 0;
+    }
+}
@@ -0,0 +1,564 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigIncludeContext;
+import com.typesafe.config.ConfigIncluder;
+import com.typesafe.config.ConfigIncluderClasspath;
+import com.typesafe.config.ConfigIncluderFile;
+import com.typesafe.config.ConfigIncluderURL;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigOrigin;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigParseable;
+import com.typesafe.config.ConfigSyntax;
+
+/**
+ * Includer that keeps the parsed (unresolved) content of included files,
+ * so that documents including the same files, such as shared defaults,
+ * parse each of them only once. Set it with
+ * {@link HoconFactory#setIncludeCache(HoconIncludeCache)}; it is used for
+ * the includes of all documents the factory parses through Typesafe config.
+ * <p>
+ * Plain <code>include "name"</code> statements are resolved as Typesafe
+ * config resolves them, relative to the including file or on the
+ * classpath; <code>file()</code>, <code>url()</code> and
+ * <code>classpath()</code> includes are supported too. Entries are keyed by
+ * location, modification time, size and parse options, the same way
+ * {@link HoconConfigCache} keys them: files and resources in local
+ * directories or jar files are cached, and parsed again once they change,
+ * and factories including with different options do not share entries.
+ * Each entry also records the keys of the includes nested in it, directly or
+ * not, and is parsed again once one of those changes too. Remote URLs are
+ * always parsed, and not checked for changes when nested in a cached file.
+ * <p>
+ * The cache is bounded by the total size of the cached files, least
+ * recently used entries being evicted first, and concurrent first loads of
+ * the same file are coalesced into a single parse. Instances are
+ * thread-safe and may be shared between factories.
+ */
+public class HoconIncludeCache
+    implements ConfigIncluder, ConfigIncluderFile, ConfigIncluderURL, ConfigIncluderClasspath
+{
+    private final static String[] EXTENSIONS = { ".conf", ".json", ".properties" };
+
+    /**
+     * Default bound of the total size of the cached files: 16 MB
+     */
+    public final static long DEFAULT_MAX_WEIGHT = HoconConfigCache.DEFAULT_MAX_WEIGHT;
+
+    protected final HoconConfigCache _entries;
+
+    protected final AtomicLong _lookups;
+
+    protected final AtomicLong _parses;
+
+    /**
+     * Includes nested in the cached entries, by location and options of the
+     * entry
+     */
+    protected final ConcurrentHashMap<HoconConfigCache.Key, Dependencies> _nested;
+
+    /**
+     * Includes looked up while parsing an entry on this thread, to record
+     * as nested in it
+     */
+    private final static ThreadLocal<List<Nested>> _collected = new ThreadLocal<List<Nested>>();
+
+    /**
+     * Includer that Typesafe config appended to this one, doing the actual
+     * parsing of plain includes
+     */
+    protected final ConfigIncluder _fallback;
+
+    public HoconIncludeCache() {
+        this(DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * @param maxWeight bound of the total size, in bytes, of the cached files
+     */
+    public HoconIncludeCache(long maxWeight) {
+        _entries = new HoconConfigCache(maxWeight);
+        _lookups = new AtomicLong();
+        _parses = new AtomicLong();
+        _nested = new ConcurrentHashMap<HoconConfigCache.Key, Dependencies>();
+        _fallback = null;
+    }
+
+    private HoconIncludeCache(HoconIncludeCache base, ConfigIncluder fallback) {
+        _entries = base._entries;
+        _lookups = base._lookups;
+        _parses = base._parses;
+        _nested = base._nested;
+        _fallback = fallback;
+    }
+
+    /*
+    /**********************************************************
+    /* Public API
+    /**********************************************************
+     */
+
+    /**
+     * Drops all cached entries.
+     */
+    public void clear() {
+        _entries.clear();
+        _nested.clear();
+    }
+
+    /**
+     * @return number of cached entries
+     */
+    public int size() {
+        return _entries.size();
+    }
+
+    /**
+     * @return total size, in bytes, of the cached files
+     */
+    public long weight() {
+        return _entries.weight();
+    }
+
+    /**
+     * @return number of includes of cacheable files that were served from
+     *   the cache
+     */
+    public long hitCount() {
+        return _lookups.get() - _parses.get();
+    }
+
+    /**
+     * @return number of includes of cacheable files that had to be parsed
+     */
+    public long missCount() {
+        return _parses.get();
+    }
+
+    /*
+    /**********************************************************
+    /* ConfigIncluder implementation
+    /**********************************************************
+     */
+
+    @Override
+    public ConfigIncluder withFallback(ConfigIncluder fallback)
+    {
+        if (this == fallback) {
+            throw new ConfigException.BugOrBroken("trying to create includer cycle");
+        }
+        if (_fallback == fallback) {
+            return this;
+        }
+        if (_fallback != null) {
+            return new HoconIncludeCache(this, _fallback.withFallback(fallback));
+        }
+        return new HoconIncludeCache(this, fallback);
+    }
+
+    @Override
+    public ConfigObject include(ConfigIncludeContext context, String what)
+    {
+        URL url = _asURL(what);
+        if (url != null) {
+            return includeURL(context, url);
+        }
+        // let the fallback work out where the name points to, and
+        // intercept the parsing of whatever it finds
+        ConfigIncludeContext caching = new CachingContext(context);
+        if (_fallback != null) {
+            return _fallback.include(caching, what);
+        }
+        return ConfigFactory.parseResourcesAnySyntax(what, context.parseOptions()).root();
+    }
+
+    @Override
+    public ConfigObject includeFile(ConfigIncludeContext context, File what) {
+        return parseFile(what, context.parseOptions());
+    }
+
+    @Override
+    public ConfigObject includeURL(final ConfigIncludeContext context, final URL what)
+    {
+        return _get(new Lookup() {
+            @Override
+            HoconConfigCache.Key key() {
+                try {
+                    return _entries._keyFor(what);
+                } catch (IOException e) {
+                    return null; // let the parse report it
+                }
+            }
+        }, new Callable<ConfigObject>() {
+            @Override
+            public ConfigObject call() {
+                return ConfigFactory.parseURL(what, context.parseOptions()).root();
+            }
+        }, context.parseOptions());
+    }
+
+    @Override
+    public ConfigObject includeResources(final ConfigIncludeContext context, final String what)
+    {
+        return _get(new Lookup() {
+            @Override
+            HoconConfigCache.Key key() {
+                return _resourceKey(what, context.parseOptions());
+            }
+        }, new Callable<ConfigObject>() {
+            @Override
+            public ConfigObject call() {
+                return ConfigFactory.parseResourcesAnySyntax(what, context.parseOptions()).root();
+            }
+        }, context.parseOptions());
+    }
+
+    /**
+     * Parses the given file, or the files with the given basename, through
+     * the cache.
+     */
+    ConfigObject parseFile(final File file, final ConfigParseOptions options)
+    {
+        return _get(new Lookup() {
+            @Override
+            HoconConfigCache.Key key() {
+                return _fileKey(file);
+            }
+        }, new Callable<ConfigObject>() {
+            @Override
+            public ConfigObject call() {
+                return ConfigFactory.parseFileAnySyntax(file, options).root();
+            }
+        }, options);
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods
+    /**********************************************************
+     */
+
+    /**
+     * @param lookup lookup of the key of the included content, which is
+     *   null if it can not be cached
+     * @param options options the content is parsed with
+     */
+    protected ConfigObject _get(Lookup lookup, final Callable<ConfigObject> loader,
+            ConfigParseOptions options)
+    {
+        HoconConfigCache.Key contentKey = lookup.key();
+        final List<Nested> including = _collected.get();
+        if (including != null) {
+            including.add(new Nested(lookup, contentKey));
+        }
+        if (contentKey == null) {
+            return _call(loader);
+        }
+        _lookups.incrementAndGet();
+        final HoconConfigCache.Key key = contentKey.withOptions(_normalize(options, contentKey.location));
+        final HoconConfigCache.Key slot = key.slot();
+        Dependencies nested = _nested.get(slot);
+        if (nested != null && nested.key.equals(key) && !nested.isCurrent()) {
+            _nested.remove(slot, nested);
+            _entries._invalidate(key);
+        }
+        ConfigObject value;
+        try {
+            value = _entries._get(key, new Callable<ConfigObject>() {
+                @Override
+                public ConfigObject call() throws Exception {
+                    _parses.incrementAndGet();
+                    List<Nested> collected = new ArrayList<Nested>();
+                    _collected.set(collected);
+                    try {
+                        ConfigObject value = loader.call();
+                        _nested.put(slot, new Dependencies(key, collected));
+                        return value;
+                    } finally {
+                        _collected.set(including);
+                    }
+                }
+            }, null);
+        } catch (IOException e) { // only if interrupted while another thread parses
+            throw new ConfigException.IO(null, "Interrupted while waiting for include to be parsed", e);
+        }
+        if (including != null) {
+            // the includes nested in this one are nested in the including one too
+            nested = _nested.get(slot);
+            if (nested != null && nested.key.equals(key)) {
+                including.addAll(nested.includes);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return the options with what makes no difference to the included
+     *   content left out, so that entries are shared by includes that only
+     *   differ in that
+     */
+    protected ConfigParseOptions _normalize(ConfigParseOptions options, String location)
+    {
+        // includes reach this cache through a wrapper Typesafe config creates
+        // for each parse; content with a key exists, so whether it may be
+        // missing makes no difference either
+        options = options.setIncluder(this).setAllowMissing(true);
+        // guessed from the extension, unless the key combines several files
+        if (options.getSyntax() == null && location.indexOf('|') < 0) {
+            if (location.endsWith(".conf")) {
+                options = options.setSyntax(ConfigSyntax.CONF);
+            } else if (location.endsWith(".json")) {
+                options = options.setSyntax(ConfigSyntax.JSON);
+            } else if (location.endsWith(".properties")) {
+                options = options.setSyntax(ConfigSyntax.PROPERTIES);
+            }
+        }
+        return options;
+    }
+
+    /**
+     * @return key of the file or, for a basename without extension, of all
+     *   files with the basename and a known extension; null if there are none
+     */
+    protected HoconConfigCache.Key _fileKey(File file)
+    {
+        HoconConfigCache.Key key = null;
+        for (String name : _namesFor(file.getPath())) {
+            File f = new File(name);
+            if (f.isFile()) {
+                key = _combine(key, f);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * @return key of all resources of the given name (or basename), null if
+     *   there are none or some can not be cached
+     */
+    protected HoconConfigCache.Key _resourceKey(String resource, ConfigParseOptions options)
+    {
+        ClassLoader loader = options.getClassLoader();
+        if (loader == null) {
+            loader = Thread.currentThread().getContextClassLoader();
+        }
+        String base = resource.startsWith("/") ? resource.substring(1) : resource;
+        HoconConfigCache.Key key = null;
+        try {
+            for (String name : _namesFor(base)) {
+                Enumeration<URL> urls = loader.getResources(name);
+                while (urls.hasMoreElements()) {
+                    HoconConfigCache.Key urlKey = _entries._keyFor(urls.nextElement());
+                    if (urlKey == null) {
+                        return null;
+                    }
+                    key = _combine(key, urlKey);
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return key;
+    }
+
+    /**
+     * @return names Typesafe config reads for the given name: the name
+     *   itself if it has a known extension, otherwise the name with each
+     *   extension appended
+     */
+    private static String[] _namesFor(String name)
+    {
+        for (String ext : EXTENSIONS) {
+            if (name.endsWith(ext)) {
+                return new String[] { name };
+            }
+        }
+        String[] names = new String[EXTENSIONS.length];
+        for (int i = 0; i < names.length; ++i) {
+            names[i] = name + EXTENSIONS[i];
+        }
+        return names;
+    }
+
+    private static HoconConfigCache.Key _combine(HoconConfigCache.Key key, File f)
+    {
+        File file;
+        try {
+            file = f.getCanonicalFile();
+        } catch (IOException e) {
+            file = f.getAbsoluteFile();
+        }
+        return _combine(key, new HoconConfigCache.Key(file.getPath(), file.lastModified(), file.length()));
+    }
+
+    private static HoconConfigCache.Key _combine(HoconConfigCache.Key key, HoconConfigCache.Key other)
+    {
+        if (key == null) {
+            return other;
+        }
+        return new HoconConfigCache.Key(key.location+"|"+other.location,
+                Math.max(key.lastModified, other.lastModified), key.size + other.size);
+    }
+
+    private static URL _asURL(String what) {
+        try {
+            return new URL(what);
+        } catch (MalformedURLException e) {
+            return null;
+        }
+    }
+
+    private static ConfigObject _call(Callable<ConfigObject> loader) {
+        try {
+            return loader.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) { // can not happen, loaders only throw unchecked exceptions
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Helper classes
+    /**********************************************************
+     */
+
+    /**
+     * Include context handing out parseables that go through the cache
+     */
+    private final class CachingContext implements ConfigIncludeContext {
+        private final ConfigIncludeContext _context;
+
+        CachingContext(ConfigIncludeContext context) {
+            _context = context;
+        }
+
+        @Override
+        public ConfigParseable relativeTo(String filename) {
+            ConfigParseable p = _context.relativeTo(filename);
+            return (p == null) ? null : new CachingParseable(p);
+        }
+
+        @Override
+        public ConfigParseOptions parseOptions() {
+            return _context.parseOptions();
+        }
+
+        @Override
+        public ConfigIncludeContext setParseOptions(ConfigParseOptions options) {
+            return new CachingContext(_context.setParseOptions(options));
+        }
+    }
+
+    private final class CachingParseable implements ConfigParseable {
+        private final ConfigParseable _parseable;
+
+        CachingParseable(ConfigParseable parseable) {
+            _parseable = parseable;
+        }
+
+        @Override
+        public ConfigObject parse(final ConfigParseOptions options)
+        {
+            final ConfigOrigin origin = _parseable.origin();
+            return _get(new Lookup() {
+                @Override
+                HoconConfigCache.Key key() {
+                    if (origin.filename() != null) {
+                        File f = new File(origin.filename());
+                        return f.isFile() ? _combine(null, f) : null;
+                    }
+                    if (origin.url() != null) {
+                        try {
+                            return _entries._keyFor(origin.url());
+                        } catch (IOException e) {
+                            return null;
+                        }
+                    }
+                    if (origin.resource() != null) {
+                        return _resourceKey(origin.resource(), options);
+                    }
+                    return null;
+                }
+            }, new Callable<ConfigObject>() {
+                @Override
+                public ConfigObject call() {
+                    return _parseable.parse(options);
+                }
+            }, options);
+        }
+
+        @Override
+        public ConfigOrigin origin() {
+            return _parseable.origin();
+        }
+
+        @Override
+        public ConfigParseOptions options() {
+            return _parseable.options();
+        }
+    }
+
+    /**
+     * Computes the key of included content as of now
+     */
+    protected abstract static class Lookup {
+        /**
+         * @return the key, null if the content can not be cached
+         */
+        abstract HoconConfigCache.Key key();
+    }
+
+    /**
+     * Include nested in a cached entry, with its key when the entry was parsed
+     */
+    protected final static class Nested {
+        final Lookup lookup;
+        final HoconConfigCache.Key key;
+
+        Nested(Lookup lookup, HoconConfigCache.Key key) {
+            this.lookup = lookup;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Includes nested in the entry with the given key
+     */
+    protected final static class Dependencies {
+        final HoconConfigCache.Key key;
+        final List<Nested> includes;
+
+        Dependencies(HoconConfigCache.Key key, List<Nested> includes) {
+            this.key = key;
+            this.includes = includes;
+        }
+
+        /**
+         * @return false if any of the nested includes changed
+         */
+        boolean isCurrent() {
+            for (Nested nested : includes) {
+                HoconConfigCache.Key current = nested.lookup.key();
+                if ((current == null) ? (nested.key != null) : !current.equals(nested.key)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
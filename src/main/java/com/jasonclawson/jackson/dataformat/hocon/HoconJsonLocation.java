@@ -17,6 +17,13 @@ public class HoconJsonLocation extends JsonLocation implements ConfigOrigin {
         this.origin = origin;
     }
 
+    /**
+     * @return the origin this location stands for
+     */
+    public ConfigOrigin getOrigin() {
+        return origin;
+    }
+
     @Override
     public String description() {
         return origin.description();
@@ -0,0 +1,227 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link HoconParseListener} that aggregates parse events into counters and
+ * histograms, for exporting to whatever metrics system is in use. All
+ * updates are lock-free, so a single instance can be shared by all
+ * factories and threads.
+ * <pre>
+ *   HoconMetrics metrics = new HoconMetrics();
+ *   ObjectMapper mapper = new ObjectMapper(new HoconFactory().setParseListener(metrics));
+ *   ...
+ *   long p99 = metrics.getParseNanos().getPercentile(0.99);
+ * </pre>
+ */
+public class HoconMetrics implements HoconParseListener {
+
+    protected final AtomicLong _parsers = new AtomicLong();
+
+    protected final AtomicLong _streamed = new AtomicLong();
+
+    protected final AtomicLong _cacheHits = new AtomicLong();
+
+    protected final AtomicLong _cacheMisses = new AtomicLong();
+
+    protected final AtomicLong _bytes = new AtomicLong();
+
+    protected final AtomicLong _chars = new AtomicLong();
+
+    protected final AtomicLong _tokens = new AtomicLong();
+
+    protected final AtomicLong _nodes = new AtomicLong();
+
+    protected final Histogram _readNanos = new Histogram();
+
+    protected final Histogram _parseNanos = new Histogram();
+
+    protected final Histogram _resolveNanos = new Histogram();
+
+    protected final Histogram _traversalNanos = new Histogram();
+
+    protected final Histogram _tokenCounts = new Histogram();
+
+    protected final Histogram _maxDepths = new Histogram();
+
+    @Override
+    public void parsed(HoconParseEvent event)
+    {
+        _parsers.incrementAndGet();
+        if (event.isStreaming()) {
+            _streamed.incrementAndGet();
+        }
+        switch (event.getCacheResult()) {
+        case HIT:
+            _cacheHits.incrementAndGet();
+            break;
+        case MISS:
+            _cacheMisses.incrementAndGet();
+            break;
+        default:
+        }
+        _add(_bytes, event.getByteCount());
+        _add(_chars, event.getCharCount());
+        _tokens.addAndGet(event.getTokenCount());
+        _nodes.addAndGet(event.getNodeCount());
+        _readNanos.record(event.getReadNanos());
+        _parseNanos.record(event.getParseNanos());
+        _resolveNanos.record(event.getResolveNanos());
+        _traversalNanos.record(event.getTraversalNanos());
+        _tokenCounts.record(event.getTokenCount());
+        _maxDepths.record(event.getMaxDepth());
+    }
+
+    private static void _add(AtomicLong counter, long value) {
+        if (value > 0L) {
+            counter.addAndGet(value);
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Accessors
+    /**********************************************************
+     */
+
+    /**
+     * @return number of parsers reported
+     */
+    public long getParserCount() { return _parsers.get(); }
+
+    /**
+     * @return number of parsers that streamed their content
+     */
+    public long getStreamedCount() { return _streamed.get(); }
+
+    public long getCacheHitCount() { return _cacheHits.get(); }
+
+    public long getCacheMissCount() { return _cacheMisses.get(); }
+
+    /**
+     * @return total bytes read, where known
+     */
+    public long getByteCount() { return _bytes.get(); }
+
+    /**
+     * @return total characters read, where known
+     */
+    public long getCharCount() { return _chars.get(); }
+
+    public long getTokenCount() { return _tokens.get(); }
+
+    public long getNodeCount() { return _nodes.get(); }
+
+    public Histogram getReadNanos() { return _readNanos; }
+
+    public Histogram getParseNanos() { return _parseNanos; }
+
+    public Histogram getResolveNanos() { return _resolveNanos; }
+
+    public Histogram getTraversalNanos() { return _traversalNanos; }
+
+    /**
+     * @return distribution of the number of tokens per parser
+     */
+    public Histogram getTokenCounts() { return _tokenCounts; }
+
+    /**
+     * @return distribution of the maximum depth per parser
+     */
+    public Histogram getMaxDepths() { return _maxDepths; }
+
+    /*
+    /**********************************************************
+    /* Helper classes
+    /**********************************************************
+     */
+
+    /**
+     * Histogram of non-negative values with power-of-two buckets: bucket 0
+     * holds 0 and 1, bucket <i>i</i> the values from 2<sup>i</sup> up to
+     * 2<sup>i+1</sup>-1. Negative values (unknown measurements) are not
+     * recorded. Percentiles are therefore approximate, within a factor of
+     * two, which is plenty to tell milliseconds from seconds.
+     */
+    public final static class Histogram {
+        public final static int BUCKETS = 64;
+
+        private final AtomicLongArray _buckets = new AtomicLongArray(BUCKETS);
+
+        private final AtomicLong _count = new AtomicLong();
+
+        private final AtomicLong _sum = new AtomicLong();
+
+        private final AtomicLong _max = new AtomicLong();
+
+        public void record(long value)
+        {
+            if (value < 0L) {
+                return;
+            }
+            _buckets.incrementAndGet(bucketOf(value));
+            _count.incrementAndGet();
+            _sum.addAndGet(value);
+            long max;
+            while (value > (max = _max.get())) {
+                if (_max.compareAndSet(max, value)) {
+                    break;
+                }
+            }
+        }
+
+        public static int bucketOf(long value) {
+            return (value <= 1L) ? 0 : (63 - Long.numberOfLeadingZeros(value));
+        }
+
+        /**
+         * @return largest value of the given bucket
+         */
+        public static long bucketUpperBound(int bucket) {
+            return (bucket >= 63) ? Long.MAX_VALUE : ((1L << (bucket + 1)) - 1L);
+        }
+
+        public long getCount() { return _count.get(); }
+
+        public long getSum() { return _sum.get(); }
+
+        public long getMax() { return _max.get(); }
+
+        public double getMean() {
+            long count = _count.get();
+            return (count == 0L) ? 0.0 : ((double) _sum.get()) / count;
+        }
+
+        public long getBucketCount(int bucket) {
+            return _buckets.get(bucket);
+        }
+
+        /**
+         * @param quantile between 0 and 1, such as 0.99
+         * @return upper bound of the bucket holding the quantile, capped by
+         *   the maximum value; 0 if nothing was recorded
+         */
+        public long getPercentile(double quantile)
+        {
+            long[] counts = new long[BUCKETS];
+            long total = 0L;
+            for (int i = 0; i < BUCKETS; ++i) {
+                counts[i] = _buckets.get(i);
+                total += counts[i];
+            }
+            if (total == 0L) {
+                return 0L;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0L;
+            for (int i = 0; i < BUCKETS; ++i) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0L) {
+                    return Math.min(bucketUpperBound(i), _max.get());
+                }
+            }
+            return _max.get();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.deser.BeanDeserializer;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+
+/**
+ * Module that makes beans read from a {@link HoconTreeTraversingParser} be
+ * bound directly from the Typesafe config tree where possible, see
+ * {@link HoconBeanDeserializer}.
+ * <pre>
+ *   ObjectMapper mapper = new ObjectMapper(new HoconFactory()).registerModule(new HoconModule());
+ * </pre>
+ */
+public class HoconModule extends Module {
+
+    @Override
+    public String getModuleName() {
+        return getClass().getSimpleName();
+    }
+
+    @Override
+    public Version version() {
+        return com.fasterxml.jackson.databind.cfg.PackageVersion.VERSION;
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        context.addBeanDeserializerModifier(new BeanDeserializerModifier() {
+            @Override
+            public JsonDeserializer<?> modifyDeserializer(DeserializationConfig config,
+                    BeanDescription beanDesc, JsonDeserializer<?> deserializer) {
+                // exact class only: sub-classes have their own ideas
+                if (deserializer.getClass() == BeanDeserializer.class) {
+                    return new HoconBeanDeserializer((BeanDeserializer) deserializer);
+                }
+                return deserializer;
+            }
+        });
+    }
+}
@@ -0,0 +1,349 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.io.IOContext;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigParseOptions;
+
+/**
+ * Parser over a stream of concatenated HOCON documents, each enclosed in
+ * braces, such as <code>{ id = 1 } { id = 2 }</code>: the tokens of the
+ * documents follow each other as the root-level values of a JSON stream
+ * do, so that {@link com.fasterxml.jackson.databind.ObjectReader#readValues}
+ * iterates over them. Documents may be separated by whitespace, commas and
+ * comments.
+ * <p>
+ * The input is read up to the end of one document at a time, which is then
+ * parsed and resolved on its own (substitutions only refer to the same
+ * document) and traversed by this parser, reset to the tree of each
+ * document in turn; {@link #getConfigObject()} returns the current one.
+ * Memory use depends on the size of the largest document, not on the length
+ * of the stream. Created by {@link HoconFactory} for text input when
+ * {@link HoconParserFeature#MULTI_DOCUMENT} is enabled.
+ */
+public class HoconMultiDocumentParser extends HoconTreeTraversingParser {
+
+    private final static int BUFFER_SIZE = 4000;
+
+    protected final IOContext _ioContext;
+
+    protected final ConfigParseOptions _parseOptions;
+
+    protected final HoconBufferPool _bufferPool;
+
+    protected Reader _reader;
+
+    /**
+     * Whether the parser was closed, as opposed to having reached the end
+     * of a document
+     */
+    protected boolean _streamClosed;
+
+    /*
+    /**********************************************************
+    /* Input state
+    /**********************************************************
+     */
+
+    protected char[] _buffer;
+
+    /**
+     * Whether {@link #_buffer} came from the pool
+     */
+    protected boolean _bufferRecyclable;
+
+    /**
+     * Start of the document being read; input before it is dropped when
+     * more is loaded
+     */
+    protected int _start;
+
+    protected int _ptr;
+
+    protected int _end;
+
+    /**
+     * Line of {@link #_ptr}, 1-based
+     */
+    protected int _line = 1;
+
+    /**
+     * Number of documents read so far
+     */
+    protected int _documentCount;
+
+    public HoconMultiDocumentParser(IOContext ctxt, int parserFeatures, ObjectCodec codec, Reader reader,
+            ConfigParseOptions options, HoconBufferPool pool)
+    {
+        // no document before the first call to nextToken()
+        super(parserFeatures, codec);
+        _ioContext = ctxt;
+        _reader = reader;
+        _parseOptions = options;
+        _bufferPool = pool;
+        _buffer = pool.allocCharBuffer(BUFFER_SIZE);
+        _bufferRecyclable = true;
+    }
+
+    /**
+     * @return number of documents read so far, including the current one
+     */
+    public int getDocumentCount() {
+        return _documentCount;
+    }
+
+    /*
+    /**********************************************************
+    /* Traversal
+    /**********************************************************
+     */
+
+    @Override
+    protected JsonToken _advance() throws IOException, JsonParseException
+    {
+        JsonToken t = super._advance();
+        while (t == null && !_streamClosed) {
+            if (!_nextDocument()) {
+                return null;
+            }
+            t = super._advance();
+        }
+        return t;
+    }
+
+    /**
+     * Reads the next document and resets the parser to its tree.
+     *
+     * @return false at the end of input
+     */
+    protected boolean _nextDocument() throws IOException
+    {
+        // whitespace, commas and comments between documents
+        int c;
+        while (true) {
+            _start = _ptr;
+            c = _read();
+            if (c < 0) {
+                return false;
+            }
+            if (c == '\n') {
+                ++_line;
+            } else if (c == '#' || (c == '/' && _peek(0) == '/')) {
+                _skipLine();
+            } else if (c != ',' && !Character.isWhitespace(c) && c != '\uFEFF') {
+                break;
+            }
+        }
+        final int document = _documentCount + 1;
+        final int startLine = _line;
+        if (c != '{') {
+            throw _documentError("Expected '{' to start document "+document+", found '"+(char) c+"'");
+        }
+        // documents end with the brace closing the first one; substitutions
+        // are balanced, and only strings and comments may hold other braces
+        int depth = 1;
+        while (depth > 0) {
+            c = _read();
+            switch (c) {
+            case -1:
+                throw _documentError("Unexpected end of input in document "+document
+                        +" starting at line "+startLine);
+            case '\n':
+                ++_line;
+                break;
+            case '{':
+            case '[':
+                ++depth;
+                break;
+            case '}':
+            case ']':
+                --depth;
+                break;
+            case '"':
+                _skipString();
+                break;
+            case '#':
+                _skipLine();
+                break;
+            case '/':
+                if (_peek(0) == '/') {
+                    _skipLine();
+                }
+                break;
+            default:
+            }
+        }
+        _documentCount = document;
+        ConfigParseOptions options = _parseOptions.setOriginDescription("document "+document
+                +" at line "+startLine);
+        ConfigObject root = ConfigFactory.parseReader(new CharArrayReader(_buffer, _start, _ptr - _start), options)
+                .resolve().root();
+        reset(root);
+        return true;
+    }
+
+    /*
+    /**********************************************************
+    /* Input
+    /**********************************************************
+     */
+
+    private int _read() throws IOException
+    {
+        if (_ptr >= _end && !_loadMore()) {
+            return -1;
+        }
+        return _buffer[_ptr++];
+    }
+
+    /**
+     * @return the character <code>ahead</code> characters after the next one
+     *   to read, without reading it; -1 at the end of input
+     */
+    private int _peek(int ahead) throws IOException
+    {
+        while (_ptr + ahead >= _end) {
+            if (!_loadMore()) {
+                return -1;
+            }
+        }
+        return _buffer[_ptr + ahead];
+    }
+
+    private void _skipLine() throws IOException
+    {
+        int c;
+        while ((c = _read()) >= 0) {
+            if (c == '\n') {
+                ++_line;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Skips a quoted or triple-quoted string, the opening quote being read.
+     */
+    private void _skipString() throws IOException
+    {
+        if (_peek(0) == '"' && _peek(1) == '"') {
+            _ptr += 2;
+            int quotes = 0;
+            int c;
+            while ((c = _read()) >= 0) {
+                if (c == '"') {
+                    ++quotes;
+                    continue;
+                }
+                if (quotes >= 3) { // extra quotes at the end belong to the string
+                    --_ptr;
+                    return;
+                }
+                quotes = 0;
+                if (c == '\n') {
+                    ++_line;
+                }
+            }
+            return;
+        }
+        int c;
+        while ((c = _read()) >= 0) {
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                _read();
+            } else if (c == '\n') { // invalid, but leave reporting it to the parser
+                ++_line;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads more input, dropping what comes before the current document.
+     *
+     * @return false at the end of input
+     */
+    protected boolean _loadMore() throws IOException
+    {
+        if (_reader == null) {
+            return false;
+        }
+        if (_end == _buffer.length) {
+            if (_start > 0) {
+                System.arraycopy(_buffer, _start, _buffer, 0, _end - _start);
+                _ptr -= _start;
+                _end -= _start;
+                _start = 0;
+            } else { // a document larger than the buffer
+                char[] buf = Arrays.copyOf(_buffer, _buffer.length * 2);
+                if (_bufferRecyclable) {
+                    _bufferRecyclable = false;
+                    _bufferPool.releaseCharBuffer(_buffer);
+                }
+                _buffer = buf;
+            }
+        }
+        int count = _reader.read(_buffer, _end, _buffer.length - _end);
+        if (count < 0) {
+            _closeInput();
+            return false;
+        }
+        _end += count;
+        return true;
+    }
+
+    protected JsonParseException _documentError(String msg) {
+        return new JsonParseException(msg, new JsonLocation(_ioContext.getSourceReference(), -1L, _line, -1));
+    }
+
+    /*
+    /**********************************************************
+    /* Closeable implementation
+    /**********************************************************
+     */
+
+    @Override
+    public void close() throws IOException
+    {
+        if (!_streamClosed) {
+            _streamClosed = true;
+            try {
+                super.close();
+                _closeInput();
+            } finally {
+                if (_bufferRecyclable) {
+                    _bufferRecyclable = false;
+                    _bufferPool.releaseCharBuffer(_buffer);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return _streamClosed;
+    }
+
+    private void _closeInput() throws IOException
+    {
+        if (_reader != null) {
+            Reader r = _reader;
+            _reader = null;
+            if (_ioContext.isResourceManaged() || isEnabled(JsonParser.Feature.AUTO_CLOSE_SOURCE)) {
+                r.close();
+            }
+        }
+    }
+}
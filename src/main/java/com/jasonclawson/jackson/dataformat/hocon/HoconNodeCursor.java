@@ -1,6 +1,8 @@
 package com.jasonclawson.jackson.dataformat.hocon;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -13,13 +15,35 @@ import com.typesafe.config.ConfigValueType;
 
 public abstract class HoconNodeCursor extends JsonStreamContext {
 
-	protected final HoconNodeCursor _parent;
+	protected HoconNodeCursor _parent;
 	protected String _currentName;
 
+	/**
+	 * Shared by all cursors of a single traversal, so that every container
+	 * is classified only once.
+	 */
+	protected NumericIndexDetector _indexDetector;
+
+	/**
+	 * Filter of the members of this container, null if none is filtered
+	 * out; set by whoever creates the cursor.
+	 */
+	protected HoconPathFilter.Node _filter;
+
+	/**
+	 * Filter of the members of the current member, for the cursor over it
+	 */
+	protected HoconPathFilter.Node _currentFilter;
+
 	public HoconNodeCursor(int contextType, HoconNodeCursor p) {
+		this(contextType, p, (p == null) ? new NumericIndexDetector() : p._indexDetector);
+	}
+
+	public HoconNodeCursor(int contextType, HoconNodeCursor p, NumericIndexDetector indexDetector) {
 		_type = contextType;
 		_index = -1;
 		_parent = p;
+		_indexDetector = indexDetector;
 	}
 
 	@Override
@@ -49,10 +73,12 @@ public abstract class HoconNodeCursor extends JsonStreamContext {
 	
     private StringBuilder constructPath(StringBuilder initial) {
         if (_parent != null) {
-            return _parent.constructPath(initial).append('.').append(_currentName);
-        } else {
-            return initial.append(_currentName);
+            _parent.constructPath(initial).append('.');
+        }
+        if (_type == TYPE_ARRAY && _index >= 0) {
+            return initial.append(_index);
         }
+        return initial.append(_currentName);
     }
 	
 	public abstract JsonToken nextToken();
@@ -74,62 +100,100 @@ public abstract class HoconNodeCursor extends JsonStreamContext {
     protected static JsonToken asJsonToken(ConfigValue value) {
 		return HoconTreeTraversingParser.asJsonToken(value);
 	}
+
+    /**
+     * Same as {@link #asJsonToken(ConfigValue)}, but uses the memoized
+     * numeric index detection of this traversal.
+     */
+    protected JsonToken classify(ConfigValue value) {
+        return HoconTreeTraversingParser.asJsonToken(value, _indexDetector);
+    }
     
+    /**
+     * Checks the member with the given key (or index) against the filter,
+     * without looking at its value.
+     *
+     * @return false if the member is filtered out
+     */
+    protected final boolean accept(String key) {
+        HoconPathFilter.Node f = _filter.child(key);
+        if (f == null) {
+            return false;
+        }
+        _currentFilter = (f == HoconPathFilter.ALL) ? null : f;
+        return true;
+    }
+
     /**
      * Method called to create a new context for iterating all
      * contents of the current structured value (JSON array or object)
      * @return a cursor over the children of this node
      */
     public final HoconNodeCursor iterateChildren() {
+        return iterateChildren(null, 0);
+    }
+
+    /**
+     * Same as {@link #iterateChildren()}, but takes the cursor from
+     * <code>stack</code> if there is one of the right kind, and resets it
+     * instead of allocating a new one.
+     *
+     * @param stack cursors to reuse, {@link #STACK_KINDS} per depth; new
+     *   cursors are stored into it. Null to always allocate.
+     * @param depth depth of the cursor to return, which must fit in
+     *   <code>stack</code>
+     */
+    final HoconNodeCursor iterateChildren(Container[] stack, int depth) {
     	ConfigValue n = currentNode();
         if (n == null) throw new IllegalStateException("No current node");
-        boolean numericallyIndexed = isNumericallyIndexed(n);
-        if (!numericallyIndexed) {
-            if (isArray(n)) { // false since we have already returned START_ARRAY
-                return new Array(n, this);
+        final int kind = kindOf(n, _indexDetector);
+        final int ix = depth * STACK_KINDS + kind;
+        Container cursor = (stack == null) ? null : stack[ix];
+        if (cursor != null) {
+            cursor.reset(n, this, _indexDetector);
+        } else {
+            switch (kind) {
+            case KIND_INDEXED:
+                cursor = new NumericallyIndexedObjectBackedArray(n, this);
+                break;
+            case KIND_ARRAY:
+                cursor = new Array(n, this);
+                break;
+            default:
+                cursor = new Object(n, this);
             }
-            if (isObject(n)) {
-                return new Object(n, this);
+            if (stack != null) {
+                stack[ix] = cursor;
             }
-        } else {
-            return new NumericallyIndexedObjectBackedArray(n, this);
+        }
+        cursor._filter = _currentFilter;
+        return cursor;
+    }
+
+    // kinds of container cursors, for stacks of reusable cursors
+    final static int KIND_ARRAY = 0;
+    final static int KIND_OBJECT = 1;
+    final static int KIND_INDEXED = 2;
+    final static int STACK_KINDS = 3;
+
+    /**
+     * @return the kind of cursor that iterates over the container <code>n</code>
+     */
+    static int kindOf(ConfigValue n, NumericIndexDetector indexDetector) {
+        if (indexDetector.isNumericallyIndexed(n)) {
+            return KIND_INDEXED;
+        }
+        if (isArray(n)) {
+            return KIND_ARRAY;
+        }
+        if (isObject(n)) {
+            return KIND_OBJECT;
         }
         throw new IllegalStateException("Current node of type "+n.getClass().getName());
     }
 
     public static boolean isNumericallyIndexed(ConfigValue n) {
-        java.lang.Object unwrapped = n.unwrapped();
-        if (unwrapped instanceof Map) {
-            try {
-                @SuppressWarnings(value = "unchecked")
-                Map<String, java.lang.Object> map = (Map<String, java.lang.Object>) unwrapped;
-                if (map.isEmpty()) {
-                    return false;
-                }
-                // Because TypeSafe config does not preserve types of keys 
-                // we have to revert to heuristics to detect if it was originally an array
-                // two conditions are verified:
-                // 1. all keys must be non-negative integers
-                // 2. all keys must form a consecutive set of integers 0..N-1 where N is size of map
-                int size = map.size();
-                for (String key : map.keySet()) {
-                    try {
-                        int idx = Integer.parseInt(key);
-                        if (idx < 0) {
-                            return false;
-                        } else if (idx >= size) {
-                            return false;
-                        }
-                    } catch (NumberFormatException e) {
-                        return false;
-                    }
-                }
-                return true;
-            } catch (ClassCastException e) {
-                return false;
-            }
-        }
-        return false;
+        return NumericIndexDetector.isNumericallyIndexedValue(n);
     }
 
     protected final static class RootValue extends HoconNodeCursor {
@@ -138,7 +202,11 @@ public abstract class HoconNodeCursor extends JsonStreamContext {
          protected boolean _done = false;
 
          public RootValue(ConfigValue n, HoconNodeCursor p) {
-             super(JsonStreamContext.TYPE_ROOT, p);
+             this(n, p, (p == null) ? new NumericIndexDetector() : p._indexDetector);
+         }
+
+         public RootValue(ConfigValue n, HoconNodeCursor p, NumericIndexDetector indexDetector) {
+             super(JsonStreamContext.TYPE_ROOT, p, indexDetector);
              _node = n;
          }
          
@@ -146,7 +214,7 @@ public abstract class HoconNodeCursor extends JsonStreamContext {
          public JsonToken nextToken() {
              if (!_done) {
                  _done = true;
-                 return asJsonToken(_node);
+                 return classify(_node);
              }
              _node = null;
              return null;
@@ -163,27 +231,130 @@ public abstract class HoconNodeCursor extends JsonStreamContext {
     	
     }
     
+    /**
+     * Cursor positioned on a single member of a container: the value of a
+     * field of an object, or an element of an array. Used as the ancestors
+     * of a parser scoped to a subtree, so that the parsing context and
+     * paths are the same as if the whole tree was traversed. The innermost
+     * one returns its member once, like {@link RootValue}; the others are
+     * only there as parents and return nothing.
+     */
+    protected final static class Member extends HoconNodeCursor {
+        protected ConfigValue _node;
+
+        protected boolean _done;
+
+        /**
+         * @param name field name if the container is an object, or null
+         *   if it is an array
+         * @param index element index, for arrays
+         * @param done whether to skip the member
+         */
+        public Member(ConfigValue n, String name, int index, HoconNodeCursor p,
+                NumericIndexDetector indexDetector, boolean done) {
+            super((name == null) ? JsonStreamContext.TYPE_ARRAY : JsonStreamContext.TYPE_OBJECT,
+                    p, indexDetector);
+            _node = n;
+            _currentName = name;
+            _index = index;
+            _done = done;
+        }
+
+        @Override
+        public JsonToken nextToken() {
+            if (!_done) {
+                _done = true;
+                return classify(_node);
+            }
+            return null;
+        }
+
+        @Override
+        public JsonToken endToken() { return null; }
+
+        @Override
+        public ConfigValue currentNode() { return _node; }
+
+        @Override
+        public boolean currentHasChildren() {
+            if (_node instanceof ConfigList) {
+                return !((ConfigList) _node).isEmpty();
+            } else if (_node instanceof ConfigObject) {
+                return !((ConfigObject) _node).isEmpty();
+            } else {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Cursor over the members of a container, which a parser keeps in its
+     * stack of cursors and points at one container after another
+     */
+    protected abstract static class Container extends HoconNodeCursor {
+
+        protected Container(int contextType, HoconNodeCursor p, NumericIndexDetector indexDetector) {
+            super(contextType, p, indexDetector);
+        }
+
+        /**
+         * Points the cursor at another container of its kind, as if it was
+         * just created for it.
+         */
+        protected abstract void reset(ConfigValue n, HoconNodeCursor p, NumericIndexDetector indexDetector);
+
+        protected final void resetCommon(HoconNodeCursor p, NumericIndexDetector indexDetector) {
+            _parent = p;
+            _indexDetector = indexDetector;
+            _index = -1;
+            _currentName = null;
+            _filter = null;
+            _currentFilter = null;
+        }
+    }
+
     /**
      * Cursor used for traversing non-empty JSON Array nodes
      */
-    protected final static class Array extends HoconNodeCursor {
-        protected Iterator<ConfigValue> _contents;
+    protected final static class Array extends Container {
+        protected ConfigList _contents;
 
         protected ConfigValue _currentNode;
 
+        /**
+         * Index of the next element
+         */
+        protected int _position;
+
         public Array(ConfigValue n, HoconNodeCursor p) {
-            super(JsonStreamContext.TYPE_ARRAY, p);
-            _contents = ((ConfigList)n).iterator();
+            this(n, p, (p == null) ? new NumericIndexDetector() : p._indexDetector);
+        }
+
+        public Array(ConfigValue n, HoconNodeCursor p, NumericIndexDetector indexDetector) {
+            super(JsonStreamContext.TYPE_ARRAY, p, indexDetector);
+            _contents = (ConfigList) n;
+        }
+
+        @Override
+        protected void reset(ConfigValue n, HoconNodeCursor p, NumericIndexDetector indexDetector) {
+            resetCommon(p, indexDetector);
+            _contents = (ConfigList) n;
+            _currentNode = null;
+            _position = 0;
         }
 
         @Override
         public JsonToken nextToken() {
-            if (!_contents.hasNext()) {
-                _currentNode = null;
-                return null;
+            // by index: lists of a config are array-backed, and no iterator is allocated
+            while (_position < _contents.size()) {
+                final int i = _position++;
+                if (_filter == null || accept(Integer.toString(i))) {
+                    _currentNode = _contents.get(i);
+                    return classify(_currentNode);
+                }
             }
-            _currentNode = _contents.next();
-            return asJsonToken(_currentNode);
+            _currentNode = null;
+            return null;
         }
 
         @Override
@@ -207,15 +378,42 @@ public abstract class HoconNodeCursor extends JsonStreamContext {
     /**
      * Cursor used for traversing non-empty JSON Object nodes and converting them to Arrays because they have numerically indexed keys
      */
-    protected final static class NumericallyIndexedObjectBackedArray extends HoconNodeCursor {
-        protected Iterator<ConfigValue> _contents;
+    protected final static class NumericallyIndexedObjectBackedArray extends Container {
+        /**
+         * Members of the object, sorted by index
+         */
+        protected List<Map.Entry<Integer, ConfigValue>> _contents;
+
+        protected int _position;
 
         protected ConfigValue _currentNode;
 
         public NumericallyIndexedObjectBackedArray(ConfigValue n, HoconNodeCursor p) {
-            super(JsonStreamContext.TYPE_ARRAY, p);
+            this(n, p, (p == null) ? new NumericIndexDetector() : p._indexDetector);
+        }
+
+        public NumericallyIndexedObjectBackedArray(ConfigValue n, HoconNodeCursor p, NumericIndexDetector indexDetector) {
+            super(JsonStreamContext.TYPE_ARRAY, p, indexDetector);
+            _contents = _sorted((ConfigObject) n, indexDetector);
+        }
+
+        @Override
+        protected void reset(ConfigValue n, HoconNodeCursor p, NumericIndexDetector indexDetector) {
+            resetCommon(p, indexDetector);
+            _contents = _sorted((ConfigObject) n, indexDetector);
+            _position = 0;
+            _currentNode = null;
+        }
+
+        private List<Map.Entry<Integer, ConfigValue>> _sorted(ConfigObject n, NumericIndexDetector indexDetector) {
+            if (indexDetector instanceof HoconDocument.Metadata) {
+                List<Map.Entry<Integer, ConfigValue>> elements = ((HoconDocument.Metadata) indexDetector).elements(n);
+                if (elements != null) {
+                    return elements;
+                }
+            }
             TreeMap<Integer, ConfigValue> sortedContents = new TreeMap<Integer, ConfigValue>();
-            for (Map.Entry<String, ConfigValue> entry: ((ConfigObject) n).entrySet()) {
+            for (Map.Entry<String, ConfigValue> entry: n.entrySet()) {
                 try {
                     Integer key = Integer.parseInt(entry.getKey());
                     sortedContents.put(key, entry.getValue());
@@ -225,17 +423,20 @@ public abstract class HoconNodeCursor extends JsonStreamContext {
                             getClass().getSimpleName());
                 }
             }
-            _contents = sortedContents.values().iterator();
+            return new ArrayList<Map.Entry<Integer, ConfigValue>>(sortedContents.entrySet());
         }
 
         @Override
         public JsonToken nextToken() {
-            if (!_contents.hasNext()) {
-                _currentNode = null;
-                return null;
+            while (_position < _contents.size()) {
+                Map.Entry<Integer, ConfigValue> entry = _contents.get(_position++);
+                if (_filter == null || accept(entry.getKey().toString())) {
+                    _currentNode = entry.getValue();
+                    return classify(_currentNode);
+                }
             }
-            _currentNode = _contents.next();
-            return asJsonToken(_currentNode);
+            _currentNode = null;
+            return null;
         }
 
         @Override
@@ -259,34 +460,73 @@ public abstract class HoconNodeCursor extends JsonStreamContext {
     /**
      * Cursor used for traversing non-empty JSON Object nodes
      */
-    protected final static class Object extends HoconNodeCursor {
+    protected final static class Object extends Container {
+        /**
+         * Members of the object when they are listed by a document; iterated
+         * by index, without allocating an iterator
+         */
+        protected List<Map.Entry<String, ConfigValue>> _entries;
+        protected int _position;
+
+        /**
+         * Members of the object otherwise
+         */
         protected Iterator<Map.Entry<String, ConfigValue>> _contents;
         protected Map.Entry<String, ConfigValue> _current;
 
         protected boolean _needEntry;
         
         public Object(ConfigValue n, HoconNodeCursor p) {
-            super(JsonStreamContext.TYPE_OBJECT, p);
-            _contents = ((ConfigObject) n).entrySet().iterator();
+            this(n, p, (p == null) ? new NumericIndexDetector() : p._indexDetector);
+        }
+
+        public Object(ConfigValue n, HoconNodeCursor p, NumericIndexDetector indexDetector) {
+            super(JsonStreamContext.TYPE_OBJECT, p, indexDetector);
+            _init((ConfigObject) n, indexDetector);
+        }
+
+        @Override
+        protected void reset(ConfigValue n, HoconNodeCursor p, NumericIndexDetector indexDetector) {
+            resetCommon(p, indexDetector);
+            _current = null;
+            _init((ConfigObject) n, indexDetector);
+        }
+
+        private void _init(ConfigObject n, NumericIndexDetector indexDetector) {
+            _entries = (indexDetector instanceof HoconDocument.Metadata)
+                    ? ((HoconDocument.Metadata) indexDetector).entries(n) : null;
+            // entrySet() copies all entries, so documents list them once
+            _contents = (_entries != null) ? null : n.entrySet().iterator();
+            _position = 0;
             _needEntry = true;
         }
 
+        private boolean _hasNext() {
+            return (_entries != null) ? (_position < _entries.size()) : _contents.hasNext();
+        }
+
+        private Map.Entry<String, ConfigValue> _next() {
+            return (_entries != null) ? _entries.get(_position++) : _contents.next();
+        }
+
         @Override
         public JsonToken nextToken() {
             // Need a new entry?
             if (_needEntry) {
-                if (!_contents.hasNext()) {
-                    _currentName = null;
-                    _current = null;
-                    return null;
+                while (_hasNext()) {
+                    _current = _next();
+                    if (_filter == null || accept(_current.getKey())) {
+                        _needEntry = false;
+                        _currentName = _current.getKey();
+                        return JsonToken.FIELD_NAME;
+                    }
                 }
-                _needEntry = false;
-                _current = _contents.next();
-                _currentName = (_current == null) ? null : _current.getKey();
-                return JsonToken.FIELD_NAME;
+                _currentName = null;
+                _current = null;
+                return null;
             }
             _needEntry = true;
-            return asJsonToken(_current.getValue());
+            return classify(_current.getValue());
         }
 
         @Override
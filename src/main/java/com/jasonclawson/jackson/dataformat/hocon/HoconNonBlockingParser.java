@@ -0,0 +1,243 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.io.CharConversionException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.io.IOContext;
+
+/**
+ * {@link HoconStreamingParser} that is fed UTF-8 input in chunks as it
+ * arrives, instead of pulling it from a stream: {@link #nextToken()}
+ * returns {@link JsonToken#NOT_AVAILABLE} when the input fed so far does
+ * not hold the next token, and the caller feeds more with
+ * {@link #feedInput(byte[], int, int)} or {@link #feedInput(ByteBuffer)}
+ * once it has some, calling {@link #endOfInput()} after the last chunk.
+ * No call ever blocks.
+ * <p>
+ * The parser holds on to the input from the start of the key or value
+ * being tokenized only; if that is incomplete it is tokenized again from
+ * its start once more input has been fed. As a whole document is never
+ * seen, the parser supports the same subset of HOCON as the streaming
+ * parser does, rejecting what the tree parser would present differently.
+ */
+public class HoconNonBlockingParser extends HoconStreamingParser {
+
+    /**
+     * Thrown by {@link #_loadMore()} when the input fed so far is used up;
+     * caught by {@link #nextToken()}.
+     */
+    @SuppressWarnings("serial")
+    private final static class NeedMoreInput extends IOException {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    private final static NeedMoreInput NEED_MORE_INPUT = new NeedMoreInput();
+
+    /*
+    /**********************************************************
+    /* Input state
+    /**********************************************************
+     */
+
+    protected final CharsetDecoder _decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+
+    /**
+     * Bytes at the end of the last chunk that start a character completed
+     * by the next one
+     */
+    protected final ByteBuffer _pendingBytes = ByteBuffer.allocate(4);
+
+    protected long _bytesFed;
+
+    protected boolean _endOfInput;
+
+    /**
+     * Whether the last call to {@link #nextToken()} ran out of input
+     */
+    protected boolean _needMoreInput = true;
+
+    public HoconNonBlockingParser(IOContext ctxt, int parserFeatures, ObjectCodec codec,
+            boolean requireTreeEquivalence, HoconBufferPool pool)
+    {
+        super(ctxt, parserFeatures, codec, null, requireTreeEquivalence, pool);
+    }
+
+    /*
+    /**********************************************************
+    /* Feeding input
+    /**********************************************************
+     */
+
+    /**
+     * @return whether the parser has used up all input fed so far, and
+     *   more is needed before {@link #nextToken()} can return anything but
+     *   {@link JsonToken#NOT_AVAILABLE}
+     */
+    public boolean needMoreInput() {
+        return _needMoreInput && !_endOfInput;
+    }
+
+    public void feedInput(byte[] data, int offset, int end) throws IOException {
+        feedInput(ByteBuffer.wrap(data, offset, end - offset));
+    }
+
+    /**
+     * Feeds the remaining bytes of the given buffer, which the parser does
+     * not hold on to.
+     */
+    public void feedInput(ByteBuffer data) throws IOException
+    {
+        if (_endOfInput) {
+            _reportError("Already reached end of input, can not feed more");
+        }
+        if (_closed) {
+            _reportError("Already closed, can not feed more input");
+        }
+        _discardConsumed();
+        // complete the character split between the previous chunk and this one
+        while (_pendingBytes.position() > 0 && data.hasRemaining()) {
+            _pendingBytes.put(data.get());
+            _pendingBytes.flip();
+            _decode(_pendingBytes, false);
+            _pendingBytes.compact();
+        }
+        _decode(data, false);
+        if (data.hasRemaining()) { // start of a character, at most 3 bytes
+            _pendingBytes.put(data);
+        }
+        _needMoreInput = false;
+    }
+
+    /**
+     * Marks the end of input: once the input fed so far is used up,
+     * {@link #nextToken()} completes the document.
+     */
+    public void endOfInput() throws IOException
+    {
+        if (_endOfInput) {
+            return;
+        }
+        _endOfInput = true;
+        _discardConsumed();
+        _pendingBytes.flip();
+        _decode(_pendingBytes, true);
+        _pendingBytes.clear();
+    }
+
+    /**
+     * Drops input before the start of the next key or value, which will not
+     * be looked at again.
+     */
+    protected void _discardConsumed()
+    {
+        if (_inputPtr > 0) {
+            int keep = _inputEnd - _inputPtr;
+            System.arraycopy(_inputBuffer, _inputPtr, _inputBuffer, 0, keep);
+            _bufferOffset += _inputPtr;
+            _inputEnd = keep;
+            _inputPtr = 0;
+            _unitStart = 0;
+        }
+    }
+
+    protected void _decode(ByteBuffer in, boolean last) throws IOException
+    {
+        // UTF-8 never decodes into more chars than bytes
+        final int needed = _inputEnd + in.remaining();
+        if (needed > _inputBuffer.length) {
+            char[] buf = new char[Math.max(needed, _inputBuffer.length * 2)];
+            System.arraycopy(_inputBuffer, 0, buf, 0, _inputEnd);
+            if (_bufferRecyclable) {
+                _releaseBuffer(_inputBuffer);
+                _bufferRecyclable = false;
+            }
+            _inputBuffer = buf;
+        }
+        final int start = in.position();
+        CharBuffer out = CharBuffer.wrap(_inputBuffer, _inputEnd, _inputBuffer.length - _inputEnd);
+        CoderResult result = _decoder.decode(in, out, last);
+        _bytesFed += in.position() - start;
+        _inputEnd = out.position();
+        if (result.isError()) {
+            if (last && in.remaining() == result.length()) {
+                throw new CharConversionException("Unexpected EOF in the middle of a multi-byte char"
+                        +" (byte offset "+_bytesFed+")");
+            }
+            throw new CharConversionException("Invalid UTF-8 input at byte offset "+_bytesFed);
+        }
+    }
+
+    /**
+     * @return number of bytes fed to the parser (and decoded) so far
+     */
+    public long getBytesFed() {
+        return _bytesFed;
+    }
+
+    /*
+    /**********************************************************
+    /* Tokenization
+    /**********************************************************
+     */
+
+    @Override
+    public JsonToken nextToken() throws IOException, JsonParseException
+    {
+        try {
+            return super.nextToken();
+        } catch (NeedMoreInput e) {
+            _needMoreInput = true;
+            return (_currToken = JsonToken.NOT_AVAILABLE);
+        }
+    }
+
+    @Override
+    protected void _tokenizeNext() throws IOException
+    {
+        // tokenizing changes nothing but the position (and row) before it
+        // has read all of its input: enough to restart it from there
+        final int row = _currInputRow;
+        final long rowStart = _currInputRowStart;
+        try {
+            super._tokenizeNext();
+        } catch (NeedMoreInput e) {
+            _inputPtr = _unitStart;
+            _currInputRow = row;
+            _currInputRowStart = rowStart;
+            throw e;
+        }
+    }
+
+    @Override
+    protected boolean _loadMore() throws IOException
+    {
+        if (_endOfInput) {
+            return false;
+        }
+        throw NEED_MORE_INPUT;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (!_closed && _parseEvent != null) {
+            _parseEvent._byteCount = _bytesFed;
+            _parseEvent._charCount = _bufferOffset + _inputEnd;
+        }
+        super.close();
+    }
+}
@@ -0,0 +1,228 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigObject;
+
+/**
+ * Measurements of a single parser created by {@link HoconFactory}, from
+ * reading the input to the last token, for {@link HoconParseListener}s.
+ * <p>
+ * Sizes and times that do not apply to a parser, or are not known (such as
+ * the bytes read from a URL by Typesafe config) are -1. Events are filled
+ * in by the factory and the parser, and handed to the listener once the
+ * parser is done; listeners must not keep them for later than the call.
+ */
+public class HoconParseEvent {
+
+    /**
+     * Whether the configuration came from {@link HoconConfigCache}
+     */
+    public enum CacheResult {
+        /**
+         * No cache was involved
+         */
+        NONE,
+        HIT,
+        /**
+         * Not cached: parsed by this call, or by a concurrent one it waited
+         * for
+         */
+        MISS
+    }
+
+    protected final HoconParseListener _listener;
+
+    protected final String _source;
+
+    protected boolean _streaming;
+
+    protected CacheResult _cacheResult = CacheResult.NONE;
+
+    protected long _byteCount = -1L;
+
+    protected long _charCount = -1L;
+
+    protected long _readNanos = -1L;
+
+    protected long _parseNanos = -1L;
+
+    protected long _resolveNanos = -1L;
+
+    protected long _traversalStart;
+
+    protected long _traversalNanos = -1L;
+
+    protected long _tokenCount;
+
+    protected long _nodeCount;
+
+    protected int _depth;
+
+    protected int _maxDepth;
+
+    protected boolean _reported;
+
+    public HoconParseEvent(HoconParseListener listener, String source) {
+        _listener = listener;
+        _source = source;
+    }
+
+    /*
+    /**********************************************************
+    /* Accessors
+    /**********************************************************
+     */
+
+    /**
+     * @return description of the input: a file or URL, or the kind of input
+     *   for content passed in directly
+     */
+    public String getSource() { return _source; }
+
+    /**
+     * @return true if the content was tokenized by {@link HoconStreamingParser},
+     *   false if it was parsed into a Typesafe config tree
+     */
+    public boolean isStreaming() { return _streaming; }
+
+    public CacheResult getCacheResult() { return _cacheResult; }
+
+    /**
+     * @return number of bytes read, if the input was bytes and its size is known
+     */
+    public long getByteCount() { return _byteCount; }
+
+    /**
+     * @return number of characters read, if known
+     */
+    public long getCharCount() { return _charCount; }
+
+    /**
+     * @return time spent reading the input into memory before parsing it;
+     *   -1 if the input was read while parsing
+     */
+    public long getReadNanos() { return _readNanos; }
+
+    /**
+     * @return time spent parsing by Typesafe config, including documents
+     *   the streaming parser fell back on; -1 for cache hits and streaming
+     *   (which tokenizes while it is traversed)
+     */
+    public long getParseNanos() { return _parseNanos; }
+
+    /**
+     * @return time spent resolving substitutions; -1 for cache hits and
+     *   streaming
+     */
+    public long getResolveNanos() { return _resolveNanos; }
+
+    /**
+     * @return time from the first token to the last one (or to closing the
+     *   parser), which includes the time the caller spent between tokens,
+     *   binding them for example
+     */
+    public long getTraversalNanos() { return _traversalNanos; }
+
+    /**
+     * @return number of tokens read
+     */
+    public long getTokenCount() { return _tokenCount; }
+
+    /**
+     * @return number of values read: scalars, objects and arrays
+     */
+    public long getNodeCount() { return _nodeCount; }
+
+    /**
+     * @return deepest nesting of objects and arrays read
+     */
+    public int getMaxDepth() { return _maxDepth; }
+
+    @Override
+    public String toString() {
+        return "[source="+_source+", streaming="+_streaming+", cache="+_cacheResult
+                +", bytes="+_byteCount+", chars="+_charCount+", readNanos="+_readNanos
+                +", parseNanos="+_parseNanos+", resolveNanos="+_resolveNanos
+                +", traversalNanos="+_traversalNanos+", tokens="+_tokenCount
+                +", nodes="+_nodeCount+", maxDepth="+_maxDepth+"]";
+    }
+
+    /*
+    /**********************************************************
+    /* Recording, for factory and parsers
+    /**********************************************************
+     */
+
+    /**
+     * Resolves a configuration parsed from <code>parseStart</code> on,
+     * recording the time of both steps.
+     *
+     * @param event event to record into, may be null
+     */
+    static ConfigObject resolve(Config parsed, long parseStart, HoconParseEvent event)
+    {
+        if (event == null) {
+            return parsed.resolve().root();
+        }
+        long resolveStart = System.nanoTime();
+        event._parseNanos = resolveStart - parseStart;
+        ConfigObject root = parsed.resolve().root();
+        event._resolveNanos = System.nanoTime() - resolveStart;
+        return root;
+    }
+
+    /**
+     * Called by parsers for every token they return, null included.
+     */
+    void token(JsonToken t)
+    {
+        if (t == null) {
+            finish();
+            return;
+        }
+        if (_tokenCount++ == 0L) {
+            _traversalStart = System.nanoTime();
+        }
+        switch (t) {
+        case START_OBJECT:
+        case START_ARRAY:
+            ++_nodeCount;
+            if (++_depth > _maxDepth) {
+                _maxDepth = _depth;
+            }
+            break;
+        case END_OBJECT:
+        case END_ARRAY:
+            --_depth;
+            break;
+        case FIELD_NAME:
+            break;
+        default:
+            ++_nodeCount;
+        }
+    }
+
+    /**
+     * Called by parsers when the children of a container were skipped.
+     */
+    void skipped() {
+        --_depth;
+    }
+
+    /**
+     * Reports the event, unless it was reported already. Called by parsers
+     * at the end of the input and when closed.
+     */
+    void finish()
+    {
+        if (_reported) {
+            return;
+        }
+        _reported = true;
+        if (_tokenCount > 0L) {
+            _traversalNanos = System.nanoTime() - _traversalStart;
+        }
+        _listener.parsed(this);
+    }
+}
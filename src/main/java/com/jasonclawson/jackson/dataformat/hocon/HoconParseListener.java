@@ -0,0 +1,16 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+/**
+ * Receives measurements of the parsers created by a {@link HoconFactory},
+ * see {@link HoconFactory#setParseListener(HoconParseListener)}.
+ * {@link HoconMetrics} aggregates them.
+ */
+public interface HoconParseListener {
+
+    /**
+     * Called once for every parser, on the thread using the parser, when it
+     * has returned its last token or is closed, whichever comes first.
+     * Should be quick, and not throw.
+     */
+    void parsed(HoconParseEvent event);
+}
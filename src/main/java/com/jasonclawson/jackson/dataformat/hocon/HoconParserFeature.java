@@ -0,0 +1,96 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+/**
+ * Enumeration that defines all togglable features for the parsers
+ * created by {@link HoconFactory}.
+ */
+public enum HoconParserFeature {
+
+    /**
+     * Feature that determines whether documents read from text are handed to
+     * a {@link HoconStreamingParser} when that gives the same values as
+     * parsing and resolving the document with Typesafe config would.
+     * Documents that use substitutions, includes or merging are parsed into
+     * a Typesafe tree when the streaming parser first meets one of them. Text here, as for the other text
+     * features, is input to {@link HoconFactory#createParser(java.io.Reader)},
+     * {@link HoconFactory#createParser(java.nio.file.Path)} and the
+     * <code>createTextParser</code> methods; the other <code>createParser</code>
+     * methods always return a {@link HoconTreeTraversingParser}.
+     * <p>
+     * The whole document is read into memory, for the parser to fall back
+     * on. Tokens it returned before falling back stand: all the members of
+     * the root object are then returned again, with the values of the tree.
+     * Members of objects come in source order, whereas a tree parser returns
+     * them in the (hash) order of the Typesafe tree.
+     * <p>
+     * Feature is disabled by default.
+     */
+    PREFER_STREAMING(false),
+
+    /**
+     * Feature that determines whether parsers created from a {@link java.io.File}
+     * read it through a {@link java.nio.channels.FileChannel}, as parsers
+     * created from a {@link java.nio.file.Path} always do, instead of having
+     * Typesafe config read it through a stream. Large files are
+     * memory-mapped; includes are still resolved relative to the file.
+     * Has no effect on files read through a {@link HoconConfigCache}.
+     * <p>
+     * Feature is disabled by default.
+     */
+    READ_FILES_THROUGH_CHANNEL(false),
+
+    /**
+     * Feature that determines whether text, from a String, byte array,
+     * stream or reader, is taken as a stream of concatenated documents,
+     * each enclosed in braces, parsed and resolved one at a time by a
+     * {@link HoconMultiDocumentParser}: the documents follow each other as
+     * root-level values, for
+     * {@link com.fasterxml.jackson.databind.ObjectReader#readValues} to
+     * iterate over. Takes precedence over {@link #PREFER_STREAMING} and
+     * {@link #STREAM_INCREMENTALLY}.
+     * <p>
+     * Feature is disabled by default.
+     */
+    MULTI_DOCUMENT(false),
+
+    /**
+     * Feature that determines whether documents read from text (see
+     * {@link #PREFER_STREAMING}) are tokenized by a {@link HoconStreamingParser}
+     * as they are read, instead of being read as a whole first: memory use
+     * then depends on the size of the longest value, not on the size of the
+     * document, so that arrays with millions of elements can be bound
+     * element by element (with {@link com.fasterxml.jackson.databind.MappingIterator}
+     * over a root array, for example). The root of the document may be an
+     * array. As the document can not be read again, documents that need
+     * substitutions, includes or merging can not fall back to a Typesafe
+     * tree and fail with a parse error where they use them.
+     * <p>
+     * Feature is disabled by default.
+     */
+    STREAM_INCREMENTALLY(false);
+
+    private final boolean _defaultState;
+
+    private HoconParserFeature(boolean defaultState) {
+        _defaultState = defaultState;
+    }
+
+    /**
+     * Method that calculates bit set (flags) of all features that
+     * are enabled by default.
+     */
+    public static int collectDefaults()
+    {
+        int flags = 0;
+        for (HoconParserFeature f : values()) {
+            if (f.enabledByDefault()) {
+                flags |= f.getMask();
+            }
+        }
+        return flags;
+    }
+
+    public boolean enabledByDefault() { return _defaultState; }
+
+    public int getMask() { return (1 << ordinal()); }
+}
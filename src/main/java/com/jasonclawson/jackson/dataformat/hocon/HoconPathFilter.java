@@ -0,0 +1,130 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.ConfigUtil;
+
+/**
+ * Set of included and excluded paths that a {@link HoconTreeTraversingParser}
+ * applies while it traverses the tree: excluded values are skipped by its
+ * cursors before they are even classified, so that extracting a few paths
+ * of a large configuration costs about as much as the values extracted.
+ * <p>
+ * Paths are HOCON path expressions, such as <code>services.db</code>;
+ * elements of arrays are addressed by index (<code>hosts.0</code>). A value
+ * is included if it is at or below an include path, or if there are no
+ * include paths at all, and it is not at or below an exclude path. Objects
+ * and arrays on the way to an included value are included too, with only
+ * their included members, so that the result binds to the same types as
+ * the whole tree does. Instances are immutable and may be shared.
+ */
+public final class HoconPathFilter {
+
+    /**
+     * Node of the trie of paths; the children of a node are matched against
+     * the keys (or indexes) of the members of the container it stands for.
+     */
+    final static class Node {
+        protected final Map<String, Node> _children = new HashMap<String, Node>();
+
+        /**
+         * Whether the value and all of its members are included, unless
+         * excluded by a child
+         */
+        protected boolean _included;
+
+        protected boolean _excluded;
+
+        /**
+         * @return the node to filter the members of the member with the
+         *   given key by; {@link HoconPathFilter#ALL} if all of them are
+         *   included, null if the member itself is excluded
+         */
+        public Node child(String key) {
+            Node child = _children.get(key);
+            if (child == null) {
+                return _included ? ALL : null;
+            }
+            if (child._excluded) {
+                return null;
+            }
+            return (child._included && child._children.isEmpty()) ? ALL : child;
+        }
+
+        /**
+         * Includes the descendants of included nodes, so that each node
+         * knows whether members without a node of their own are included.
+         */
+        void _propagate() {
+            for (Node child : _children.values()) {
+                child._included |= _included;
+                child._propagate();
+            }
+        }
+    }
+
+    /**
+     * Marker for values included along with everything below them
+     */
+    final static Node ALL = new Node();
+    static {
+        ALL._included = true;
+    }
+
+    private final Node _root;
+
+    /**
+     * @param includes paths of the values to include; if empty, everything
+     *   that is not excluded is
+     * @param excludes paths of the values to exclude, taking precedence
+     *   over the includes
+     * @throws com.typesafe.config.ConfigException.BadPath if a path is not a
+     *   valid path expression
+     */
+    public HoconPathFilter(Collection<String> includes, Collection<String> excludes)
+    {
+        _root = new Node();
+        _root._included = includes.isEmpty();
+        for (String path : includes) {
+            _add(path)._included = true;
+        }
+        for (String path : excludes) {
+            _add(path)._excluded = true;
+        }
+        _root._propagate();
+    }
+
+    public static HoconPathFilter including(String... paths) {
+        return new HoconPathFilter(Arrays.asList(paths), Collections.<String>emptyList());
+    }
+
+    public static HoconPathFilter excluding(String... paths) {
+        return new HoconPathFilter(Collections.<String>emptyList(), Arrays.asList(paths));
+    }
+
+    private Node _add(String path)
+    {
+        Node node = _root;
+        for (String key : ConfigUtil.splitPath(path)) {
+            Node child = node._children.get(key);
+            if (child == null) {
+                child = new Node();
+                node._children.put(key, child);
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * @return the node to filter the members of the root by; null if no
+     *   member is filtered out
+     */
+    Node root() {
+        return (_root._included && _root._children.isEmpty()) ? null : _root;
+    }
+}
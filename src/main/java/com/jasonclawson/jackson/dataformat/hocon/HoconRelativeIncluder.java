@@ -0,0 +1,112 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigIncludeContext;
+import com.typesafe.config.ConfigIncluder;
+import com.typesafe.config.ConfigObject;
+
+/**
+ * Includer for documents that Typesafe config parses from memory but that
+ * came from a file: plain <code>include "name"</code> statements are
+ * resolved relative to the directory of the file, as they would be had
+ * Typesafe config read the file itself, falling back to the classpath if
+ * there is no such file. Included files are parsed by Typesafe config, so
+ * their own includes are relative to them; through a
+ * {@link HoconIncludeCache} if one is given.
+ */
+final class HoconRelativeIncluder implements ConfigIncluder {
+
+    private final static String[] EXTENSIONS = { ".conf", ".json", ".properties" };
+
+    private final File _directory;
+
+    private final HoconIncludeCache _includeCache;
+
+    private final ConfigIncluder _fallback;
+
+    public HoconRelativeIncluder(File directory) {
+        this(directory, null, null);
+    }
+
+    /**
+     * @param includeCache cache to parse included files through, may be null
+     */
+    public HoconRelativeIncluder(File directory, HoconIncludeCache includeCache) {
+        this(directory, includeCache, null);
+    }
+
+    private HoconRelativeIncluder(File directory, HoconIncludeCache includeCache, ConfigIncluder fallback) {
+        _directory = directory;
+        _includeCache = includeCache;
+        _fallback = fallback;
+    }
+
+    @Override
+    public ConfigIncluder withFallback(ConfigIncluder fallback)
+    {
+        if (this == fallback) {
+            throw new ConfigException.BugOrBroken("trying to create includer cycle");
+        }
+        if (_fallback == fallback) {
+            return this;
+        }
+        if (_fallback != null) {
+            return new HoconRelativeIncluder(_directory, _includeCache, _fallback.withFallback(fallback));
+        }
+        return new HoconRelativeIncluder(_directory, _includeCache, fallback);
+    }
+
+    @Override
+    public ConfigObject include(ConfigIncludeContext context, String what)
+    {
+        File file = _fileFor(what);
+        if (file != null) {
+            // no relative includer for the included file: Typesafe config
+            // resolves its includes relative to it
+            if (_includeCache != null) {
+                return _includeCache.parseFile(file, context.parseOptions().setIncluder(_includeCache));
+            }
+            return ConfigFactory.parseFileAnySyntax(file, context.parseOptions().setIncluder(null)).root();
+        }
+        if (_includeCache != null) {
+            ConfigIncluder cached = (_fallback == null) ? _includeCache : _includeCache.withFallback(_fallback);
+            return cached.include(context, what);
+        }
+        if (_fallback != null) {
+            return _fallback.include(context, what);
+        }
+        return ConfigFactory.parseResourcesAnySyntax(what, context.parseOptions()).root();
+    }
+
+    /**
+     * @return the file (or basename, without extension) to include, or null
+     *   if the name is a URL or there is no such file
+     */
+    private File _fileFor(String what)
+    {
+        try {
+            new URL(what);
+            return null;
+        } catch (MalformedURLException e) {
+            // not a URL: a file name
+        }
+        File file = new File(what);
+        if (!file.isAbsolute()) {
+            file = new File(_directory, what);
+        }
+        if (file.exists()) {
+            return file;
+        }
+        for (String ext : EXTENSIONS) {
+            if (new File(file.getPath() + ext).exists()) {
+                return file;
+            }
+        }
+        return null;
+    }
+}
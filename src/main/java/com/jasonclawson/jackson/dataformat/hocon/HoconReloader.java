@@ -0,0 +1,384 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Keeps an object bound from a configuration file up to date with the file.
+ * <p>
+ * The file and all the files it includes are watched with a
+ * {@link WatchService}. After a burst of changes has settled (see the
+ * debounce delay) the content of the files is hashed, and only if the hash
+ * differs from that of the last load is the configuration parsed, resolved
+ * and bound again. The files are hashed before they are parsed, so that a
+ * change made during a reload triggers another one; when the files included
+ * turn out to differ from those hashed (as on the first load) the new set is
+ * hashed and the configuration parsed once more. The new object is then
+ * published atomically: {@link #get()} never blocks and always returns a
+ * completely bound object, the new one or the previous one.
+ * {@link Listener}s are notified on the watcher thread.
+ * <p>
+ * If reloading fails (for example because the file is being edited and is not
+ * valid) the previous object is kept and listeners are told about the failure.
+ */
+public class HoconReloader<T> implements Closeable {
+
+    /**
+     * Callback for reloads; called on the thread that reloaded.
+     */
+    public interface Listener<T> {
+        /**
+         * Called after a new object was published; <code>previous</code> is
+         * null for the initial load.
+         */
+        void reloaded(T previous, T current);
+
+        /**
+         * Called when a change was detected but could not be loaded; the
+         * previous object is still in use.
+         */
+        void failed(Exception e);
+    }
+
+    public final static long DEFAULT_DEBOUNCE_MILLIS = 200L;
+
+    protected final ObjectMapper _mapper;
+
+    protected final HoconFactory _factory;
+
+    protected final File _file;
+
+    protected final JavaType _valueType;
+
+    protected final long _debounceMillis;
+
+    protected final AtomicReference<T> _current = new AtomicReference<T>();
+
+    protected final List<Listener<T>> _listeners = new CopyOnWriteArrayList<Listener<T>>();
+
+    /**
+     * Files that make up the configuration, as of the last load
+     */
+    protected volatile Set<File> _files = Collections.emptySet();
+
+    protected byte[] _hash;
+
+    protected WatchService _watchService;
+
+    protected final Map<WatchKey, Path> _watchedDirs = new HashMap<WatchKey, Path>();
+
+    protected Thread _thread;
+
+    public HoconReloader(ObjectMapper mapper, File file, Class<T> valueType) {
+        this(mapper, file, mapper.constructType(valueType), DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    /**
+     * @param mapper mapper to bind with; if its factory is a {@link HoconFactory}
+     *   the file is parsed through it (with its include cache, parse
+     *   listener and options, but never through its config cache), otherwise
+     *   through a default one
+     * @param debounceMillis how long the files must stay unchanged before
+     *   they are reloaded
+     */
+    public HoconReloader(ObjectMapper mapper, File file, JavaType valueType, long debounceMillis) {
+        _mapper = mapper;
+        _factory = (mapper.getFactory() instanceof HoconFactory)
+                ? (HoconFactory) mapper.getFactory() : new HoconFactory();
+        _file = file.getAbsoluteFile();
+        _valueType = valueType;
+        _debounceMillis = debounceMillis;
+    }
+
+    /*
+    /**********************************************************
+    /* Public API
+    /**********************************************************
+     */
+
+    /**
+     * Loads the configuration and starts watching it.
+     *
+     * @throws IOException if the configuration can not be loaded
+     */
+    public synchronized HoconReloader<T> start() throws IOException
+    {
+        if (_thread != null) {
+            throw new IllegalStateException("Already started");
+        }
+        _watchService = FileSystems.getDefault().newWatchService();
+        try {
+            reload();
+        } catch (IOException e) {
+            _watchService.close();
+            throw e;
+        } catch (RuntimeException e) {
+            _watchService.close();
+            throw e;
+        }
+        _thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                _watch();
+            }
+        }, "hocon-reloader-"+_file.getName());
+        _thread.setDaemon(true);
+        _thread.start();
+        return this;
+    }
+
+    /**
+     * @return the latest bound object; never blocks
+     */
+    public T get() {
+        return _current.get();
+    }
+
+    public void addListener(Listener<T> listener) {
+        _listeners.add(listener);
+    }
+
+    public void removeListener(Listener<T> listener) {
+        _listeners.remove(listener);
+    }
+
+    /**
+     * Checks the configuration for changes right away, reloading it if needed.
+     * Listeners are notified, but exceptions are thrown to the caller too.
+     *
+     * @return true if a new object was published
+     */
+    public synchronized boolean reload() throws IOException
+    {
+        Set<File> hashed = _files.isEmpty() ? Collections.singleton(_file) : _files;
+        byte[] hash;
+        Set<File> files;
+        T value;
+        try {
+            hash = _hash(hashed);
+            if (_hash != null && Arrays.equals(hash, _hash)) {
+                return false;
+            }
+            if (!_file.isFile()) {
+                throw new FileNotFoundException(_file.getPath());
+            }
+            while (true) {
+                files = new ConcurrentSkipListSet<File>();
+                HoconTreeTraversingParser p = _factory._createRecordingParser(_file, files);
+                try {
+                    if (files.equals(hashed)) {
+                        value = _mapper.readValue(p, _valueType);
+                        break;
+                    }
+                } finally {
+                    p.close();
+                }
+                // parsed files that were not hashed: hash them, then parse what was hashed
+                hashed = files;
+                hash = _hash(hashed);
+            }
+        } catch (IOException e) {
+            _fireFailed(e);
+            throw e;
+        } catch (RuntimeException e) {
+            _fireFailed(e);
+            throw e;
+        }
+        if (!files.equals(_files)) {
+            _files = Collections.unmodifiableSet(new TreeSet<File>(files));
+            if (_watchService != null) {
+                _registerDirectories();
+            }
+        }
+        _hash = hash;
+        T previous = _current.getAndSet(value);
+        for (Listener<T> listener : _listeners) {
+            listener.reloaded(previous, value);
+        }
+        return true;
+    }
+
+    /**
+     * @return files that make up the configuration, as of the last load;
+     *   includes optional files that do not exist (yet)
+     */
+    public Set<File> getFiles() {
+        return _files;
+    }
+
+    /**
+     * Stops watching; {@link #get()} keeps returning the last object.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        Thread thread;
+        synchronized (this) {
+            thread = _thread;
+            if (_watchService != null) {
+                _watchService.close();
+            }
+        }
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods
+    /**********************************************************
+     */
+
+    protected void _watch()
+    {
+        try {
+            while (true) {
+                WatchKey key = _watchService.take();
+                boolean relevant = _pollEvents(key);
+                if (!relevant) {
+                    continue;
+                }
+                // wait for the burst of changes to settle
+                while ((key = _watchService.poll(_debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    _pollEvents(key);
+                }
+                try {
+                    reload();
+                } catch (Exception e) {
+                    // listeners have been notified already
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // closed: done
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return true if any of the events concerns one of the files
+     */
+    private boolean _pollEvents(WatchKey key)
+    {
+        boolean relevant = false;
+        Path dir;
+        synchronized (this) {
+            dir = _watchedDirs.get(key);
+        }
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true;
+            } else if (dir != null) {
+                File changed = dir.resolve((Path) event.context()).toFile();
+                if (_files.contains(changed)) {
+                    relevant = true;
+                }
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    /**
+     * Watches the directories of the current files, and stops watching
+     * those no longer needed.
+     */
+    private void _registerDirectories() throws IOException
+    {
+        Set<Path> dirs = new TreeSet<Path>();
+        for (File f : _files) {
+            File parent = f.getParentFile();
+            if (parent != null && parent.isDirectory()) {
+                dirs.add(parent.toPath());
+            }
+        }
+        Iterator<Map.Entry<WatchKey, Path>> it = _watchedDirs.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<WatchKey, Path> entry = it.next();
+            if (!dirs.remove(entry.getValue())) {
+                entry.getKey().cancel();
+                it.remove();
+            }
+        }
+        for (Path dir : dirs) {
+            WatchKey key = dir.register(_watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            _watchedDirs.put(key, dir);
+        }
+    }
+
+    /**
+     * @return SHA-256 of the names and contents of the files
+     */
+    protected static byte[] _hash(Set<File> files) throws IOException
+    {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) { // every JRE has it
+            throw new IllegalStateException(e);
+        }
+        byte[] buf = new byte[8192];
+        for (File f : new TreeSet<File>(files)) {
+            digest.update(f.getPath().getBytes("UTF-8"));
+            digest.update((byte) 0);
+            InputStream in;
+            try {
+                in = new FileInputStream(f);
+            } catch (FileNotFoundException e) { // missing (optional) file
+                digest.update((byte) 1);
+                continue;
+            }
+            try {
+                int count;
+                while ((count = in.read(buf)) > 0) {
+                    digest.update(buf, 0, count);
+                }
+            } finally {
+                in.close();
+            }
+            digest.update((byte) 0);
+        }
+        return digest.digest();
+    }
+
+    private void _fireFailed(Exception e)
+    {
+        for (Listener<T> listener : _listeners) {
+            listener.failed(e);
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.typesafe.config.ConfigOrigin;
+import com.typesafe.config.ConfigOriginFactory;
+
+/**
+ * Binary form of a {@link HoconTokenTape}, to store a resolved
+ * configuration and read it back without tokenizing text or resolving
+ * substitutions, see {@link HoconFactory#createSnapshotParser(List, Path)}.
+ * <p>
+ * A snapshot holds a hash of the sources the configuration was loaded
+ * from; reading it with the hash of the current sources only succeeds if
+ * they have not changed since. The encoding is that of the tape: a byte per
+ * token, operands as variable-length ints, the deduplicated strings once
+ * each, length-prefixed, and the origins of the values (description and
+ * line only, no comments).
+ */
+public final class HoconSnapshot {
+
+    private final static int MAGIC = 0x484f4353; // "HOCS"
+
+    private final static int VERSION = 1;
+
+    // kinds of origins
+    private final static byte ORIGIN_SIMPLE = 0;
+    private final static byte ORIGIN_FILE = 1;
+    private final static byte ORIGIN_URL = 2;
+
+    private HoconSnapshot() { }
+
+    /*
+    /**********************************************************
+    /* Hashing of sources
+    /**********************************************************
+     */
+
+    /**
+     * @param sources {@link File}s, {@link Path}s or {@link URL}s, as given
+     *   to {@link HoconFactory#createMergedParser(List)}
+     * @return SHA-256 hash of the names and contents of the sources, and of
+     *   the environment variables their substitutions may fall back to
+     */
+    public static byte[] hash(List<?> sources) throws IOException {
+        return hash(sources, System.getenv());
+    }
+
+    /**
+     * @param env environment to look up the variables substitutions may
+     *   refer to in
+     */
+    static byte[] hash(List<?> sources, Map<String, String> env) throws IOException
+    {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) { // every JVM has SHA-256
+            throw new IllegalStateException(e);
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buf = new byte[8000];
+        Set<String> names = new TreeSet<String>();
+        for (Object source : sources) {
+            InputStream in;
+            if (source instanceof File) {
+                in = Files.newInputStream(((File) source).toPath());
+            } else if (source instanceof Path) {
+                in = Files.newInputStream((Path) source);
+            } else if (source instanceof URL) {
+                in = ((URL) source).openStream();
+            } else {
+                throw new IllegalArgumentException("Can not hash "
+                        +((source == null) ? "null" : source.getClass().getName())
+                        +", expected File, Path or URL");
+            }
+            digest.update(String.valueOf(source).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            content.reset();
+            try {
+                int count;
+                while ((count = in.read(buf)) >= 0) {
+                    content.write(buf, 0, count);
+                }
+            } finally {
+                in.close();
+            }
+            byte[] bytes = content.toByteArray();
+            digest.update(bytes);
+            digest.update((byte) 0);
+            _addSubstitutions(bytes, names);
+        }
+        // substitutions not satisfied by the sources are resolved from the
+        // environment: a snapshot made with other values would be stale
+        for (String name : names) {
+            String value = env.get(name);
+            digest.update(name.getBytes(StandardCharsets.UTF_8));
+            if (value == null) {
+                digest.update((byte) 1);
+            } else {
+                digest.update((byte) 0);
+                digest.update(value.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Adds the paths of the substitutions (<code>${path}</code> and
+     * <code>${?path}</code>) in the content, without quotes, to the set.
+     * Substitutions in comments and quoted strings are added too, which
+     * only costs a rebuild when their variables change.
+     */
+    private static void _addSubstitutions(byte[] content, Set<String> names)
+    {
+        final int end = content.length;
+        for (int i = 0; i < end - 1; ++i) {
+            if (content[i] != '$' || content[i + 1] != '{') {
+                continue;
+            }
+            int start = i + 2;
+            if (start < end && content[start] == '?') {
+                ++start;
+            }
+            int close = start;
+            while (close < end && content[close] != '}' && content[close] != '\n') {
+                ++close;
+            }
+            if (close < end && content[close] == '}') {
+                String path = new String(content, start, close - start, StandardCharsets.UTF_8).trim();
+                names.add(path.replace("\"", ""));
+                i = close;
+            }
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Writing
+    /**********************************************************
+     */
+
+    /**
+     * Writes the tape, along with the hash of its sources.
+     */
+    public static void write(HoconTokenTape tape, byte[] sourceHash, OutputStream out) throws IOException
+    {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        _writeBytes(data, sourceHash);
+
+        final int count = tape._types.length;
+        _writeVarInt(data, count);
+        data.write(tape._types);
+        for (int i = 0; i < count; ++i) {
+            _writeVarInt(data, tape._operands[i]);
+        }
+        for (int i = 0; i < count; ++i) {
+            _writeVarInt(data, tape._originIndexes[i] + 1); // -1 for none
+        }
+
+        _writeVarInt(data, tape._strings.length);
+        for (String s : tape._strings) {
+            _writeBytes(data, s.getBytes(StandardCharsets.UTF_8));
+        }
+        _writeVarInt(data, tape._numbers.length);
+        for (long n : tape._numbers) {
+            data.writeLong(n);
+        }
+        _writeVarInt(data, tape._origins.length);
+        for (ConfigOrigin origin : tape._origins) {
+            _writeOrigin(data, origin);
+        }
+        data.flush();
+    }
+
+    /**
+     * Writes the snapshot to a temporary file first, then moves it in
+     * place, so that readers never see a partial snapshot.
+     */
+    public static void write(HoconTokenTape tape, byte[] sourceHash, Path path) throws IOException
+    {
+        Path dir = path.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(tape.size() * 4 + 256);
+            write(tape, sourceHash, bytes);
+            Files.write(tmp, bytes.toByteArray());
+            try {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void _writeOrigin(DataOutputStream data, ConfigOrigin origin) throws IOException
+    {
+        final int line = origin.lineNumber();
+        if (origin.filename() != null) {
+            data.writeByte(ORIGIN_FILE);
+            _writeBytes(data, origin.filename().getBytes(StandardCharsets.UTF_8));
+        } else if (origin.url() != null) {
+            data.writeByte(ORIGIN_URL);
+            _writeBytes(data, origin.url().toExternalForm().getBytes(StandardCharsets.UTF_8));
+        } else {
+            // description without the line number Typesafe config appends
+            String desc = origin.description();
+            String suffix = ": "+line;
+            if (line >= 0 && desc.endsWith(suffix)) {
+                desc = desc.substring(0, desc.length() - suffix.length());
+            }
+            data.writeByte(ORIGIN_SIMPLE);
+            _writeBytes(data, desc.getBytes(StandardCharsets.UTF_8));
+        }
+        _writeVarInt(data, line + 1);
+    }
+
+    private static void _writeBytes(DataOutputStream data, byte[] bytes) throws IOException {
+        _writeVarInt(data, bytes.length);
+        data.write(bytes);
+    }
+
+    private static void _writeVarInt(DataOutputStream data, int value) throws IOException
+    {
+        while ((value & ~0x7F) != 0) {
+            data.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data.writeByte(value);
+    }
+
+    /*
+    /**********************************************************
+    /* Reading
+    /**********************************************************
+     */
+
+    /**
+     * @param sourceHash hash of the current sources, see {@link #hash}; null
+     *   to read the snapshot no matter what it was made from
+     * @return the tape, or null if the snapshot was made from other sources
+     * @throws IOException if the data is not a valid snapshot
+     */
+    public static HoconTokenTape read(byte[] data, byte[] sourceHash) throws IOException {
+        return read(ByteBuffer.wrap(data), sourceHash);
+    }
+
+    /**
+     * Reads a snapshot file, memory-mapped.
+     *
+     * @return the tape, or null if the snapshot was made from other sources
+     */
+    public static HoconTokenTape read(Path path, byte[] sourceHash) throws IOException
+    {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), sourceHash);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads a snapshot from the remaining bytes of the buffer.
+     *
+     * @return the tape, or null if the snapshot was made from other sources
+     */
+    public static HoconTokenTape read(ByteBuffer buf, byte[] sourceHash) throws IOException
+    {
+        try {
+            if (buf.getInt() != MAGIC) {
+                throw new IOException("Not a HOCON snapshot");
+            }
+            int version = buf.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported HOCON snapshot version "+version);
+            }
+            byte[] hash = _readBytes(buf);
+            if (sourceHash != null && !Arrays.equals(hash, sourceHash)) {
+                return null;
+            }
+            return _readTape(buf);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated HOCON snapshot");
+        } catch (RuntimeException e) { // whatever slipped past the checks
+            throw new IOException("Corrupt HOCON snapshot", e);
+        }
+    }
+
+    private static HoconTokenTape _readTape(ByteBuffer buf) throws IOException
+    {
+        final int count = _readCount(buf);
+        byte[] types = new byte[count];
+        buf.get(types);
+        int[] operands = new int[count];
+        for (int i = 0; i < count; ++i) {
+            operands[i] = _readVarInt(buf);
+        }
+        int[] originIndexes = new int[count];
+        for (int i = 0; i < count; ++i) {
+            originIndexes[i] = _readVarInt(buf) - 1;
+        }
+
+        String[] strings = new String[_readCount(buf)];
+        byte[] scratch = new byte[64];
+        for (int i = 0; i < strings.length; ++i) {
+            int len = _readCount(buf);
+            if (buf.hasArray()) {
+                strings[i] = new String(buf.array(), buf.arrayOffset() + buf.position(), len, StandardCharsets.UTF_8);
+                buf.position(buf.position() + len);
+            } else {
+                if (len > scratch.length) {
+                    scratch = new byte[Math.max(len, scratch.length * 2)];
+                }
+                buf.get(scratch, 0, len);
+                strings[i] = new String(scratch, 0, len, StandardCharsets.UTF_8);
+            }
+        }
+        long[] numbers = new long[_readCount(buf)];
+        for (int i = 0; i < numbers.length; ++i) {
+            numbers[i] = buf.getLong();
+        }
+        ConfigOrigin[] origins = new ConfigOrigin[_readCount(buf)];
+        for (int i = 0; i < origins.length; ++i) {
+            origins[i] = _readOrigin(buf);
+        }
+
+        // the parser trusts the tape: check that it holds together
+        for (int i = 0; i < count; ++i) {
+            int op = operands[i];
+            int limit;
+            switch (types[i]) {
+            case HoconTokenTape.START_OBJECT:
+            case HoconTokenTape.START_ARRAY:
+                limit = count;
+                break;
+            case HoconTokenTape.FIELD_NAME:
+            case HoconTokenTape.STRING:
+                limit = strings.length;
+                break;
+            case HoconTokenTape.INT:
+            case HoconTokenTape.LONG:
+                limit = numbers.length;
+                break;
+            case HoconTokenTape.DOUBLE: // followed by the index of the text
+                limit = numbers.length - 1;
+                break;
+            case HoconTokenTape.END_OBJECT:
+            case HoconTokenTape.END_ARRAY:
+            case HoconTokenTape.TRUE:
+            case HoconTokenTape.FALSE:
+            case HoconTokenTape.NULL:
+                limit = 1;
+                break;
+            default:
+                throw new IOException("Corrupt HOCON snapshot: unknown token type "+types[i]);
+            }
+            boolean valid = op >= 0 && op < limit
+                    && originIndexes[i] >= -1 && originIndexes[i] < origins.length;
+            if (valid && (types[i] == HoconTokenTape.START_OBJECT || types[i] == HoconTokenTape.START_ARRAY)) {
+                valid = op > i && types[op] == types[i] + 1;
+            } else if (valid && types[i] == HoconTokenTape.DOUBLE) {
+                long text = numbers[op + 1];
+                valid = text >= 0 && text < strings.length;
+            }
+            if (!valid) {
+                throw new IOException("Corrupt HOCON snapshot: invalid operand of token "+i);
+            }
+        }
+        return new HoconTokenTape(types, operands, strings, numbers, origins, originIndexes);
+    }
+
+    private static ConfigOrigin _readOrigin(ByteBuffer buf) throws IOException
+    {
+        byte kind = buf.get();
+        String value = new String(_readBytes(buf), StandardCharsets.UTF_8);
+        int line = _readVarInt(buf) - 1;
+        ConfigOrigin origin;
+        switch (kind) {
+        case ORIGIN_FILE:
+            origin = ConfigOriginFactory.newFile(value);
+            break;
+        case ORIGIN_URL:
+            origin = ConfigOriginFactory.newURL(new URL(value));
+            break;
+        case ORIGIN_SIMPLE:
+            origin = ConfigOriginFactory.newSimple(value);
+            break;
+        default:
+            throw new IOException("Corrupt HOCON snapshot: unknown origin kind "+kind);
+        }
+        return (line < 0) ? origin : origin.withLineNumber(line);
+    }
+
+    private static byte[] _readBytes(ByteBuffer buf) throws IOException
+    {
+        byte[] bytes = new byte[_readCount(buf)];
+        buf.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * @return a length, checked against the bytes left
+     */
+    private static int _readCount(ByteBuffer buf) throws IOException
+    {
+        int count = _readVarInt(buf);
+        if (count < 0 || count > buf.remaining()) {
+            throw new IOException("Corrupt HOCON snapshot: invalid length "+count);
+        }
+        return count;
+    }
+
+    private static int _readVarInt(ByteBuffer buf) throws IOException
+    {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buf.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt HOCON snapshot: malformed number");
+    }
+}
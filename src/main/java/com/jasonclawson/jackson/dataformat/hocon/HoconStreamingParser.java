@@ -0,0 +1,1571 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.base.ParserMinimalBase;
+import com.fasterxml.jackson.core.io.IOContext;
+import com.fasterxml.jackson.core.json.JsonReadContext;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigParseOptions;
+
+/**
+ * Parser that tokenizes HOCON text directly, without building (and
+ * resolving) a Typesafe config tree first.
+ * <p>
+ * Only the subset of HOCON that maps one to one to a token stream is
+ * supported: unquoted strings, <code>=</code> and <code>:</code>
+ * separators, omitted root braces, comments, quoted and multi-line strings,
+ * value concatenation and dotted keys. Substitutions, includes,
+ * <code>+=</code> and object/array concatenation need the whole tree and are
+ * reported as parse errors.
+ * <p>
+ * When the parser is created to be equivalent to the tree parser (which is
+ * how {@link HoconFactory} uses it) it additionally rejects documents
+ * whose meaning depends on merging: duplicate keys (including keys that
+ * share a dotted prefix), objects that {@link NumericIndexDetector} would
+ * turn into arrays and root arrays. The factory hands it the whole input as
+ * a <code>char[]</code>, with the options to parse it with Typesafe config:
+ * on the first construct it rejects, the parser falls back on the resolved
+ * tree of that text (see {@link #_fallBack(JsonParseException)}) instead of failing, so the
+ * text is only tokenized a second time when it has to be. The tokens are
+ * those of the tree parser, except for the order of the members of objects:
+ * this parser returns them in source order, the tree parser in the hash
+ * order of the Typesafe object (<code>z, a, m, b, y</code> come out as
+ * <code>a, b, z, y, m</code>).
+ * <p>
+ * Over a {@link Reader} only the current chunk of input is buffered, and
+ * only the keys of the open objects are kept: tokens of arrays of any
+ * length are delivered element by element.
+ */
+public class HoconStreamingParser extends ParserMinimalBase {
+
+    /*
+    /**********************************************************
+    /* Constants
+    /**********************************************************
+     */
+
+    /**
+     * Size of the input buffer taken from a {@link HoconBufferPool}, same as
+     * that of the token buffers of the {@link IOContext}
+     */
+    private final static int TOKEN_BUFFER_SIZE = 2000;
+
+    // kinds of open containers
+    private final static int FRAME_ROOT_OBJECT = 0; // root object without braces, ends at EOF
+    private final static int FRAME_OBJECT = 1;
+    private final static int FRAME_ARRAY = 2;
+    private final static int FRAME_PATH = 3; // object implied by a dotted key, holds a single field
+
+    // what the next chunk of input is expected to hold
+    private final static int STATE_START = 0;
+    private final static int STATE_EXPECT_KEY = 1;
+    private final static int STATE_EXPECT_VALUE = 2;
+    private final static int STATE_EXPECT_ELEMENT = 3;
+    private final static int STATE_AFTER_VALUE = 4;
+    private final static int STATE_ROOT_END = 5;
+    private final static int STATE_DONE = 6;
+
+    // kinds of simple tokens within a concatenation
+    private final static int PIECE_QUOTED = 0;
+    private final static int PIECE_UNQUOTED = 1;
+    private final static int PIECE_NUMBER = 2;
+    private final static int PIECE_TRUE = 3;
+    private final static int PIECE_FALSE = 4;
+    private final static int PIECE_NULL = 5;
+    private final static int PIECE_WHITESPACE = 6;
+
+    // same sets as com.typesafe.config.impl.Tokenizer
+    private final static String FIRST_NUMBER_CHARS = "0123456789-";
+    private final static String NUMBER_CHARS = "0123456789eE+-.";
+    private final static String NOT_IN_UNQUOTED_TEXT = "$\"{}[]:=,+#`^?!@*&\\";
+
+    /*
+    /**********************************************************
+    /* Configuration
+    /**********************************************************
+     */
+
+    protected ObjectCodec _objectCodec;
+
+    protected final IOContext _ioContext;
+
+    /**
+     * Source of more input; null when all input was handed over up front.
+     */
+    protected Reader _reader;
+
+    /**
+     * Whether content that the tree parser would present differently
+     * (merged duplicate keys, numerically indexed objects, root arrays)
+     * must be rejected.
+     */
+    protected final boolean _requireTreeEquivalence;
+
+    /**
+     * Whether a root array is accepted even though tree equivalence is
+     * required; set by {@link HoconFactory} when the document is streamed
+     * without the possibility of a fallback.
+     */
+    protected boolean _allowRootArray;
+
+    /**
+     * Options to parse the input with Typesafe config when it turns out not
+     * to be streamable; set by {@link HoconFactory} when all input was
+     * handed over up front. Null to report such input as a parse error.
+     */
+    protected ConfigParseOptions _fallbackOptions;
+
+    /**
+     * Parser over the resolved tree of the input, once fallen back on it
+     */
+    protected HoconTreeTraversingParser _fallback;
+
+    /*
+    /**********************************************************
+    /* Input state
+    /**********************************************************
+     */
+
+    protected char[] _inputBuffer;
+
+    protected int _inputPtr;
+
+    protected int _inputEnd;
+
+    /**
+     * Whether {@link #_inputBuffer} came from the {@link IOContext} (or the
+     * {@link #_bufferPool}) and must be released to it.
+     */
+    protected boolean _bufferRecyclable;
+
+    /**
+     * Pool to take the input buffer from instead of the {@link IOContext}, if any
+     */
+    protected final HoconBufferPool _bufferPool;
+
+    /**
+     * Number of characters that preceded the first character of
+     * {@link #_inputBuffer}.
+     */
+    protected long _bufferOffset;
+
+    /**
+     * Start of the chunk of input being tokenized; input before it can be
+     * discarded when the buffer is refilled.
+     */
+    protected int _unitStart;
+
+    protected int _currInputRow = 1;
+
+    /**
+     * Offset (same base as {@link #_bufferOffset}) of the first character of
+     * the current row.
+     */
+    protected long _currInputRowStart;
+
+    protected boolean _closed;
+
+    /*
+    /**********************************************************
+    /* Tokenization state
+    /**********************************************************
+     */
+
+    protected JsonReadContext _parsingContext;
+
+    protected int _state = STATE_START;
+
+    protected int[] _frames = new int[16];
+
+    protected int _frameDepth;
+
+    /**
+     * Keys seen in each open object, only tracked if
+     * {@link #_requireTreeEquivalence} is set.
+     */
+    protected final List<HashSet<String>> _frameKeys;
+
+    // tokens produced by the last chunk of input, not yet returned
+    protected JsonToken[] _queuedTokens = new JsonToken[8];
+    protected String[] _queuedNames = new String[8];
+    protected long[] _queuedOffsets = new long[8];
+    protected int[] _queuedRows = new int[8];
+    protected int[] _queuedColumns = new int[8];
+    protected int _queueHead;
+    protected int _queueTail;
+
+    protected long _tokenInputTotal;
+
+    /**
+     * Measurements to record, if the factory has a listener
+     */
+    protected HoconParseEvent _parseEvent;
+    protected int _tokenInputRow = 1;
+    protected int _tokenInputCol = 1;
+
+    /*
+    /**********************************************************
+    /* Current value
+    /**********************************************************
+     */
+
+    /**
+     * Text of the current scalar value (or key being tokenized)
+     */
+    protected char[] _textBuffer = new char[64];
+
+    protected int _textLength;
+
+    protected String _textValue;
+
+    protected char[] _nameCopyBuffer;
+
+    protected NumberType _numberType;
+
+    protected long _numberLong;
+
+    protected double _numberDouble;
+
+    // pieces of the concatenation being tokenized, as ranges of _textBuffer
+    protected int[] _pieceTypes = new int[8];
+    protected int[] _pieceEnds = new int[8];
+    protected int _pieceCount;
+
+    /*
+    /**********************************************************
+    /* Life-cycle
+    /**********************************************************
+     */
+
+    /**
+     * Creates a parser that reads its input from <code>reader</code>.
+     */
+    public HoconStreamingParser(IOContext ctxt, int parserFeatures, ObjectCodec codec,
+            Reader reader, boolean requireTreeEquivalence)
+    {
+        this(ctxt, parserFeatures, codec, reader, requireTreeEquivalence, null);
+    }
+
+    /**
+     * Creates a parser that reads its input from <code>reader</code> into a
+     * buffer from the given pool.
+     *
+     * @param pool pool of the input buffer; null to use the buffers of the
+     *   {@link IOContext}
+     */
+    public HoconStreamingParser(IOContext ctxt, int parserFeatures, ObjectCodec codec,
+            Reader reader, boolean requireTreeEquivalence, HoconBufferPool pool)
+    {
+        super(parserFeatures);
+        _ioContext = ctxt;
+        _objectCodec = codec;
+        _reader = reader;
+        _bufferPool = pool;
+        _inputBuffer = (pool == null) ? ctxt.allocTokenBuffer() : pool.allocCharBuffer(TOKEN_BUFFER_SIZE);
+        _bufferRecyclable = true;
+        _requireTreeEquivalence = requireTreeEquivalence;
+        _frameKeys = requireTreeEquivalence ? new ArrayList<HashSet<String>>() : null;
+        _parsingContext = JsonReadContext.createRootContext(null);
+    }
+
+    /**
+     * Creates a parser over input that is already entirely available.
+     */
+    public HoconStreamingParser(IOContext ctxt, int parserFeatures, ObjectCodec codec,
+            char[] input, int start, int end, boolean requireTreeEquivalence)
+    {
+        super(parserFeatures);
+        _ioContext = ctxt;
+        _objectCodec = codec;
+        _reader = null;
+        _bufferPool = null;
+        _inputBuffer = input;
+        _inputPtr = start;
+        _inputEnd = end;
+        _bufferOffset = -start;
+        _currInputRowStart = 0;
+        _bufferRecyclable = false;
+        _requireTreeEquivalence = requireTreeEquivalence;
+        _frameKeys = requireTreeEquivalence ? new ArrayList<HashSet<String>>() : null;
+        _parsingContext = JsonReadContext.createRootContext(null);
+    }
+
+    /**
+     * Checks whether the given document can be parsed by this parser with
+     * exactly the same result as {@link HoconTreeTraversingParser} would give
+     * after parsing and resolving it with Typesafe config.
+     *
+     * @return true if the content is complete, syntactically valid, needs no
+     *   resolution and contains no merges
+     */
+    public static boolean isStreamable(char[] input, int start, int end) {
+        HoconStreamingParser p = new HoconStreamingParser(null, 0, null, input, start, end, true);
+        try {
+            while (p.nextToken() != null) { }
+            return true;
+        } catch (IOException e) { // JsonParseException: not streamable (or not valid)
+            return false;
+        }
+    }
+
+    @Override
+    public void setCodec(ObjectCodec c) {
+        _objectCodec = c;
+    }
+
+    @Override
+    public ObjectCodec getCodec() {
+        return _objectCodec;
+    }
+
+    @Override
+    public Version version() {
+        return com.fasterxml.jackson.databind.cfg.PackageVersion.VERSION;
+    }
+
+    /*
+    /**********************************************************
+    /* Closeable implementation
+    /**********************************************************
+     */
+
+    @Override
+    public void close() throws IOException
+    {
+        if (!_closed) {
+            _closed = true;
+            if (_parseEvent != null) {
+                _parseEvent.finish();
+            }
+            if (_fallback != null) {
+                _fallback.close();
+            }
+            try {
+                if (_reader != null
+                        && (_ioContext.isResourceManaged() || isEnabled(JsonParser.Feature.AUTO_CLOSE_SOURCE))) {
+                    _reader.close();
+                }
+            } finally {
+                _reader = null;
+                if (_bufferRecyclable) {
+                    char[] buf = _inputBuffer;
+                    _inputBuffer = null;
+                    _releaseBuffer(buf);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return _closed;
+    }
+
+    protected void _releaseBuffer(char[] buf)
+    {
+        if (_bufferPool != null) {
+            _bufferPool.releaseCharBuffer(buf);
+        } else {
+            _ioContext.releaseTokenBuffer(buf);
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Public API, traversal
+    /**********************************************************
+     */
+
+    @Override
+    public JsonToken nextToken() throws IOException, JsonParseException
+    {
+        if (_closed) {
+            return null;
+        }
+        while (_queueHead == _queueTail) {
+            if (_state == STATE_DONE) {
+                _currToken = null;
+                close();
+                return null;
+            }
+            _queueHead = _queueTail = 0;
+            _unitStart = _inputPtr;
+            if (_fallback != null) {
+                _queueFallbackToken();
+            } else if (_fallbackOptions == null) {
+                _tokenizeNext();
+            } else {
+                try {
+                    _tokenizeNext();
+                } catch (JsonParseException e) {
+                    _fallBack(e);
+                }
+            }
+        }
+        final int ix = _queueHead++;
+        final JsonToken t = _queuedTokens[ix];
+        _tokenInputTotal = _queuedOffsets[ix];
+        _tokenInputRow = _queuedRows[ix];
+        _tokenInputCol = _queuedColumns[ix];
+        switch (t) {
+        case FIELD_NAME:
+            _parsingContext.expectComma();
+            _parsingContext.setCurrentName(_queuedNames[ix]);
+            _queuedNames[ix] = null;
+            break;
+        case START_OBJECT:
+            if (!_parsingContext.inObject()) {
+                _parsingContext.expectComma();
+            }
+            _parsingContext = _parsingContext.createChildObjectContext(_tokenInputRow, _tokenInputCol);
+            break;
+        case START_ARRAY:
+            if (!_parsingContext.inObject()) {
+                _parsingContext.expectComma();
+            }
+            _parsingContext = _parsingContext.createChildArrayContext(_tokenInputRow, _tokenInputCol);
+            break;
+        case END_OBJECT:
+        case END_ARRAY:
+            _parsingContext = _parsingContext.getParent();
+            break;
+        default:
+            if (!_parsingContext.inObject()) {
+                _parsingContext.expectComma();
+            }
+        }
+        _currToken = t;
+        if (_parseEvent != null) {
+            _parseEvent.token(t);
+        }
+        return t;
+    }
+
+    // default works well here:
+    //public JsonToken nextValue() throws IOException, JsonParseException
+    //public JsonParser skipChildren() throws IOException, JsonParseException
+
+    /*
+    /**********************************************************
+    /* Public API, token accessors
+    /**********************************************************
+     */
+
+    @Override
+    public String getCurrentName() {
+        if (_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY) {
+            JsonReadContext parent = _parsingContext.getParent();
+            return (parent == null) ? null : parent.getCurrentName();
+        }
+        return _parsingContext.getCurrentName();
+    }
+
+    @Override
+    public void overrideCurrentName(String name)
+    {
+        JsonReadContext ctxt = _parsingContext;
+        if (_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY) {
+            ctxt = ctxt.getParent();
+        }
+        try {
+            ctxt.setCurrentName(name);
+        } catch (IOException e) { // can not happen without duplicate detection
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public JsonStreamContext getParsingContext() {
+        return _parsingContext;
+    }
+
+    @Override
+    public JsonLocation getTokenLocation() {
+        return new JsonLocation(_sourceReference(), _tokenInputTotal, _tokenInputRow, _tokenInputCol);
+    }
+
+    @Override
+    public JsonLocation getCurrentLocation() {
+        long total = _bufferOffset + _inputPtr;
+        int col = (int) (total - _currInputRowStart) + 1;
+        return new JsonLocation(_sourceReference(), total, _currInputRow, col);
+    }
+
+    /*
+    /**********************************************************
+    /* Public API, access to textual content
+    /**********************************************************
+     */
+
+    @Override
+    public String getText()
+    {
+        if (_currToken == null) {
+            return null;
+        }
+        switch (_currToken) {
+        case FIELD_NAME:
+            return _parsingContext.getCurrentName();
+        case VALUE_STRING:
+        case VALUE_NUMBER_INT:
+        case VALUE_NUMBER_FLOAT:
+            if (_textValue == null) {
+                _textValue = new String(_textBuffer, 0, _textLength);
+            }
+            return _textValue;
+        default:
+            return _currToken.asString();
+        }
+    }
+
+    @Override
+    public char[] getTextCharacters() throws IOException, JsonParseException {
+        if (_currToken == null) {
+            return null;
+        }
+        switch (_currToken) {
+        case VALUE_STRING:
+        case VALUE_NUMBER_INT:
+        case VALUE_NUMBER_FLOAT:
+            return _textBuffer;
+        case FIELD_NAME:
+            String name = _parsingContext.getCurrentName();
+            int len = name.length();
+            if (_nameCopyBuffer == null || _nameCopyBuffer.length < len) {
+                _nameCopyBuffer = new char[Math.max(len, 32)];
+            }
+            name.getChars(0, len, _nameCopyBuffer, 0);
+            return _nameCopyBuffer;
+        default:
+            return _currToken.asCharArray();
+        }
+    }
+
+    @Override
+    public int getTextLength() throws IOException, JsonParseException {
+        if (_currToken == null) {
+            return 0;
+        }
+        switch (_currToken) {
+        case VALUE_STRING:
+        case VALUE_NUMBER_INT:
+        case VALUE_NUMBER_FLOAT:
+            return _textLength;
+        case FIELD_NAME:
+            return _parsingContext.getCurrentName().length();
+        default:
+            return _currToken.asCharArray().length;
+        }
+    }
+
+    @Override
+    public int getTextOffset() throws IOException, JsonParseException {
+        return 0;
+    }
+
+    @Override
+    public boolean hasTextCharacters() {
+        return _currToken == JsonToken.VALUE_STRING
+                || _currToken == JsonToken.VALUE_NUMBER_INT
+                || _currToken == JsonToken.VALUE_NUMBER_FLOAT;
+    }
+
+    /*
+    /**********************************************************
+    /* Public API, typed non-text access
+    /**********************************************************
+     */
+
+    @Override
+    public NumberType getNumberType() throws IOException, JsonParseException {
+        _checkNumeric();
+        return _numberType;
+    }
+
+    @Override
+    public Number getNumberValue() throws IOException, JsonParseException {
+        _checkNumeric();
+        switch (_numberType) {
+        case INT:
+            return Integer.valueOf((int) _numberLong);
+        case LONG:
+            return Long.valueOf(_numberLong);
+        default:
+            return Double.valueOf(_numberDouble);
+        }
+    }
+
+    @Override
+    public int getIntValue() throws IOException, JsonParseException {
+        _checkNumeric();
+        return (_numberType == NumberType.DOUBLE) ? (int) _numberDouble : (int) _numberLong;
+    }
+
+    @Override
+    public long getLongValue() throws IOException, JsonParseException {
+        _checkNumeric();
+        return (_numberType == NumberType.DOUBLE) ? (long) _numberDouble : _numberLong;
+    }
+
+    @Override
+    public double getDoubleValue() throws IOException, JsonParseException {
+        _checkNumeric();
+        return (_numberType == NumberType.DOUBLE) ? _numberDouble : (double) _numberLong;
+    }
+
+    @Override
+    public float getFloatValue() throws IOException, JsonParseException {
+        return (float) getDoubleValue();
+    }
+
+    @Override
+    public BigInteger getBigIntegerValue() throws IOException, JsonParseException {
+        _checkNumeric();
+        if (_numberType == NumberType.DOUBLE) {
+            return getDecimalValue().toBigInteger();
+        }
+        return BigInteger.valueOf(_numberLong);
+    }
+
+    @Override
+    public BigDecimal getDecimalValue() throws IOException, JsonParseException {
+        _checkNumeric();
+        return (_numberType == NumberType.DOUBLE)
+                ? new BigDecimal(getText()) : BigDecimal.valueOf(_numberLong);
+    }
+
+    @Override
+    public Object getEmbeddedObject() {
+        return null;
+    }
+
+    /*
+    /**********************************************************
+    /* Public API, typed binary (base64) access
+    /**********************************************************
+     */
+
+    @Override
+    public byte[] getBinaryValue(Base64Variant b64variant)
+        throws IOException, JsonParseException
+    {
+        // otherwise return null to mark we have no binary content
+        return null;
+    }
+
+    @Override
+    public int readBinaryValue(Base64Variant b64variant, OutputStream out)
+            throws IOException, JsonParseException
+    {
+        return 0;
+    }
+
+    /*
+    /**********************************************************
+    /* Tokenization
+    /**********************************************************
+     */
+
+    /**
+     * Consumes the next chunk of input (a key, a value, a separator...)
+     * queueing any tokens it produces.
+     */
+    protected void _tokenizeNext() throws IOException
+    {
+        switch (_state) {
+        case STATE_START:
+            _startDocument();
+            break;
+        case STATE_EXPECT_KEY:
+            _readKey();
+            break;
+        case STATE_EXPECT_VALUE:
+            _readValue();
+            break;
+        case STATE_EXPECT_ELEMENT:
+            if (_skipWhitespace(true) == ']') {
+                ++_inputPtr;
+                _closeContainer();
+            } else {
+                _readValue();
+            }
+            break;
+        case STATE_AFTER_VALUE:
+            _readSeparator();
+            break;
+        case STATE_ROOT_END:
+            _endDocument();
+            break;
+        default:
+            _throwInternal();
+        }
+    }
+
+    protected void _startDocument() throws IOException
+    {
+        int c = _skipWhitespace(true);
+        _markTokenStart();
+        if (c == '{') {
+            ++_inputPtr;
+            _openContainer(FRAME_OBJECT, JsonToken.START_OBJECT);
+            _state = STATE_EXPECT_KEY;
+        } else if (c == '[') {
+            if (_requireTreeEquivalence && !_allowRootArray) {
+                _reportProblem("root of a HOCON document must be an object");
+            }
+            ++_inputPtr;
+            _openContainer(FRAME_ARRAY, JsonToken.START_ARRAY);
+            _state = STATE_EXPECT_ELEMENT;
+        } else {
+            _openContainer(FRAME_ROOT_OBJECT, JsonToken.START_OBJECT);
+            _state = STATE_EXPECT_KEY;
+        }
+    }
+
+    protected void _endDocument() throws IOException
+    {
+        int c = _skipWhitespace(true);
+        if (c >= 0) {
+            _reportProblem("trailing content after the root object: "+_describe(c));
+        }
+        _state = STATE_DONE;
+    }
+
+    protected void _readKey() throws IOException
+    {
+        int c = _skipWhitespace(true);
+        _markTokenStart();
+        if (c == '}') {
+            if (_frames[_frameDepth - 1] != FRAME_OBJECT) {
+                _reportProblem("unbalanced close brace '}' with no open brace");
+            }
+            ++_inputPtr;
+            _closeContainer();
+            return;
+        }
+        if (c < 0) {
+            if (_frames[_frameDepth - 1] != FRAME_ROOT_OBJECT) {
+                _reportProblem("end of input inside an object");
+            }
+            _closeContainer();
+            return;
+        }
+        _lexConcatenation();
+        // trailing whitespace is not part of the key
+        while (_pieceCount > 0 && _pieceTypes[_pieceCount - 1] == PIECE_WHITESPACE) {
+            --_pieceCount;
+        }
+        if (_pieceCount == 0) {
+            _reportProblem("expected a key, got "+_describe(_peek()));
+        }
+        if (_pieceCount == 1 && _pieceTypes[0] == PIECE_UNQUOTED && _pieceEquals(0, "include")) {
+            _reportProblem("include statements are not supported by the streaming parser");
+        }
+        List<String> path = _buildPath();
+
+        // then the separator, possibly on a later line
+        c = _skipWhitespace(true);
+        if (c == ':' || c == '=') {
+            ++_inputPtr;
+        } else if (c == '+') {
+            _reportProblem("'+=' is not supported by the streaming parser");
+        } else if (c != '{') {
+            _reportProblem("key '"+path+"' may not be followed by "+_describe(c));
+        }
+
+        // all good: can update state
+        final int size = path.size();
+        _addKey(path.get(0));
+        _queueToken(JsonToken.FIELD_NAME, path.get(0));
+        for (int i = 1; i < size; ++i) {
+            _openContainer(FRAME_PATH, JsonToken.START_OBJECT);
+            _addKey(path.get(i));
+            _queueToken(JsonToken.FIELD_NAME, path.get(i));
+        }
+        _state = STATE_EXPECT_VALUE;
+    }
+
+    protected void _readValue() throws IOException
+    {
+        int c = _skipWhitespace(true);
+        _markTokenStart();
+        if (c == '{') {
+            ++_inputPtr;
+            _openContainer(FRAME_OBJECT, JsonToken.START_OBJECT);
+            _state = STATE_EXPECT_KEY;
+            return;
+        }
+        if (c == '[') {
+            ++_inputPtr;
+            _openContainer(FRAME_ARRAY, JsonToken.START_ARRAY);
+            _state = STATE_EXPECT_ELEMENT;
+            return;
+        }
+        _lexConcatenation();
+        while (_pieceCount > 0 && _pieceTypes[_pieceCount - 1] == PIECE_WHITESPACE) {
+            --_pieceCount;
+        }
+        if (_pieceCount == 0) {
+            _reportProblem("expected a value, got "+_describe(_peek()));
+        }
+        c = _skipWhitespace(false);
+        if (c == '{' || c == '[') {
+            _reportProblem("concatenation of objects or arrays is not supported by the streaming parser");
+        }
+        _textLength = _pieceEnds[_pieceCount - 1];
+        _textValue = null;
+        JsonToken t;
+        if (_pieceCount > 1) {
+            t = JsonToken.VALUE_STRING;
+        } else {
+            switch (_pieceTypes[0]) {
+            case PIECE_NUMBER:
+                if (_numberType == NumberType.DOUBLE) {
+                    // keep the source text, for exact decimal values
+                    t = JsonToken.VALUE_NUMBER_FLOAT;
+                    break;
+                }
+                // same text as the tree parser gives for whole numbers
+                // written as decimals: that of the decoded value
+                t = JsonToken.VALUE_NUMBER_INT;
+                _textValue = String.valueOf(_numberLong);
+                _textLength = 0;
+                for (int i = 0, len = _textValue.length(); i < len; ++i) {
+                    _appendText(_textValue.charAt(i));
+                }
+                break;
+            case PIECE_TRUE:
+                t = JsonToken.VALUE_TRUE;
+                break;
+            case PIECE_FALSE:
+                t = JsonToken.VALUE_FALSE;
+                break;
+            case PIECE_NULL:
+                t = JsonToken.VALUE_NULL;
+                break;
+            default:
+                t = JsonToken.VALUE_STRING;
+            }
+        }
+        _queueToken(t, null);
+        _valueComplete();
+    }
+
+    /**
+     * Called after a value: expects a comma, a newline or the end of the
+     * enclosing container.
+     */
+    protected void _readSeparator() throws IOException
+    {
+        final int frame = _frames[_frameDepth - 1];
+        int c = _skipWhitespace(false);
+        if (c == '\n' || c == ',') {
+            if (c == '\n') {
+                // a comma may still follow the newline(s)
+                c = _skipWhitespace(true);
+            }
+            if (c == ',') {
+                ++_inputPtr;
+            }
+            _state = (frame == FRAME_ARRAY) ? STATE_EXPECT_ELEMENT : STATE_EXPECT_KEY;
+            return;
+        }
+        _markTokenStart();
+        if (c == '}' && frame == FRAME_OBJECT) {
+            ++_inputPtr;
+            _closeContainer();
+        } else if (c == ']' && frame == FRAME_ARRAY) {
+            ++_inputPtr;
+            _closeContainer();
+        } else if (c < 0 && frame == FRAME_ROOT_OBJECT) {
+            _closeContainer();
+        } else if (c == '{' || c == '[') {
+            _reportProblem("concatenation of objects or arrays is not supported by the streaming parser");
+        } else {
+            _reportProblem("expected a comma, a newline or the end of the "
+                    +((frame == FRAME_ARRAY) ? "array" : "object")+", got "+_describe(c));
+        }
+    }
+
+    /**
+     * Switches over to the resolved tree of the (buffered) input, which
+     * turned out to need Typesafe config. Tokens already returned can not be
+     * taken back: the containers they opened are closed, the member left
+     * without a value getting a null, and all the members of the root
+     * object are then returned again from the tree, in its order. Members
+     * seen before are so given again, their values from the tree replacing
+     * those returned earlier, as later duplicates do when binding.
+     */
+    protected void _fallBack(JsonParseException problem) throws IOException
+    {
+        JsonReadContext ctxt = _parsingContext;
+        if (ctxt.inRoot() && _currToken != null) {
+            // the root object is complete: what follows is invalid anyway
+            throw problem;
+        }
+        long start = System.nanoTime();
+        int offset = (int) -_bufferOffset;
+        ConfigObject root;
+        try {
+            root = HoconParseEvent.resolve(ConfigFactory.parseReader(
+                    new CharArrayReader(_inputBuffer, offset, _inputEnd - offset), _fallbackOptions),
+                    start, _parseEvent);
+        } catch (ConfigException e) {
+            throw new JsonParseException(e.getMessage(), problem.getLocation(), e);
+        }
+        if (_parseEvent != null) {
+            _parseEvent._streaming = false;
+        }
+        _fallback = new HoconTreeTraversingParser(root, _objectCodec);
+        _queueHead = _queueTail = 0;
+        if (!ctxt.inRoot()) {
+            _fallback.nextToken(); // START_OBJECT, returned already
+            if (_currToken == JsonToken.FIELD_NAME) {
+                _queueToken(JsonToken.VALUE_NULL, null);
+            }
+            for (; !ctxt.getParent().inRoot(); ctxt = ctxt.getParent()) {
+                _queueToken(ctxt.inArray() ? JsonToken.END_ARRAY : JsonToken.END_OBJECT, null);
+            }
+        }
+    }
+
+    /**
+     * Queues the next token of the tree fallen back on, with its value.
+     */
+    protected void _queueFallbackToken() throws IOException
+    {
+        final HoconTreeTraversingParser p = _fallback;
+        JsonToken t = p.nextToken();
+        if (t == null) {
+            _state = STATE_DONE;
+            return;
+        }
+        // the tree only knows the lines of its values
+        _tokenInputTotal = -1L;
+        _tokenInputRow = p.getTokenLocation().getLineNr();
+        _tokenInputCol = -1;
+        switch (t) {
+        case FIELD_NAME:
+            _queueToken(t, p.getCurrentName());
+            return;
+        case VALUE_NUMBER_INT:
+        case VALUE_NUMBER_FLOAT:
+            _numberType = p.getNumberType();
+            if (_numberType == NumberType.DOUBLE) {
+                _numberDouble = p.getDoubleValue();
+            } else {
+                _numberLong = p.getLongValue();
+            }
+            // fall through
+        case VALUE_STRING:
+            _textValue = p.getText();
+            _textLength = 0;
+            for (int i = 0, len = _textValue.length(); i < len; ++i) {
+                _appendText(_textValue.charAt(i));
+            }
+            break;
+        default:
+        }
+        _queueToken(t, null);
+    }
+
+    /*
+    /**********************************************************
+    /* Containers
+    /**********************************************************
+     */
+
+    protected void _openContainer(int frame, JsonToken startToken)
+    {
+        if (_frameDepth == _frames.length) {
+            int[] frames = new int[_frameDepth * 2];
+            System.arraycopy(_frames, 0, frames, 0, _frameDepth);
+            _frames = frames;
+        }
+        if (_frameKeys != null) {
+            if (_frameKeys.size() == _frameDepth) {
+                _frameKeys.add(new HashSet<String>());
+            } else {
+                _frameKeys.get(_frameDepth).clear();
+            }
+        }
+        _frames[_frameDepth++] = frame;
+        _queueToken(startToken, null);
+    }
+
+    protected void _closeContainer() throws JsonParseException
+    {
+        final int frame = _frames[--_frameDepth];
+        if (_frameKeys != null && frame != FRAME_ARRAY
+                && NumericIndexDetector.hasIndexKeys(_frameKeys.get(_frameDepth))) {
+            _reportProblem("numerically indexed objects are not supported by the streaming parser");
+        }
+        _queueToken((frame == FRAME_ARRAY) ? JsonToken.END_ARRAY : JsonToken.END_OBJECT, null);
+        if (_frameDepth == 0) {
+            _state = (frame == FRAME_ROOT_OBJECT) ? STATE_DONE : STATE_ROOT_END;
+        } else {
+            _valueComplete();
+        }
+    }
+
+    /**
+     * Closes the objects implied by a dotted key once its value is complete.
+     */
+    protected void _valueComplete() throws JsonParseException
+    {
+        while (_frames[_frameDepth - 1] == FRAME_PATH) {
+            --_frameDepth;
+            if (_frameKeys != null && NumericIndexDetector.hasIndexKeys(_frameKeys.get(_frameDepth))) {
+                _reportProblem("numerically indexed objects are not supported by the streaming parser");
+            }
+            _queueToken(JsonToken.END_OBJECT, null);
+        }
+        _state = STATE_AFTER_VALUE;
+    }
+
+    protected void _addKey(String key) throws JsonParseException
+    {
+        if (_frameKeys != null && !_frameKeys.get(_frameDepth - 1).add(key)) {
+            _reportProblem("duplicate key '"+key+"' requires merging, which the streaming parser does not support");
+        }
+    }
+
+    protected void _queueToken(JsonToken t, String name)
+    {
+        if (_queueTail == _queuedTokens.length) {
+            int size = _queueTail * 2;
+            JsonToken[] tokens = new JsonToken[size];
+            System.arraycopy(_queuedTokens, 0, tokens, 0, _queueTail);
+            _queuedTokens = tokens;
+            String[] names = new String[size];
+            System.arraycopy(_queuedNames, 0, names, 0, _queueTail);
+            _queuedNames = names;
+            long[] offsets = new long[size];
+            System.arraycopy(_queuedOffsets, 0, offsets, 0, _queueTail);
+            _queuedOffsets = offsets;
+            int[] rows = new int[size];
+            System.arraycopy(_queuedRows, 0, rows, 0, _queueTail);
+            _queuedRows = rows;
+            int[] cols = new int[size];
+            System.arraycopy(_queuedColumns, 0, cols, 0, _queueTail);
+            _queuedColumns = cols;
+        }
+        final int ix = _queueTail++;
+        _queuedTokens[ix] = t;
+        _queuedNames[ix] = name;
+        _queuedOffsets[ix] = _tokenInputTotal;
+        _queuedRows[ix] = _tokenInputRow;
+        _queuedColumns[ix] = _tokenInputCol;
+    }
+
+    protected void _markTokenStart()
+    {
+        _tokenInputTotal = _bufferOffset + _inputPtr;
+        _tokenInputRow = _currInputRow;
+        _tokenInputCol = (int) (_tokenInputTotal - _currInputRowStart) + 1;
+    }
+
+    /*
+    /**********************************************************
+    /* Lexing of simple values and keys
+    /**********************************************************
+     */
+
+    /**
+     * Reads the simple tokens (strings, numbers, unquoted text...) and the
+     * whitespace between them up to the end of the line or the first
+     * character that can not be part of a value, into {@link #_textBuffer}.
+     */
+    protected void _lexConcatenation() throws IOException
+    {
+        _pieceCount = 0;
+        _textLength = 0;
+        while (true) {
+            int c = _peek();
+            if (c < 0 || c == '\n') {
+                return;
+            }
+            if (_isWhitespace(c)) {
+                do {
+                    _appendText((char) c);
+                    ++_inputPtr;
+                    c = _peek();
+                } while (c >= 0 && c != '\n' && _isWhitespace(c));
+                _endPiece(PIECE_WHITESPACE);
+                continue;
+            }
+            if (c == '"') {
+                ++_inputPtr;
+                _lexQuoted();
+                _endPiece(PIECE_QUOTED);
+                continue;
+            }
+            if (c == '$') {
+                if (_peek(1) == '{') {
+                    _reportProblem("substitutions are not supported by the streaming parser");
+                }
+                _reportProblem("reserved character '$' is not allowed outside quotes");
+            }
+            if (_isCommentStart(c)) {
+                return;
+            }
+            if (FIRST_NUMBER_CHARS.indexOf(c) >= 0) {
+                _endPiece(_lexNumber());
+                continue;
+            }
+            if (NOT_IN_UNQUOTED_TEXT.indexOf(c) >= 0) {
+                // structural character (or reserved one): caller decides
+                return;
+            }
+            _endPiece(_lexUnquoted());
+        }
+    }
+
+    protected void _lexQuoted() throws IOException
+    {
+        int c = _nextChar();
+        if (c == '"') {
+            if (_peek() == '"') {
+                ++_inputPtr;
+                _lexTripleQuoted();
+            }
+            // otherwise: empty string
+            return;
+        }
+        while (true) {
+            if (c < 0) {
+                _reportProblem("end of input but string quote was still open");
+            }
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                _appendText(_lexEscape());
+            } else if (c <= 0x1F) {
+                _reportProblem("JSON does not allow unescaped "+_describe(c)+" in quoted strings, use a backslash escape");
+            } else {
+                _appendText((char) c);
+            }
+            c = _nextChar();
+        }
+    }
+
+    protected void _lexTripleQuoted() throws IOException
+    {
+        while (true) {
+            int c = _nextChar();
+            if (c < 0) {
+                _reportProblem("end of input but triple-quoted string was still open");
+            }
+            if (c == '"') {
+                // the last three quotes of a run end the string, any others are kept
+                int quotes = 1;
+                while (_peek() == '"') {
+                    ++_inputPtr;
+                    ++quotes;
+                }
+                if (quotes >= 3) {
+                    quotes -= 3;
+                    while (--quotes >= 0) {
+                        _appendText('"');
+                    }
+                    return;
+                }
+                while (--quotes >= 0) {
+                    _appendText('"');
+                }
+                continue;
+            }
+            if (c == '\n') {
+                _newLine(_inputPtr);
+            }
+            _appendText((char) c);
+        }
+    }
+
+    protected char _lexEscape() throws IOException
+    {
+        int c = _nextChar();
+        switch (c) {
+        case '"':
+        case '\\':
+        case '/':
+            return (char) c;
+        case 'b':
+            return '\b';
+        case 'f':
+            return '\f';
+        case 'n':
+            return '\n';
+        case 'r':
+            return '\r';
+        case 't':
+            return '\t';
+        case 'u':
+            int value = 0;
+            for (int i = 0; i < 4; ++i) {
+                int digit = Character.digit(_nextChar(), 16);
+                if (digit < 0) {
+                    _reportProblem("malformed hex digits after \\u escape in string");
+                }
+                value = (value << 4) | digit;
+            }
+            return (char) value;
+        default:
+            _reportProblem("backslash followed by "+_describe(c)+", this is not a valid escape sequence");
+            return 0;
+        }
+    }
+
+    /**
+     * Same rules as the Typesafe tokenizer: a run of number characters is a
+     * number if it parses as one, otherwise it is unquoted text.
+     */
+    protected int _lexNumber() throws IOException
+    {
+        final int start = _textLength;
+        boolean decimalOrExponent = false;
+        int c = _peek();
+        do {
+            if (c == '.' || c == 'e' || c == 'E') {
+                decimalOrExponent = true;
+            }
+            _appendText((char) c);
+            ++_inputPtr;
+            c = _peek();
+        } while (c >= 0 && NUMBER_CHARS.indexOf(c) >= 0);
+
+        String text = new String(_textBuffer, start, _textLength - start);
+        try {
+            if (decimalOrExponent) {
+                double d = Double.parseDouble(text);
+                long asLong = (long) d;
+                if (asLong == d) { // Typesafe turns whole doubles into integers
+                    _setIntegral(asLong);
+                } else {
+                    _numberType = NumberType.DOUBLE;
+                    _numberDouble = d;
+                }
+            } else {
+                _setIntegral(Long.parseLong(text));
+            }
+            return PIECE_NUMBER;
+        } catch (NumberFormatException e) {
+            if (text.indexOf('+') >= 0) {
+                _reportProblem("reserved character '+' is not allowed outside quotes");
+            }
+            return PIECE_UNQUOTED;
+        }
+    }
+
+    private void _setIntegral(long value) {
+        _numberLong = value;
+        _numberDouble = value;
+        _numberType = (value <= Integer.MAX_VALUE && value >= Integer.MIN_VALUE) ? NumberType.INT : NumberType.LONG;
+    }
+
+    protected int _lexUnquoted() throws IOException
+    {
+        final int start = _textLength;
+        while (true) {
+            int c = _peek();
+            if (c < 0 || c == '\n' || NOT_IN_UNQUOTED_TEXT.indexOf(c) >= 0
+                    || _isWhitespace(c) || _isCommentStart(c)) {
+                return PIECE_UNQUOTED;
+            }
+            _appendText((char) c);
+            ++_inputPtr;
+            // true, false and null are recognized at the start of unquoted
+            // text no matter what follows them
+            int len = _textLength - start;
+            if (len == 4) {
+                if (_textEquals(start, "true")) {
+                    return PIECE_TRUE;
+                }
+                if (_textEquals(start, "null")) {
+                    return PIECE_NULL;
+                }
+            } else if (len == 5 && _textEquals(start, "false")) {
+                return PIECE_FALSE;
+            }
+        }
+    }
+
+    /**
+     * Splits the pieces of a key into path elements: periods in unquoted
+     * pieces separate elements, periods in quoted ones do not.
+     */
+    protected List<String> _buildPath() throws JsonParseException
+    {
+        List<String> path = new ArrayList<String>(2);
+        StringBuilder element = new StringBuilder();
+        boolean canBeEmpty = false;
+        int start = 0;
+        for (int i = 0; i < _pieceCount; ++i) {
+            final int end = _pieceEnds[i];
+            if (_pieceTypes[i] == PIECE_QUOTED) {
+                element.append(_textBuffer, start, end - start);
+                if (element.length() == 0) {
+                    canBeEmpty = true;
+                }
+            } else {
+                for (int j = start; j < end; ++j) {
+                    char c = _textBuffer[j];
+                    if (c == '.') {
+                        _addPathElement(path, element, canBeEmpty);
+                        element.setLength(0);
+                        canBeEmpty = false;
+                    } else {
+                        element.append(c);
+                    }
+                }
+            }
+            start = end;
+        }
+        _addPathElement(path, element, canBeEmpty);
+        return path;
+    }
+
+    private void _addPathElement(List<String> path, StringBuilder element, boolean canBeEmpty)
+        throws JsonParseException
+    {
+        if (element.length() == 0 && !canBeEmpty) {
+            _reportProblem("path has a leading, trailing, or two adjacent period '.'");
+        }
+        path.add(element.toString());
+    }
+
+    protected void _endPiece(int type)
+    {
+        if (_pieceCount == _pieceTypes.length) {
+            int[] types = new int[_pieceCount * 2];
+            System.arraycopy(_pieceTypes, 0, types, 0, _pieceCount);
+            _pieceTypes = types;
+            int[] ends = new int[_pieceCount * 2];
+            System.arraycopy(_pieceEnds, 0, ends, 0, _pieceCount);
+            _pieceEnds = ends;
+        }
+        _pieceTypes[_pieceCount] = type;
+        _pieceEnds[_pieceCount] = _textLength;
+        ++_pieceCount;
+    }
+
+    private boolean _pieceEquals(int piece, String expected) {
+        int start = (piece == 0) ? 0 : _pieceEnds[piece - 1];
+        return (_pieceEnds[piece] - start == expected.length()) && _textEquals(start, expected);
+    }
+
+    private boolean _textEquals(int start, String expected) {
+        for (int i = 0, len = expected.length(); i < len; ++i) {
+            if (_textBuffer[start + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected final void _appendText(char c)
+    {
+        if (_textLength == _textBuffer.length) {
+            char[] buf = new char[_textLength * 2];
+            System.arraycopy(_textBuffer, 0, buf, 0, _textLength);
+            _textBuffer = buf;
+        }
+        _textBuffer[_textLength++] = c;
+    }
+
+    /*
+    /**********************************************************
+    /* Low-level input handling
+    /**********************************************************
+     */
+
+    /**
+     * Skips whitespace and comments, and newlines too if
+     * <code>newlines</code> is set.
+     *
+     * @return the next character (not consumed), or -1 at end of input
+     */
+    protected int _skipWhitespace(boolean newlines) throws IOException
+    {
+        while (true) {
+            int c = _peek();
+            if (c < 0) {
+                return c;
+            }
+            if (c == '\n') {
+                if (!newlines) {
+                    return c;
+                }
+                ++_inputPtr;
+                _newLine(_inputPtr);
+            } else if (_isWhitespace(c)) {
+                ++_inputPtr;
+            } else if (_isCommentStart(c)) {
+                // up to (not including) the end of line
+                do {
+                    ++_inputPtr;
+                    c = _peek();
+                } while (c >= 0 && c != '\n');
+            } else {
+                return c;
+            }
+        }
+    }
+
+    protected final void _newLine(int rowStartPtr)
+    {
+        ++_currInputRow;
+        _currInputRowStart = _bufferOffset + rowStartPtr;
+    }
+
+    protected final boolean _isCommentStart(int c) throws IOException
+    {
+        return (c == '#') || (c == '/' && _peek(1) == '/');
+    }
+
+    /**
+     * Whitespace as defined by Typesafe config, excluding newline.
+     */
+    protected final static boolean _isWhitespace(int c)
+    {
+        switch (c) {
+        case ' ':
+        case '\t':
+        case '\r':
+        case 0x00A0: // non-breaking spaces and BOM count too
+        case 0x2007:
+        case 0x202F:
+        case 0xFEFF:
+            return true;
+        case '\n':
+            return false;
+        default:
+            return Character.isWhitespace(c);
+        }
+    }
+
+    /**
+     * @return the next character without consuming it, or -1 at end of input
+     */
+    protected final int _peek() throws IOException
+    {
+        if (_inputPtr >= _inputEnd && !_loadMore()) {
+            return -1;
+        }
+        return _inputBuffer[_inputPtr];
+    }
+
+    protected final int _peek(int ahead) throws IOException
+    {
+        while (_inputPtr + ahead >= _inputEnd) {
+            if (!_loadMore()) {
+                return -1;
+            }
+        }
+        return _inputBuffer[_inputPtr + ahead];
+    }
+
+    protected final int _nextChar() throws IOException
+    {
+        if (_inputPtr >= _inputEnd && !_loadMore()) {
+            return -1;
+        }
+        return _inputBuffer[_inputPtr++];
+    }
+
+    /**
+     * Reads more input, keeping everything from {@link #_unitStart} on.
+     *
+     * @return false if there is no more input
+     */
+    protected boolean _loadMore() throws IOException
+    {
+        if (_reader == null) {
+            return false;
+        }
+        if (_unitStart > 0) {
+            int keep = _inputEnd - _unitStart;
+            System.arraycopy(_inputBuffer, _unitStart, _inputBuffer, 0, keep);
+            _bufferOffset += _unitStart;
+            _inputPtr -= _unitStart;
+            _inputEnd = keep;
+            _unitStart = 0;
+        }
+        if (_inputEnd == _inputBuffer.length) {
+            char[] buf = new char[_inputBuffer.length * 2];
+            System.arraycopy(_inputBuffer, 0, buf, 0, _inputEnd);
+            if (_bufferRecyclable) {
+                _releaseBuffer(_inputBuffer);
+                _bufferRecyclable = false;
+            }
+            _inputBuffer = buf;
+        }
+        int count = _reader.read(_inputBuffer, _inputEnd, _inputBuffer.length - _inputEnd);
+        if (count > 0) {
+            _inputEnd += count;
+            return true;
+        }
+        if (count == 0) {
+            throw new IOException("Reader returned 0 characters when trying to read "
+                    +(_inputBuffer.length - _inputEnd));
+        }
+        return false;
+    }
+
+    /*
+    /**********************************************************
+    /* Error handling
+    /**********************************************************
+     */
+
+    protected void _reportProblem(String msg) throws JsonParseException
+    {
+        throw new JsonParseException(msg, getCurrentLocation());
+    }
+
+    protected void _checkNumeric() throws JsonParseException
+    {
+        if (_currToken != JsonToken.VALUE_NUMBER_INT && _currToken != JsonToken.VALUE_NUMBER_FLOAT) {
+            throw _constructError("Current token ("+_currToken+") not numeric, can not use numeric value accessors");
+        }
+    }
+
+    protected Object _sourceReference() {
+        return (_ioContext == null) ? null : _ioContext.getSourceReference();
+    }
+
+    private static String _describe(int c) {
+        if (c < 0) {
+            return "end of input";
+        }
+        if (c == '\n') {
+            return "newline";
+        }
+        return "'"+((char) c)+"'";
+    }
+
+    @Override
+    protected void _handleEOF() throws JsonParseException {
+        _throwInternal(); // should never get called
+    }
+}
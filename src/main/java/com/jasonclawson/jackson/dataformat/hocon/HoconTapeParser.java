@@ -0,0 +1,399 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.base.ParserMinimalBase;
+import com.fasterxml.jackson.core.json.JsonReadContext;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+
+/**
+ * Parser that replays a {@link HoconTokenTape}. Parsers are cheap to
+ * create, and any number of them may read the same tape at the same time;
+ * a single parser is not thread-safe though.
+ */
+public class HoconTapeParser extends ParserMinimalBase {
+
+    /*
+    /**********************************************************
+    /* Configuration
+    /**********************************************************
+     */
+
+    protected ObjectCodec _objectCodec;
+
+    protected final HoconTokenTape _tape;
+
+    /*
+    /**********************************************************
+    /* State
+    /**********************************************************
+     */
+
+    protected JsonReadContext _parsingContext;
+
+    /**
+     * Position of the current token on the tape, -1 if none
+     */
+    protected int _current = -1;
+
+    /**
+     * Position of the next token on the tape
+     */
+    protected int _next;
+
+    protected boolean _closed;
+
+    /*
+    /**********************************************************
+    /* Life-cycle
+    /**********************************************************
+     */
+
+    public HoconTapeParser(HoconTokenTape tape, ObjectCodec codec)
+    {
+        super(0);
+        _tape = tape;
+        _objectCodec = codec;
+        _parsingContext = JsonReadContext.createRootContext(null);
+    }
+
+    @Override
+    public void setCodec(ObjectCodec c) {
+        _objectCodec = c;
+    }
+
+    @Override
+    public ObjectCodec getCodec() {
+        return _objectCodec;
+    }
+
+    @Override
+    public Version version() {
+        return com.fasterxml.jackson.databind.cfg.PackageVersion.VERSION;
+    }
+
+    /**
+     * @return the tape this parser reads
+     */
+    public HoconTokenTape getTape() {
+        return _tape;
+    }
+
+    /*
+    /**********************************************************
+    /* Closeable implementation
+    /**********************************************************
+     */
+
+    @Override
+    public void close() throws IOException
+    {
+        if (!_closed) {
+            _closed = true;
+            _current = -1;
+            _currToken = null;
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Public API, traversal
+    /**********************************************************
+     */
+
+    @Override
+    public JsonToken nextToken() throws IOException, JsonParseException
+    {
+        if (_closed || _next >= _tape._types.length) {
+            _closed = true;
+            _current = -1;
+            return (_currToken = null);
+        }
+        final int pos = _next++;
+        final byte type = _tape._types[pos];
+        _current = pos;
+        switch (type) {
+        case HoconTokenTape.END_OBJECT:
+        case HoconTokenTape.END_ARRAY:
+            _parsingContext = _parsingContext.getParent();
+            break;
+        case HoconTokenTape.FIELD_NAME:
+            _parsingContext.expectComma();
+            _parsingContext.setCurrentName(_tape._strings[_tape._operands[pos]]);
+            break;
+        default:
+            // values of fields were accounted for with their names
+            if (!_parsingContext.inObject()) {
+                _parsingContext.expectComma();
+            }
+            if (type == HoconTokenTape.START_OBJECT) {
+                _parsingContext = _parsingContext.createChildObjectContext(-1, -1);
+            } else if (type == HoconTokenTape.START_ARRAY) {
+                _parsingContext = _parsingContext.createChildArrayContext(-1, -1);
+            }
+        }
+        return (_currToken = HoconTokenTape.token(type));
+    }
+
+    /**
+     * Skips to the matching end token in constant time.
+     */
+    @Override
+    public JsonParser skipChildren() throws IOException, JsonParseException
+    {
+        if (_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY) {
+            int end = _tape._operands[_current];
+            _current = end;
+            _next = end + 1;
+            _parsingContext = _parsingContext.getParent();
+            _currToken = HoconTokenTape.token(_tape._types[end]);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return _closed;
+    }
+
+    /*
+    /**********************************************************
+    /* Public API, token accessors
+    /**********************************************************
+     */
+
+    @Override
+    public String getCurrentName() {
+        if (_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY) {
+            return _parsingContext.getParent().getCurrentName();
+        }
+        return _parsingContext.getCurrentName();
+    }
+
+    @Override
+    public void overrideCurrentName(String name)
+    {
+        JsonReadContext ctxt = _parsingContext;
+        if (_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY) {
+            ctxt = ctxt.getParent();
+        }
+        try {
+            ctxt.setCurrentName(name);
+        } catch (IOException e) { // only thrown on duplicates, not detected here
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public JsonStreamContext getParsingContext() {
+        return _parsingContext;
+    }
+
+    @Override
+    public JsonLocation getTokenLocation() {
+        if (_current < 0) {
+            return JsonLocation.NA;
+        }
+        int origin = _tape._originIndexes[_current];
+        if (origin < 0) {
+            return JsonLocation.NA;
+        }
+        // one location per origin, as values on a line share their origin
+        HoconJsonLocation location = _tape._locations[origin];
+        if (location == null) {
+            location = new HoconJsonLocation(_tape._origins[origin]);
+            _tape._locations[origin] = location;
+        }
+        return location;
+    }
+
+    @Override
+    public JsonLocation getCurrentLocation() {
+        return getTokenLocation();
+    }
+
+    /*
+    /**********************************************************
+    /* Public API, access to textual content
+    /**********************************************************
+     */
+
+    @Override
+    public String getText()
+    {
+        if (_currToken == null) {
+            return null;
+        }
+        switch (_tape._types[_current]) {
+        case HoconTokenTape.FIELD_NAME:
+        case HoconTokenTape.STRING:
+            return _tape._strings[_tape._operands[_current]];
+        case HoconTokenTape.INT:
+        case HoconTokenTape.LONG:
+            return String.valueOf(_tape._numbers[_tape._operands[_current]]);
+        case HoconTokenTape.DOUBLE:
+            // as written in the source, the same as the tree parser gives
+            return _tape._strings[(int) _tape._numbers[_tape._operands[_current] + 1]];
+        default:
+            return _currToken.asString();
+        }
+    }
+
+    @Override
+    public char[] getTextCharacters() {
+        String text = getText();
+        return (text == null) ? null : text.toCharArray();
+    }
+
+    @Override
+    public int getTextLength() {
+        String text = getText();
+        return (text == null) ? 0 : text.length();
+    }
+
+    @Override
+    public int getTextOffset() {
+        return 0;
+    }
+
+    @Override
+    public boolean hasTextCharacters() {
+        // text is held as Strings
+        return false;
+    }
+
+    /*
+    /**********************************************************
+    /* Public API, typed non-text access
+    /**********************************************************
+     */
+
+    @Override
+    public NumberType getNumberType() throws IOException, JsonParseException {
+        _numberIndex();
+        return HoconTokenTape.numberType(_tape._types[_current]);
+    }
+
+    @Override
+    public Number getNumberValue() throws IOException, JsonParseException {
+        long value = _tape._numbers[_numberIndex()];
+        switch (_tape._types[_current]) {
+        case HoconTokenTape.INT:
+            return Integer.valueOf((int) value);
+        case HoconTokenTape.LONG:
+            return Long.valueOf(value);
+        default:
+            return Double.valueOf(Double.longBitsToDouble(value));
+        }
+    }
+
+    @Override
+    public int getIntValue() throws IOException, JsonParseException {
+        long value = _tape._numbers[_numberIndex()];
+        return (_tape._types[_current] == HoconTokenTape.DOUBLE)
+                ? (int) Double.longBitsToDouble(value) : (int) value;
+    }
+
+    @Override
+    public long getLongValue() throws IOException, JsonParseException {
+        long value = _tape._numbers[_numberIndex()];
+        return (_tape._types[_current] == HoconTokenTape.DOUBLE)
+                ? (long) Double.longBitsToDouble(value) : value;
+    }
+
+    @Override
+    public double getDoubleValue() throws IOException, JsonParseException {
+        long value = _tape._numbers[_numberIndex()];
+        return (_tape._types[_current] == HoconTokenTape.DOUBLE)
+                ? Double.longBitsToDouble(value) : (double) value;
+    }
+
+    @Override
+    public float getFloatValue() throws IOException, JsonParseException {
+        return (float) getDoubleValue();
+    }
+
+    @Override
+    public BigInteger getBigIntegerValue() throws IOException, JsonParseException {
+        int index = _numberIndex();
+        if (_tape._types[_current] == HoconTokenTape.DOUBLE) {
+            return getDecimalValue().toBigInteger();
+        }
+        return BigInteger.valueOf(_tape._numbers[index]);
+    }
+
+    @Override
+    public BigDecimal getDecimalValue() throws IOException, JsonParseException {
+        int index = _numberIndex();
+        if (_tape._types[_current] == HoconTokenTape.DOUBLE) {
+            // exact, from the number as written in the source
+            return new BigDecimal(_tape._strings[(int) _tape._numbers[index + 1]]);
+        }
+        return BigDecimal.valueOf(_tape._numbers[index]);
+    }
+
+    @Override
+    public Object getEmbeddedObject() {
+        return null;
+    }
+
+    /*
+    /**********************************************************
+    /* Public API, typed binary (base64) access
+    /**********************************************************
+     */
+
+    @Override
+    public byte[] getBinaryValue(Base64Variant b64variant)
+        throws IOException, JsonParseException
+    {
+        if (_currToken != JsonToken.VALUE_STRING) {
+            throw _constructError("Current token ("+_currToken+") not VALUE_STRING, can not access as binary");
+        }
+        ByteArrayBuilder builder = new ByteArrayBuilder();
+        _decodeBase64(getText(), builder, b64variant);
+        return builder.toByteArray();
+    }
+
+    @Override
+    public int readBinaryValue(Base64Variant b64variant, OutputStream out)
+            throws IOException, JsonParseException
+    {
+        byte[] data = getBinaryValue(b64variant);
+        out.write(data, 0, data.length);
+        return data.length;
+    }
+
+    /*
+    /**********************************************************
+    /* Internal methods
+    /**********************************************************
+     */
+
+    /**
+     * @return index of the value of the current number in the tape
+     */
+    protected int _numberIndex() throws JsonParseException
+    {
+        if (_currToken != JsonToken.VALUE_NUMBER_INT && _currToken != JsonToken.VALUE_NUMBER_FLOAT) {
+            throw _constructError("Current token ("+_currToken+") not numeric, can not use numeric value accessors");
+        }
+        return _tape._operands[_current];
+    }
+
+    @Override
+    protected void _handleEOF() throws JsonParseException {
+        _throwInternal(); // should never get called
+    }
+}
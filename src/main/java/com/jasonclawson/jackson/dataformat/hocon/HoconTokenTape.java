@@ -0,0 +1,269 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser.NumberType;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigOrigin;
+import com.typesafe.config.ConfigValue;
+
+/**
+ * A resolved configuration compiled into a flat, immutable sequence of
+ * tokens, to be read any number of times with {@link HoconTapeParser}s.
+ * <p>
+ * The tape holds the same tokens {@link HoconTreeTraversingParser} gives
+ * for the configuration, in packed arrays: one byte per token for its
+ * type, plus one int that is an index into a table of (deduplicated)
+ * strings for field names and strings, an index into a table of numbers
+ * for numbers, or the position of the matching end token for the start of
+ * an object or array, so that children can be skipped in constant time.
+ * Reading a tape does not touch Typesafe config objects, except for the
+ * origins of the tokens, which are only looked at to build locations.
+ * <p>
+ * Tapes are immutable and can be shared by any number of threads, each
+ * reading with its own parser.
+ */
+public final class HoconTokenTape {
+
+    final static byte START_OBJECT = 0;
+    final static byte END_OBJECT = 1;
+    final static byte START_ARRAY = 2;
+    final static byte END_ARRAY = 3;
+    final static byte FIELD_NAME = 4;
+    final static byte STRING = 5;
+    final static byte INT = 6;
+    final static byte LONG = 7;
+    final static byte DOUBLE = 8;
+    final static byte TRUE = 9;
+    final static byte FALSE = 10;
+    final static byte NULL = 11;
+
+    private final static JsonToken[] TOKENS = {
+        JsonToken.START_OBJECT, JsonToken.END_OBJECT, JsonToken.START_ARRAY, JsonToken.END_ARRAY,
+        JsonToken.FIELD_NAME, JsonToken.VALUE_STRING, JsonToken.VALUE_NUMBER_INT,
+        JsonToken.VALUE_NUMBER_INT, JsonToken.VALUE_NUMBER_FLOAT, JsonToken.VALUE_TRUE,
+        JsonToken.VALUE_FALSE, JsonToken.VALUE_NULL
+    };
+
+    final byte[] _types;
+
+    final int[] _operands;
+
+    final String[] _strings;
+
+    /**
+     * Values of numbers; for doubles the raw bits, followed by the index of
+     * the number as written in the source in {@link #_strings}
+     */
+    final long[] _numbers;
+
+    final ConfigOrigin[] _origins;
+
+    final int[] _originIndexes;
+
+    /**
+     * Locations of the origins, created on first use and shared by all
+     * parsers of the tape. Locations are immutable, so parsers racing to
+     * create one at most create it twice.
+     */
+    final HoconJsonLocation[] _locations;
+
+    HoconTokenTape(byte[] types, int[] operands, String[] strings, long[] numbers,
+            ConfigOrigin[] origins, int[] originIndexes) {
+        _types = types;
+        _operands = operands;
+        _strings = strings;
+        _numbers = numbers;
+        _origins = origins;
+        _originIndexes = originIndexes;
+        _locations = new HoconJsonLocation[origins.length];
+    }
+
+    /**
+     * Compiles the given configuration into a tape.
+     */
+    public static HoconTokenTape compile(ConfigObject root) throws IOException
+    {
+        HoconTreeTraversingParser p = new HoconTreeTraversingParser(root);
+        try {
+            return new Builder().build(p);
+        } finally {
+            p.close();
+        }
+    }
+
+    /**
+     * @return a new parser over this tape
+     */
+    public HoconTapeParser createParser() {
+        return new HoconTapeParser(this, null);
+    }
+
+    /**
+     * @return a new parser over this tape, with the given codec
+     */
+    public HoconTapeParser createParser(ObjectCodec codec) {
+        return new HoconTapeParser(this, codec);
+    }
+
+    /**
+     * @return number of tokens on the tape
+     */
+    public int size() {
+        return _types.length;
+    }
+
+    static JsonToken token(byte type) {
+        return TOKENS[type];
+    }
+
+    static NumberType numberType(byte type) {
+        switch (type) {
+        case INT:
+            return NumberType.INT;
+        case LONG:
+            return NumberType.LONG;
+        case DOUBLE:
+            return NumberType.DOUBLE;
+        default:
+            return null;
+        }
+    }
+
+    /*
+    /**********************************************************
+    /* Helper classes
+    /**********************************************************
+     */
+
+    private final static class Builder {
+        private byte[] _types = new byte[64];
+        private int[] _operands = new int[64];
+        private int[] _originIndexes = new int[64];
+        private int _count;
+
+        private long[] _numbers = new long[16];
+        private int _numberCount;
+
+        private final Map<String, Integer> _stringIndexes = new HashMap<String, Integer>();
+        private String[] _strings = new String[16];
+
+        private final Map<ConfigOrigin, Integer> _originIndexMap = new HashMap<ConfigOrigin, Integer>();
+        private ConfigOrigin[] _origins = new ConfigOrigin[4];
+
+        // positions of the start tokens of the open containers
+        private int[] _open = new int[16];
+        private int _depth;
+
+        HoconTokenTape build(HoconTreeTraversingParser p) throws IOException
+        {
+            JsonToken t;
+            while ((t = p.nextToken()) != null) {
+                if (_count == _types.length) {
+                    int size = _count << 1;
+                    _types = Arrays.copyOf(_types, size);
+                    _operands = Arrays.copyOf(_operands, size);
+                    _originIndexes = Arrays.copyOf(_originIndexes, size);
+                }
+                final int pos = _count++;
+                int operand = 0;
+                byte type;
+                switch (t) {
+                case START_OBJECT:
+                case START_ARRAY:
+                    type = (t == JsonToken.START_OBJECT) ? START_OBJECT : START_ARRAY;
+                    if (_depth == _open.length) {
+                        _open = Arrays.copyOf(_open, _depth << 1);
+                    }
+                    _open[_depth++] = pos;
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    type = (t == JsonToken.END_OBJECT) ? END_OBJECT : END_ARRAY;
+                    _operands[_open[--_depth]] = pos;
+                    break;
+                case FIELD_NAME:
+                    type = FIELD_NAME;
+                    operand = _string(p.getCurrentName());
+                    break;
+                case VALUE_STRING:
+                    type = STRING;
+                    operand = _string(p.getText());
+                    break;
+                case VALUE_NUMBER_INT:
+                    type = (p.getNumberType() == NumberType.INT) ? INT : LONG;
+                    operand = _number(p.getLongValue());
+                    break;
+                case VALUE_NUMBER_FLOAT:
+                    type = DOUBLE;
+                    operand = _number(Double.doubleToRawLongBits(p.getDoubleValue()));
+                    _number(_string(p._originalNumberText()));
+                    break;
+                case VALUE_TRUE:
+                    type = TRUE;
+                    break;
+                case VALUE_FALSE:
+                    type = FALSE;
+                    break;
+                case VALUE_NULL:
+                    type = NULL;
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected token "+t);
+                }
+                _types[pos] = type;
+                _operands[pos] = operand;
+                _originIndexes[pos] = _origin(p.currentNode());
+            }
+            return new HoconTokenTape(Arrays.copyOf(_types, _count), Arrays.copyOf(_operands, _count),
+                    Arrays.copyOf(_strings, _stringIndexes.size()), Arrays.copyOf(_numbers, _numberCount),
+                    Arrays.copyOf(_origins, _originIndexMap.size()), Arrays.copyOf(_originIndexes, _count));
+        }
+
+        private int _string(String s)
+        {
+            Integer index = _stringIndexes.get(s);
+            if (index == null) {
+                index = _stringIndexes.size();
+                if (index == _strings.length) {
+                    _strings = Arrays.copyOf(_strings, index << 1);
+                }
+                _strings[index] = s;
+                _stringIndexes.put(s, index);
+            }
+            return index.intValue();
+        }
+
+        private int _number(long value)
+        {
+            if (_numberCount == _numbers.length) {
+                _numbers = Arrays.copyOf(_numbers, _numberCount << 1);
+            }
+            _numbers[_numberCount] = value;
+            return _numberCount++;
+        }
+
+        private int _origin(ConfigValue node)
+        {
+            if (node == null) { // end of the root container
+                return -1;
+            }
+            ConfigOrigin origin = node.origin();
+            Integer index = _originIndexMap.get(origin);
+            if (index == null) {
+                index = _originIndexMap.size();
+                if (index == _origins.length) {
+                    _origins = Arrays.copyOf(_origins, index << 1);
+                }
+                _origins[index] = origin;
+                _originIndexMap.put(origin, index);
+            }
+            return index.intValue();
+        }
+    }
+}
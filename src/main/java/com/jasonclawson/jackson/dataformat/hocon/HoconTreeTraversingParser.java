@@ -2,24 +2,47 @@ package com.jasonclawson.jackson.dataformat.hocon;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import com.fasterxml.jackson.core.Base64Variant;
 import com.fasterxml.jackson.core.JsonLocation;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.core.JsonStreamContext;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.ObjectCodec;
 import com.fasterxml.jackson.core.Version;
 import com.fasterxml.jackson.core.base.ParserMinimalBase;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigList;
 import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigOrigin;
+import com.typesafe.config.ConfigUtil;
 import com.typesafe.config.ConfigValue;
+import com.typesafe.config.ConfigValueFactory;
 import com.typesafe.config.ConfigValueType;
 
 public class HoconTreeTraversingParser extends ParserMinimalBase {
 
+    /**
+     * Class of the floating-point numbers of a tree, which is not public
+     */
+    private final static Class<?> CONFIG_DOUBLE = ConfigValueFactory.fromAnyRef(Double.valueOf(0.5)).getClass();
+
+    private final static Class<?> CONFIG_INT = ConfigValueFactory.fromAnyRef(Integer.valueOf(1)).getClass();
+
+    /**
+     * Source text of a number, kept by Typesafe config but only given out
+     * through <code>getString</code>; null if it can not be reached
+     */
+    private final static Field NUMBER_TEXT = _numberTextField();
+
 	/*
     /**********************************************************
     /* Configuration
@@ -58,7 +81,79 @@ public class HoconTreeTraversingParser extends ParserMinimalBase {
      */
     protected boolean _closed;
 
-    private final ConfigObject _rootObject;
+    /**
+     * Buffer {@link #getTextCharacters()} copies text into; reused for all
+     * tokens, and only grown when a longer text comes along.
+     */
+    protected char[] _textBuffer;
+
+    /**
+     * Length of the text in {@link #_textBuffer}
+     */
+    protected int _textLength;
+
+    /**
+     * Whether {@link #_textBuffer} holds the text of the current token
+     */
+    protected boolean _hasTextBuffered;
+
+    /**
+     * Type of the current numeric value once decoded, null if the current
+     * token has not been decoded (or is not numeric)
+     */
+    protected NumberType _numberType;
+
+    /**
+     * Value of the current token for {@link NumberType#INT} and
+     * {@link NumberType#LONG}
+     */
+    protected long _numberLong;
+
+    /**
+     * Value of the current token for {@link NumberType#DOUBLE}
+     */
+    protected double _numberDouble;
+
+    /**
+     * Textual representation of the current number, built at most once
+     */
+    protected String _numberText;
+
+    /**
+     * Exact value of the current floating-point number, built at most once
+     */
+    protected BigDecimal _numberBigDecimal;
+
+    /**
+     * Measurements to record, if the factory has a listener
+     */
+    protected HoconParseEvent _parseEvent;
+
+    private ConfigObject _rootObject;
+
+    /**
+     * Numeric index detection shared by all cursors of this parser
+     */
+    protected NumericIndexDetector _indexDetector;
+
+    /**
+     * Container cursors by depth, {@link HoconNodeCursor#STACK_KINDS} per
+     * depth (depth 0 being the root), reused for all containers met at
+     * that depth; allocated on the first descent.
+     */
+    protected HoconNodeCursor.Container[] _cursorStack;
+
+    /**
+     * Depth of {@link #_nodeCursor} below the cursor the parser started with
+     */
+    protected int _depth;
+
+    /**
+     * Location of the origin last asked for, returned again as long as the
+     * origin is equal (values of a line have equal origins); documents
+     * have the locations of all of their values instead
+     */
+    protected HoconJsonLocation _lastLocation;
     
     /**
      * HOCON specific getter for the originating ConfigObject. Useful for
@@ -79,28 +174,254 @@ public class HoconTreeTraversingParser extends ParserMinimalBase {
     public HoconTreeTraversingParser(ConfigObject n) { this(n, null); }
 
     public HoconTreeTraversingParser(ConfigObject n, ObjectCodec codec)
+    {
+        this(n, codec, new NumericIndexDetector());
+        _initCursor(n);
+    }
+
+    /**
+     * Creates a parser over the value at the given path only. The cursors
+     * are positioned on the value directly, without traversing what comes
+     * before it, but its parsing context still has the enclosing objects
+     * and arrays as parents.
+     *
+     * @param path a HOCON path expression, such as <code>services.db</code>;
+     *   elements of arrays are addressed by index (<code>hosts.0</code>).
+     *   Null or empty for the root object.
+     * @throws ConfigException.Missing if there is no value at the path
+     */
+    public HoconTreeTraversingParser(ConfigObject root, ObjectCodec codec, String path)
+    {
+        this(root, codec, new NumericIndexDetector());
+        _initPath(path);
+    }
+
+    /**
+     * Same as {@link #HoconTreeTraversingParser(ConfigObject, ObjectCodec, String)}
+     * but with the value addressed by a JSON Pointer, such as
+     * <code>/services/db</code>.
+     */
+    public HoconTreeTraversingParser(ConfigObject root, ObjectCodec codec, JsonPointer pointer)
+    {
+        this(root, codec, new NumericIndexDetector());
+        List<String> segments = new ArrayList<String>();
+        for (JsonPointer p = pointer; !p.matches(); p = p.tail()) {
+            segments.add(p.getMatchingProperty());
+        }
+        if (segments.isEmpty()) {
+            _initCursor(root);
+        } else {
+            _initScoped(segments, pointer.toString());
+        }
+    }
+
+    /**
+     * Creates a parser over the values of the tree that the filter includes
+     * only; the others are skipped without being looked at.
+     */
+    public HoconTreeTraversingParser(ConfigObject root, ObjectCodec codec, HoconPathFilter filter)
+    {
+        this(root, codec, new NumericIndexDetector());
+        _initCursor(root);
+        _nodeCursor._filter = filter.root();
+    }
+
+    /**
+     * Creates a parser over a prepared document, which only allocates
+     * the cursors.
+     */
+    public HoconTreeTraversingParser(HoconDocument document, ObjectCodec codec)
+    {
+        this(document.getConfigObject(), codec, document.metadata());
+        _initCursor(_rootObject);
+    }
+
+    /**
+     * Same as {@link #HoconTreeTraversingParser(ConfigObject, ObjectCodec, String)}
+     * over a prepared document.
+     */
+    public HoconTreeTraversingParser(HoconDocument document, ObjectCodec codec, String path)
+    {
+        this(document.getConfigObject(), codec, document.metadata());
+        _initPath(path);
+    }
+
+    /**
+     * Same as {@link #HoconTreeTraversingParser(ConfigObject, ObjectCodec, HoconPathFilter)}
+     * over a prepared document.
+     */
+    public HoconTreeTraversingParser(HoconDocument document, ObjectCodec codec, HoconPathFilter filter)
+    {
+        this(document.getConfigObject(), codec, document.metadata());
+        _initCursor(_rootObject);
+        _nodeCursor._filter = filter.root();
+    }
+
+    /**
+     * Creates a parser without a tree, that returns no token until it is
+     * {@link #reset(ConfigObject)} to one.
+     */
+    protected HoconTreeTraversingParser(int features, ObjectCodec codec)
+    {
+        super(features);
+        _objectCodec = codec;
+        _indexDetector = new NumericIndexDetector();
+    }
+
+    private HoconTreeTraversingParser(ConfigObject root, ObjectCodec codec, NumericIndexDetector indexDetector)
     {
         super(0);
-        _rootObject = n;
+        _rootObject = root;
         _objectCodec = codec;
-        if (n.valueType() == ConfigValueType.LIST) {
-            _nextToken = JsonToken.START_ARRAY;
-            _nodeCursor = new HoconNodeCursor.Array(n, null);
-        } else if (n.valueType() == ConfigValueType.OBJECT) {
-            if (HoconNodeCursor.isNumericallyIndexed(n)) {
-                _nextToken = JsonToken.START_ARRAY;
-                _nodeCursor = new HoconNodeCursor.NumericallyIndexedObjectBackedArray(n, null);
+        _indexDetector = indexDetector;
+    }
+
+    /**
+     * Creates a parser over a single value of the tree of another parser,
+     * as the value of field <code>name</code>.
+     */
+    HoconTreeTraversingParser(HoconTreeTraversingParser parent, ConfigValue value, String name)
+    {
+        super(parent._features);
+        _rootObject = parent._rootObject;
+        _objectCodec = parent._objectCodec;
+        _indexDetector = (parent._indexDetector instanceof HoconDocument.Metadata)
+                ? parent._indexDetector : new NumericIndexDetector();
+        _nodeCursor = new HoconNodeCursor.Member(value, name, -1, null, _indexDetector, false);
+    }
+
+    private void _initCursor(ConfigValue n)
+    {
+        if (n.valueType() == ConfigValueType.LIST || n.valueType() == ConfigValueType.OBJECT) {
+            final int kind = HoconNodeCursor.kindOf(n, _indexDetector);
+            _nextToken = (kind == HoconNodeCursor.KIND_OBJECT) ? JsonToken.START_OBJECT : JsonToken.START_ARRAY;
+            // a reset parser has root cursors to reuse
+            HoconNodeCursor.Container cursor = (_cursorStack == null) ? null : _cursorStack[kind];
+            if (cursor != null) {
+                cursor.reset(n, null, _indexDetector);
+            } else if (kind == HoconNodeCursor.KIND_ARRAY) {
+                cursor = new HoconNodeCursor.Array(n, null, _indexDetector);
+            } else if (kind == HoconNodeCursor.KIND_INDEXED) {
+                cursor = new HoconNodeCursor.NumericallyIndexedObjectBackedArray(n, null, _indexDetector);
             } else {
-                _nextToken = JsonToken.START_OBJECT;
-                _nodeCursor = new HoconNodeCursor.Object(n, null);
+                cursor = new HoconNodeCursor.Object(n, null, _indexDetector);
+            }
+            if (_cursorStack != null) {
+                _cursorStack[kind] = cursor;
             }
+            _nodeCursor = cursor;
         } else { // value node
-            _nodeCursor = new HoconNodeCursor.RootValue(n, null);
+            _nodeCursor = new HoconNodeCursor.RootValue(n, null, _indexDetector);
         }
     }
+
+    private void _initPath(String path)
+    {
+        if (path == null || path.isEmpty()) {
+            _initCursor(_rootObject);
+        } else {
+            _initScoped(ConfigUtil.splitPath(path), path);
+        }
+    }
+
+    /**
+     * Walks down the segments, creating a {@link HoconNodeCursor.Member}
+     * for each; the last one returns the value the parser is scoped to.
+     */
+    private void _initScoped(List<String> segments, String path)
+    {
+        HoconNodeCursor cursor = null;
+        ConfigValue container = _rootObject;
+        final int last = segments.size() - 1;
+        for (int i = 0; i <= last; ++i) {
+            String segment = segments.get(i);
+            ConfigValue member = null;
+            int index = -1;
+            if (container.valueType() == ConfigValueType.LIST) {
+                ConfigList list = (ConfigList) container;
+                index = NumericIndexDetector.parseIndex(segment);
+                if (index >= 0 && index < list.size()) {
+                    member = list.get(index);
+                }
+            } else if (container.valueType() == ConfigValueType.OBJECT) {
+                ConfigObject object = (ConfigObject) container;
+                member = object.get(segment);
+                if (member != null && _indexDetector.isNumericallyIndexed(object)) {
+                    index = NumericIndexDetector.parseIndex(segment);
+                }
+            }
+            if (member == null) {
+                throw new ConfigException.Missing(path);
+            }
+            cursor = new HoconNodeCursor.Member(member, (index < 0) ? segment : null, index,
+                    cursor, _indexDetector, i < last);
+            container = member;
+        }
+        _nodeCursor = cursor;
+    }
     
+    /**
+     * Points this parser at another tree, as if it had just been created
+     * over it with {@link #HoconTreeTraversingParser(ConfigObject, ObjectCodec)}.
+     * Cursors are kept and reused, so that a parser reset for every
+     * binding does not allocate any; objects still have their entries
+     * copied by Typesafe config, unless the tree comes from a
+     * {@link HoconDocument} (see {@link #reset(HoconDocument)}).
+     */
+    public void reset(ConfigObject root)
+    {
+        if (_indexDetector instanceof HoconDocument.Metadata) {
+            _indexDetector = new NumericIndexDetector();
+        } else {
+            _indexDetector.clear();
+        }
+        _reset(root);
+    }
+
+    /**
+     * Same as {@link #reset(ConfigObject)} over a prepared document: the
+     * traversal then allocates nothing at all.
+     */
+    public void reset(HoconDocument document)
+    {
+        _indexDetector = document.metadata();
+        _reset(document.getConfigObject());
+    }
+
+    private void _reset(ConfigObject root)
+    {
+        _rootObject = root;
+        _closed = false;
+        _currToken = null;
+        _lastClearedToken = null;
+        _nextToken = null;
+        _startContainer = false;
+        _hasTextBuffered = false;
+        _numberType = null;
+        _parseEvent = null;
+        _lastLocation = null;
+        _depth = 0;
+        if (_cursorStack == null) {
+            _cursorStack = new HoconNodeCursor.Container[8 * HoconNodeCursor.STACK_KINDS];
+        }
+        _initCursor(root);
+    }
+
     public static JsonToken asJsonToken(ConfigValue value) {
-        if (HoconNodeCursor.isNumericallyIndexed(value)) {
+        return asJsonToken(value, null);
+    }
+
+    /**
+     * @param value the value to convert
+     * @param indexDetector detector used to memoize numeric index detection,
+     *   or null to classify <code>value</code> from scratch
+     * @return the token that starts <code>value</code>
+     */
+    public static JsonToken asJsonToken(ConfigValue value, NumericIndexDetector indexDetector) {
+        boolean numericallyIndexed = (indexDetector == null)
+                ? NumericIndexDetector.isNumericallyIndexedValue(value)
+                : indexDetector.isNumericallyIndexed(value);
+        if (numericallyIndexed) {
             return JsonToken.START_ARRAY;
         }
         switch(value.valueType()) {
@@ -111,8 +432,8 @@ public class HoconTreeTraversingParser extends ParserMinimalBase {
 			case NULL:
 				return JsonToken.VALUE_NULL;
 			case NUMBER:
-				Number unwrapped = (Number) value.unwrapped();
-				if(unwrapped instanceof Double) {
+				// same as unwrapping to a Double, without boxing the number
+				if (value.getClass() == CONFIG_DOUBLE) {
 					return JsonToken.VALUE_NUMBER_FLOAT;
 				} else {
 					return JsonToken.VALUE_NUMBER_INT;
@@ -155,8 +476,14 @@ public class HoconTreeTraversingParser extends ParserMinimalBase {
     {
         if (!_closed) {
             _closed = true;
+            if (_parseEvent != null) {
+                _parseEvent.finish();
+            }
             _nodeCursor = null;
             _currToken = null;
+            _textBuffer = null;
+            _hasTextBuffered = false;
+            _numberType = null;
         }
     }
 
@@ -169,6 +496,17 @@ public class HoconTreeTraversingParser extends ParserMinimalBase {
     @Override
     public JsonToken nextToken() throws IOException, JsonParseException
     {
+        JsonToken t = _advance();
+        if (_parseEvent != null) {
+            _parseEvent.token(t);
+        }
+        return t;
+    }
+
+    protected JsonToken _advance() throws IOException, JsonParseException
+    {
+        _hasTextBuffered = false;
+        _numberType = null;
         if (_nextToken != null) {
             _currToken = _nextToken;
             _nextToken = null;
@@ -183,7 +521,7 @@ public class HoconTreeTraversingParser extends ParserMinimalBase {
                     JsonToken.END_OBJECT : JsonToken.END_ARRAY;
                 return _currToken;
             }
-            _nodeCursor = _nodeCursor.iterateChildren();
+            _nodeCursor = _descend();
             _currToken = _nodeCursor.nextToken();
             if (_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY) {
                 _startContainer = true;
@@ -205,9 +543,32 @@ public class HoconTreeTraversingParser extends ParserMinimalBase {
         }
         // null means no more children; need to return end marker
         _currToken = _nodeCursor.endToken();
-        _nodeCursor = _nodeCursor.getParent();
+        // ... unless the cursor returned a single value: then we are done,
+        // even if the parser was scoped and the cursor has parents
+        if (_currToken == null) {
+            _nodeCursor = null;
+        } else {
+            _nodeCursor = _nodeCursor.getParent();
+            --_depth;
+        }
         return _currToken;
     }
+
+    /**
+     * @return a cursor over the children of the current container, taken
+     *   from {@link #_cursorStack} if one of its kind was used at the same
+     *   depth before
+     */
+    protected HoconNodeCursor _descend()
+    {
+        final int depth = ++_depth;
+        if (_cursorStack == null) {
+            _cursorStack = new HoconNodeCursor.Container[8 * HoconNodeCursor.STACK_KINDS];
+        } else if ((depth + 1) * HoconNodeCursor.STACK_KINDS > _cursorStack.length) {
+            _cursorStack = Arrays.copyOf(_cursorStack, _cursorStack.length * 2);
+        }
+        return _nodeCursor.iterateChildren(_cursorStack, depth);
+    }
     
     // default works well here:
     //public JsonToken nextValue() throws IOException, JsonParseException
@@ -215,12 +576,17 @@ public class HoconTreeTraversingParser extends ParserMinimalBase {
     @Override
     public JsonParser skipChildren() throws IOException, JsonParseException
     {
-        if (_currToken == JsonToken.START_OBJECT) {
-            _startContainer = false;
-            _currToken = JsonToken.END_OBJECT;
-        } else if (_currToken == JsonToken.START_ARRAY) {
+        if (_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY) {
+            if (_parseEvent != null) {
+                _parseEvent.skipped();
+            }
+            if (!_startContainer) {
+                // the root container: its cursor is the current one already
+                _nodeCursor = null;
+            }
+            _hasTextBuffered = false;
             _startContainer = false;
-            _currToken = JsonToken.END_ARRAY;
+            _currToken = (_currToken == JsonToken.START_OBJECT) ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
         }
         return this;
     }
@@ -246,6 +612,7 @@ public class HoconTreeTraversingParser extends ParserMinimalBase {
     {
         if (_nodeCursor != null) {
             _nodeCursor.overrideCurrentName(name);
+            _hasTextBuffered = false;
         }
     }
     
@@ -256,14 +623,36 @@ public class HoconTreeTraversingParser extends ParserMinimalBase {
 
     @Override
     public JsonLocation getTokenLocation() {
-        final ConfigValue node = currentNode();
-        return node == null ? JsonLocation.NA : new HoconJsonLocation(node.origin());
+        return _location(currentNode());
     }
 
     @Override
     public JsonLocation getCurrentLocation() {
-        final ConfigValue node = currentNode();
-        return node == null ? JsonLocation.NA : new HoconJsonLocation(node.origin());
+        return _location(currentNode());
+    }
+
+    /**
+     * Values on a line of the source have equal origins, so the location of
+     * the last origin is reused until another one comes along.
+     */
+    protected JsonLocation _location(ConfigValue node)
+    {
+        if (node == null) {
+            return JsonLocation.NA;
+        }
+        final ConfigOrigin origin = node.origin();
+        if (_indexDetector instanceof HoconDocument.Metadata) {
+            HoconJsonLocation location = ((HoconDocument.Metadata) _indexDetector).location(origin);
+            if (location != null) {
+                return location;
+            }
+        }
+        HoconJsonLocation location = _lastLocation;
+        if (location == null || !location.getOrigin().equals(origin)) {
+            location = new HoconJsonLocation(origin);
+            _lastLocation = location;
+        }
+        return location;
     }
 
     /*
@@ -273,7 +662,7 @@ public class HoconTreeTraversingParser extends ParserMinimalBase {
      */
 
     @Override
-    public String getText()
+    public String getText() throws IOException, JsonParseException
     {
         if (_closed) {
             return null;
@@ -286,7 +675,13 @@ public class HoconTreeTraversingParser extends ParserMinimalBase {
             return (String) currentNode().unwrapped();
         case VALUE_NUMBER_INT:
         case VALUE_NUMBER_FLOAT:
-            return String.valueOf(currentNode().unwrapped());
+            _decodeNumber();
+            if (_numberText == null) {
+                // decimals are kept as written when decoded, whole numbers
+                // (even if written as decimals, like 2.0) as decoded
+                _numberText = String.valueOf(_numberLong);
+            }
+            return _numberText;
         case VALUE_EMBEDDED_OBJECT:
         	throw new UnsupportedOperationException("VALUE_EMBEDDED_OBJECT is not supported by HOCON");
         default:
@@ -296,12 +691,29 @@ public class HoconTreeTraversingParser extends ParserMinimalBase {
 
     @Override
     public char[] getTextCharacters() throws IOException, JsonParseException {
-        return getText().toCharArray();
+        if (!_hasTextBuffered) {
+            String text = getText();
+            if (text == null) {
+                return null;
+            }
+            final int len = text.length();
+            if (_textBuffer == null || _textBuffer.length < len) {
+                _textBuffer = new char[Math.max(len, (_textBuffer == null) ? 64 : (_textBuffer.length << 1))];
+            }
+            text.getChars(0, len, _textBuffer, 0);
+            _textLength = len;
+            _hasTextBuffered = true;
+        }
+        return _textBuffer;
     }
 
     @Override
     public int getTextLength() throws IOException, JsonParseException {
-        return getText().length();
+        if (_hasTextBuffered) {
+            return _textLength;
+        }
+        String text = getText();
+        return (text == null) ? 0 : text.length();
     }
 
     @Override
@@ -309,10 +721,14 @@ public class HoconTreeTraversingParser extends ParserMinimalBase {
         return 0;
     }
 
+    /**
+     * Text is held as Strings, so {@link #getText()} is the efficient
+     * accessor until {@link #getTextCharacters()} has been called for the
+     * current token; from then on the characters are buffered.
+     */
     @Override
     public boolean hasTextCharacters() {
-        // generally we do not have efficient access as char[], hence:
-        return false;
+        return _hasTextBuffered;
     }
     
     /*
@@ -325,56 +741,67 @@ public class HoconTreeTraversingParser extends ParserMinimalBase {
 
     @Override
     public NumberType getNumberType() throws IOException, JsonParseException {
-    	ConfigValue n = currentNumericNode();
-    	if(n == null)
-    		return null;
-    	
-    	Number value = (Number) n.unwrapped();
-    	if(value instanceof Double) {
-    		return NumberType.DOUBLE;
-    	} else if(value instanceof Long) {
-    		return NumberType.LONG;
-    	} else {
-    		return NumberType.INT;
-    	}
+        _decodeNumber();
+        return _numberType;
     }
 
     @Override
     public BigInteger getBigIntegerValue() throws IOException, JsonParseException {
-    	//I wish we could get at the string representation instead
-    	Long value = ((Number)  currentNumericNode().unwrapped()).longValue();
-    	return BigInteger.valueOf(value);
+        _decodeNumber();
+        if (_numberType == NumberType.DOUBLE) {
+            return getDecimalValue().toBigInteger();
+        }
+        return BigInteger.valueOf(_numberLong);
     }
 
     @Override
     public BigDecimal getDecimalValue() throws IOException, JsonParseException {
-        Double value = ((Number) currentNumericNode().unwrapped()).doubleValue();
-    	return BigDecimal.valueOf(value);
+        _decodeNumber();
+        if (_numberType != NumberType.DOUBLE) {
+            return BigDecimal.valueOf(_numberLong);
+        }
+        if (_numberBigDecimal == null) {
+            // the double may have lost digits, the original text has not
+            _numberBigDecimal = new BigDecimal(_numberText);
+        }
+        return _numberBigDecimal;
     }
 
     @Override
     public double getDoubleValue() throws IOException, JsonParseException {
-        return ((Number) currentNumericNode().unwrapped()).doubleValue();
+        _decodeNumber();
+        return (_numberType == NumberType.DOUBLE) ? _numberDouble : (double) _numberLong;
     }
 
     @Override
     public float getFloatValue() throws IOException, JsonParseException {
-        return ((Number) currentNumericNode().unwrapped()).floatValue();
+        _decodeNumber();
+        return (_numberType == NumberType.DOUBLE) ? (float) _numberDouble : (float) _numberLong;
     }
 
     @Override
     public long getLongValue() throws IOException, JsonParseException {
-        return ((Number) currentNumericNode().unwrapped()).longValue();
+        _decodeNumber();
+        return (_numberType == NumberType.DOUBLE) ? (long) _numberDouble : _numberLong;
     }
 
     @Override
     public int getIntValue() throws IOException, JsonParseException {
-        return ((Number) currentNumericNode().unwrapped()).intValue();
+        _decodeNumber();
+        return (_numberType == NumberType.DOUBLE) ? (int) _numberDouble : (int) _numberLong;
     }
 
     @Override
     public Number getNumberValue() throws IOException, JsonParseException {
-        return (Number) currentNumericNode().unwrapped();
+        _decodeNumber();
+        switch (_numberType) {
+        case INT:
+            return Integer.valueOf((int) _numberLong);
+        case LONG:
+            return Long.valueOf(_numberLong);
+        default:
+            return Double.valueOf(_numberDouble);
+        }
     }
 
     @Override
@@ -434,17 +861,97 @@ public class HoconTreeTraversingParser extends ParserMinimalBase {
         return _nodeCursor.currentNode();
     }
 
+    /**
+     * @return the object or list the current <code>START_OBJECT</code> or
+     *   <code>START_ARRAY</code> token starts, null for other tokens and for
+     *   containers some members of which a {@link HoconPathFilter} skips:
+     *   those have to be read token by token
+     */
+    protected ConfigValue currentContainerNode() {
+        if (_closed || (_currToken != JsonToken.START_OBJECT && _currToken != JsonToken.START_ARRAY)) {
+            return null;
+        }
+        // children of the root container are iterated right away
+        if (!_startContainer) {
+            return (_nodeCursor._filter == null) ? _rootObject : null;
+        }
+        return (_nodeCursor._currentFilter == null) ? currentNode() : null;
+    }
+
     protected ConfigValue currentNumericNode()
         throws JsonParseException
     {
     	ConfigValue n = currentNode();
         if (n == null || n.valueType() != ConfigValueType.NUMBER) {
-            JsonToken t = (n == null) ? null : asJsonToken(n);
+            JsonToken t = (n == null) ? null : asJsonToken(n, _indexDetector);
             throw _constructError("Current token ("+t+") not numeric, can not use numeric value accessors");
         }
         return n;
     }
 
+    /**
+     * Unwraps the current number once per token; all numeric accessors
+     * then work off the primitive fields.
+     */
+    protected void _decodeNumber() throws JsonParseException
+    {
+        if (_numberType != null) {
+            return;
+        }
+        ConfigValue n = currentNumericNode();
+        _numberText = null;
+        _numberBigDecimal = null;
+        // classified by class, as asJsonToken does; Typesafe config only
+        // gives the value out boxed, so it is unwrapped once per token
+        Class<?> type = n.getClass();
+        if (type == CONFIG_DOUBLE) {
+            _numberDouble = ((Double) n.unwrapped()).doubleValue();
+            _numberType = NumberType.DOUBLE;
+            _numberText = _originalNumberText(n);
+        } else if (type == CONFIG_INT) {
+            _numberLong = ((Integer) n.unwrapped()).intValue();
+            _numberType = NumberType.INT;
+        } else {
+            _numberLong = ((Long) n.unwrapped()).longValue();
+            _numberType = NumberType.LONG;
+        }
+    }
+
+    /**
+     * @return the current decimal as written in the source
+     */
+    protected String _originalNumberText() throws JsonParseException
+    {
+        _decodeNumber();
+        return _numberText;
+    }
+
+    private String _originalNumberText(ConfigValue n)
+    {
+        if (NUMBER_TEXT != null) {
+            try {
+                String text = (String) NUMBER_TEXT.get(n);
+                // values built in code have none, and print as Double does
+                return (text == null) ? String.valueOf(_numberDouble) : text;
+            } catch (IllegalAccessException e) {
+                // fall through
+            }
+        }
+        return n.atKey("n").getString("n");
+    }
+
+    private static Field _numberTextField()
+    {
+        try {
+            Field f = CONFIG_DOUBLE.getSuperclass().getDeclaredField("originalText");
+            f.setAccessible(true);
+            return f;
+        } catch (Exception e) {
+            // a config version (or security manager) we can not look into
+            return null;
+        }
+    }
+
     @Override
     protected void _handleEOF() throws JsonParseException {
         _throwInternal(); // should never get called
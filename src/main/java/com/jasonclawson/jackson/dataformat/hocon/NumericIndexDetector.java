@@ -0,0 +1,136 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigValue;
+
+/**
+ * Decides whether a {@link ConfigObject} was originally an array.
+ * <p>
+ * Because TypeSafe config does not preserve types of keys we have to
+ * revert to heuristics to detect if an object was originally an array
+ * (for example <code>list.0 = a, list.1 = b</code>). Two conditions are
+ * verified:
+ * <ol>
+ * <li>all keys must be non-negative integers</li>
+ * <li>all keys must form a consecutive set of integers 0..N-1 where N is
+ * size of the object</li>
+ * </ol>
+ * Detection only looks at the key set of the object, it never unwraps
+ * the values. Results are memoized per node (by identity) so that each
+ * container is classified only once for the life of a parse; instances
+ * are therefore not thread-safe and are meant to be owned by a single
+ * parser.
+ */
+public class NumericIndexDetector {
+
+    /**
+     * Classifications so far, null for subclasses that classify up front
+     */
+    private final IdentityHashMap<ConfigObject, Boolean> _classified;
+
+    public NumericIndexDetector() {
+        _classified = new IdentityHashMap<ConfigObject, Boolean>();
+    }
+
+    /**
+     * For subclasses that override {@link #isNumericallyIndexed(ConfigValue)}
+     * with classifications of their own, and need no memo.
+     */
+    protected NumericIndexDetector(boolean memoize) {
+        _classified = memoize ? new IdentityHashMap<ConfigObject, Boolean>() : null;
+    }
+
+    /**
+     * @param n the value to classify
+     * @return true if <code>n</code> is a non-empty object whose keys are the
+     *  indexes of an array
+     */
+    public boolean isNumericallyIndexed(ConfigValue n) {
+        if (!(n instanceof ConfigObject)) {
+            return false;
+        }
+        ConfigObject object = (ConfigObject) n;
+        Boolean result = _classified.get(object);
+        if (result == null) {
+            result = hasIndexKeys(object.keySet()) ? Boolean.TRUE : Boolean.FALSE;
+            _classified.put(object, result);
+        }
+        return result.booleanValue();
+    }
+
+    /**
+     * Forgets all classifications, before the detector is used for another
+     * tree.
+     */
+    public void clear() {
+        if (_classified != null) {
+            _classified.clear();
+        }
+    }
+
+    /**
+     * Stateless variant of {@link #isNumericallyIndexed(ConfigValue)}.
+     */
+    public static boolean isNumericallyIndexedValue(ConfigValue n) {
+        return (n instanceof ConfigObject) && hasIndexKeys(((ConfigObject) n).keySet());
+    }
+
+    /**
+     * @param keys the keys of an object
+     * @return true if the keys are exactly the indexes of a non-empty array
+     */
+    public static boolean hasIndexKeys(Collection<String> keys) {
+        int size = keys.size();
+        if (size == 0) {
+            return false;
+        }
+        for (String key : keys) {
+            int idx = parseIndex(key);
+            if (idx < 0 || idx >= size) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a key the same way {@link Integer#parseInt(String)} would,
+     * without paying for a {@link NumberFormatException} on the (common)
+     * non-numeric keys.
+     *
+     * @param key an object key
+     * @return the index denoted by the key, or -1 if the key is not a
+     *  non-negative integer
+     */
+    public static int parseIndex(String key) {
+        final int len = key.length();
+        if (len == 0) {
+            return -1;
+        }
+        char first = key.charAt(0);
+        if (first == '+' || first == '-') {
+            // rare enough to just defer to the JDK
+            try {
+                int idx = Integer.parseInt(key);
+                return (idx < 0) ? -1 : idx;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        long value = 0;
+        for (int i = 0; i < len; ++i) {
+            int digit = key.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE) {
+                return -1;
+            }
+        }
+        return (int) value;
+    }
+}
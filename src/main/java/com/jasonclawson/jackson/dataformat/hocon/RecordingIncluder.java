@@ -0,0 +1,99 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import java.io.File;
+import java.util.Set;
+
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigIncludeContext;
+import com.typesafe.config.ConfigIncluder;
+import com.typesafe.config.ConfigIncluderFile;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigParseable;
+
+/**
+ * Includer that records the files a configuration includes (or tries to
+ * include, for optional includes of files that do not exist yet) and
+ * otherwise leaves including to the default includer.
+ */
+class RecordingIncluder implements ConfigIncluder, ConfigIncluderFile {
+
+    private final static String[] EXTENSIONS = { ".conf", ".json", ".properties" };
+
+    private final Set<File> _files;
+
+    private final ConfigIncluder _fallback;
+
+    /**
+     * @param files set to add the included files to; must be thread-safe if
+     *   the includer is used concurrently
+     */
+    RecordingIncluder(Set<File> files) {
+        this(files, null);
+    }
+
+    /**
+     * @param fallback includer to leave including to, such as a
+     *   {@link HoconIncludeCache}; null for the default includer
+     */
+    RecordingIncluder(Set<File> files, ConfigIncluder fallback) {
+        _files = files;
+        _fallback = fallback;
+    }
+
+    /**
+     * @return the includer including is left to, null for the default one
+     */
+    ConfigIncluder getFallback() {
+        return _fallback;
+    }
+
+    @Override
+    public ConfigIncluder withFallback(ConfigIncluder fallback)
+    {
+        ConfigIncluder next = (_fallback == null) ? fallback : _fallback.withFallback(fallback);
+        return (next == _fallback) ? this : new RecordingIncluder(_files, next);
+    }
+
+    @Override
+    public ConfigObject include(ConfigIncludeContext context, String what)
+    {
+        _record(context, what);
+        if (_hasNoExtension(what)) {
+            for (String ext : EXTENSIONS) {
+                _record(context, what + ext);
+            }
+        }
+        return (_fallback == null) ? ConfigFactory.empty().root() : _fallback.include(context, what);
+    }
+
+    @Override
+    public ConfigObject includeFile(ConfigIncludeContext context, File what)
+    {
+        _files.add(what.getAbsoluteFile());
+        if (_hasNoExtension(what.getName())) {
+            for (String ext : EXTENSIONS) {
+                _files.add(new File(what.getAbsolutePath() + ext));
+            }
+        }
+        if (_fallback instanceof ConfigIncluderFile) {
+            return ((ConfigIncluderFile) _fallback).includeFile(context, what);
+        }
+        return ConfigFactory.parseFileAnySyntax(what, context.parseOptions()).root();
+    }
+
+    private void _record(ConfigIncludeContext context, String name)
+    {
+        ConfigParseable parseable = context.relativeTo(name);
+        if (parseable != null) {
+            String filename = parseable.origin().filename();
+            if (filename != null) {
+                _files.add(new File(filename).getAbsoluteFile());
+            }
+        }
+    }
+
+    private static boolean _hasNoExtension(String name) {
+        int slash = Math.max(name.lastIndexOf('/'), name.lastIndexOf(File.separatorChar));
+        return name.lastIndexOf('.') <= slash;
+    }
+}
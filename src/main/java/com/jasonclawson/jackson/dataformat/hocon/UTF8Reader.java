@@ -2,7 +2,11 @@ package com.jasonclawson.jackson.dataformat.hocon;
 
 
 import java.io.*;
-import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 
 /**
  * This code was poached from jackson-dataformat-yaml. https://github.com/FasterXML/jackson-dataformat-yaml
@@ -16,16 +20,35 @@ import java.lang.ref.SoftReference;
 public final class UTF8Reader
     extends Reader
 {
-    private final static int DEFAULT_BUFFER_SIZE = 8000;
-    
+    public final static int DEFAULT_BUFFER_SIZE = 8000;
+
+    /**
+     * Smallest buffer that can hold any single encoded character
+     */
+    public final static int MIN_BUFFER_SIZE = 4;
+
     /**
-     * This <code>ThreadLocal</code> contains a {@link java.lang.ref.SoftReference}
-     * to a byte array used for holding content to decode
+     * Smallest number of bytes (and chars of room) for which decoding in
+     * bulk is worth setting up
      */
-    final protected static ThreadLocal<SoftReference<byte[][]>> _bufferRecycler
-        = new ThreadLocal<SoftReference<byte[][]>>();
+    private final static int BULK_MIN = 64;
 
-    protected final byte[][] _bufferHolder;
+    /**
+     * Number of bytes decoded in bulk at a time: a block that is not all
+     * ASCII is decoded the slower way
+     */
+    private final static int BULK_BLOCK = 512;
+
+    /**
+     * Largest number of reads to skip bulk decoding for after it failed
+     */
+    private final static int MAX_BULK_BACKOFF = 64;
+    
+    /**
+     * Pool the input buffer came from and goes back to; null if the input
+     * was given as an array (that is not ours to recycle)
+     */
+    protected final HoconBufferPool _bufferPool;
     
     private InputStream _inputSource;
 
@@ -60,22 +83,35 @@ public final class UTF8Reader
      */
     int _byteCount = 0;
 
+    /**
+     * Total number of bytes taken from the input, for statistics
+     */
+    protected long _bytesRead;
+
     /*
     /**********************************************************************
     /* Life-cycle
     /**********************************************************************
      */
     
-    public UTF8Reader(InputStream in, boolean autoClose)
+    public UTF8Reader(InputStream in, boolean autoClose) {
+        this(in, autoClose, DEFAULT_BUFFER_SIZE, HoconBufferPool.ThreadLocalPool.INSTANCE);
+    }
+
+    /**
+     * @param bufferSize minimum size of the byte buffer to read the stream into
+     * @param pool pool to take the buffer from, and to hand it back to on
+     *   {@link #close()}
+     */
+    public UTF8Reader(InputStream in, boolean autoClose, int bufferSize, HoconBufferPool pool)
     {
         super(in);
-        _inputSource = in;
-        _bufferHolder = _findBufferHolder();
-        byte[] buffer = _bufferHolder[0];
-        if (buffer == null) {
-            _bufferHolder[0] = buffer = new byte[DEFAULT_BUFFER_SIZE];
+        if (bufferSize < MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Buffer size must be at least "+MIN_BUFFER_SIZE+", got "+bufferSize);
         }
-        _inputBuffer = buffer;
+        _inputSource = in;
+        _bufferPool = pool;
+        _inputBuffer = pool.allocByteBuffer(bufferSize);
         _inputPtr = 0;
         _inputEnd = 0;
         _autoClose = autoClose;
@@ -89,7 +125,8 @@ public final class UTF8Reader
         _inputPtr = ptr;
         _inputEnd = ptr+len;
         _autoClose = autoClose; 
-        _bufferHolder = null;
+        _bufferPool = null;
+        _bytesRead = len;
     }
 
     private static InputStream bogusStream() {
@@ -101,20 +138,6 @@ public final class UTF8Reader
         };
     }
     
-    private static byte[][] _findBufferHolder()
-    {
-        byte[][] bufs = null;
-        SoftReference<byte[][]> ref = _bufferRecycler.get();
-        if (ref != null) {
-            bufs = ref.get();
-        }
-        if (bufs == null) {
-            bufs = new byte[1][];
-            _bufferRecycler.set(new SoftReference<byte[][]>(bufs));
-        }
-        return bufs;
-    }
-
 
     /*
     /**********************************************************************
@@ -139,6 +162,17 @@ public final class UTF8Reader
 
     private char[] _tmpBuffer = null;
 
+    /**
+     * Decoder for bulk decoding, created on first use
+     */
+    private CharsetDecoder _bulkDecoder;
+
+    /**
+     * Number of reads left before trying bulk decoding again, and the number
+     * to skip the next time it fails
+     */
+    private int _bulkSkip, _bulkBackoff;
+
     /**
      * Although this method is implemented by the base class, AND it should
      * never be called by Woodstox code, let's still implement it bit more
@@ -203,12 +237,45 @@ public final class UTF8Reader
                 }
             }
         }
+        // Leading ASCII in bulk, leaving the rest to the loop below; backing
+        // off for a while each time that fails, as for text in other scripts
+        // the loop below is faster
+        if ((len - outPtr) >= BULK_MIN && (_inputEnd - _inputPtr) >= BULK_MIN) {
+            if (_bulkSkip > 0) {
+                --_bulkSkip;
+            } else {
+                ByteBuffer in = ByteBuffer.wrap(_inputBuffer, _inputPtr, _inputEnd - _inputPtr);
+                CharBuffer out = CharBuffer.wrap(cbuf, outPtr, len - outPtr);
+                if (_decodeAscii(in, out)) {
+                    _bulkBackoff = 0;
+                } else {
+                    _bulkSkip = _bulkBackoff = Math.min(Math.max(1, _bulkBackoff * 2), MAX_BULK_BACKOFF);
+                }
+                _inputPtr = in.position();
+                outPtr = out.position();
+            }
+        }
+        outPtr = _decode(cbuf, start, outPtr, len);
+        len = outPtr - start;
+        _charCount += len;
+        return len;
+    }
+
+    /**
+     * Decodes one byte (or multi-byte sequence) at a time, with a quick loop
+     * for ASCII; a method of its own so that the JIT compiles it as such.
+     *
+     * @return output position after the decoded chars
+     */
+    private int _decode(char[] cbuf, int start, int outPtr, int len)
+        throws IOException
+    {
         final byte[] buf = _inputBuffer;
         int inPtr = _inputPtr;
         final int inBufLen = _inputEnd;
 
         main_loop:
-        while (outPtr < len) {
+        while (outPtr < len && inPtr < inBufLen) {
             // At this point we have at least one byte available
             int c = (int) buf[inPtr++];
 
@@ -315,11 +382,44 @@ public final class UTF8Reader
         }
 
         _inputPtr = inPtr;
-        len = outPtr - start;
-        _charCount += len;
-        return len;
+        return outPtr;
     }
     
+    /**
+     * Decodes ASCII in bulk, a block at a time, with the UTF-8 decoder of
+     * the JDK: it checks the high bits of a whole block at once and widens
+     * it in bulk (both vectorized on recent JVMs). It is slower than the
+     * loop of this class on anything else though, so this stops after the
+     * first block that is not all ASCII, leaving the rest to the caller.
+     * Positions of both buffers are advanced past what was decoded.
+     *
+     * @return false if a block was not all ASCII
+     */
+    private boolean _decodeAscii(ByteBuffer in, CharBuffer out)
+    {
+        CharsetDecoder decoder = _bulkDecoder;
+        if (decoder == null) {
+            _bulkDecoder = decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT);
+        }
+        final int end = in.limit();
+        while (end - in.position() >= BULK_MIN && out.remaining() >= BULK_MIN) {
+            int inStart = in.position();
+            int outStart = out.position();
+            int blockEnd = Math.min(inStart + Math.min(BULK_BLOCK, out.remaining()), end);
+            in.limit(blockEnd);
+            decoder.reset();
+            decoder.decode(in, out, false);
+            in.limit(end);
+            int count = in.position() - inStart;
+            if (count != blockEnd - inStart || out.position() - outStart != count) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /*
     /**********************************************************************
     /* Internal/package methods:
@@ -328,6 +428,16 @@ public final class UTF8Reader
 
     protected final InputStream getStream() { return _inputSource; }
 
+    /**
+     * @return number of bytes taken from the input so far
+     */
+    public long getBytesRead() { return _bytesRead; }
+
+    /**
+     * @return number of characters decoded so far
+     */
+    public long getCharsRead() { return _charCount; }
+
     /**
      * Method for reading as many bytes from the underlying stream as possible
      * (that fit in the buffer), to the beginning of the buffer.
@@ -343,6 +453,7 @@ public final class UTF8Reader
             int count = _inputSource.read(_inputBuffer, 0, _inputBuffer.length);
             if (count > 0) {
                 _inputEnd = count;
+                _bytesRead += count;
             }
             return count;
         }
@@ -366,6 +477,7 @@ public final class UTF8Reader
             int count = _inputSource.read(_inputBuffer, offset, _inputBuffer.length - offset);
             if (count > 0) {
                 _inputEnd += count;
+                _bytesRead += count;
             }
             return count;
         }
@@ -379,11 +491,11 @@ public final class UTF8Reader
      */
     public final void freeBuffers()
     {
-        if (_bufferHolder != null) {
+        if (_bufferPool != null) {
             byte[] buf = _inputBuffer;
             if (buf != null) {
                 _inputBuffer = null;
-                _bufferHolder[0] = buf;
+                _bufferPool.releaseByteBuffer(buf);
             }
         }
     }
@@ -445,16 +557,12 @@ public final class UTF8Reader
     private boolean loadMore(int available)
         throws IOException
     {
-        _byteCount += (_inputEnd - available);
-
         // Bytes that need to be moved to the beginning of buffer?
         if (available > 0) {
-            if (_inputPtr > 0) {
-                // sanity check: can only move if we "own" buffers
-                if (_bufferHolder == null) {
-                    throw new IllegalStateException("Internal error: need to move partially decoded character; buffer not modifiable");
-                }
-
+            // (input given as an array is all there is: leave it in place,
+            // there is nothing more to load after it)
+            if (_inputPtr > 0 && _bufferPool != null) {
+                _byteCount += _inputPtr;
                 for (int i = 0; i < available; ++i) {
                     _inputBuffer[i] = _inputBuffer[_inputPtr+i];
                 }
@@ -462,6 +570,7 @@ public final class UTF8Reader
 		_inputEnd = available;
             }
         } else {
+            _byteCount += _inputEnd;
             /* Ok; here we can actually reasonably expect an EOF,
              * so let's do a separate read right away:
              */
@@ -0,0 +1,123 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.IOContext;
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class HoconBufferPoolTest {
+
+	private static HoconBufferPool[] pools() {
+		return new HoconBufferPool[] { HoconBufferPool.ThreadLocalPool.INSTANCE, new HoconBufferPool.SharedPool(4),
+				new HoconBufferPool.StripedPool(3, 2) };
+	}
+
+	@Test
+	public void testRecycling() {
+		for (HoconBufferPool pool : pools()) {
+			String label = pool.getClass().getSimpleName();
+			byte[] bytes = pool.allocByteBuffer(100);
+			Assert.assertTrue(label, bytes.length >= 100);
+			pool.releaseByteBuffer(bytes);
+			Assert.assertSame(label, bytes, pool.allocByteBuffer(50));
+			pool.releaseByteBuffer(bytes);
+			byte[] larger = pool.allocByteBuffer(200);
+			Assert.assertTrue(label, larger.length >= 200);
+
+			char[] chars = pool.allocCharBuffer(10);
+			Assert.assertTrue(label, chars.length >= 10);
+			pool.releaseCharBuffer(chars);
+			Assert.assertSame(label, chars, pool.allocCharBuffer(10));
+		}
+	}
+
+	@Test
+	public void testSharedPoolBounded() {
+		HoconBufferPool.SharedPool pool = new HoconBufferPool.SharedPool(2);
+		Assert.assertEquals(2, pool.capacity());
+		byte[] a = new byte[10], b = new byte[10], c = new byte[10];
+		pool.releaseByteBuffer(a);
+		pool.releaseByteBuffer(b);
+		pool.releaseByteBuffer(c);
+		List<byte[]> taken = new ArrayList<byte[]>();
+		taken.add(pool.allocByteBuffer(10));
+		taken.add(pool.allocByteBuffer(10));
+		Assert.assertTrue(taken.contains(a));
+		Assert.assertTrue(taken.contains(b));
+		Assert.assertNotSame(c, pool.allocByteBuffer(10));
+		try {
+			new HoconBufferPool.SharedPool(0);
+			Assert.fail("expected capacity to be checked");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testConcurrentUse() throws InterruptedException {
+		for (final HoconBufferPool pool : pools()) {
+			final AtomicReference<String> failure = new AtomicReference<String>();
+			List<Thread> threads = new ArrayList<Thread>();
+			for (int t = 0; t < 16; ++t) {
+				final byte marker = (byte) (t + 1);
+				Thread thread = new Thread() {
+					@Override
+					public void run() {
+						for (int i = 0; i < 500 && failure.get() == null; ++i) {
+							byte[] buf = pool.allocByteBuffer(64);
+							buf[0] = marker;
+							Thread.yield();
+							if (buf[0] != marker) {
+								failure.set("buffer held by two threads at once");
+							}
+							pool.releaseByteBuffer(buf);
+						}
+					}
+				};
+				threads.add(thread);
+				thread.start();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+			Assert.assertNull(pool.getClass().getSimpleName(), failure.get());
+		}
+	}
+
+	@Test
+	public void testFactoryAndParser() throws IOException {
+		HoconBufferPool.SharedPool pool = new HoconBufferPool.SharedPool();
+		HoconFactory factory = new HoconFactory().setBufferPool(pool);
+		Assert.assertSame(pool, factory.getBufferPool());
+		Assert.assertSame(pool, factory.copy().getBufferPool());
+		ObjectMapper mapper = new ObjectMapper(factory);
+		for (int i = 0; i < 3; ++i) {
+			JsonNode node = mapper.readTree(new ByteArrayInputStream("a = \"é\", b = [1, 2]".getBytes(StandardCharsets.UTF_8)));
+			Assert.assertEquals("é", node.path("a").asText());
+		}
+		factory.setBufferPool(null);
+		Assert.assertSame(HoconBufferPool.ThreadLocalPool.INSTANCE, factory.getBufferPool());
+
+		JsonParser p = new HoconStreamingParser(new IOContext(new BufferRecycler(), null, false), 0, null,
+				new StringReader("a { b = 1 }"), false, pool);
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		Assert.assertEquals(JsonToken.FIELD_NAME, p.nextToken());
+		Assert.assertEquals("a", p.getCurrentName());
+		p.close();
+		// the parser's buffer went back to the pool
+		char[] chars = pool.allocCharBuffer(1);
+		Assert.assertTrue(chars.length > 1);
+	}
+}
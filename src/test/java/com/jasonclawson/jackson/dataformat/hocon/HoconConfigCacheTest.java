@@ -0,0 +1,113 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigSyntax;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+public class HoconConfigCacheTest {
+
+	private static File write(File f, String content) throws IOException {
+		OutputStream out = new FileOutputStream(f);
+		try {
+			out.write(content.getBytes(StandardCharsets.UTF_8));
+		} finally {
+			out.close();
+		}
+		return f;
+	}
+
+	private static File temp(String content) throws IOException {
+		File f = File.createTempFile("cache", ".conf");
+		f.deleteOnExit();
+		return write(f, content);
+	}
+
+	@Test
+	public void testHitsAndChanges() throws IOException {
+		HoconConfigCache cache = new HoconConfigCache();
+		File f = temp("a = 1\nb = ${a}");
+		ConfigObject first = cache.get(f);
+		Assert.assertSame(first, cache.get(f));
+		Assert.assertSame(first, cache.get(f.toURI().toURL()));
+		Assert.assertEquals(1, cache.size());
+
+		write(f, "a = 22\nb = ${a}");
+		f.setLastModified(f.lastModified() + 2000);
+		ConfigObject second = cache.get(f);
+		Assert.assertNotSame(first, second);
+		Assert.assertEquals(22, second.toConfig().getInt("b"));
+		// entry of the old version is dropped
+		Assert.assertEquals(1, cache.size());
+		Assert.assertEquals(f.length(), cache.weight());
+	}
+
+	@Test
+	public void testEviction() throws IOException {
+		File a = temp("a = 1");
+		File b = temp("b = 2");
+		File c = temp("c = 3");
+		HoconConfigCache cache = new HoconConfigCache(a.length() + b.length());
+		cache.get(a);
+		cache.get(b);
+		cache.get(a); // b is now least recently used
+		cache.get(c);
+		Assert.assertEquals(2, cache.size());
+		ConfigObject cached = cache.get(a);
+		Assert.assertSame(cached, cache.get(a));
+		cache.clear();
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(0, cache.weight());
+	}
+
+	@Test
+	public void testFactory() throws IOException {
+		File f = temp("x { y = [1, 2] }");
+		ObjectMapper mapper = new ObjectMapper(new HoconFactory().setConfigCache(new HoconConfigCache()));
+		JsonNode first = mapper.readTree(f);
+		JsonNode second = mapper.readTree(f.toURI().toURL());
+		Assert.assertEquals(first, second);
+		Assert.assertEquals(2, second.get("x").get("y").get(1).asInt());
+		Assert.assertEquals(1, ((HoconFactory) mapper.getFactory()).getConfigCache().size());
+	}
+
+	@Test
+	public void testParseOptions() throws IOException {
+		HoconConfigCache cache = new HoconConfigCache();
+		File f = temp("a = [1]");
+		ConfigParseOptions conf = ConfigParseOptions.defaults().setSyntax(ConfigSyntax.CONF);
+		ConfigParseOptions properties = ConfigParseOptions.defaults().setSyntax(ConfigSyntax.PROPERTIES);
+		ConfigObject list = cache.get(f, conf, null);
+		ConfigObject string = cache.get(f, properties, null);
+		Assert.assertEquals(1, list.toConfig().getIntList("a").get(0).intValue());
+		Assert.assertEquals("[1]", string.toConfig().getString("a"));
+		Assert.assertSame(list, cache.get(f, ConfigParseOptions.defaults().setSyntax(ConfigSyntax.CONF), null));
+		Assert.assertSame(string, cache.get(f.toURI().toURL(), properties, null));
+		Assert.assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testSharedByFactoriesWithIncludeCaches() throws IOException {
+		File included = temp("x = 1");
+		File f = temp("include file(\"" + included.getPath().replace("\\", "/") + "\")\ny = ${x}");
+		HoconConfigCache cache = new HoconConfigCache();
+		HoconIncludeCache includes = new HoconIncludeCache();
+		ObjectMapper first = new ObjectMapper(new HoconFactory().setConfigCache(cache).setIncludeCache(includes));
+		ObjectMapper second = new ObjectMapper(new HoconFactory().setConfigCache(cache).setIncludeCache(new HoconIncludeCache()));
+		ObjectMapper same = new ObjectMapper(new HoconFactory().setConfigCache(cache).setIncludeCache(includes));
+		Assert.assertEquals(1, first.readTree(f).get("y").asInt());
+		Assert.assertEquals(1, second.readTree(f).get("y").asInt());
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(1, same.readTree(f).get("y").asInt());
+		Assert.assertEquals(2, cache.size());
+	}
+}
@@ -0,0 +1,76 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class HoconConfigMergerTest {
+
+	private static File write(File dir, String name, String content) throws IOException {
+		File f = new File(dir, name);
+		f.deleteOnExit();
+		OutputStream out = new FileOutputStream(f);
+		try {
+			out.write(content.getBytes(StandardCharsets.UTF_8));
+		} finally {
+			out.close();
+		}
+		return f;
+	}
+
+	private static File tempDir() throws IOException {
+		File dir = File.createTempFile("merge", "");
+		dir.delete();
+		dir.mkdir();
+		dir.deleteOnExit();
+		return dir;
+	}
+
+	@Test
+	public void testMergeList() throws IOException {
+		File dir = tempDir();
+		List<Object> sources = new ArrayList<Object>();
+		for (int i = 0; i < 20; ++i) {
+			// every file sets 'winner', only the first one should count
+			sources.add(write(dir, "f" + i + ".conf", "winner = " + i + "\nvalues.v" + i + " = " + i));
+		}
+		sources.add(write(dir, "last.conf", "total = ${values.v19}\nwinner = last").toPath());
+
+		ObjectMapper mapper = new ObjectMapper(new HoconFactory().setMergePool(new ForkJoinPool(4)));
+		HoconFactory factory = (HoconFactory) mapper.getFactory();
+		JsonNode node = mapper.readTree(factory.createMergedParser(sources));
+		Assert.assertEquals(0, node.get("winner").asInt());
+		Assert.assertEquals(20, node.get("values").size());
+		Assert.assertEquals(19, node.get("total").asInt());
+	}
+
+	@Test
+	public void testMergeDirectory() throws IOException {
+		File dir = tempDir();
+		write(dir, "10-base.conf", "a = base\nb = base");
+		write(dir, "20-more.json", "{ \"b\" : \"more\", \"c\" : \"more\" }");
+		write(dir, "ignored.txt", "a = ignored");
+		ObjectMapper mapper = new ObjectMapper(new HoconFactory());
+		JsonNode node = mapper.readTree(((HoconFactory) mapper.getFactory()).createMergedParser(dir));
+		// later files override earlier ones
+		Assert.assertEquals("base", node.get("a").asText());
+		Assert.assertEquals("more", node.get("b").asText());
+		Assert.assertEquals("more", node.get("c").asText());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedSource() throws IOException {
+		new HoconFactory().createMergedParser(Arrays.asList("not a file"));
+	}
+}
@@ -0,0 +1,105 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class HoconDocumentTest {
+
+	public static class Db {
+		public String url;
+		public int poolSize;
+	}
+
+	private static final ConfigObject ROOT = ConfigFactory.parseString(
+			"services.db { url = \"jdbc:x\", poolSize = 4 }\n"
+			+ "services.hosts = [ a, { name = b, port = 80 } ]\n"
+			+ "indexed.2 = two\nindexed.0 = zero\nindexed.1 = one\n"
+			+ "copy = ${services.db}").resolve().root();
+
+	@Test
+	public void testSameAsTree() throws IOException {
+		ObjectMapper mapper = new ObjectMapper(new HoconFactory());
+		HoconDocument document = new HoconDocument(ROOT);
+		JsonNode expected = mapper.readTree(new HoconTreeTraversingParser(ROOT, mapper));
+		Assert.assertEquals(expected, mapper.readTree(document.createParser(mapper)));
+		Assert.assertEquals("two", expected.path("indexed").path(2).asText());
+
+		Assert.assertEquals(4, mapper.readValue(document.createParser(mapper, "services.db"), Db.class).poolSize);
+		JsonNode filtered = mapper.readTree(document.createParser(mapper, HoconPathFilter.including("indexed.1")));
+		Assert.assertEquals(mapper.readTree("{\"indexed\":[\"one\"]}"), filtered);
+		Assert.assertSame(ROOT, document.createParser(mapper).getConfigObject());
+	}
+
+	@Test
+	public void testLocationsReused() throws IOException {
+		ObjectMapper mapper = new ObjectMapper(new HoconFactory());
+		HoconDocument document = new HoconDocument(ROOT);
+		HoconTreeTraversingParser p = document.createParser(mapper);
+		List<JsonLocation> first = new ArrayList<JsonLocation>();
+		while (p.nextToken() != null) {
+			first.add(p.getTokenLocation());
+		}
+		p.reset(document);
+		for (int i = 0; p.nextToken() != null; ++i) {
+			Assert.assertSame(first.get(i), p.getTokenLocation());
+		}
+		// url and poolSize are on the first line
+		Assert.assertSame(locationOf(document, mapper, "url"), locationOf(document, mapper, "poolSize"));
+		Assert.assertEquals(1, locationOf(document, mapper, "poolSize").getLineNr());
+	}
+
+	private static JsonLocation locationOf(HoconDocument document, ObjectMapper mapper, String field)
+			throws IOException {
+		HoconTreeTraversingParser p = document.createParser(mapper);
+		while (p.nextToken() != null) {
+			if (p.getCurrentToken() == JsonToken.FIELD_NAME && field.equals(p.getCurrentName())) {
+				p.nextToken();
+				return p.getTokenLocation();
+			}
+		}
+		throw new AssertionError("no field " + field);
+	}
+
+	@Test
+	public void testSharedBetweenThreads() throws Exception {
+		final ObjectMapper mapper = new ObjectMapper(new HoconFactory());
+		final HoconDocument document = new HoconDocument(ROOT);
+		final JsonNode expected = mapper.readTree(new HoconTreeTraversingParser(ROOT, mapper));
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for (int i = 0; i < 16; ++i) {
+				results.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() throws Exception {
+						for (int j = 0; j < 200; ++j) {
+							if (!expected.equals(mapper.readTree(document.createParser(mapper)))) {
+								return false;
+							}
+						}
+						return true;
+					}
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				Assert.assertTrue(result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class HoconFileInputTest {
+
+	private static Path write(Path p, String content) throws IOException {
+		Files.createDirectories(p.getParent());
+		Files.write(p, content.getBytes(StandardCharsets.UTF_8));
+		p.toFile().deleteOnExit();
+		return p;
+	}
+
+	private static JsonNode tree(ObjectMapper mapper, JsonParser p) throws IOException {
+		try {
+			return mapper.readTree(p);
+		} finally {
+			p.close();
+		}
+	}
+
+	@Test
+	public void testRelativeIncludes() throws IOException {
+		Path dir = Files.createTempDirectory("hocon");
+		dir.toFile().deleteOnExit();
+		Path main = write(dir.resolve("main.conf"), "include \"sub/child\"\na = ${b}\nfrom-classpath { include \"test-classpath-only\" }");
+		write(dir.resolve("sub/child.conf"), "include \"leaf.conf\"\nb = child");
+		write(dir.resolve("sub/leaf.conf"), "c = leaf");
+
+		HoconFactory factory = new HoconFactory();
+		ObjectMapper mapper = new ObjectMapper(factory);
+		JsonParser p = factory.createParser(main);
+		Assert.assertTrue(p instanceof HoconTreeTraversingParser);
+		JsonNode node = tree(mapper, p);
+		Assert.assertEquals("child", node.path("a").asText());
+		Assert.assertEquals("leaf", node.path("c").asText());
+		Assert.assertEquals(mapper.readTree(main.toFile()), node);
+
+		factory.enable(HoconParserFeature.READ_FILES_THROUGH_CHANNEL);
+		Assert.assertEquals(node, mapper.readTree(main.toFile()));
+		Assert.assertEquals(node.path("c"), tree(mapper, factory.createParser(main.toFile(), "c")));
+	}
+
+	@Test
+	public void testStreamingAndSyntax() throws IOException {
+		Path dir = Files.createTempDirectory("hocon");
+		dir.toFile().deleteOnExit();
+		HoconFactory factory = new HoconFactory().enable(HoconParserFeature.PREFER_STREAMING);
+		ObjectMapper mapper = new ObjectMapper(factory);
+
+		Path plain = write(dir.resolve("plain.conf"), "﻿a { b = [1, 2] }, s = \"é\"");
+		JsonParser p = factory.createParser(plain);
+		Assert.assertTrue(p instanceof HoconStreamingParser);
+		Assert.assertEquals(mapper.readTree(plain.toFile()), tree(mapper, p));
+
+		Path props = write(dir.resolve("x.properties"), "a.b=1\nc=two");
+		JsonNode node = tree(mapper, factory.createParser(props));
+		Assert.assertEquals("1", node.path("a").path("b").asText());
+		Assert.assertEquals(mapper.readTree(props.toFile()), node);
+	}
+
+	@Test
+	public void testMapped() throws IOException {
+		// long values: resolving a document with many keys is slow
+		StringBuilder pad = new StringBuilder();
+		for (int j = 0; j < 500; ++j) {
+			pad.append('x');
+		}
+		StringBuilder sb = new StringBuilder();
+		int i = 0;
+		while (sb.length() < HoconFileInput.MAP_THRESHOLD + 100) {
+			sb.append("k").append(i).append(" = \"värde ").append(i).append(pad).append("\"\n");
+			++i;
+		}
+		sb.append("last = ${k0}\n");
+		File f = File.createTempFile("large", ".conf");
+		f.deleteOnExit();
+		write(f.toPath(), sb.toString());
+
+		HoconMetrics metrics = new HoconMetrics();
+		HoconFactory factory = new HoconFactory().setParseListener(metrics);
+		ObjectMapper mapper = new ObjectMapper(factory);
+		JsonNode node = tree(mapper, factory.createParser(f.toPath()));
+		Assert.assertEquals(i + 1, node.size());
+		Assert.assertEquals("värde 0" + pad, node.path("last").asText());
+		Assert.assertEquals("värde " + (i - 1) + pad, node.path("k" + (i - 1)).asText());
+		Assert.assertEquals(f.length(), metrics.getByteCount());
+		Assert.assertEquals(sb.length(), metrics.getCharCount());
+	}
+}
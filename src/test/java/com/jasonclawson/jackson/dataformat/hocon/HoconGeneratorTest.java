@@ -0,0 +1,140 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+
+public class HoconGeneratorTest {
+
+	private static final String JSON = "{\"name\":\"x \\\"quoted\\\"\\n\",\"a\":{\"b\":{\"c\":1}},"
+			+ "\"d\":{\"e\":{\"f\":true,\"g\":null}},\"h\":{\"i\":{\"j\":[1,2.5,{\"k\":{\"l\":\"m\"}}]}},"
+			+ "\"empty\":{},\"emptyList\":[],\"deep\":{\"x\":{}},\"needs quotes\":\"v\",\"dotted.key\":-3,"
+			+ "\"true\":false,\"long\":{\"s\":\"" + repeat('s', 300) + "\"},\"1\":{\"2\":3}}";
+
+	private static String repeat(char c, int count) {
+		StringBuilder sb = new StringBuilder(count);
+		for (int i = 0; i < count; ++i) {
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+
+	private static void assertRoundTrip(HoconFactory factory) throws IOException {
+		JsonNode expected = new ObjectMapper().readTree(JSON);
+		String hocon = new ObjectMapper(factory).writeValueAsString(expected);
+		// read back through Typesafe config
+		JsonNode actual = new ObjectMapper(new HoconFactory().disable(HoconParserFeature.PREFER_STREAMING))
+				.readTree(hocon);
+		Assert.assertEquals(hocon, expected, actual);
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		for (int mask = 0; mask < 8; ++mask) {
+			HoconFactory factory = new HoconFactory()
+					.configure(HoconGenerator.Feature.UNQUOTED_KEYS, (mask & 1) != 0)
+					.configure(HoconGenerator.Feature.COMPACT_PATHS, (mask & 2) != 0)
+					.configure(HoconGenerator.Feature.INDENT_OUTPUT, (mask & 4) != 0);
+			assertRoundTrip(factory);
+		}
+	}
+
+	@Test
+	public void testIndentedOutput() throws IOException {
+		StringWriter w = new StringWriter();
+		JsonGenerator gen = new HoconFactory().createGenerator(w);
+		gen.writeStartObject();
+		gen.writeStringField("a", "b");
+		gen.writeObjectFieldStart("c");
+		gen.writeArrayFieldStart("list");
+		gen.writeNumber(1);
+		gen.writeNumber(2);
+		gen.writeEndArray();
+		gen.writeEndObject();
+		gen.writeEndObject();
+		gen.close();
+		Assert.assertEquals("{\n    a = \"b\"\n    c {\n        list = [\n            1,\n            2\n        ]\n    }\n}",
+				w.toString());
+	}
+
+	@Test
+	public void testCompactOutput() throws IOException {
+		HoconFactory factory = new HoconFactory()
+				.enable(HoconGenerator.Feature.COMPACT_PATHS)
+				.disable(HoconGenerator.Feature.INDENT_OUTPUT);
+		ObjectMapper mapper = new ObjectMapper(factory);
+		Assert.assertEquals("{a.b.c=1,d.e{f=true,g=null},\"x.y\"{z=[]}}",
+				mapper.writeValueAsString(new ObjectMapper().readTree(
+						"{\"a\":{\"b\":{\"c\":1}},\"d\":{\"e\":{\"f\":true,\"g\":null}},\"x.y\":{\"z\":[]}}")));
+	}
+
+	@Test
+	public void testEmptyObjectInChain() throws IOException {
+		HoconFactory factory = new HoconFactory()
+				.enable(HoconGenerator.Feature.COMPACT_PATHS)
+				.disable(HoconGenerator.Feature.INDENT_OUTPUT);
+		ObjectMapper mapper = new ObjectMapper(factory);
+		Assert.assertEquals("{a{b={},c=1},d.e={},f.g{h={},i={}}}",
+				mapper.writeValueAsString(new ObjectMapper().readTree(
+						"{\"a\":{\"b\":{},\"c\":1},\"d\":{\"e\":{}},\"f\":{\"g\":{\"h\":{},\"i\":{}}}}")));
+		// fields after a chain written as a path are written with the path
+		Assert.assertEquals("{c.d{x=1,y=2},c.e=3,c.f.g=4}",
+				mapper.writeValueAsString(new ObjectMapper().readTree(
+						"{\"c\":{\"d\":{\"x\":1,\"y\":2},\"e\":3,\"f\":{\"g\":4}}}")));
+	}
+
+	@Test
+	public void testRandomDocuments() throws IOException {
+		Random random = new Random(42);
+		ObjectMapper json = new ObjectMapper();
+		ObjectMapper reader = new ObjectMapper(new HoconFactory());
+		for (int mask = 0; mask < 8; ++mask) {
+			ObjectMapper writer = new ObjectMapper(new HoconFactory()
+					.configure(HoconGenerator.Feature.UNQUOTED_KEYS, (mask & 1) != 0)
+					.configure(HoconGenerator.Feature.COMPACT_PATHS, (mask & 2) != 0)
+					.configure(HoconGenerator.Feature.INDENT_OUTPUT, (mask & 4) != 0));
+			for (int i = 0; i < 200; ++i) {
+				ObjectNode expected = json.createObjectNode();
+				fill(expected, random, 4);
+				String hocon = writer.writeValueAsString(expected);
+				Assert.assertEquals(hocon, expected, reader.readTree(hocon));
+			}
+		}
+	}
+
+	/**
+	 * Fills the object with a few fields, mostly chains of small objects
+	 */
+	private static void fill(ObjectNode node, Random random, int depth) {
+		int fields = random.nextInt(3);
+		for (int i = 0; i < fields; ++i) {
+			String key = String.valueOf((char) ('a' + random.nextInt(4)));
+			if (depth > 0 && random.nextInt(3) > 0) {
+				fill(node.putObject(key), random, depth - 1);
+			} else if (random.nextBoolean()) {
+				node.put(key, random.nextInt(10));
+			} else {
+				node.putArray(key).add("v");
+			}
+		}
+	}
+
+	@Test
+	public void testOutputStream() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		JsonGenerator gen = new HoconFactory().disable(HoconGenerator.Feature.INDENT_OUTPUT).createGenerator(out);
+		gen.writeStartObject();
+		gen.writeStringField("k\u00e9y", "v\u00e4l\u0001");
+		gen.writeEndObject();
+		gen.close();
+		Assert.assertEquals("{\"k\u00e9y\"=\"v\u00e4l\\u0001\"}", out.toString("UTF-8"));
+	}
+}
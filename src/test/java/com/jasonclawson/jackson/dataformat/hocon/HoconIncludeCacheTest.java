@@ -0,0 +1,129 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+public class HoconIncludeCacheTest {
+
+	private static File write(File f, String content) throws IOException {
+		Files.write(f.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		f.deleteOnExit();
+		return f;
+	}
+
+	private static File tempDir() throws IOException {
+		File dir = Files.createTempDirectory("includes").toFile();
+		dir.deleteOnExit();
+		return dir;
+	}
+
+	@Test
+	public void testSharedInclude() throws IOException {
+		File dir = tempDir();
+		File defaults = write(new File(dir, "defaults.conf"), "include \"nested\"\nbase = from-defaults");
+		write(new File(dir, "nested.conf"), "deep = from-nested");
+		File a = write(new File(dir, "a.conf"), "include \"defaults\"\na = ${base}");
+		File b = write(new File(dir, "b.conf"), "include \"defaults.conf\"\nb = ${deep}");
+
+		HoconIncludeCache cache = new HoconIncludeCache();
+		HoconFactory factory = new HoconFactory().setIncludeCache(cache);
+		Assert.assertSame(cache, factory.copy().getIncludeCache());
+		ObjectMapper mapper = new ObjectMapper(factory);
+		JsonNode nodeA = mapper.readTree(a);
+		Assert.assertEquals("from-defaults", nodeA.path("a").asText());
+		Assert.assertEquals("from-nested", nodeA.path("deep").asText());
+		Assert.assertEquals(2, cache.missCount());
+		Assert.assertEquals(2, cache.size());
+
+		Assert.assertEquals("from-nested", mapper.readTree(b).path("b").asText());
+		Assert.assertEquals(nodeA, mapper.readTree(a));
+		Assert.assertEquals(2, cache.missCount());
+		Assert.assertEquals(2, cache.hitCount());
+
+		// a changed include is parsed again
+		write(defaults, "include \"nested\"\nbase = changed");
+		defaults.setLastModified(defaults.lastModified() + 2000L);
+		Assert.assertEquals("changed", mapper.readTree(a).path("a").asText());
+		Assert.assertEquals(3, cache.missCount());
+
+		// same for files read through a channel, and merged files
+		factory.enable(HoconParserFeature.READ_FILES_THROUGH_CHANNEL);
+		Assert.assertEquals("changed", mapper.readTree(a).path("a").asText());
+		JsonNode merged = mapper.readTree(factory.createMergedParser(Arrays.asList(a, b)));
+		Assert.assertEquals("changed", merged.path("a").asText());
+		Assert.assertEquals(3, cache.missCount());
+		Assert.assertEquals(6, cache.hitCount());
+	}
+
+	@Test
+	public void testChangedNestedInclude() throws IOException {
+		File dir = tempDir();
+		write(new File(dir, "defaults.conf"), "include \"nested\"\nbase = from-defaults");
+		File nested = write(new File(dir, "nested.conf"), "deep = from-nested");
+		File a = write(new File(dir, "a.conf"), "include \"defaults\"\na = ${deep}");
+
+		HoconIncludeCache cache = new HoconIncludeCache();
+		ObjectMapper mapper = new ObjectMapper(new HoconFactory().setIncludeCache(cache));
+		Assert.assertEquals("from-nested", mapper.readTree(a).path("a").asText());
+		Assert.assertEquals("from-nested", mapper.readTree(a).path("a").asText());
+		Assert.assertEquals(2, cache.missCount());
+
+		// only the file nested in the cached include changed
+		write(nested, "deep = changed");
+		nested.setLastModified(nested.lastModified() + 2000L);
+		Assert.assertEquals("changed", mapper.readTree(a).path("a").asText());
+		Assert.assertEquals(4, cache.missCount());
+		Assert.assertEquals("changed", mapper.readTree(a).path("a").asText());
+		Assert.assertEquals(4, cache.missCount());
+	}
+
+	@Test
+	public void testIncludeKinds() throws IOException {
+		File dir = tempDir();
+		File shared = write(new File(dir, "shared.conf"), "x = 1");
+		File doc = write(new File(dir, "doc.conf"), "f { include file(\"" + shared.getAbsolutePath() + "\") }\n"
+				+ "u { include url(\"" + shared.toURI() + "\") }\n"
+				+ "c { include classpath(\"com/jasonclawson/jackson/dataformat/hocon/test-substitution.conf\") }");
+
+		HoconIncludeCache cache = new HoconIncludeCache();
+		ObjectMapper mapper = new ObjectMapper(new HoconFactory().setIncludeCache(cache));
+		JsonNode node = mapper.readTree(doc);
+		Assert.assertEquals(1, node.path("f").path("x").asInt());
+		Assert.assertEquals(1, node.path("u").path("x").asInt());
+		Assert.assertEquals("This value  commes from foo", node.path("c").path("bar").asText());
+		// the file and the URL include the same file
+		Assert.assertEquals(2, cache.missCount());
+		Assert.assertEquals(1, cache.hitCount());
+		Assert.assertEquals(node, mapper.readTree(doc));
+		Assert.assertEquals(2, cache.missCount());
+		Assert.assertEquals(4, cache.hitCount());
+		// unchanged result without the cache
+		Assert.assertEquals(new ObjectMapper(new HoconFactory()).readTree(doc), node);
+	}
+
+	@Test
+	public void testBounded() throws IOException {
+		File dir = tempDir();
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 10; ++i) {
+			File part = write(new File(dir, "part" + i + ".conf"), "p" + i + " = \"0123456789\"");
+			sb.append("include file(\"").append(part.getAbsolutePath()).append("\")\n");
+		}
+		File doc = write(new File(dir, "doc.conf"), sb.toString());
+		HoconIncludeCache cache = new HoconIncludeCache(50);
+		JsonNode node = new ObjectMapper(new HoconFactory().setIncludeCache(cache)).readTree(doc);
+		Assert.assertEquals(10, node.size());
+		Assert.assertTrue(cache.weight() <= 50);
+		Assert.assertTrue(cache.size() < 10);
+		cache.clear();
+		Assert.assertEquals(0, cache.size());
+	}
+}
@@ -0,0 +1,140 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HoconMetricsTest {
+
+	private static class Recorder implements HoconParseListener {
+		final List<HoconParseEvent> events = new ArrayList<HoconParseEvent>();
+
+		@Override
+		public void parsed(HoconParseEvent event) {
+			events.add(event);
+		}
+	}
+
+	private static File temp(String content) throws IOException {
+		File f = File.createTempFile("metrics", ".conf");
+		f.deleteOnExit();
+		OutputStream out = new FileOutputStream(f);
+		try {
+			out.write(content.getBytes(StandardCharsets.UTF_8));
+		} finally {
+			out.close();
+		}
+		return f;
+	}
+
+	@Test
+	public void testEvents() throws IOException {
+		Recorder recorder = new Recorder();
+		ObjectMapper mapper = new ObjectMapper(new HoconFactory()
+				.enable(HoconParserFeature.PREFER_STREAMING).setParseListener(recorder));
+
+		File f = temp("a { b = [1, 2], c = ${a.b} }");
+		JsonNode node = mapper.readTree(f);
+		Assert.assertEquals(2, node.path("a").path("c").size());
+		Assert.assertEquals(1, recorder.events.size());
+		HoconParseEvent file = recorder.events.get(0);
+		Assert.assertFalse(file.isStreaming());
+		Assert.assertEquals(HoconParseEvent.CacheResult.NONE, file.getCacheResult());
+		Assert.assertEquals(f.length(), file.getByteCount());
+		Assert.assertTrue(file.getParseNanos() >= 0L);
+		Assert.assertTrue(file.getResolveNanos() >= 0L);
+		Assert.assertEquals(-1L, file.getReadNanos());
+		// { a { b [ 1 2 ] c [ 1 2 ] } }
+		Assert.assertEquals(15, file.getTokenCount());
+		Assert.assertEquals(8, file.getNodeCount());
+		Assert.assertEquals(3, file.getMaxDepth());
+
+		mapper.readTree(new StringReader("x = 1, y = \"é\""));
+		HoconParseEvent streamed = recorder.events.get(1);
+		Assert.assertTrue(streamed.isStreaming());
+		Assert.assertEquals(-1L, streamed.getResolveNanos());
+		Assert.assertEquals(14, streamed.getCharCount());
+		Assert.assertEquals(6, streamed.getTokenCount());
+
+		mapper.readTree("x = 1, y = ${x}".getBytes(StandardCharsets.UTF_8));
+		HoconParseEvent bytes = recorder.events.get(2);
+		Assert.assertFalse(bytes.isStreaming());
+		Assert.assertEquals(15, bytes.getByteCount());
+		Assert.assertTrue(bytes.getResolveNanos() >= 0L);
+		Assert.assertEquals(3, recorder.events.size());
+	}
+
+	@Test
+	public void testSkipAndClose() throws IOException {
+		Recorder recorder = new Recorder();
+		HoconFactory factory = new HoconFactory().setParseListener(recorder);
+		JsonParser p = factory.createParser(temp("a { b { c = 1 } }"));
+		p.nextToken();
+		p.nextToken();
+		Assert.assertEquals("a", p.getCurrentName());
+		p.nextToken();
+		p.skipChildren();
+		Assert.assertTrue(recorder.events.isEmpty());
+		p.close();
+		p.close();
+		Assert.assertEquals(1, recorder.events.size());
+		HoconParseEvent event = recorder.events.get(0);
+		Assert.assertEquals(3, event.getTokenCount());
+		Assert.assertEquals(2, event.getMaxDepth());
+		Assert.assertTrue(event.getTraversalNanos() >= 0L);
+	}
+
+	@Test
+	public void testAggregation() throws IOException {
+		HoconMetrics metrics = new HoconMetrics();
+		ObjectMapper mapper = new ObjectMapper(new HoconFactory().enable(HoconParserFeature.PREFER_STREAMING)
+				.setParseListener(metrics).setConfigCache(new HoconConfigCache()));
+		File f = temp("a = 1, b = [true, false]");
+		mapper.readTree(f);
+		mapper.readTree(f);
+		mapper.readTree(f.toURI().toURL());
+		mapper.readTree(new StringReader("c = 3"));
+		Assert.assertEquals(4, metrics.getParserCount());
+		Assert.assertEquals(1, metrics.getStreamedCount());
+		Assert.assertEquals(2, metrics.getCacheHitCount());
+		Assert.assertEquals(1, metrics.getCacheMissCount());
+		Assert.assertEquals(3 * 9 + 4, metrics.getTokenCount());
+		// only the miss was parsed, the string was streamed
+		Assert.assertEquals(1, metrics.getParseNanos().getCount());
+		Assert.assertEquals(1, metrics.getResolveNanos().getCount());
+		Assert.assertEquals(4, metrics.getTokenCounts().getCount());
+		Assert.assertEquals(9, metrics.getTokenCounts().getMax());
+		Assert.assertEquals(9, metrics.getTokenCounts().getPercentile(0.99));
+		Assert.assertEquals(7, metrics.getTokenCounts().getPercentile(0.25));
+		Assert.assertEquals(2, metrics.getMaxDepths().getMax());
+	}
+
+	@Test
+	public void testHistogram() {
+		HoconMetrics.Histogram h = new HoconMetrics.Histogram();
+		Assert.assertEquals(0, h.getPercentile(0.5));
+		h.record(-1);
+		Assert.assertEquals(0, h.getCount());
+		for (int i = 1; i <= 100; ++i) {
+			h.record(i);
+		}
+		Assert.assertEquals(100, h.getCount());
+		Assert.assertEquals(5050, h.getSum());
+		Assert.assertEquals(50.5, h.getMean(), 0.0);
+		Assert.assertEquals(0, HoconMetrics.Histogram.bucketOf(1));
+		Assert.assertEquals(6, HoconMetrics.Histogram.bucketOf(100));
+		Assert.assertEquals(63, h.getPercentile(0.5));
+		Assert.assertEquals(100, h.getPercentile(0.99));
+	}
+}
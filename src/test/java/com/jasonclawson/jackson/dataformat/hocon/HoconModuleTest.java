@@ -0,0 +1,131 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+public class HoconModuleTest {
+
+	public static class Server {
+		public String host;
+		public int port;
+		public long timeout;
+		public double ratio;
+		public Boolean secure;
+		@JsonProperty("max-connections")
+		public int maxConnections;
+		public List<String> tags;
+		public Map<String, Integer> limits;
+		public Server backup;
+		private String name;
+
+		public void setName(String name) {
+			this.name = "set:" + name;
+		}
+	}
+
+	@JsonIgnoreProperties(value = { "legacy" })
+	public static class Strict {
+		public String a;
+	}
+
+	public static class Credentials {
+		public String user;
+		public String password;
+		public Credentials admin;
+	}
+
+	private static final String CONF = "server {\n"
+			+ "  host = example.com, port = 8080, timeout = 5000000000, ratio = 1, secure = true\n"
+			+ "  max-connections = 16, tags.0 = x, tags.1 = y, limits { a = 1 }, name = main\n"
+			+ "  backup { host = \"backup.example.com\", port = ${server.port} }\n"
+			+ "}";
+
+	private static ObjectMapper mapper() {
+		return new ObjectMapper(new HoconFactory()).registerModule(new HoconModule());
+	}
+
+	private static HoconTreeTraversingParser parser(ObjectMapper mapper, String conf, String path) {
+		return new HoconTreeTraversingParser(ConfigFactory.parseString(conf).resolve().root(), mapper, path);
+	}
+
+	@Test
+	public void testBind() throws IOException {
+		ObjectMapper mapper = mapper();
+		Server s = mapper.readValue(parser(mapper, CONF, "server"), Server.class);
+		Assert.assertEquals("example.com", s.host);
+		Assert.assertEquals(8080, s.port);
+		Assert.assertEquals(5000000000L, s.timeout);
+		Assert.assertEquals(1.0, s.ratio, 0.0);
+		Assert.assertEquals(Boolean.TRUE, s.secure);
+		Assert.assertEquals(16, s.maxConnections);
+		Assert.assertEquals(2, s.tags.size());
+		Assert.assertEquals("y", s.tags.get(1));
+		Assert.assertEquals(Integer.valueOf(1), s.limits.get("a"));
+		Assert.assertEquals("set:main", s.name);
+		Assert.assertEquals("backup.example.com", s.backup.host);
+		Assert.assertEquals(8080, s.backup.port);
+	}
+
+	@Test
+	public void testSameAsWithoutModule() throws IOException {
+		ObjectMapper plain = new ObjectMapper(new HoconFactory());
+		ObjectMapper direct = mapper();
+		Assert.assertEquals(plain.valueToTree(plain.readValue(parser(plain, CONF, "server"), Server.class)),
+				direct.valueToTree(direct.readValue(parser(direct, CONF, "server"), Server.class)));
+		Configuration c = direct.readValue(getClass().getResource("test.conf"), Configuration.class);
+		Assert.assertEquals("This value comes from complex-app's complex2.conf", c.something);
+		Assert.assertEquals(2.0, c.value, .001);
+		Assert.assertEquals("This value comes from complex-app's complex2.conf in its custom simple-lib-context", c.context.lib.foo);
+	}
+
+	@Test
+	public void testUnknownProperties() throws IOException {
+		ObjectMapper mapper = mapper();
+		Assert.assertEquals("b", mapper.readValue(parser(mapper, "a = b, legacy = 1", null), Strict.class).a);
+		try {
+			mapper.readValue(parser(mapper, "a = b, other = 1", null), Strict.class);
+			Assert.fail("expected an unknown property failure");
+		} catch (UnrecognizedPropertyException e) {
+			Assert.assertEquals("other", e.getPropertyName());
+		}
+		mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+		Assert.assertEquals("b", mapper.readValue(parser(mapper, "a = b, other = 1", null), Strict.class).a);
+	}
+
+	@Test
+	public void testParserPosition() throws IOException {
+		ObjectMapper mapper = mapper();
+		HoconTreeTraversingParser p = parser(mapper, "a = b", null);
+		Assert.assertEquals("b", mapper.readValue(p, Strict.class).a);
+		Assert.assertNull(p.nextToken());
+	}
+
+	@Test
+	public void testFilter() throws IOException {
+		ObjectMapper mapper = mapper();
+		ConfigObject root = ConfigFactory.parseString(
+				"user = app, password = secret, admin { user = root, password = toor }").root();
+		Credentials c = mapper.readValue(new HoconTreeTraversingParser(root, mapper,
+				HoconPathFilter.excluding("password")), Credentials.class);
+		Assert.assertEquals("app", c.user);
+		Assert.assertNull(c.password);
+		Assert.assertEquals("toor", c.admin.password);
+
+		c = mapper.readValue(new HoconTreeTraversingParser(root, mapper,
+				HoconPathFilter.excluding("admin.password")), Credentials.class);
+		Assert.assertEquals("secret", c.password);
+		Assert.assertEquals("root", c.admin.user);
+		Assert.assertNull(c.admin.password);
+	}
+}
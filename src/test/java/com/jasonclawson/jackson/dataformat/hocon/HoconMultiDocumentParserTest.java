@@ -0,0 +1,134 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HoconMultiDocumentParserTest {
+
+	public static class Record {
+		public int id;
+		public String action;
+		public List<String> tags;
+	}
+
+	private static ObjectReader reader() {
+		HoconFactory factory = new HoconFactory();
+		factory.enable(HoconParserFeature.MULTI_DOCUMENT);
+		return new ObjectMapper(factory).reader(Record.class);
+	}
+
+	@Test
+	public void testReadValues() throws IOException {
+		String stream = "# audit log\n"
+				+ "{ id = 1, action = login, tags = [a, b] }\n"
+				+ "{\n  id = 2\n  user = \"}{\"\n  action = ${user}\" out\"  // brace } in a comment\n  tags = []\n}\n"
+				+ ", { id = 3, action = \"\"\"multi\n\"line\" }\"\"\", tags = [${action}] }\n";
+		HoconFactory factory = new HoconFactory().enable(HoconParserFeature.MULTI_DOCUMENT);
+		MappingIterator<JsonNode> it = new ObjectMapper(factory).reader(JsonNode.class)
+				.readValues(factory.createTextParser(stream.getBytes(StandardCharsets.UTF_8)));
+		List<JsonNode> nodes = new ArrayList<JsonNode>();
+		while (it.hasNextValue()) {
+			nodes.add(it.nextValue());
+		}
+		Assert.assertEquals(3, nodes.size());
+		Assert.assertEquals("login", nodes.get(0).path("action").asText());
+		Assert.assertEquals("}{ out", nodes.get(1).path("action").asText());
+		Assert.assertEquals("multi\n\"line\" }", nodes.get(2).path("action").asText());
+		Assert.assertEquals("multi\n\"line\" }", nodes.get(2).path("tags").path(0).asText());
+
+		MappingIterator<Record> records = reader().readValues(new StringReader("{ id = 1, action = a } { id = 2, action = b }"));
+		Assert.assertEquals(1, records.nextValue().id);
+		Assert.assertEquals("b", records.nextValue().action);
+		Assert.assertFalse(records.hasNextValue());
+	}
+
+	@Test
+	public void testReadValuesFromStream() throws IOException {
+		String stream = "{ id = 1, action = a }\n{ id = 2, action = ${id}\"-b\" }";
+		MappingIterator<Record> records = reader().readValues(
+				new ByteArrayInputStream(stream.getBytes(StandardCharsets.UTF_8)));
+		Assert.assertEquals("a", records.nextValue().action);
+		Assert.assertEquals("2-b", records.nextValue().action);
+		Assert.assertFalse(records.hasNextValue());
+
+		records = reader().readValues(stream);
+		Assert.assertEquals(1, records.nextValue().id);
+		Assert.assertEquals(2, records.nextValue().id);
+		Assert.assertFalse(records.hasNextValue());
+
+		// a tree parser, over the tree of the current document
+		HoconFactory factory = new HoconFactory().enable(HoconParserFeature.MULTI_DOCUMENT);
+		HoconTreeTraversingParser p = factory.createParser(stream.getBytes(StandardCharsets.UTF_8));
+		MappingIterator<Record> it = new ObjectMapper(factory).reader(Record.class).readValues(p);
+		Assert.assertEquals(1, it.nextValue().id);
+		Assert.assertEquals(1, p.getConfigObject().toConfig().getInt("id"));
+		Assert.assertEquals(2, it.nextValue().id);
+		Assert.assertEquals("2-b", p.getConfigObject().toConfig().getString("action"));
+	}
+
+	@Test
+	public void testLongStream() throws IOException {
+		final int count = 20000;
+		// generated as it is read: never in memory as a whole
+		InputStream in = new InputStream() {
+			private byte[] _record = new byte[0];
+			private int _pos;
+			private int _index;
+
+			@Override
+			public int read() throws IOException {
+				if (_pos == _record.length) {
+					if (_index == count) {
+						return -1;
+					}
+					++_index;
+					_record = ("{ id = " + _index + ", action = \"update\", tags = [x, y, z] }\n")
+							.getBytes(StandardCharsets.UTF_8);
+					_pos = 0;
+				}
+				return _record[_pos++];
+			}
+		};
+		HoconFactory factory = new HoconFactory().enable(HoconParserFeature.MULTI_DOCUMENT);
+		HoconMultiDocumentParser p = (HoconMultiDocumentParser) factory.createTextParser(in);
+		MappingIterator<Record> it = new ObjectMapper(factory).reader(Record.class).readValues(p);
+		long sum = 0;
+		while (it.hasNextValue()) {
+			sum += it.nextValue().id;
+			Assert.assertTrue(p._buffer.length <= 4000);
+		}
+		Assert.assertEquals((long) count * (count + 1) / 2, sum);
+		Assert.assertEquals(count, p.getDocumentCount());
+	}
+
+	@Test
+	public void testMalformed() throws IOException {
+		assertFails("{ id = 1 } id = 2", "found 'i'");
+		assertFails("{ id = 1 }\n{ id = 2", "document 2 starting at line 2");
+	}
+
+	private static void assertFails(String stream, String message) throws IOException {
+		MappingIterator<Record> it = reader().readValues(new StringReader(stream));
+		try {
+			while (it.hasNextValue()) {
+				it.nextValue();
+			}
+			Assert.fail("expected " + message);
+		} catch (JsonParseException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains(message));
+		}
+	}
+}
@@ -0,0 +1,166 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.IOContext;
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.CharConversionException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HoconNonBlockingParserTest {
+
+	private static String describe(JsonParser p, JsonToken t) throws IOException {
+		JsonLocation loc = p.getTokenLocation();
+		return t + " " + p.getText() + " @" + loc.getLineNr() + ":" + loc.getColumnNr();
+	}
+
+	private static List<String> streamed(String doc) throws IOException {
+		char[] chars = doc.toCharArray();
+		JsonParser p = new HoconStreamingParser(new IOContext(new BufferRecycler(), null, false), 0, null, chars, 0,
+				chars.length, true);
+		List<String> tokens = new ArrayList<String>();
+		JsonToken t;
+		while ((t = p.nextToken()) != null) {
+			tokens.add(describe(p, t));
+		}
+		return tokens;
+	}
+
+	/**
+	 * Feeds the document in chunks of the given size, each only once the
+	 * parser has run out of input.
+	 */
+	private static List<String> fed(String doc, int chunk) throws IOException {
+		byte[] bytes = doc.getBytes(StandardCharsets.UTF_8);
+		HoconNonBlockingParser p = new HoconFactory().createNonBlockingParser();
+		List<String> tokens = new ArrayList<String>();
+		int pos = 0;
+		JsonToken t;
+		while ((t = p.nextToken()) != null) {
+			if (t == JsonToken.NOT_AVAILABLE) {
+				Assert.assertTrue(p.needMoreInput());
+				if (pos < bytes.length) {
+					int end = Math.min(pos + chunk, bytes.length);
+					p.feedInput(bytes, pos, end);
+					pos = end;
+				} else {
+					p.endOfInput();
+				}
+				continue;
+			}
+			tokens.add(describe(p, t));
+		}
+		Assert.assertEquals(bytes.length, p.getBytesFed());
+		return tokens;
+	}
+
+	@Test
+	public void testChunkedInput() throws IOException {
+		List<String> docs = new ArrayList<String>();
+		for (String doc : HoconStreamingParserTest.STREAMABLE) {
+			docs.add(doc);
+		}
+		docs.add("﻿grüße = \"日本語\"\n\"ключ\" : [τιμή, \"\"\"😀\n😀\"\"\"]");
+		for (String doc : docs) {
+			List<String> expected = streamed(doc);
+			for (int chunk : new int[] { 1, 2, 3, 7, 1000 }) {
+				Assert.assertEquals(doc + ", chunk " + chunk, expected, fed(doc, chunk));
+			}
+		}
+	}
+
+	@Test
+	public void testNotAvailable() throws IOException {
+		HoconNonBlockingParser p = new HoconFactory().createNonBlockingParser();
+		Assert.assertTrue(p.needMoreInput());
+		Assert.assertEquals(JsonToken.NOT_AVAILABLE, p.nextToken());
+		p.feedInput(ByteBuffer.wrap("a = 1".getBytes(StandardCharsets.UTF_8)));
+		Assert.assertFalse(p.needMoreInput());
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		Assert.assertEquals(JsonToken.FIELD_NAME, p.nextToken());
+		Assert.assertEquals("a", p.getCurrentName());
+		// the value may go on in the next chunk
+		Assert.assertEquals(JsonToken.NOT_AVAILABLE, p.nextToken());
+		Assert.assertTrue(p.needMoreInput());
+		p.feedInput("2\nb".getBytes(StandardCharsets.UTF_8), 0, 3);
+		Assert.assertEquals(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+		Assert.assertEquals(12, p.getIntValue());
+		Assert.assertEquals(JsonToken.NOT_AVAILABLE, p.nextToken());
+		p.feedInput(" = x".getBytes(StandardCharsets.UTF_8), 0, 4);
+		p.endOfInput();
+		Assert.assertFalse(p.needMoreInput());
+		Assert.assertEquals(JsonToken.FIELD_NAME, p.nextToken());
+		Assert.assertEquals(JsonToken.VALUE_STRING, p.nextToken());
+		Assert.assertEquals("x", p.getText());
+		Assert.assertEquals(2, p.getTokenLocation().getLineNr());
+		Assert.assertEquals(JsonToken.END_OBJECT, p.nextToken());
+		Assert.assertNull(p.nextToken());
+		Assert.assertTrue(p.isClosed());
+	}
+
+	@Test
+	public void testBoundedBuffer() throws IOException {
+		HoconNonBlockingParser p = new HoconFactory().createNonBlockingParser();
+		int values = 0;
+		for (int i = 0; i < 10000; ++i) {
+			byte[] entry = ("key" + i + ".sub = \"some value\"\n").getBytes(StandardCharsets.UTF_8);
+			p.feedInput(entry, 0, entry.length);
+			JsonToken t;
+			while ((t = p.nextToken()) != JsonToken.NOT_AVAILABLE) {
+				if (t == JsonToken.VALUE_STRING) {
+					++values;
+				}
+			}
+			Assert.assertTrue(p._inputBuffer.length < 4 * 4000);
+		}
+		Assert.assertEquals(10000, values);
+		p.endOfInput();
+		Assert.assertEquals(JsonToken.END_OBJECT, p.nextToken());
+	}
+
+	@Test
+	public void testErrors() throws IOException {
+		String[] invalid = { "a = 1\nb = ${a}", "a = 1\na = 2", "include \"other.conf\"" };
+		for (String doc : invalid) {
+			try {
+				fed(doc, 3);
+				Assert.fail("expected " + doc + " to be rejected");
+			} catch (JsonParseException e) {
+				// expected
+			}
+		}
+
+		HoconNonBlockingParser p = new HoconFactory().createNonBlockingParser();
+		try {
+			p.feedInput(new byte[] { 'a', '=', (byte) 0xFF }, 0, 3);
+			Assert.fail("expected invalid UTF-8 to be rejected");
+		} catch (CharConversionException e) {
+			// expected
+		}
+
+		p = new HoconFactory().createNonBlockingParser();
+		byte[] bytes = "a = é".getBytes(StandardCharsets.UTF_8);
+		p.feedInput(bytes, 0, bytes.length - 1);
+		try {
+			p.endOfInput();
+			Assert.fail("expected truncated character to be rejected");
+		} catch (CharConversionException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("EOF"));
+		}
+		try {
+			p.feedInput(bytes, 0, 1);
+			Assert.fail("expected input after end of input to be rejected");
+		} catch (JsonParseException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class HoconReloaderTest {
+
+	public static class Settings {
+		public String name;
+		public int size;
+	}
+
+	private static File write(File f, String content) throws IOException {
+		OutputStream out = new FileOutputStream(f);
+		try {
+			out.write(content.getBytes(StandardCharsets.UTF_8));
+		} finally {
+			out.close();
+		}
+		f.deleteOnExit();
+		return f;
+	}
+
+	private static File tempDir() throws IOException {
+		File dir = File.createTempFile("reload", "");
+		dir.delete();
+		dir.mkdir();
+		dir.deleteOnExit();
+		return dir;
+	}
+
+	@Test
+	public void testReloadOnlyOnContentChange() throws IOException {
+		File dir = tempDir();
+		File main = write(new File(dir, "main.conf"), "include \"part.conf\"\nname = main");
+		File part = write(new File(dir, "part.conf"), "size = 1");
+		HoconReloader<Settings> reloader = new HoconReloader<Settings>(new ObjectMapper(), main, Settings.class);
+		Assert.assertTrue(reloader.reload());
+		Assert.assertEquals(1, reloader.get().size);
+		Assert.assertTrue(reloader.getFiles().contains(part.getAbsoluteFile()));
+
+		Settings first = reloader.get();
+		write(part, "size = 1");
+		Assert.assertFalse(reloader.reload());
+		Assert.assertSame(first, reloader.get());
+
+		write(part, "size = 2");
+		Assert.assertTrue(reloader.reload());
+		Assert.assertEquals(2, reloader.get().size);
+		Assert.assertEquals("main", reloader.get().name);
+	}
+
+	@Test
+	public void testParsedThroughFactory() throws IOException {
+		File dir = tempDir();
+		File main = write(new File(dir, "main.conf"), "include \"part.conf\"\nname = main");
+		File part = write(new File(dir, "part.conf"), "size = 1");
+		HoconIncludeCache includes = new HoconIncludeCache();
+		HoconMetrics metrics = new HoconMetrics();
+		ObjectMapper mapper = new ObjectMapper(new HoconFactory().setIncludeCache(includes).setParseListener(metrics));
+		HoconReloader<Settings> reloader = new HoconReloader<Settings>(mapper, main, Settings.class);
+		Assert.assertTrue(reloader.reload());
+		Assert.assertEquals(1, reloader.get().size);
+		Assert.assertEquals(1, includes.size());
+		Assert.assertTrue(reloader.getFiles().contains(part.getAbsoluteFile()));
+		Assert.assertTrue(metrics.getParserCount() > 0);
+	}
+
+	@Test
+	public void testFailedReloadKeepsValue() throws IOException {
+		File main = write(File.createTempFile("reload", ".conf"), "name = ok");
+		HoconReloader<Settings> reloader = new HoconReloader<Settings>(new ObjectMapper(), main, Settings.class);
+		reloader.reload();
+		write(main, "name = { unclosed");
+		try {
+			reloader.reload();
+			Assert.fail("expected a parse failure");
+		} catch (RuntimeException e) {
+			// expected
+		}
+		Assert.assertEquals("ok", reloader.get().name);
+	}
+
+	@Test
+	public void testWatch() throws Exception {
+		File dir = tempDir();
+		File main = write(new File(dir, "main.conf"), "include \"part\"\nname = watched");
+		final File part = write(new File(dir, "part.conf"), "size = 1");
+		final BlockingQueue<Settings> reloaded = new LinkedBlockingQueue<Settings>();
+		HoconReloader<Settings> reloader = new HoconReloader<Settings>(new ObjectMapper(), main, Settings.class);
+		reloader.addListener(new HoconReloader.Listener<Settings>() {
+			@Override
+			public void reloaded(Settings previous, Settings current) {
+				reloaded.add(current);
+			}
+
+			@Override
+			public void failed(Exception e) {
+			}
+		});
+		reloader.start();
+		try {
+			Assert.assertEquals(1, reloaded.take().size);
+			write(part, "size = 3");
+			Settings current = reloaded.poll(30, TimeUnit.SECONDS);
+			Assert.assertNotNull("change was not picked up", current);
+			Assert.assertEquals(3, current.size);
+			Assert.assertSame(current, reloader.get());
+		} finally {
+			reloader.close();
+		}
+	}
+}
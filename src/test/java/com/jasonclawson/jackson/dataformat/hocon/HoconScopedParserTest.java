@@ -0,0 +1,126 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+public class HoconScopedParserTest {
+
+	public static class Db {
+		public String url;
+		public int poolSize;
+	}
+
+	private static final ConfigObject ROOT = ConfigFactory.parseString(
+			"before { x = 1 }\n"
+			+ "services.payments.db { url = \"jdbc:x\", poolSize = 4 }\n"
+			+ "services.payments.hosts = [ a, { name = b, port = 80 } ]\n"
+			+ "indexed.0 = zero\nindexed.1 = one\n"
+			+ "after = [1, 2]").resolve().root();
+
+	@Test
+	public void testPath() throws IOException {
+		ObjectMapper mapper = new ObjectMapper(new HoconFactory());
+		HoconTreeTraversingParser p = new HoconTreeTraversingParser(ROOT, mapper, "services.payments.db");
+		Db db = mapper.readValue(p, Db.class);
+		Assert.assertEquals("jdbc:x", db.url);
+		Assert.assertEquals(4, db.poolSize);
+		Assert.assertNull(p.nextToken());
+	}
+
+	@Test
+	public void testTokensAndContext() throws IOException {
+		HoconTreeTraversingParser p = new HoconTreeTraversingParser(ROOT, null, "services.payments.hosts.1");
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		HoconNodeCursor context = (HoconNodeCursor) p.getParsingContext();
+		Assert.assertTrue(context.inArray());
+		Assert.assertEquals(1, context.getCurrentIndex());
+		Assert.assertEquals("payments", context.getParent().getParent().getCurrentName());
+		int fields = 0;
+		while (p.nextToken() == JsonToken.FIELD_NAME) {
+			++fields;
+			if ("name".equals(p.getCurrentName())) {
+				Assert.assertEquals(JsonToken.VALUE_STRING, p.nextToken());
+				Assert.assertEquals("services.payments.hosts.1.name",
+						((HoconNodeCursor) p.getParsingContext()).constructPath());
+				Assert.assertEquals(3, p.getTokenLocation().getLineNr());
+			} else {
+				Assert.assertEquals(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+			}
+		}
+		Assert.assertEquals(2, fields);
+		Assert.assertEquals(JsonToken.END_OBJECT, p.getCurrentToken());
+		Assert.assertNull(p.nextToken());
+		Assert.assertNull(p.nextToken());
+	}
+
+	private static JsonNode tree(String pointer) throws IOException {
+		ObjectMapper mapper = new ObjectMapper(new HoconFactory());
+		return mapper.readTree(new HoconTreeTraversingParser(ROOT, mapper, JsonPointer.compile(pointer)));
+	}
+
+	@Test
+	public void testPointer() throws IOException {
+		Assert.assertEquals("b", tree("/services/payments/hosts/1/name").asText());
+		Assert.assertTrue(tree("/indexed").isArray());
+		Assert.assertEquals("one", tree("/indexed/1").asText());
+		Assert.assertEquals(4, tree("").size());
+	}
+
+	@Test(expected = ConfigException.Missing.class)
+	public void testMissing() throws IOException {
+		new HoconTreeTraversingParser(ROOT, null, "services.payments.hosts.2");
+	}
+
+	@Test
+	public void testErrorPath() throws IOException {
+		ObjectMapper mapper = new ObjectMapper(new HoconFactory());
+		try {
+			mapper.readValue(new HoconTreeTraversingParser(ROOT, mapper, "services.payments"), Db.class);
+			Assert.fail("expected a mapping failure");
+		} catch (JsonMappingException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("\"db\""));
+		}
+	}
+
+	@Test
+	public void testFilter() throws IOException {
+		ObjectMapper mapper = new ObjectMapper(new HoconFactory());
+		HoconPathFilter filter = new HoconPathFilter(
+				Arrays.asList("services.payments.db.url", "services.payments.hosts.1", "indexed.1"),
+				Arrays.asList("services.payments.hosts.1.port"));
+		JsonNode node = mapper.readTree(new HoconTreeTraversingParser(ROOT, mapper, filter));
+		Assert.assertEquals(mapper.readTree("{\"services\":{\"payments\":{\"db\":{\"url\":\"jdbc:x\"},"
+				+ "\"hosts\":[{\"name\":\"b\"}]}},\"indexed\":[\"one\"]}"), node);
+
+		node = mapper.readTree(new HoconTreeTraversingParser(ROOT, mapper, HoconPathFilter.excluding("services", "after")));
+		Assert.assertEquals(mapper.readTree("{\"before\":{\"x\":1},\"indexed\":[\"zero\",\"one\"]}"), node);
+
+		HoconTreeTraversingParser p = new HoconTreeTraversingParser(ROOT, mapper, HoconPathFilter.including("services.payments.db"));
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		Assert.assertEquals(JsonToken.FIELD_NAME, p.nextToken());
+		Assert.assertEquals("services", p.getCurrentName());
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		Assert.assertEquals(JsonToken.FIELD_NAME, p.nextToken());
+		Assert.assertEquals("payments", p.getCurrentName());
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		Assert.assertEquals(JsonToken.FIELD_NAME, p.nextToken());
+		Assert.assertEquals("db", p.getCurrentName());
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		Assert.assertEquals(4, mapper.readValue(p, Db.class).poolSize);
+		for (int i = 0; i < 3; ++i) {
+			Assert.assertEquals(JsonToken.END_OBJECT, p.nextToken());
+		}
+		Assert.assertNull(p.nextToken());
+	}
+}
@@ -0,0 +1,180 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class HoconSnapshotTest {
+
+	private static final ConfigObject ROOT = ConfigFactory.parseString(
+			"a { b = [1, 2.5, \"x\", true, null, { c = 5000000000 }], d = {} }\n"
+			+ "e = \"é\"\nf = 3.14159265358979323846264338327950288\n"
+			+ "g = ${a.b}").resolve().root();
+
+	private static final byte[] HASH = { 1, 2, 3 };
+
+	private static byte[] snapshot(HoconTokenTape tape) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		HoconSnapshot.write(tape, HASH, out);
+		return out.toByteArray();
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		byte[] data = snapshot(HoconTokenTape.compile(ROOT));
+		JsonParser expected = new HoconTreeTraversingParser(ROOT);
+		JsonParser actual = HoconSnapshot.read(data, HASH).createParser();
+		JsonToken t;
+		while ((t = expected.nextToken()) != null) {
+			Assert.assertEquals(t, actual.nextToken());
+			Assert.assertEquals(expected.getCurrentName(), actual.getCurrentName());
+			Assert.assertEquals(expected.getText(), actual.getText());
+			Assert.assertEquals(expected.getTokenLocation().getLineNr(), actual.getTokenLocation().getLineNr());
+			if (t == JsonToken.VALUE_NUMBER_INT || t == JsonToken.VALUE_NUMBER_FLOAT) {
+				Assert.assertEquals(expected.getNumberType(), actual.getNumberType());
+				Assert.assertEquals(expected.getDecimalValue(), actual.getDecimalValue());
+			}
+		}
+		Assert.assertNull(actual.nextToken());
+
+		JsonNode node = new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS).readTree(HoconSnapshot.read(data, null).createParser());
+		Assert.assertEquals("é", node.path("e").asText());
+		Assert.assertEquals(new BigDecimal("3.14159265358979323846264338327950288"), node.path("f").decimalValue());
+		Assert.assertEquals(5000000000L, node.path("g").path(5).path("c").asLong());
+	}
+
+	@Test
+	public void testStaleAndCorrupt() throws IOException {
+		byte[] data = snapshot(HoconTokenTape.compile(ROOT));
+		Assert.assertNull(HoconSnapshot.read(data, new byte[] { 1, 2, 4 }));
+		assertCorrupt(Arrays.copyOf(data, data.length / 2));
+		assertCorrupt("not a snapshot".getBytes(StandardCharsets.UTF_8));
+		// an object closed as an array
+		byte[] broken = data.clone();
+		broken[4 + 1 + 1 + HASH.length + 1] = HoconTokenTape.START_ARRAY;
+		assertCorrupt(broken);
+		assertCorrupt(withOriginIndex(data, HASH.length, -2));
+	}
+
+	/**
+	 * @return the snapshot with the origin of its first token replaced
+	 */
+	private static byte[] withOriginIndex(byte[] data, int hashLength, int index) {
+		int count = data[4 + 1 + 1 + hashLength];
+		// small tapes: one byte per count, type and operand
+		int at = 4 + 1 + 1 + hashLength + 1 + count + count;
+		int value = index + 1;
+		byte[] varInt = { (byte) ((value & 0x7F) | 0x80), (byte) (((value >>> 7) & 0x7F) | 0x80),
+				(byte) (((value >>> 14) & 0x7F) | 0x80), (byte) (((value >>> 21) & 0x7F) | 0x80),
+				(byte) (value >>> 28) };
+		byte[] result = new byte[data.length + varInt.length - 1];
+		System.arraycopy(data, 0, result, 0, at);
+		System.arraycopy(varInt, 0, result, at, varInt.length);
+		System.arraycopy(data, at + 1, result, at + varInt.length, data.length - at - 1);
+		return result;
+	}
+
+	private static void assertCorrupt(byte[] data) {
+		try {
+			HoconSnapshot.read(data, HASH);
+			Assert.fail("expected corrupt snapshot to be rejected");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testFactorySnapshot() throws IOException {
+		File conf = File.createTempFile("snapshot", ".conf");
+		conf.deleteOnExit();
+		Path snapshot = Files.createTempFile("snapshot", ".bin");
+		snapshot.toFile().deleteOnExit();
+		Files.delete(snapshot);
+		Files.write(conf.toPath(), "a = 1\nb = ${a}\n".getBytes(StandardCharsets.UTF_8));
+		List<File> sources = Collections.singletonList(conf);
+
+		HoconFactory factory = new HoconFactory();
+		ObjectMapper mapper = new ObjectMapper(factory);
+		Assert.assertEquals(1, mapper.<JsonNode>readTree(factory.createSnapshotParser(sources, snapshot)).path("b").asInt());
+		Assert.assertTrue(Files.isRegularFile(snapshot));
+		// read back from the memory-mapped snapshot, origins included
+		HoconTokenTape tape = HoconSnapshot.read(snapshot, HoconSnapshot.hash(sources));
+		Assert.assertNotNull(tape);
+		JsonParser p = tape.createParser();
+		p.nextToken();
+		p.nextToken();
+		Assert.assertEquals(1, p.getTokenLocation().getLineNr());
+		Assert.assertTrue(String.valueOf(p.getTokenLocation().getSourceRef()).contains(conf.getName()));
+
+		Files.write(conf.toPath(), "a = 2\nb = ${a}\n".getBytes(StandardCharsets.UTF_8));
+		Assert.assertNull(HoconSnapshot.read(snapshot, HoconSnapshot.hash(sources)));
+		Assert.assertEquals(2, mapper.<JsonNode>readTree(factory.createSnapshotParser(sources, snapshot)).path("b").asInt());
+		Assert.assertNotNull(HoconSnapshot.read(snapshot, HoconSnapshot.hash(sources)));
+	}
+
+	@Test
+	public void testCorruptSnapshotReplaced() throws IOException {
+		File conf = File.createTempFile("snapshot", ".conf");
+		conf.deleteOnExit();
+		Path snapshot = Files.createTempFile("snapshot", ".bin");
+		snapshot.toFile().deleteOnExit();
+		Files.write(conf.toPath(), "a = 1\nb = ${a}\n".getBytes(StandardCharsets.UTF_8));
+		List<File> sources = Collections.singletonList(conf);
+		byte[] hash = HoconSnapshot.hash(sources);
+
+		// made from the current sources, but not readable
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		HoconSnapshot.write(HoconTokenTape.compile(ConfigFactory.parseString("a = 1, b = 1").root()), hash, out);
+		Files.write(snapshot, withOriginIndex(out.toByteArray(), hash.length, -2));
+
+		HoconFactory factory = new HoconFactory();
+		ObjectMapper mapper = new ObjectMapper(factory);
+		JsonParser p = factory.createSnapshotParser(sources, snapshot);
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		Assert.assertEquals(JsonToken.FIELD_NAME, p.nextToken());
+		Assert.assertTrue(String.valueOf(p.getTokenLocation().getSourceRef()).contains(conf.getName()));
+		Assert.assertEquals(1, mapper.<JsonNode>readTree(p).path("b").asInt());
+		Assert.assertNotNull(HoconSnapshot.read(snapshot, hash));
+	}
+
+	@Test
+	public void testEnvironmentHashed() throws IOException {
+		File conf = File.createTempFile("snapshot", ".conf");
+		conf.deleteOnExit();
+		Files.write(conf.toPath(), "a = 1\nb = ${a}\nhome = ${?APP_HOME}\nuser = ${ \"APP_USER\" }\n"
+				.getBytes(StandardCharsets.UTF_8));
+		List<File> sources = Collections.singletonList(conf);
+		Map<String, String> env = new HashMap<String, String>();
+		env.put("OTHER", "x");
+		byte[] hash = HoconSnapshot.hash(sources, env);
+		env.put("OTHER", "y");
+		Assert.assertArrayEquals(hash, HoconSnapshot.hash(sources, env));
+
+		env.put("APP_HOME", "/opt/app");
+		byte[] withHome = HoconSnapshot.hash(sources, env);
+		Assert.assertFalse(Arrays.equals(hash, withHome));
+		env.put("APP_HOME", "/srv/app");
+		Assert.assertFalse(Arrays.equals(withHome, HoconSnapshot.hash(sources, env)));
+		env.put("APP_USER", "app");
+		Assert.assertFalse(Arrays.equals(withHome, HoconSnapshot.hash(sources, env)));
+	}
+}
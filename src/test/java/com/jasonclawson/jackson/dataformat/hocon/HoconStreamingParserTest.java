@@ -0,0 +1,372 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.IOContext;
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class HoconStreamingParserTest {
+
+	static final String[] STREAMABLE = {
+		"",
+		"{}",
+		"a = 1",
+		"{ \"a\" : 1, \"b\" : [1, 2.5, true, false, null], \"c\" : { \"d\" : \"e\" } }",
+		"# comment\na = 1 // another\n// and another\nb : two words here   \n",
+		"a { b = 1\n c = 2 }\n",
+		"a.b.c = deep\nd.\"e.f\" = quoted",
+		"a b c = spaced key",
+		"list = [\n  1\n  2,\n  3,\n]\nobj = { x = 1, }",
+		"n1 = 2.0\nn2 = 1e3\nn3 = 10000000000\nn4 = -1.5\nn5 = 1.2.3\nn6 = 10abc",
+		"t = truex\nf = false\nnul = null\nv = \"quoted\" and unquoted",
+		"s = \"\"\"multi\nline \"quoted\" \"\"\"\"\"\nafter = \"esc\\n\\u0041\\t\"",
+		"a = foo bar  # trailing comment",
+		"a\n{\n b = 1\n}",
+		"a =\n  1",
+		"arr = [[1, 2], [3], []]\nempty = {}",
+		"\"\" = empty key",
+		"a = 1, b = 2\n, c = 3",
+	};
+
+	private static final String[] NOT_STREAMABLE = {
+		"a = 1\nb = ${a}",
+		"a = 1\na = 2",
+		"a.b = 1\na.c = 2",
+		"a { b = 1 }\na { c = 2 }",
+		"list { 0 = a, 1 = b }",
+		"a = [1]\na += 2",
+		"a = { b = 1 } { c = 2 }",
+		"[1, 2]",
+		"include \"other.conf\"",
+		"a = 1 }",
+	};
+
+	private static HoconFactory factory(boolean streaming) {
+		return new HoconFactory().configure(HoconParserFeature.PREFER_STREAMING, streaming);
+	}
+
+	private static IOContext context() {
+		return new IOContext(new BufferRecycler(), null, false);
+	}
+
+	private static String nextName(JsonParser p) throws IOException {
+		Assert.assertEquals(JsonToken.FIELD_NAME, p.nextToken());
+		return p.getCurrentName();
+	}
+
+	@Test
+	public void testStreamableDocuments() throws IOException {
+		for (String doc : STREAMABLE) {
+			Assert.assertTrue(doc, HoconStreamingParser.isStreamable(doc.toCharArray(), 0, doc.length()));
+			JsonParser p = factory(true).createTextParser(doc);
+			Assert.assertTrue(doc, p instanceof HoconStreamingParser);
+			p.close();
+		}
+	}
+
+	/**
+	 * Tokens of the value the parser is at, one per line, with the members
+	 * of each object sorted by name: the streaming parser returns them in
+	 * source order, the tree parser in the order of the Typesafe tree.
+	 */
+	private static String tokens(JsonParser p) throws IOException {
+		JsonToken t = p.getCurrentToken();
+		if (t == JsonToken.START_OBJECT) {
+			List<String> members = new ArrayList<String>();
+			while (p.nextToken() == JsonToken.FIELD_NAME) {
+				String name = "FIELD_NAME " + p.getCurrentName() + "\n";
+				p.nextToken();
+				members.add(name + tokens(p));
+			}
+			Collections.sort(members);
+			StringBuilder sb = new StringBuilder("START_OBJECT\n");
+			for (String member : members) {
+				sb.append(member);
+			}
+			return sb.append("END_OBJECT\n").toString();
+		}
+		if (t == JsonToken.START_ARRAY) {
+			StringBuilder sb = new StringBuilder("START_ARRAY\n");
+			while (p.nextToken() != JsonToken.END_ARRAY) {
+				sb.append(tokens(p));
+			}
+			return sb.append("END_ARRAY\n").toString();
+		}
+		if (t.isNumeric()) {
+			return t + " " + p.getNumberType() + " " + p.getNumberValue() + "\n";
+		}
+		return t + " " + p.getText() + "\n";
+	}
+
+	@Test
+	public void testSameTokensAsTypesafe() throws IOException {
+		for (String doc : STREAMABLE) {
+			JsonParser expected = factory(false).createTextParser(doc);
+			JsonParser actual = factory(true).createTextParser(doc);
+			Assert.assertTrue(doc, expected instanceof HoconTreeTraversingParser);
+			Assert.assertTrue(doc, actual instanceof HoconStreamingParser);
+			Assert.assertEquals(doc, expected.nextToken(), actual.nextToken());
+			Assert.assertEquals(doc, tokens(expected), tokens(actual));
+			Assert.assertNull(doc, expected.nextToken());
+			Assert.assertNull(doc, actual.nextToken());
+			expected.close();
+			actual.close();
+		}
+	}
+
+	@Test
+	public void testSourceOrder() throws IOException {
+		String doc = "z = 1, a = 2, m = 3, b = 4, y = 5";
+		Assert.assertEquals("zamby", names(factory(true).createTextParser(doc)));
+		// the tree parser follows the hash order of the entries of the Typesafe object
+		Assert.assertEquals("abzym", names(factory(false).createTextParser(doc)));
+	}
+
+	private static String names(JsonParser p) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		JsonToken t;
+		while ((t = p.nextToken()) != null) {
+			if (t == JsonToken.FIELD_NAME) {
+				sb.append(p.getCurrentName());
+			}
+		}
+		p.close();
+		return sb.toString();
+	}
+
+	@Test
+	public void testNumberTypes() throws IOException {
+		JsonParser p = factory(true).createTextParser("a = 2.0\nb = 10000000000\nc = 1.5e1\nd = 1.25");
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		Assert.assertEquals("a", nextName(p));
+		Assert.assertEquals(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+		Assert.assertEquals(JsonParser.NumberType.INT, p.getNumberType());
+		Assert.assertEquals("2", p.getText());
+		Assert.assertEquals("b", nextName(p));
+		Assert.assertEquals(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+		Assert.assertEquals(JsonParser.NumberType.LONG, p.getNumberType());
+		Assert.assertEquals(10000000000L, p.getLongValue());
+		Assert.assertEquals("c", nextName(p));
+		Assert.assertEquals(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+		Assert.assertEquals(15, p.getIntValue());
+		Assert.assertEquals("d", nextName(p));
+		Assert.assertEquals(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+		Assert.assertEquals(1.25, p.getDoubleValue(), 0.0);
+		Assert.assertTrue(p.hasTextCharacters());
+		Assert.assertEquals("1.25", new String(p.getTextCharacters(), p.getTextOffset(), p.getTextLength()));
+		Assert.assertEquals(JsonToken.END_OBJECT, p.nextToken());
+		Assert.assertNull(p.nextToken());
+		p.close();
+	}
+
+	@Test
+	public void testExactDecimals() throws IOException {
+		String doc = "x = 0.12345678901234567890123, y = [ 1e-30 ]";
+		JsonParser p = factory(true).createTextParser(doc);
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		Assert.assertEquals("x", nextName(p));
+		Assert.assertEquals(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+		Assert.assertEquals("0.12345678901234567890123", p.getText());
+		Assert.assertEquals(new BigDecimal("0.12345678901234567890123"), p.getDecimalValue());
+		p.close();
+
+		ObjectMapper mapper = new ObjectMapper(factory(true)).enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+		JsonNode node = mapper.readTree(new StringReader(doc));
+		Assert.assertEquals(new BigDecimal("0.12345678901234567890123"), node.get("x").decimalValue());
+		Assert.assertEquals(new BigDecimal("1e-30"), node.get("y").get(0).decimalValue());
+	}
+
+	@Test
+	public void testDottedKeyContext() throws IOException {
+		JsonParser p = factory(true).createTextParser("a.b = 1");
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		Assert.assertEquals("a", nextName(p));
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		Assert.assertEquals("a", p.getCurrentName());
+		Assert.assertEquals("b", nextName(p));
+		Assert.assertEquals(1, p.nextIntValue(-1));
+		Assert.assertEquals(JsonToken.END_OBJECT, p.nextToken());
+		Assert.assertEquals(JsonToken.END_OBJECT, p.nextToken());
+		Assert.assertNull(p.nextToken());
+		p.close();
+	}
+
+	@Test
+	public void testFallback() throws IOException {
+		for (String doc : NOT_STREAMABLE) {
+			Assert.assertFalse(doc, HoconStreamingParser.isStreamable(doc.toCharArray(), 0, doc.length()));
+		}
+		ObjectMapper mapper = new ObjectMapper(factory(true));
+		JsonNode node = mapper.readTree(new StringReader("a = 1\nb = ${a}\nc.d = 1\nc.e = 2\nlist { 0 = x, 1 = y }"));
+		Assert.assertEquals(1, node.get("b").asInt());
+		Assert.assertEquals(2, node.get("c").size());
+		Assert.assertTrue(node.get("list").isArray());
+	}
+
+	@Test
+	public void testFallbackMidStream() throws IOException {
+		String[] docs = {
+			"a = 1\nb = ${a}",
+			"a { x = 1 }\nb = 2\na { y = 2 }",
+			"a = 1\na = { x = 1 }",
+			"a { b { c = [1, 2] } }\na.b.d = 3",
+			"x { y = [1, { z = ${w} }] }\nw = 1",
+			"s.t.u = ${v}\nv = [true]",
+			"list { 0 = x, 1 = y }\nz = 1",
+			"a = [1]\na += 2",
+			"include \"other.conf\"\na = 1",
+		};
+		ObjectMapper tree = new ObjectMapper(factory(false));
+		ObjectMapper streaming = new ObjectMapper(factory(true));
+		for (String doc : docs) {
+			Assert.assertTrue(doc, factory(true).createTextParser(doc) instanceof HoconStreamingParser);
+			Assert.assertEquals(doc, tree.readTree(new StringReader(doc)), streaming.readTree(new StringReader(doc)));
+		}
+	}
+
+	@Test
+	public void testFallbackTokens() throws IOException {
+		JsonParser p = factory(true).createTextParser("a { b = 1 }\nc = ${a.b}");
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		Assert.assertEquals("a", nextName(p));
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		Assert.assertEquals("b", nextName(p));
+		Assert.assertEquals(1, p.nextIntValue(-1));
+		Assert.assertEquals(JsonToken.END_OBJECT, p.nextToken());
+		// c needs resolving: it gets a null, then the tree takes over
+		// with all the members
+		Assert.assertEquals("c", nextName(p));
+		Assert.assertEquals(JsonToken.VALUE_NULL, p.nextToken());
+		Assert.assertEquals(JsonToken.FIELD_NAME, p.nextToken());
+		List<String> names = new ArrayList<String>();
+		do {
+			names.add(p.getCurrentName());
+			p.nextToken();
+			if (p.getCurrentToken() == JsonToken.VALUE_NUMBER_INT) {
+				// a.b, also where it is substituted
+				Assert.assertEquals(1, p.getIntValue());
+				Assert.assertEquals(1, p.getTokenLocation().getLineNr());
+			}
+			p.skipChildren();
+		} while (p.nextToken() == JsonToken.FIELD_NAME);
+		Collections.sort(names);
+		Assert.assertEquals(Arrays.asList("a", "c"), names);
+		Assert.assertEquals(JsonToken.END_OBJECT, p.getCurrentToken());
+		Assert.assertNull(p.nextToken());
+		p.close();
+
+		try {
+			new ObjectMapper(factory(true)).readTree(new StringReader("a = 1\nb = ${missing}"));
+			Assert.fail("expected the unresolved substitution to be reported");
+		} catch (JsonParseException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("missing"));
+		}
+	}
+
+	@Test
+	public void testReader() throws IOException {
+		// reading from a reader directly, without the factory's prescan
+		HoconFactory f = factory(true);
+		JsonParser p = new HoconStreamingParser(context(), 0, null,
+				new StringReader("a = 1\nb { c = [x, y] }"), false);
+		ObjectMapper mapper = new ObjectMapper(f);
+		JsonNode node = mapper.readTree(p);
+		Assert.assertEquals("y", node.get("b").get("c").get(1).asText());
+	}
+
+	@Test(expected = JsonParseException.class)
+	public void testSubstitutionNotSupported() throws IOException {
+		JsonParser p = new HoconStreamingParser(context(), 0, null,
+				new StringReader("a = ${b}"), false);
+		while (p.nextToken() != null) { }
+	}
+
+	/**
+	 * Stream of <code>prefix</code>, <code>count</code> elements and
+	 * <code>suffix</code>, generated as it is read
+	 */
+	private static InputStream arrayStream(final String prefix, final int count, final String suffix) {
+		return new InputStream() {
+			private byte[] _chunk = prefix.getBytes(StandardCharsets.UTF_8);
+			private int _pos;
+			private int _index;
+
+			@Override
+			public int read() throws IOException {
+				if (_pos == _chunk.length) {
+					if (_index > count) {
+						return -1;
+					}
+					++_index;
+					String chunk = (_index > count) ? suffix : "{ id = " + _index + ", host = \"h" + _index + "\" }\n";
+					_chunk = chunk.getBytes(StandardCharsets.UTF_8);
+					_pos = 0;
+				}
+				return _chunk[_pos++];
+			}
+		};
+	}
+
+	@Test
+	public void testIncremental() throws IOException {
+		final int count = 100000;
+		HoconFactory f = new HoconFactory().enable(HoconParserFeature.STREAM_INCREMENTALLY);
+		ObjectMapper mapper = new ObjectMapper(f);
+
+		// root array, bound element by element
+		HoconStreamingParser p = (HoconStreamingParser) f.createTextParser(arrayStream("[\n", count, "]"));
+		Assert.assertEquals(JsonToken.START_ARRAY, p.nextToken());
+		// the buffer (possibly recycled from an earlier parser) never grows
+		final int bufferSize = p._inputBuffer.length;
+		p.clearCurrentToken();
+		MappingIterator<JsonNode> it = mapper.reader(JsonNode.class).readValues(p);
+		long sum = 0;
+		while (it.hasNextValue()) {
+			sum += it.nextValue().get("id").asLong();
+			Assert.assertEquals(bufferSize, p._inputBuffer.length);
+		}
+		Assert.assertNull(p.nextToken());
+		Assert.assertEquals((long) count * (count + 1) / 2, sum);
+
+		// nested array
+		p = (HoconStreamingParser) f.createTextParser(arrayStream("name = shards\nshards = [", count, "]\nsize = 1"));
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		int elements = 0;
+		int depth = 1;
+		JsonToken t;
+		while ((t = p.nextToken()) != null) {
+			if (t == JsonToken.START_OBJECT && ++depth == 2) {
+				++elements;
+				Assert.assertEquals(bufferSize, p._inputBuffer.length);
+			} else if (t == JsonToken.END_OBJECT) {
+				--depth;
+			}
+		}
+		Assert.assertEquals(count, elements);
+
+		// no fallback to a tree
+		try {
+			mapper.readTree(new StringReader("a = 1\nb = ${a}"));
+			Assert.fail("expected substitution to be rejected");
+		} catch (JsonParseException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("substitution"));
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class HoconTokenTapeTest {
+
+	private static final ConfigObject ROOT = ConfigFactory.parseString(
+			"a { b = [1, 2.5, \"x\", true, null, { c = 5000000000 }], d = {} }\n"
+			+ "e.0 = zero\ne.1 = one\n"
+			+ "f = 3.14159265358979323846264338327950288\n"
+			+ "g = ${a.b}").resolve().root();
+
+	@Test
+	public void testSameTokens() throws IOException {
+		HoconTokenTape tape = HoconTokenTape.compile(ROOT);
+		JsonParser expected = new HoconTreeTraversingParser(ROOT);
+		JsonParser actual = tape.createParser();
+		JsonToken t;
+		int count = 0;
+		while ((t = expected.nextToken()) != null) {
+			++count;
+			Assert.assertEquals(t, actual.nextToken());
+			Assert.assertEquals(expected.getCurrentName(), actual.getCurrentName());
+			Assert.assertEquals(expected.getText(), actual.getText());
+			if (t.isScalarValue() || t == JsonToken.FIELD_NAME) {
+				Assert.assertEquals(expected.getParsingContext().getTypeDesc(), actual.getParsingContext().getTypeDesc());
+			}
+			Assert.assertEquals(expected.getTokenLocation().getLineNr(), actual.getTokenLocation().getLineNr());
+			if (t == JsonToken.VALUE_NUMBER_INT || t == JsonToken.VALUE_NUMBER_FLOAT) {
+				Assert.assertEquals(expected.getNumberType(), actual.getNumberType());
+				Assert.assertEquals(expected.getNumberValue(), actual.getNumberValue());
+				Assert.assertEquals(expected.getDecimalValue(), actual.getDecimalValue());
+			}
+		}
+		Assert.assertNull(actual.nextToken());
+		Assert.assertEquals(count, tape.size());
+		Assert.assertEquals(new BigDecimal("3.14159265358979323846264338327950288"), decimal(tape, "f"));
+	}
+
+	private static BigDecimal decimal(HoconTokenTape tape, String field) throws IOException {
+		JsonParser p = tape.createParser();
+		while (p.nextToken() != null) {
+			if (p.getCurrentToken() == JsonToken.FIELD_NAME && field.equals(p.getCurrentName())) {
+				p.nextToken();
+				return p.getDecimalValue();
+			}
+		}
+		return null;
+	}
+
+	@Test
+	public void testTextAndLocations() throws IOException {
+		HoconTokenTape tape = HoconTokenTape.compile(ROOT);
+		JsonParser first = tape.createParser();
+		JsonParser second = tape.createParser();
+		while (first.nextToken() != null) {
+			second.nextToken();
+			if (first.getCurrentToken() == JsonToken.VALUE_NUMBER_FLOAT && "f".equals(first.getCurrentName())) {
+				Assert.assertEquals("3.14159265358979323846264338327950288", first.getText());
+			}
+			// one location per origin, shared by the parsers of the tape
+			JsonLocation location = first.getTokenLocation();
+			Assert.assertSame(location, first.getCurrentLocation());
+			Assert.assertSame(location, second.getTokenLocation());
+		}
+	}
+
+	@Test
+	public void testSkipChildren() throws IOException {
+		JsonParser p = HoconTokenTape.compile(ROOT).createParser();
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		while (p.nextToken() == JsonToken.FIELD_NAME) {
+			String name = p.getCurrentName();
+			JsonToken t = p.nextToken();
+			if (t == JsonToken.START_OBJECT || t == JsonToken.START_ARRAY) {
+				p.skipChildren();
+				Assert.assertEquals((t == JsonToken.START_OBJECT) ? JsonToken.END_OBJECT : JsonToken.END_ARRAY,
+						p.getCurrentToken());
+				Assert.assertTrue(p.getParsingContext().inObject());
+				Assert.assertEquals(name, p.getCurrentName());
+			}
+		}
+		Assert.assertEquals(JsonToken.END_OBJECT, p.getCurrentToken());
+		Assert.assertNull(p.nextToken());
+	}
+
+	@Test
+	public void testConcurrentReplay() throws Exception {
+		final ObjectMapper mapper = new ObjectMapper();
+		final HoconTokenTape tape = HoconTokenTape.compile(ROOT);
+		final JsonNode expected = mapper.readTree(new HoconTreeTraversingParser(ROOT, mapper));
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for (int i = 0; i < 16; ++i) {
+				results.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() throws IOException {
+						for (int j = 0; j < 100; ++j) {
+							JsonNode node = mapper.readTree(tape.createParser(mapper));
+							if (!expected.equals(node)) {
+								return false;
+							}
+						}
+						return true;
+					}
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				Assert.assertTrue(result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		Assert.assertTrue(expected.get("e").isArray());
+	}
+}
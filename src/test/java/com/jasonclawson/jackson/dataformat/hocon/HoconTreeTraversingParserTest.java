@@ -1,6 +1,11 @@
 package com.jasonclawson.jackson.dataformat.hocon;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigValueFactory;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -8,6 +13,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
@@ -91,4 +98,105 @@ public class HoconTreeTraversingParserTest {
 		Assert.assertEquals(0.0, c.value, .001);
 	}
 
+	@Test
+	public void testTextCharacters() throws IOException {
+		HoconTreeTraversingParser p = new HoconTreeTraversingParser(
+				ConfigFactory.parseString("a = \"some text\", b = x").root());
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		char[] buffer = null;
+		while (p.nextToken() != JsonToken.END_OBJECT) {
+			Assert.assertFalse(p.hasTextCharacters());
+			String text = p.getText();
+			char[] chars = p.getTextCharacters();
+			Assert.assertTrue(p.hasTextCharacters());
+			Assert.assertEquals(text, new String(chars, p.getTextOffset(), p.getTextLength()));
+			if (buffer != null) {
+				Assert.assertSame(buffer, chars);
+			}
+			buffer = chars;
+		}
+		Assert.assertNotNull(buffer);
+	}
+
+	@Test
+	public void testNumbers() throws IOException {
+		HoconTreeTraversingParser p = new HoconTreeTraversingParser(ConfigFactory.parseString(
+				"values = [ 42, 5000000000, 2.5, 3.14159265358979323846264338327950288, 123456789012345678901234567890.0 ]").root());
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		Assert.assertEquals(JsonToken.FIELD_NAME, p.nextToken());
+		Assert.assertEquals(JsonToken.START_ARRAY, p.nextToken());
+
+		Assert.assertEquals(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+		Assert.assertEquals(JsonParser.NumberType.INT, p.getNumberType());
+		Assert.assertEquals(42, p.getIntValue());
+		Assert.assertEquals(Integer.valueOf(42), p.getNumberValue());
+		Assert.assertEquals("42", p.getText());
+
+		Assert.assertEquals(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+		Assert.assertEquals(JsonParser.NumberType.LONG, p.getNumberType());
+		Assert.assertEquals(5000000000L, p.getLongValue());
+		Assert.assertEquals(BigInteger.valueOf(5000000000L), p.getBigIntegerValue());
+
+		Assert.assertEquals(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+		Assert.assertEquals(JsonParser.NumberType.DOUBLE, p.getNumberType());
+		Assert.assertEquals(2.5, p.getDoubleValue(), 0.0);
+		Assert.assertEquals(2, p.getIntValue());
+		Assert.assertEquals("2.5", p.getText());
+
+		Assert.assertEquals(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+		Assert.assertEquals(new BigDecimal("3.14159265358979323846264338327950288"), p.getDecimalValue());
+		Assert.assertEquals("3.14159265358979323846264338327950288", p.getText());
+
+		Assert.assertEquals(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+		Assert.assertEquals(new BigInteger("123456789012345678901234567890"), p.getBigIntegerValue());
+
+		Assert.assertEquals(JsonToken.END_ARRAY, p.nextToken());
+	}
+
+	@Test
+	public void testDecimalText() throws IOException {
+		ConfigObject root = ConfigFactory.parseString("a = 2.50").root()
+				.withValue("b", ConfigValueFactory.fromAnyRef(Double.valueOf(0.25)));
+		HoconTreeTraversingParser p = new HoconTreeTraversingParser(root);
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		while (p.nextToken() == JsonToken.FIELD_NAME) {
+			String name = p.getCurrentName();
+			Assert.assertEquals(JsonToken.VALUE_NUMBER_FLOAT, p.nextToken());
+			// source text where there is one, Double.toString otherwise
+			String expected = "a".equals(name) ? "2.50" : "0.25";
+			Assert.assertEquals(expected, p.getText());
+			Assert.assertSame(p.getText(), p.getText());
+			Assert.assertEquals(new BigDecimal(expected), p.getDecimalValue());
+		}
+	}
+
+	@Test
+	public void testReset() throws IOException {
+		ObjectMapper mapper = new ObjectMapper(new HoconFactory());
+		ConfigObject first = ConfigFactory.parseString(
+				"a { x = 1, y = [1.5, { z = true }] }\nb { x = 2 }\nc.0 = p\nc.1 = q").resolve().root();
+		ConfigObject second = ConfigFactory.parseString("list.1 = b\nlist.0 = a\nd { e { f = 5000000000 } }").root();
+		HoconTreeTraversingParser p = new HoconTreeTraversingParser(first, mapper);
+		Assert.assertEquals(mapper.readTree(new HoconTreeTraversingParser(first, mapper)), mapper.readTree(p));
+		p.reset(second);
+		Assert.assertEquals(mapper.readTree(new HoconTreeTraversingParser(second, mapper)), mapper.readTree(p));
+		Assert.assertSame(second, p.getConfigObject());
+		p.reset(new HoconDocument(first));
+		Assert.assertEquals(mapper.readTree(new HoconTreeTraversingParser(first, mapper)), mapper.readTree(p));
+
+		// siblings at the same depth share a cursor
+		p.reset(ConfigFactory.parseString("a { x = 1 }\nb { x = 2 }").root());
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		p.nextToken();
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		Assert.assertEquals(JsonToken.FIELD_NAME, p.nextToken());
+		Object context = p.getParsingContext();
+		Assert.assertEquals(JsonToken.VALUE_NUMBER_INT, p.nextToken());
+		Assert.assertSame(p.getTokenLocation(), p.getCurrentLocation());
+		Assert.assertEquals(JsonToken.END_OBJECT, p.nextToken());
+		p.nextToken();
+		Assert.assertEquals(JsonToken.START_OBJECT, p.nextToken());
+		Assert.assertEquals(JsonToken.FIELD_NAME, p.nextToken());
+		Assert.assertSame(context, p.getParsingContext());
+	}
 }
@@ -8,9 +8,11 @@ import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class TestArrays {
@@ -49,6 +51,17 @@ public class TestArrays {
         assertFalse("Should NOT be resolved to array :"+json, node.isArray());
     }
 
+    @Test
+    public void testIndexDetection() {
+        assertTrue(NumericIndexDetector.hasIndexKeys(Arrays.asList("1", "0")));
+        assertTrue(NumericIndexDetector.hasIndexKeys(Arrays.asList("+1", "-0")));
+        assertFalse(NumericIndexDetector.hasIndexKeys(Arrays.asList("0", "2")));
+        assertFalse(NumericIndexDetector.hasIndexKeys(Arrays.asList("0", "a")));
+        assertFalse(NumericIndexDetector.hasIndexKeys(Arrays.asList("0", "-1")));
+        assertFalse(NumericIndexDetector.hasIndexKeys(Arrays.asList("0", "99999999999")));
+        assertFalse(NumericIndexDetector.hasIndexKeys(Arrays.<String>asList()));
+    }
+
     @Test
     public void testSymmetry() throws IOException {
         doTestSymmetry();
@@ -65,14 +78,12 @@ public class TestArrays {
         for (String s : values) {
             list.add(s);
         }
-        // TODO use hocon mapper for writes when available
-        ObjectMapper jsonmapper = new ObjectMapper();
         ObjectMapper hoconmapper = new ObjectMapper(new HoconFactory());
         Container c1 = new Container();
         c1.list = list;
         
-        String json = jsonmapper.writeValueAsString(c1);
-        Container c2 = hoconmapper.readValue(json, Container.class);
+        String hocon = hoconmapper.writeValueAsString(c1);
+        Container c2 = hoconmapper.readValue(hocon, Container.class);
         
         assertEquals(c1,c2);
     }
@@ -0,0 +1,119 @@
+package com.jasonclawson.jackson.dataformat.hocon;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.CharConversionException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class UTF8ReaderTest {
+
+	private static final String[] PIECES = { "key = value\n", "é", "ß", "日本語", "😀", "a", "        ", "0123456789abcdef",
+			"a long run of plain ASCII, long enough to be decoded in bulk by the reader, which it only does for runs of some length" };
+
+	/**
+	 * Stream handing out a limited number of bytes per read, to split characters
+	 * and ASCII runs across reads.
+	 */
+	private static class TrickleInputStream extends InputStream {
+		private final byte[] data;
+		private final int chunk;
+		private int pos;
+
+		TrickleInputStream(byte[] data, int chunk) {
+			this.data = data;
+			this.chunk = chunk;
+		}
+
+		@Override
+		public int read() {
+			return (pos < data.length) ? (data[pos++] & 0xFF) : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (pos >= data.length) {
+				return -1;
+			}
+			int count = Math.min(Math.min(len, chunk), data.length - pos);
+			System.arraycopy(data, pos, b, off, count);
+			pos += count;
+			return count;
+		}
+	}
+
+	private static String decode(Reader r, int readSize) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		char[] buf = new char[readSize];
+		int count;
+		while ((count = r.read(buf, 0, buf.length)) >= 0) {
+			sb.append(buf, 0, count);
+		}
+		r.close();
+		return sb.toString();
+	}
+
+	@Test
+	public void testDecoding() throws IOException {
+		Random random = new Random(42);
+		for (int round = 0; round < 200; ++round) {
+			StringBuilder sb = new StringBuilder();
+			int pieces = random.nextInt(100);
+			for (int i = 0; i < pieces; ++i) {
+				sb.append(PIECES[random.nextInt(PIECES.length)]);
+			}
+			String expected = sb.toString();
+			byte[] bytes = expected.getBytes(StandardCharsets.UTF_8);
+			int bufferSize = UTF8Reader.MIN_BUFFER_SIZE + random.nextInt(random.nextBoolean() ? 40 : 2000);
+			int readSize = 1 + random.nextInt(random.nextBoolean() ? 50 : 2000);
+			String label = "round " + round + ", buffer " + bufferSize + ", read " + readSize;
+
+			Assert.assertEquals(label, expected, decode(new UTF8Reader(bytes, 0, bytes.length, true), readSize));
+			UTF8Reader r = new UTF8Reader(new TrickleInputStream(bytes, 1 + random.nextInt(1000)), true, bufferSize,
+					HoconBufferPool.ThreadLocalPool.INSTANCE);
+			Assert.assertEquals(label, expected, decode(r, readSize));
+			Assert.assertEquals(label, bytes.length, r.getBytesRead());
+			Assert.assertEquals(label, expected.length(), r.getCharsRead());
+		}
+	}
+
+	@Test
+	public void testInvalidAfterAsciiRun() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100; ++i) {
+			sb.append("0123456789abcdef");
+		}
+		byte[] bytes = sb.toString().getBytes(StandardCharsets.US_ASCII);
+		bytes[1000] = (byte) 0xFF;
+		try {
+			decode(new UTF8Reader(new ByteArrayInputStream(bytes), true), 100);
+			Assert.fail("expected invalid byte to be reported");
+		} catch (CharConversionException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("0xff"));
+		}
+	}
+
+	@Test
+	public void testFactoryBufferSize() throws IOException {
+		HoconFactory factory = new HoconFactory().setInputBufferSize(5);
+		Assert.assertEquals(5, factory.getInputBufferSize());
+		Assert.assertEquals(5, factory.copy().getInputBufferSize());
+		ObjectMapper mapper = new ObjectMapper(factory);
+		JsonNode node = mapper.readTree(new ByteArrayInputStream("a = \"日本語\", b = [1, 2]".getBytes(StandardCharsets.UTF_8)));
+		Assert.assertEquals("日本語", node.path("a").asText());
+		Assert.assertEquals(2, node.path("b").size());
+		try {
+			factory.setInputBufferSize(3);
+			Assert.fail("expected too small a buffer to be rejected");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}